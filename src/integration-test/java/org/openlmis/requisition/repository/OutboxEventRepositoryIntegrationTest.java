@@ -0,0 +1,84 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.repository;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.Test;
+import org.openlmis.requisition.domain.outbox.OutboxEvent;
+import org.openlmis.requisition.domain.outbox.OutboxEventStatus;
+import org.openlmis.requisition.testutils.OutboxEventDataBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+public class OutboxEventRepositoryIntegrationTest
+    extends BaseCrudRepositoryIntegrationTest<OutboxEvent> {
+
+  @Autowired
+  private OutboxEventRepository repository;
+
+  @Override
+  OutboxEventRepository getRepository() {
+    return this.repository;
+  }
+
+  @Override
+  OutboxEvent generateInstance() {
+    return new OutboxEventDataBuilder().buildAsNew();
+  }
+
+  @Test
+  public void shouldFindEventsByStatus() {
+    OutboxEvent pending = repository.save(generateInstance());
+    OutboxEvent delivered = generateInstance();
+    delivered.markDelivered(ZonedDateTime.now());
+    repository.save(delivered);
+
+    Page<OutboxEvent> result = repository
+        .findByStatus(OutboxEventStatus.PENDING, PageRequest.of(0, 10));
+
+    assertThat(result.getContent(), contains(pending));
+    assertThat(repository.countByStatus(OutboxEventStatus.DELIVERED), is(1L));
+  }
+
+  @Test
+  public void shouldFindOnlyDuePendingEvents() {
+    ZonedDateTime now = ZonedDateTime.now();
+    final OutboxEvent due = repository.save(new OutboxEventDataBuilder()
+        .withNextAttemptDate(now.minusMinutes(1))
+        .buildAsNew());
+    repository.save(new OutboxEventDataBuilder()
+        .withNextAttemptDate(now.plusMinutes(1))
+        .buildAsNew());
+
+    OutboxEvent dead = new OutboxEventDataBuilder()
+        .withNextAttemptDate(now.minusMinutes(1))
+        .buildAsNew();
+    dead.markFailed("error", now, now.minusMinutes(1), true);
+    repository.save(dead);
+
+    List<OutboxEvent> result = repository.findDueForUpdate(now, 10);
+
+    assertThat(result, hasSize(1));
+    assertThat(result, contains(due));
+  }
+}
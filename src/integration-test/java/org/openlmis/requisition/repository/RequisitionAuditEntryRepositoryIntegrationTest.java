@@ -0,0 +1,115 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.repository;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.Test;
+import org.openlmis.requisition.domain.audit.RequisitionAuditEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class RequisitionAuditEntryRepositoryIntegrationTest
+    extends BaseCrudRepositoryIntegrationTest<RequisitionAuditEntry> {
+  private static final String AUTHOR = "author";
+  private static final String ERROR = "error";
+  private static final String STATE = "{}";
+  private static final int MAX_ATTEMPTS = 2;
+
+  @Autowired
+  private RequisitionAuditEntryRepository repository;
+
+  @Override
+  RequisitionAuditEntryRepository getRepository() {
+    return this.repository;
+  }
+
+  @Override
+  RequisitionAuditEntry generateInstance() {
+    return RequisitionAuditEntry.saved(UUID.randomUUID(), 1L, AUTHOR, STATE, ZonedDateTime.now());
+  }
+
+  @Test
+  public void shouldFindEntriesOfRequisitionInOrder() {
+    UUID requisitionId = UUID.randomUUID();
+    ZonedDateTime now = ZonedDateTime.now();
+
+    RequisitionAuditEntry second = repository
+        .save(RequisitionAuditEntry.saved(requisitionId, 2L, AUTHOR, STATE, now));
+    RequisitionAuditEntry first = repository
+        .save(RequisitionAuditEntry.saved(requisitionId, 1L, AUTHOR, STATE, now));
+    RequisitionAuditEntry deletion = repository
+        .save(RequisitionAuditEntry.deleted(requisitionId, AUTHOR, now));
+    RequisitionAuditEntry other = repository.save(generateInstance());
+
+    List<RequisitionAuditEntry> result = repository.findNextForUpdate(MAX_ATTEMPTS, 10);
+    assertThat(result, contains(first, other));
+    repository.deleteAll(result);
+
+    result = repository.findNextForUpdate(MAX_ATTEMPTS, 10);
+    assertThat(result, contains(second));
+    repository.deleteAll(result);
+
+    assertThat(repository.findNextForUpdate(MAX_ATTEMPTS, 10), contains(deletion));
+  }
+
+  @Test
+  public void shouldLimitNumberOfFoundEntries() {
+    RequisitionAuditEntry oldest = repository.save(generateInstance());
+    repository.save(generateInstance());
+
+    assertThat(repository.findNextForUpdate(MAX_ATTEMPTS, 1), contains(oldest));
+  }
+
+  @Test
+  public void shouldSkipParkedEntriesWithoutBlockingLaterEntries() {
+    UUID requisitionId = UUID.randomUUID();
+    ZonedDateTime now = ZonedDateTime.now();
+
+    RequisitionAuditEntry parked = RequisitionAuditEntry
+        .saved(requisitionId, 1L, AUTHOR, STATE, now);
+    parked.markFailed(ERROR);
+    parked.markFailed(ERROR);
+    repository.save(parked);
+
+    RequisitionAuditEntry failed = RequisitionAuditEntry
+        .saved(requisitionId, 2L, AUTHOR, STATE, now);
+    failed.markFailed(ERROR);
+    failed = repository.save(failed);
+
+    RequisitionAuditEntry last = repository
+        .save(RequisitionAuditEntry.saved(requisitionId, 3L, AUTHOR, STATE, now));
+
+    assertThat(repository.findNextForUpdate(MAX_ATTEMPTS, 10), contains(failed));
+    assertThat(repository.countByAttemptsGreaterThanEqual(MAX_ATTEMPTS), is(1L));
+
+    repository.delete(failed);
+    assertThat(repository.findNextForUpdate(MAX_ATTEMPTS, 10), contains(last));
+  }
+
+  @Test
+  public void shouldFindEntryById() {
+    RequisitionAuditEntry entry = repository.save(generateInstance());
+
+    assertThat(repository.findByIdForUpdate(entry.getId()), is(Optional.of(entry)));
+    assertThat(repository.findByIdForUpdate(UUID.randomUUID()), is(Optional.empty()));
+  }
+}
@@ -27,7 +27,9 @@ import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isIn;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -62,6 +64,7 @@ import org.openlmis.requisition.domain.RequisitionTemplateColumn;
 import org.openlmis.requisition.domain.RequisitionTemplateColumnDataBuilder;
 import org.openlmis.requisition.domain.RequisitionTemplateDataBuilder;
 import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionApprovalDate;
 import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
 import org.openlmis.requisition.domain.requisition.RequisitionLineItem;
 import org.openlmis.requisition.domain.requisition.RequisitionLineItemDataBuilder;
@@ -73,10 +76,12 @@ import org.openlmis.requisition.domain.requisition.StockAdjustmentDataBuilder;
 import org.openlmis.requisition.dto.OrderableDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.repository.custom.DefaultRequisitionSearchParams;
+import org.openlmis.requisition.repository.custom.RequisitionCursor;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
 import org.openlmis.requisition.testutils.AvailableRequisitionColumnDataBuilder;
 import org.openlmis.requisition.testutils.DefaultRequisitionSearchParamsDataBuilder;
 import org.openlmis.requisition.testutils.StatusChangeDataBuilder;
+import org.openlmis.requisition.utils.KeysetPage;
 import org.openlmis.requisition.utils.Pagination;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -363,6 +368,74 @@ public class RequisitionRepositoryIntegrationTest
     });
   }
 
+  @Test
+  public void shouldFindApprovalDatesByProgramAndPeriods() {
+    // given
+    UUID programId = UUID.randomUUID();
+    UUID periodId = UUID.randomUUID();
+
+    Requisition approved = generateInstance(UUID.randomUUID(), programId, periodId);
+    approved.setEmergency(false);
+    approved.getStatusChanges().add(new StatusChangeDataBuilder()
+        .withRequisition(approved)
+        .withStatus(APPROVED)
+        .buildAsNew());
+    approved = repository.save(approved);
+
+    Requisition notApproved = generateInstance(UUID.randomUUID(), programId, periodId);
+    notApproved.setEmergency(false);
+    notApproved = repository.save(notApproved);
+
+    Requisition otherPeriod = generateInstance(UUID.randomUUID(), programId, UUID.randomUUID());
+    otherPeriod.setEmergency(false);
+    repository.save(otherPeriod);
+
+    // when
+    List<RequisitionApprovalDate> found = repository
+        .searchApprovalDates(programId, singleton(periodId), false);
+
+    // then
+    assertThat(found, hasSize(2));
+    assertThat(found, hasItem(allOf(
+        hasProperty("requisitionId", is(approved.getId())),
+        hasProperty("facilityId", is(approved.getFacilityId())),
+        hasProperty("processingPeriodId", is(periodId)),
+        hasProperty("approvedDate", notNullValue()))));
+    assertThat(found, hasItem(allOf(
+        hasProperty("requisitionId", is(notApproved.getId())),
+        hasProperty("approvedDate", nullValue()))));
+  }
+
+  @Test
+  public void shouldFindFacilityIdsOfRequisitionsWithGivenStatuses() {
+    // given
+    UUID programId = UUID.randomUUID();
+    UUID periodId = UUID.randomUUID();
+
+    Requisition approved = generateInstance(UUID.randomUUID(), programId, periodId);
+    approved.setStatus(APPROVED);
+    approved = repository.save(approved);
+
+    Requisition released = generateInstance(UUID.randomUUID(), programId, periodId);
+    released.setStatus(RELEASED);
+    released = repository.save(released);
+
+    Requisition submitted = generateInstance(UUID.randomUUID(), programId, periodId);
+    submitted.setStatus(SUBMITTED);
+    repository.save(submitted);
+
+    Requisition otherPeriod = generateInstance(UUID.randomUUID(), programId, UUID.randomUUID());
+    otherPeriod.setStatus(APPROVED);
+    repository.save(otherPeriod);
+
+    // when
+    Set<UUID> found = repository.findFacilityIdsByProgramIdAndProcessingPeriodIdAndStatusIn(
+        programId, periodId, EnumSet.of(APPROVED, RELEASED));
+
+    // then
+    assertThat(found, is(Sets.newHashSet(approved.getFacilityId(), released.getFacilityId())));
+  }
+
   @Test
   public void searchShouldExcludeRequisitionsWithNoMatchingPermissionStrings() {
     // given
@@ -951,6 +1024,73 @@ public class RequisitionRepositoryIntegrationTest
         .compareTo(receivedRequisitions.get(1).getCreatedDate()) > 0);
   }
 
+  @Test
+  public void searchShouldReturnPagesAfterCursor() {
+    RequisitionSearchParams searchParams = new DefaultRequisitionSearchParams();
+    RequisitionCursor cursor = RequisitionCursor.first(Sort.by(Direction.DESC, "createdDate"));
+    List<Requisition> receivedRequisitions = new ArrayList<>();
+
+    KeysetPage<Requisition> page = repository.searchRequisitions(searchParams,
+        userPermissionStrings, programNodePairs, cursor, 2, true);
+    receivedRequisitions.addAll(page.getContent());
+
+    assertEquals(2, page.getNumberOfElements());
+    assertEquals(Long.valueOf(5), page.getTotalElements());
+    assertFalse(page.isLast());
+
+    while (!page.isLast()) {
+      page = repository.searchRequisitions(searchParams, userPermissionStrings,
+          programNodePairs, RequisitionCursor.decode(page.getNextCursor()), 2, false);
+      receivedRequisitions.addAll(page.getContent());
+
+      assertThat(page.getTotalElements(), is(nullValue()));
+    }
+
+    assertEquals(5, receivedRequisitions.size());
+    assertEquals(5, receivedRequisitions.stream().map(Requisition::getId).distinct().count());
+
+    for (int i = 1; i < receivedRequisitions.size(); ++i) {
+      assertTrue(receivedRequisitions.get(i - 1).getCreatedDate()
+          .compareTo(receivedRequisitions.get(i).getCreatedDate()) >= 0);
+    }
+  }
+
+  @Test
+  public void searchShouldReturnAllRequisitionsAfterCursorIfPageSizeIsUnbounded() {
+    KeysetPage<Requisition> page = repository.searchRequisitions(
+        new DefaultRequisitionSearchParams(), userPermissionStrings, programNodePairs,
+        RequisitionCursor.first(Sort.unsorted()), Integer.MAX_VALUE, false);
+
+    assertEquals(5, page.getNumberOfElements());
+    assertTrue(page.isLast());
+  }
+
+  @Test
+  public void searchByProgramSupervisoryNodePairsShouldReturnPagesAfterCursor() {
+    requisitions.forEach(requisition -> requisition.setStatus(IN_APPROVAL));
+    repository.saveAll(requisitions);
+
+    RequisitionCursor cursor = RequisitionCursor.first(Sort.unsorted());
+
+    KeysetPage<Requisition> firstPage = repository
+        .searchApprovableRequisitionsByProgramSupervisoryNodePairs(programNodePairs, cursor, 3,
+            false);
+
+    assertEquals(3, firstPage.getNumberOfElements());
+    assertThat(firstPage.getTotalElements(), is(nullValue()));
+    assertThat(firstPage.getNextCursor(), is(notNullValue()));
+
+    KeysetPage<Requisition> secondPage = repository
+        .searchApprovableRequisitionsByProgramSupervisoryNodePairs(programNodePairs,
+            RequisitionCursor.decode(firstPage.getNextCursor()), 3, true);
+
+    assertEquals(2, secondPage.getNumberOfElements());
+    assertEquals(Long.valueOf(5), secondPage.getTotalElements());
+    assertTrue(secondPage.isLast());
+    secondPage.getContent().forEach(requisition ->
+        assertThat(requisition, is(not(isIn(firstPage.getContent())))));
+  }
+
   @Test(expected = PersistenceException.class)
   public void shouldNotAllowMultipleReasonsOfTheSameTypeInSingleLineItem() {
     UUID reasonId = UUID.randomUUID();
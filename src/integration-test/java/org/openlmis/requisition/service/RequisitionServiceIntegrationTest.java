@@ -45,23 +45,26 @@ import com.jayway.restassured.config.RestAssuredConfig;
 import guru.nidi.ramltester.RamlDefinition;
 import guru.nidi.ramltester.RamlLoaders;
 import guru.nidi.ramltester.restassured.RestAssuredClient;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.openlmis.requisition.domain.AvailableRequisitionColumn;
 import org.openlmis.requisition.domain.RequisitionTemplate;
 import org.openlmis.requisition.domain.RequisitionTemplateColumn;
 import org.openlmis.requisition.domain.RequisitionTemplateColumnDataBuilder;
+import org.openlmis.requisition.domain.outbox.OutboxEvent;
+import org.openlmis.requisition.domain.outbox.OutboxEventType;
 import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionBuilder;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
@@ -74,6 +77,7 @@ import org.openlmis.requisition.dto.SupplyLineDto;
 import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.errorhandling.ValidationResult;
 import org.openlmis.requisition.repository.AvailableRequisitionColumnRepository;
+import org.openlmis.requisition.repository.OutboxEventRepository;
 import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.repository.RequisitionTemplateRepository;
 import org.openlmis.requisition.service.fulfillment.OrderFulfillmentService;
@@ -116,9 +120,6 @@ public class RequisitionServiceIntegrationTest {
   @LocalServerPort
   private int serverPort;
 
-  @Captor
-  private ArgumentCaptor<List<OrderDto>> ordersCaptor;
-
   @MockBean
   private PermissionService permissionService;
 
@@ -143,6 +144,9 @@ public class RequisitionServiceIntegrationTest {
   @Autowired
   private RequisitionRepository requisitionRepository;
 
+  @Autowired
+  private OutboxEventRepository outboxEventRepository;
+
   @MockBean
   private RequisitionStatusProcessor requisitionStatusProcessor;
 
@@ -201,11 +205,11 @@ public class RequisitionServiceIntegrationTest {
     given(fulfillmentFacilitiesReferenceDataService.getFulfillmentFacilities(
         any(UUID.class), eq(right.getId()))).willReturn(managedFacilities);
 
-    doNothing().when(orderFulfillmentService).create(ordersCaptor.capture());
+    doNothing().when(orderFulfillmentService).create(anyList(), any(UUID.class));
   }
 
   @Test
-  public void shouldSuccessfullySaveAndBuildOrder() {
+  public void shouldSuccessfullySaveAndBuildOrder() throws IOException {
     final long reqsCountBefore = requisitionRepository.count();
     Requisition requisition = mockAndSaveRequisition();
     ReleasableRequisitionBatchDto releaseDto = generateReleaseRequisitionDto(
@@ -223,14 +227,14 @@ public class RequisitionServiceIntegrationTest {
         .statusCode(HttpStatus.CREATED.value());
 
     final long reqsCountAfter = requisitionRepository.count();
-    List<OrderDto> orders = ordersCaptor.getValue();
+    List<OrderDto> orders = findPublishedOrders(requisition);
     assertThat(orders, hasSize(1));
     assertEquals(orders.get(0).getExternalId(), requisition.getId());
     assertEquals(reqsCountBefore + 1, reqsCountAfter);
   }
 
   @Test
-  public void shouldSuccessfullySaveAndBuildOrders() {
+  public void shouldSuccessfullySaveAndBuildOrders() throws IOException {
     final long reqsCountBefore = requisitionRepository.count();
     Requisition requisition = mockAndSaveRequisition();
     Requisition requisition2 = mockAndSaveRequisition();
@@ -249,7 +253,7 @@ public class RequisitionServiceIntegrationTest {
         .statusCode(HttpStatus.CREATED.value());
 
     final long reqsCountAfter = requisitionRepository.count();
-    List<OrderDto> orders = ordersCaptor.getValue();
+    List<OrderDto> orders = findPublishedOrders(requisition, requisition2);
     assertThat(orders, hasSize(2));
     assertEquals(orders.get(0).getExternalId(), requisition.getId());
     assertEquals(orders.get(1).getExternalId(), requisition2.getId());
@@ -257,7 +261,7 @@ public class RequisitionServiceIntegrationTest {
   }
 
   @Test
-  public void shouldNotBuildOrdersIfSaveFailed() {
+  public void shouldNotBuildOrdersIfSaveFailed() throws IOException {
     Requisition requisition = mockAndSaveRequisition();
     Requisition requisition2 = mockAndSaveRequisition();
     ReleasableRequisitionBatchDto releaseDto = generateReleaseRequisitionDto(Arrays.asList(
@@ -276,7 +280,27 @@ public class RequisitionServiceIntegrationTest {
         .then()
         .statusCode(HttpStatus.BAD_REQUEST.value());
 
-    verify(orderFulfillmentService, times(0)).create(anyList());
+    assertThat(findPublishedOrders(requisition, requisition2), hasSize(0));
+    verify(orderFulfillmentService, times(0)).create(anyList(), any(UUID.class));
+  }
+
+  private List<OrderDto> findPublishedOrders(Requisition... requisitions) throws IOException {
+    Set<UUID> requisitionIds = Arrays
+        .stream(requisitions)
+        .map(Requisition::getId)
+        .collect(Collectors.toSet());
+    List<OrderDto> orders = new ArrayList<>();
+
+    for (OutboxEvent event : outboxEventRepository.findAll()) {
+      if (OutboxEventType.ORDERS == event.getType()) {
+        Arrays
+            .stream(objectMapper.readValue(event.getPayload(), OrderDto[].class))
+            .filter(order -> requisitionIds.contains(order.getExternalId()))
+            .forEach(orders::add);
+      }
+    }
+
+    return orders;
   }
 
   /**
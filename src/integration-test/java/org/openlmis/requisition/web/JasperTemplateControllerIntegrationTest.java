@@ -20,6 +20,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
@@ -28,6 +29,7 @@ import static org.mockito.Mockito.verify;
 
 import guru.nidi.ramltester.junit.RamlMatchers;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Optional;
 import java.util.UUID;
@@ -124,6 +126,7 @@ public class JasperTemplateControllerIntegrationTest extends BaseWebIntegrationT
 
     // then
     verify(jasperTemplateRepository, atLeastOnce()).delete(eq(template));
+    verify(jasperReportsViewService).evictTemplate(template.getId());
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
@@ -238,9 +241,11 @@ public class JasperTemplateControllerIntegrationTest extends BaseWebIntegrationT
     JasperTemplate template = generateTemplate();
 
     given(jasperTemplateRepository.findById(template.getId())).willReturn(Optional.of(template));
-    given(jasperReportsViewService
-        .generateReport(any(JasperTemplate.class), anyMap()))
-        .willReturn(new byte[1]);
+    willAnswer(invocation -> {
+      invocation.getArgument(2, OutputStream.class).write(new byte[1]);
+      return null;
+    }).given(jasperReportsViewService)
+        .generateTemplateReport(any(JasperTemplate.class), anyMap(), any(OutputStream.class));
 
     // when
     restAssured.given()
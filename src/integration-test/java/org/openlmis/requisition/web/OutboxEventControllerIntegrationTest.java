@@ -0,0 +1,133 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.web;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doReturn;
+
+import guru.nidi.ramltester.junit.RamlMatchers;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.requisition.domain.outbox.OutboxEvent;
+import org.openlmis.requisition.domain.outbox.OutboxEventStatus;
+import org.openlmis.requisition.dto.OutboxEventDto;
+import org.openlmis.requisition.errorhandling.ValidationResult;
+import org.openlmis.requisition.exception.ContentNotFoundMessageException;
+import org.openlmis.requisition.i18n.MessageKeys;
+import org.openlmis.requisition.service.PageDto;
+import org.openlmis.requisition.service.outbox.OutboxService;
+import org.openlmis.requisition.testutils.OutboxEventDataBuilder;
+import org.openlmis.requisition.utils.Pagination;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+public class OutboxEventControllerIntegrationTest extends BaseWebIntegrationTest {
+  private static final String RESOURCE_URL = "/api/outboxEvents";
+  private static final String REPLAY_URL = RESOURCE_URL + "/{id}/replay";
+  private static final String MESSAGE_KEY = "messageKey";
+
+  @MockBean
+  private OutboxService outboxService;
+
+  private OutboxEvent event = new OutboxEventDataBuilder().build();
+  private Pageable pageable = PageRequest.of(0, 10);
+
+  @Before
+  public void setUp() {
+    doReturn(ValidationResult.success()).when(permissionService).canManageOutbox();
+  }
+
+  @Test
+  public void shouldReturnPageOfOutboxEvents() {
+    given(outboxService.search(eq(OutboxEventStatus.PENDING), any(Pageable.class)))
+        .willReturn(Pagination.getPage(singletonList(event), pageable));
+
+    PageDto resultPage = restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .queryParam("status", OutboxEventStatus.PENDING)
+        .queryParam("page", pageable.getPageNumber())
+        .queryParam("size", pageable.getPageSize())
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(HttpStatus.OK.value())
+        .extract().as(PageDto.class);
+
+    assertEquals(1, resultPage.getContent().size());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotReturnOutboxEventsIfUserHasNoRight() {
+    doReturn(ValidationResult.noPermission(PERMISSION_ERROR_MESSAGE,
+        "REQUISITION_TEMPLATES_MANAGE")).when(permissionService).canManageOutbox();
+
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(HttpStatus.FORBIDDEN.value())
+        .body(MESSAGE_KEY, is(PERMISSION_ERROR_MESSAGE));
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldReplayOutboxEvent() {
+    given(outboxService.replay(event.getId())).willReturn(event);
+
+    OutboxEventDto response = restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .pathParam("id", event.getId())
+        .when()
+        .post(REPLAY_URL)
+        .then()
+        .statusCode(HttpStatus.OK.value())
+        .extract().as(OutboxEventDto.class);
+
+    assertEquals(event.getId(), response.getId());
+    assertEquals(OutboxEventStatus.PENDING, response.getStatus());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldReturnNotFoundWhenReplayingNonExistentOutboxEvent() {
+    UUID id = UUID.randomUUID();
+    given(outboxService.replay(id)).willThrow(
+        new ContentNotFoundMessageException(MessageKeys.ERROR_OUTBOX_EVENT_NOT_FOUND, id));
+
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .pathParam("id", id)
+        .when()
+        .post(REPLAY_URL)
+        .then()
+        .statusCode(HttpStatus.NOT_FOUND.value());
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+}
@@ -80,6 +80,7 @@ import org.openlmis.requisition.domain.RequisitionTemplate;
 import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.openlmis.requisition.domain.requisition.RequisitionValidationService;
+import org.openlmis.requisition.domain.requisition.RequisitionVersion;
 import org.openlmis.requisition.domain.requisition.StockAdjustmentReason;
 import org.openlmis.requisition.domain.requisition.VersionEntityReference;
 import org.openlmis.requisition.dto.BasicRequisitionDto;
@@ -99,6 +100,7 @@ import org.openlmis.requisition.errorhandling.ValidationResult;
 import org.openlmis.requisition.exception.ValidationMessageException;
 import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.i18n.MessageService;
+import org.openlmis.requisition.repository.custom.RequisitionCursor;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
 import org.openlmis.requisition.service.DataRetrievalException;
 import org.openlmis.requisition.service.PageDto;
@@ -110,6 +112,7 @@ import org.openlmis.requisition.testutils.OrderableDtoDataBuilder;
 import org.openlmis.requisition.testutils.ProgramDtoDataBuilder;
 import org.openlmis.requisition.testutils.ReleasableRequisitionDtoDataBuilder;
 import org.openlmis.requisition.utils.DateHelper;
+import org.openlmis.requisition.utils.KeysetPage;
 import org.openlmis.requisition.utils.Message;
 import org.openlmis.requisition.utils.Pagination;
 import org.postgresql.util.PSQLException;
@@ -161,6 +164,8 @@ public class RequisitionControllerIntegrationTest extends BaseRequisitionWebInte
   private static final String FACILITY_CODE_ASC = "facilityCode,asc";
   private static final String MODIFIED_DATE_FROM = "modifiedDateFrom";
   private static final String MODIFIED_DATE_TO = "modifiedDateTo";
+  private static final String CURSOR = "cursor";
+  private static final int CURSOR_MAX_PAGE_SIZE = 500;
 
   @Autowired
   private MessageService messageService;
@@ -225,6 +230,33 @@ public class RequisitionControllerIntegrationTest extends BaseRequisitionWebInte
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldNotGetChosenRequisitionIfItHasNotBeenModified() {
+    // given
+    UUID requisitionId = UUID.randomUUID();
+    RequisitionVersion version = new RequisitionVersion(requisitionId, 1L,
+        UUID.randomUUID(), UUID.randomUUID());
+    doReturn(Optional.of(version)).when(requisitionRepository).findVersionById(requisitionId);
+    doReturn(ValidationResult.success())
+        .when(permissionService).canViewRequisitionByRights(version);
+
+    // when
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .header(HttpHeaders.IF_NONE_MATCH, "W/1")
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .pathParam("id", requisitionId)
+        .when()
+        .get(ID_URL)
+        .then()
+        .statusCode(304)
+        .header(HttpHeaders.ETAG, "W/1");
+
+    // then
+    verify(requisitionRepository, never()).findById(requisitionId);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldNotGetChosenRequisitionWhenUserHasNoRightForView() {
     // given
@@ -489,6 +521,31 @@ public class RequisitionControllerIntegrationTest extends BaseRequisitionWebInte
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldCapPageSizeIfRequisitionsAreSearchedByCursorWithoutSize() {
+    // given
+    Requisition requisition = generateRequisition();
+
+    given(requisitionService.searchRequisitions(any(RequisitionSearchParams.class),
+        any(RequisitionCursor.class), eq(CURSOR_MAX_PAGE_SIZE), eq(false)))
+        .willReturn(new KeysetPage<>(singletonList(requisition), CURSOR_MAX_PAGE_SIZE, null,
+            null));
+
+    // when
+    Integer size = restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .queryParam(CURSOR, "")
+        .when()
+        .get(SEARCH_URL)
+        .then()
+        .statusCode(200)
+        .extract().path(SIZE);
+
+    // then
+    assertEquals(CURSOR_MAX_PAGE_SIZE, size.intValue());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   // POST /api/requisitions/{id}/submit
 
   @Test
@@ -1858,6 +1915,32 @@ public class RequisitionControllerIntegrationTest extends BaseRequisitionWebInte
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldCapPageSizeIfRequisitionsForApprovalAreRetrievedByCursorWithoutSize() {
+    // given
+    Requisition requisition = generateRequisition(RequisitionStatus.AUTHORIZED);
+
+    given(requisitionService.getRequisitionsForApproval(eq(user), eq(null),
+        any(RequisitionCursor.class), eq(CURSOR_MAX_PAGE_SIZE), eq(false)))
+        .willReturn(new KeysetPage<>(singletonList(requisition), CURSOR_MAX_PAGE_SIZE, null,
+            null));
+
+    // when
+    Integer size = restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .queryParam(CURSOR, "")
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .when()
+        .get(REQ_FOR_APPROVAL_URL)
+        .then()
+        .statusCode(200)
+        .extract().path(SIZE);
+
+    // then
+    assertEquals(CURSOR_MAX_PAGE_SIZE, size.intValue());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   // GET /api/requisitions/requisitionsForConvert
 
   @Test
@@ -0,0 +1,111 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.web;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableMap;
+import guru.nidi.ramltester.junit.RamlMatchers;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.requisition.errorhandling.ValidationResult;
+import org.openlmis.requisition.i18n.MessageKeys;
+import org.openlmis.requisition.security.CustomTokenServices;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+public class TokenCacheControllerIntegrationTest extends BaseWebIntegrationTest {
+  private static final String RESOURCE_URL = "/api/tokenCache";
+  private static final String EVICT_URL = RESOURCE_URL + "/evict";
+  private static final String MESSAGE_KEY = "messageKey";
+  private static final String REVOKED_TOKEN = "revoked-token";
+
+  @SpyBean
+  private CustomTokenServices tokenServices;
+
+  @Before
+  public void setUp() {
+    doReturn(ValidationResult.success()).when(permissionService).canManageTokenCache();
+  }
+
+  @Test
+  public void shouldEvictAccessToken() {
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(ImmutableMap.of(TokenCacheController.ACCESS_TOKEN, REVOKED_TOKEN))
+        .when()
+        .post(EVICT_URL)
+        .then()
+        .statusCode(HttpStatus.NO_CONTENT.value());
+
+    verify(tokenServices).evict(REVOKED_TOKEN);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotEvictIfAccessTokenIsMissing() {
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(Collections.emptyMap())
+        .when()
+        .post(EVICT_URL)
+        .then()
+        .statusCode(HttpStatus.BAD_REQUEST.value())
+        .body(MESSAGE_KEY, is(MessageKeys.ERROR_TOKEN_CACHE_ACCESS_TOKEN_REQUIRED));
+
+    verify(tokenServices, never()).evict(anyString());
+  }
+
+  @Test
+  public void shouldEvictAllAccessTokens() {
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .when()
+        .delete(RESOURCE_URL)
+        .then()
+        .statusCode(HttpStatus.NO_CONTENT.value());
+
+    verify(tokenServices).evictAll();
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotEvictAccessTokensIfUserHasNoRight() {
+    doReturn(ValidationResult.noPermission(PERMISSION_ERROR_MESSAGE,
+        "REQUISITION_TEMPLATES_MANAGE")).when(permissionService).canManageTokenCache();
+
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .when()
+        .delete(RESOURCE_URL)
+        .then()
+        .statusCode(HttpStatus.FORBIDDEN.value())
+        .body(MESSAGE_KEY, is(PERMISSION_ERROR_MESSAGE));
+
+    verify(tokenServices, never()).evictAll();
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+}
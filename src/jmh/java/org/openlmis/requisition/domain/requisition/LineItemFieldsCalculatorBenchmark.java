@@ -0,0 +1,113 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.requisition;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.joda.money.CurrencyUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openlmis.requisition.domain.RequisitionTemplate;
+import org.openlmis.requisition.dto.ApprovedProductDto;
+import org.openlmis.requisition.dto.OrderableDto;
+import org.openlmis.requisition.dto.ProgramOrderableDto;
+import org.openlmis.requisition.dto.VersionIdentityDto;
+
+/**
+ * Measures the {@link LineItemFieldsCalculator} calculations that are made for every line item
+ * of a requisition when its template fields are recalculated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LineItemFieldsCalculatorBenchmark {
+
+  @Param({"50", "500", "5000"})
+  private int lineItemCount;
+
+  private RequisitionTemplate template;
+  private List<RequisitionLineItem> lineItems;
+  private List<StockAdjustmentReason> reasons;
+  private ProgramOrderableDto[] programOrderables;
+  private Double[] maxPeriodsOfStock;
+  private CurrencyUnit currency;
+
+  /**
+   * Creates line items and looks up the products for them up front, so only the calculations
+   * are measured.
+   */
+  @Setup
+  public void setUp() {
+    RequisitionBenchmarkData data = new RequisitionBenchmarkData(lineItemCount);
+    template = data.newTemplate(false);
+
+    Requisition requisition = data.newRequisition(template);
+    lineItems = requisition.getRequisitionLineItems();
+    reasons = requisition.getStockAdjustmentReasons();
+    programOrderables = new ProgramOrderableDto[lineItems.size()];
+    maxPeriodsOfStock = new Double[lineItems.size()];
+    currency = CurrencyUnit.USD;
+
+    for (int i = 0; i < lineItems.size(); ++i) {
+      RequisitionLineItem lineItem = lineItems.get(i);
+      OrderableDto orderable = data.getOrderables()
+          .get(new VersionIdentityDto(lineItem.getOrderable()));
+      ApprovedProductDto approvedProduct = data.getApprovedProducts()
+          .get(new VersionIdentityDto(lineItem.getFacilityTypeApprovedProduct()));
+
+      programOrderables[i] = orderable.getProgramOrderable(data.getProgramId());
+      maxPeriodsOfStock[i] = approvedProduct.getMaxPeriodsOfStock();
+    }
+  }
+
+  /**
+   * Calculates all line item fields of every line item.
+   */
+  @Benchmark
+  public void calculateFields(Blackhole blackhole) {
+    for (int i = 0; i < lineItems.size(); ++i) {
+      RequisitionLineItem line = lineItems.get(i);
+
+      blackhole.consume(LineItemFieldsCalculator
+          .calculateTotalLossesAndAdjustments(line, reasons));
+      blackhole.consume(LineItemFieldsCalculator.calculateStockOnHand(line));
+      blackhole.consume(LineItemFieldsCalculator.calculateTotalConsumedQuantity(line));
+      blackhole.consume(LineItemFieldsCalculator.calculateTotal(line));
+      blackhole.consume(LineItemFieldsCalculator
+          .calculateAdjustedConsumption(line, 1, true));
+      blackhole.consume(LineItemFieldsCalculator
+          .calculateMaximumStockQuantity(line, template, maxPeriodsOfStock[i]));
+      blackhole.consume(LineItemFieldsCalculator
+          .calculateCalculatedOrderQuantity(line, template, maxPeriodsOfStock[i]));
+      blackhole.consume(LineItemFieldsCalculator.calculateCalculatedOrderQuantityIsa(line));
+      blackhole.consume(LineItemFieldsCalculator
+          .calculateTotalCost(line, programOrderables[i], currency));
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.requisition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.Getter;
+import org.openlmis.requisition.domain.RequisitionTemplate;
+import org.openlmis.requisition.domain.RequisitionTemplateDataBuilder;
+import org.openlmis.requisition.dto.ApprovedProductDto;
+import org.openlmis.requisition.dto.OrderableDto;
+import org.openlmis.requisition.dto.ProcessingPeriodDto;
+import org.openlmis.requisition.dto.VersionIdentityDto;
+import org.openlmis.requisition.dto.stockmanagement.StockCardDto;
+import org.openlmis.requisition.dto.stockmanagement.StockCardRangeSummaryDto;
+import org.openlmis.requisition.testutils.ApprovedProductDtoDataBuilder;
+import org.openlmis.requisition.testutils.OrderableDtoDataBuilder;
+import org.openlmis.requisition.testutils.ProcessingPeriodDtoDataBuilder;
+import org.openlmis.requisition.testutils.StockAdjustmentReasonDataBuilder;
+import org.openlmis.requisition.testutils.StockCardRangeSummaryDtoDataBuilder;
+
+/**
+ * Synthetic data for the requisition benchmarks: a program with the given number of full supply
+ * approved products, their stock cards and stock card summaries, and regular requisitions with
+ * one line item for each of the products. No external service is needed to create it.
+ */
+@Getter
+public class RequisitionBenchmarkData {
+  private static final int ADJUSTMENTS_PER_LINE_ITEM = 2;
+
+  private final UUID facilityId = UUID.randomUUID();
+  private final UUID programId = UUID.randomUUID();
+  private final ProcessingPeriodDto period = new ProcessingPeriodDtoDataBuilder().buildAsDto();
+  private final List<ProcessingPeriodDto> periods = new ArrayList<>();
+
+  private final List<ApprovedProductDto> approvedProductList = new ArrayList<>();
+  private final Map<VersionIdentityDto, ApprovedProductDto> approvedProducts = new HashMap<>();
+  private final Map<VersionIdentityDto, OrderableDto> orderables = new HashMap<>();
+  private final List<UUID> lineItemIds = new ArrayList<>();
+  private final List<StockAdjustmentReason> stockAdjustmentReasons = new ArrayList<>();
+
+  private final StockData stockData;
+  private final List<StockCardDto> stockCards = new ArrayList<>();
+  private final List<StockCardRangeSummaryDto> stockCardRangeSummaries = new ArrayList<>();
+
+  /**
+   * Creates data for requisitions with the given number of line items.
+   */
+  public RequisitionBenchmarkData(int lineItemCount) {
+    Map<UUID, Integer> stockOnHands = new HashMap<>();
+    Map<UUID, Integer> beginningBalances = new HashMap<>();
+
+    for (int i = 0; i < lineItemCount; ++i) {
+      OrderableDto orderable = new OrderableDtoDataBuilder()
+          .withProgramOrderable(programId, true)
+          .buildAsDto();
+      ApprovedProductDto approvedProduct = new ApprovedProductDtoDataBuilder()
+          .withOrderable(orderable)
+          .buildAsDto();
+
+      approvedProductList.add(approvedProduct);
+      approvedProducts.put(approvedProduct.getIdentity(), approvedProduct);
+      orderables.put(orderable.getIdentity(), orderable);
+      lineItemIds.add(UUID.randomUUID());
+
+      stockOnHands.put(orderable.getId(), 50 + i % 10);
+      beginningBalances.put(orderable.getId(), 100);
+      stockCards.add(new StockCardDto(null, orderable, 90 + i % 20));
+      stockCardRangeSummaries.add(new StockCardRangeSummaryDtoDataBuilder()
+          .withOrderableId(orderable.getId())
+          .withStockOutDays(i % 5)
+          .buildAsDto());
+    }
+
+    for (int i = 0; i < ADJUSTMENTS_PER_LINE_ITEM; ++i) {
+      stockAdjustmentReasons.add(new StockAdjustmentReasonDataBuilder().build());
+    }
+
+    stockData = new StockData(stockOnHands, beginningBalances);
+    periods.add(period);
+  }
+
+  /**
+   * Creates a template with all columns, optionally populated from stock cards.
+   */
+  public RequisitionTemplate newTemplate(boolean populateStockOnHandFromStockCards) {
+    return new RequisitionTemplateDataBuilder()
+        .withAllColumns()
+        .withPopulateStockOnHandFromStockCards(populateStockOnHandFromStockCards)
+        .build();
+  }
+
+  /**
+   * Creates an initiated regular requisition without line items.
+   */
+  public Requisition newEmptyRequisition(RequisitionTemplate template) {
+    Requisition requisition = new Requisition(facilityId, programId, period.getId(),
+        RequisitionStatus.INITIATED, false);
+    requisition.setId(UUID.randomUUID());
+    requisition.setTemplate(template);
+    requisition.setNumberOfMonthsInPeriod(period.getDurationInMonths());
+    requisition.setStockAdjustmentReasons(stockAdjustmentReasons);
+    requisition.setDatePhysicalStockCountCompleted(
+        new DatePhysicalStockCountCompleted(period.getEndDate()));
+
+    return requisition;
+  }
+
+  /**
+   * Creates an initiated regular requisition with a line item for each approved product.
+   */
+  public Requisition newRequisition(RequisitionTemplate template) {
+    Requisition requisition = newEmptyRequisition(template);
+    requisition.setRequisitionLineItems(newLineItems(requisition, 100));
+
+    return requisition;
+  }
+
+  /**
+   * Creates a line item for each approved product, with the same IDs for every call.
+   */
+  public List<RequisitionLineItem> newLineItems(Requisition requisition,
+      int requestedQuantity) {
+    List<RequisitionLineItem> lineItems = new ArrayList<>(approvedProductList.size());
+
+    for (int i = 0; i < approvedProductList.size(); ++i) {
+      ApprovedProductDto approvedProduct = approvedProductList.get(i);
+      RequisitionLineItemDataBuilder builder = new RequisitionLineItemDataBuilder()
+          .withId(lineItemIds.get(i))
+          .withRequisition(requisition)
+          .withOrderable(approvedProduct.getOrderable().getId(),
+              approvedProduct.getOrderable().getVersionNumber())
+          .withFacilityTypeApprovedProduct(approvedProduct.getId(),
+              approvedProduct.getVersionNumber())
+          .withRequestedQuantity(requestedQuantity);
+
+      for (StockAdjustmentReason reason : stockAdjustmentReasons) {
+        builder.addStockAdjustment(new StockAdjustmentDataBuilder()
+            .withReasonId(reason.getReasonId())
+            .withQuantity(5)
+            .build());
+      }
+
+      lineItems.add(builder.build());
+    }
+
+    return lineItems;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.requisition;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openlmis.requisition.domain.RequisitionTemplate;
+
+/**
+ * Measures {@link Requisition#initiate}, which creates a line item for each approved product.
+ * With {@code stockBased} set, the line items are populated from stock cards and stock card
+ * summaries, otherwise from the previous requisitions (there are none here).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RequisitionInitiateBenchmark {
+
+  @Param({"50", "500", "5000"})
+  private int lineItemCount;
+
+  @Param({"false", "true"})
+  private boolean stockBased;
+
+  private RequisitionBenchmarkData data;
+  private RequisitionTemplate template;
+  private UUID initiator;
+
+  /**
+   * Creates approved products and the stock data for them.
+   */
+  @Setup
+  public void setUp() {
+    data = new RequisitionBenchmarkData(lineItemCount);
+    template = data.newTemplate(stockBased);
+    initiator = UUID.randomUUID();
+  }
+
+  /**
+   * Initiates a new requisition, so each invocation starts with no line items. As there are no
+   * previous requisitions, no previous periods are averaged (the same as RequisitionService does).
+   */
+  @Benchmark
+  public Requisition initiate() {
+    Requisition requisition = data.newEmptyRequisition(template);
+    requisition.initiate(template, data.getApprovedProductList(), emptyList(), 0, null,
+        emptyMap(), initiator, data.getStockData(), data.getStockCardRangeSummaries(),
+        data.getStockCardRangeSummaries(), data.getPeriods());
+
+    return requisition;
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.requisition;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Requisition#updateFrom}, which is called when a user saves a requisition.
+ * Every line item of the requisition is updated and all template fields are recalculated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RequisitionUpdateFromBenchmark {
+
+  @Param({"50", "500", "5000"})
+  private int lineItemCount;
+
+  private RequisitionBenchmarkData data;
+  private Requisition requisition;
+  private Requisition update;
+
+  /**
+   * Creates a requisition and an update with new values for each of its line items.
+   */
+  @Setup
+  public void setUp() {
+    data = new RequisitionBenchmarkData(lineItemCount);
+    requisition = data.newRequisition(data.newTemplate(false));
+
+    update = new Requisition();
+    update.setRequisitionLineItems(data.newLineItems(requisition, 120));
+  }
+
+  /**
+   * Updates the requisition from the same update over and over again. Line items are matched by
+   * ID, so the requisition does not grow between invocations.
+   */
+  @Benchmark
+  public Requisition updateFrom() {
+    requisition.updateFrom(update, data.getOrderables(), data.getApprovedProducts(), true);
+    return requisition;
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares looking up split requisitions by the originalRequisition key of the extradata jsonb
+ * column with the lookup by the indexed originalrequisitionid column, which is done by
+ * {@link RequisitionRepository#existsByOriginalRequisitionId} before a requisition is split or
+ * deleted. Unlike other benchmarks, this one needs a PostgreSQL database: it connects with
+ * DATABASE_URL, POSTGRES_USER and POSTGRES_PASSWORD, and fills a separate unlogged table with a
+ * few million synthetic requisition rows, one in a hundred of them being a split requisition.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class OriginalRequisitionLookupBenchmark {
+
+  private static final String TABLE = "requisition.original_requisition_lookup_benchmark";
+  private static final int SAMPLE_SIZE = 1000;
+
+  private static final String EXTRA_DATA_QUERY = "SELECT CASE WHEN count(r) > 0 THEN true"
+      + " ELSE false END FROM " + TABLE + " r"
+      + " WHERE (r.extradata ->> 'originalRequisition')::uuid = ?";
+
+  private static final String COLUMN_QUERY = "SELECT r.id FROM " + TABLE + " r"
+      + " WHERE r.originalrequisitionid = ? LIMIT 1";
+
+  @Param({"1000000", "3000000"})
+  private int rowCount;
+
+  private Connection connection;
+  private PreparedStatement extraDataQuery;
+  private PreparedStatement columnQuery;
+  private List<UUID> requisitionIds;
+
+  /**
+   * Creates the table with the same columns and index as the requisitions table and picks
+   * random requisitions to look up. Most of them are not split, as for the usual delete check.
+   */
+  @Setup
+  public void setUp() throws SQLException {
+    connection = DriverManager.getConnection(System.getenv("DATABASE_URL"),
+        System.getenv("POSTGRES_USER"), System.getenv("POSTGRES_PASSWORD"));
+
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS " + TABLE);
+      statement.execute("CREATE UNLOGGED TABLE " + TABLE + " ("
+          + "id uuid PRIMARY KEY, extradata jsonb, originalrequisitionid uuid)");
+      statement.execute("INSERT INTO " + TABLE
+          + " SELECT md5('req' || i)::uuid,"
+          + " CASE WHEN i % 100 = 0"
+          + "  THEN jsonb_build_object('originalRequisition', md5('req' || (i - 1))::uuid)"
+          + "  ELSE '{}'::jsonb END,"
+          + " CASE WHEN i % 100 = 0 THEN md5('req' || (i - 1))::uuid END"
+          + " FROM generate_series(1, " + rowCount + ") AS i");
+      statement.execute("CREATE INDEX ON " + TABLE + " (originalrequisitionid)"
+          + " WHERE originalrequisitionid IS NOT NULL");
+      statement.execute("ANALYZE " + TABLE);
+    }
+
+    requisitionIds = new ArrayList<>(SAMPLE_SIZE);
+    try (Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery("SELECT id FROM " + TABLE
+             + " ORDER BY random() LIMIT " + SAMPLE_SIZE)) {
+      while (resultSet.next()) {
+        requisitionIds.add(resultSet.getObject(1, UUID.class));
+      }
+    }
+
+    extraDataQuery = connection.prepareStatement(EXTRA_DATA_QUERY);
+    columnQuery = connection.prepareStatement(COLUMN_QUERY);
+  }
+
+  /**
+   * Drops the table and closes the connection.
+   */
+  @TearDown
+  public void tearDown() throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS " + TABLE);
+    } finally {
+      connection.close();
+    }
+  }
+
+  @Benchmark
+  public boolean existsByExtraData() throws SQLException {
+    extraDataQuery.setObject(1, randomRequisitionId());
+
+    try (ResultSet resultSet = extraDataQuery.executeQuery()) {
+      return resultSet.next() && resultSet.getBoolean(1);
+    }
+  }
+
+  @Benchmark
+  public boolean existsByColumn() throws SQLException {
+    columnQuery.setObject(1, randomRequisitionId());
+
+    try (ResultSet resultSet = columnQuery.executeQuery()) {
+      return resultSet.next();
+    }
+  }
+
+  private UUID randomRequisitionId() {
+    return requisitionIds.get(ThreadLocalRandom.current().nextInt(requisitionIds.size()));
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.utils;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionBenchmarkData;
+import org.openlmis.requisition.domain.requisition.StockAdjustmentReason;
+import org.openlmis.requisition.dto.stockmanagement.StockEventDto;
+import org.openlmis.requisition.service.stockmanagement.StockCardStockManagementService;
+import org.openlmis.requisition.settings.service.ConfigurationSettingService;
+import org.openlmis.requisition.testutils.StockAdjustmentReasonDataBuilder;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Measures {@link StockEventBuilder#fromRequisition}, which is called for every requisition
+ * that is approved in a program with stock based requisitions. Stock cards are returned by a
+ * stub, so only building the stock event is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class StockEventBuilderBenchmark {
+
+  @Param({"50", "500", "5000"})
+  private int lineItemCount;
+
+  private StockEventBuilder stockEventBuilder;
+  private RequisitionBenchmarkData data;
+  private Requisition requisition;
+  private UUID userId;
+
+  /**
+   * Creates a requisition with consumption, receipt and beginning balance reasons and the
+   * builder with stubbed stock cards.
+   */
+  @Setup
+  public void setUp() {
+    data = new RequisitionBenchmarkData(lineItemCount);
+    requisition = data.newRequisition(data.newTemplate(true));
+    userId = UUID.randomUUID();
+
+    MockEnvironment environment = new MockEnvironment();
+    List<StockAdjustmentReason> reasons = new ArrayList<>(data.getStockAdjustmentReasons());
+
+    for (String reason : new String[]{"consumed", "receipts", "beginningBalanceExcess",
+        "beginningBalanceInsufficiency"}) {
+      StockAdjustmentReason stockAdjustmentReason = new StockAdjustmentReasonDataBuilder().build();
+      environment.setProperty("reasons." + reason,
+          stockAdjustmentReason.getReasonId().toString());
+      reasons.add(stockAdjustmentReason);
+    }
+
+    requisition.setStockAdjustmentReasons(reasons);
+
+    ConfigurationSettingService settings = new ConfigurationSettingService();
+    ReflectionTestUtils.setField(settings, "env", environment);
+
+    StockCardStockManagementService stockCardService =
+        mock(StockCardStockManagementService.class);
+    when(stockCardService.getStockCards(data.getFacilityId(), data.getProgramId()))
+        .thenReturn(data.getStockCards());
+
+    stockEventBuilder = new StockEventBuilder();
+    ReflectionTestUtils.setField(stockEventBuilder, "settings", settings);
+    ReflectionTestUtils.setField(stockEventBuilder, "stockCardService", stockCardService);
+  }
+
+  @Benchmark
+  public StockEventDto fromRequisition() {
+    return stockEventBuilder.fromRequisition(requisition, userId, data.getOrderables());
+  }
+}
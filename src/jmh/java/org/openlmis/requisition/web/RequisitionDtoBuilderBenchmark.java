@@ -0,0 +1,81 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.web;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionBenchmarkData;
+import org.openlmis.requisition.dto.FacilityDto;
+import org.openlmis.requisition.dto.ProgramDto;
+import org.openlmis.requisition.dto.RequisitionDto;
+import org.openlmis.requisition.testutils.FacilityDtoDataBuilder;
+import org.openlmis.requisition.testutils.ProgramDtoDataBuilder;
+import org.openlmis.requisition.utils.RequisitionExportHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Measures {@link RequisitionDtoBuilder#build}, which is called for every requisition returned
+ * by the API. Orderables and approved products are passed in, so no external service is called.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RequisitionDtoBuilderBenchmark {
+
+  @Param({"50", "500", "5000"})
+  private int lineItemCount;
+
+  private RequisitionDtoBuilder requisitionDtoBuilder;
+  private RequisitionBenchmarkData data;
+  private Requisition requisition;
+  private FacilityDto facility;
+  private ProgramDto program;
+
+  /**
+   * Creates a requisition and the builder with a real export helper.
+   */
+  @Setup
+  public void setUp() {
+    requisitionDtoBuilder = new RequisitionDtoBuilder();
+    ReflectionTestUtils.setField(requisitionDtoBuilder, "requisitionExportHelper",
+        new RequisitionExportHelper());
+
+    data = new RequisitionBenchmarkData(lineItemCount);
+    requisition = data.newRequisition(data.newTemplate(false));
+    facility = new FacilityDtoDataBuilder().withId(data.getFacilityId()).buildAsDto();
+    program = new ProgramDtoDataBuilder().withId(data.getProgramId()).buildAsDto();
+  }
+
+  @Benchmark
+  public RequisitionDto build() {
+    return requisitionDtoBuilder.build(requisition, data.getOrderables(),
+        data.getApprovedProducts(), facility, program, data.getPeriod());
+  }
+}
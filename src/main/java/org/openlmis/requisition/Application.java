@@ -21,6 +21,7 @@ import java.util.Locale;
 import javax.annotation.PostConstruct;
 import org.flywaydb.core.Flyway;
 import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.migration.JavaMigration;
 import org.javers.core.Javers;
 import org.javers.core.MappingStyle;
 import org.javers.core.diff.ListCompareAlgorithm;
@@ -193,6 +194,11 @@ public class Application {
     return new ExportSchemaFlywayCallback();
   }
 
+  @Bean
+  public JavaMigration backfillOriginalRequisitionIdMigration() {
+    return new BackfillOriginalRequisitionIdMigration();
+  }
+
   @Bean
   public Clock clock() {
     return Clock.system(ZoneId.of(timeZoneId));
@@ -17,6 +17,7 @@ package org.openlmis.requisition;
 
 import static org.openlmis.requisition.utils.Pagination.DEFAULT_PAGE_NUMBER;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import org.javers.core.Javers;
@@ -26,6 +27,7 @@ import org.javers.spring.annotation.JaversSpringDataAuditable;
 import org.openlmis.requisition.domain.BaseEntity;
 import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.repository.BaseAuditableRepository;
+import org.openlmis.requisition.repository.RequisitionRepository;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
@@ -51,6 +53,7 @@ import org.springframework.stereotype.Component;
 @Order(20)
 public class AuditLogInitializer implements CommandLineRunner {
   private static final XLogger LOGGER = XLoggerFactory.getXLogger(AuditLogInitializer.class);
+  private static final String REQUISITION_REPOSITORY = "requisitionRepository";
 
   private ApplicationContext applicationContext;
   private Javers javers;
@@ -71,9 +74,11 @@ public class AuditLogInitializer implements CommandLineRunner {
     profiler.setLogger(LOGGER);
 
     profiler.start("GET_AUDITABLE_REPOSITORIES");
-    //Get all JaVers repositories.
-    Map<String,Object> repositoryMap =
-            applicationContext.getBeansWithAnnotation(JaversSpringDataAuditable.class);
+    //Get all JaVers repositories, and the requisition repository audited without the aspect.
+    Map<String,Object> repositoryMap = new LinkedHashMap<>(
+            applicationContext.getBeansWithAnnotation(JaversSpringDataAuditable.class));
+    repositoryMap.put(REQUISITION_REPOSITORY,
+            applicationContext.getBean(RequisitionRepository.class));
 
     //For each one...
     for (Map.Entry<String, Object> entry : repositoryMap.entrySet()) {
@@ -0,0 +1,101 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+
+/**
+ * Copies the original requisition ID of existing split requisitions from extradata to the
+ * originalrequisitionid column. Requisitions are visited in batches ordered by the primary key
+ * and each batch is committed on its own, so the backfill neither runs as one long transaction
+ * nor keeps the whole table locked until it ends. It is safe to run again if it fails part way.
+ */
+public class BackfillOriginalRequisitionIdMigration implements JavaMigration {
+
+  private static final XLogger XLOGGER = XLoggerFactory
+      .getXLogger(BackfillOriginalRequisitionIdMigration.class);
+
+  private static final int BATCH_SIZE = 10000;
+
+  private static final String UPDATE_BATCH = "WITH batch AS ("
+      + " SELECT id FROM requisition.requisitions WHERE id > ? ORDER BY id LIMIT ?"
+      + "), updated AS ("
+      + " UPDATE requisition.requisitions r"
+      + " SET originalrequisitionid = (r.extradata ->> 'originalRequisition')::uuid"
+      + " FROM batch b"
+      + " WHERE r.id = b.id AND r.extradata ->> 'originalRequisition' IS NOT NULL"
+      + ") SELECT id FROM batch ORDER BY id DESC LIMIT 1";
+
+  @Override
+  public MigrationVersion getVersion() {
+    return MigrationVersion.fromVersion("20261016140100000");
+  }
+
+  @Override
+  public String getDescription() {
+    return "backfill original requisition id";
+  }
+
+  @Override
+  public Integer getChecksum() {
+    return null;
+  }
+
+  @Override
+  public boolean isUndo() {
+    return false;
+  }
+
+  @Override
+  public boolean canExecuteInTransaction() {
+    return false;
+  }
+
+  @Override
+  public void migrate(Context context) throws SQLException {
+    Connection connection = context.getConnection();
+    UUID lastId = new UUID(0, 0);
+    int batches = 0;
+
+    try (PreparedStatement statement = connection.prepareStatement(UPDATE_BATCH)) {
+      while (null != lastId) {
+        statement.setObject(1, lastId);
+        statement.setInt(2, BATCH_SIZE);
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+          lastId = resultSet.next() ? resultSet.getObject(1, UUID.class) : null;
+        }
+
+        if (!connection.getAutoCommit()) {
+          connection.commit();
+        }
+
+        ++batches;
+      }
+    }
+
+    XLOGGER.info("Original requisition IDs were copied in {} batches", batches);
+  }
+}
@@ -17,6 +17,7 @@ package org.openlmis.requisition;
 
 import java.util.List;
 import org.openlmis.requisition.interceptor.MvcInterceptor;
+import org.openlmis.requisition.interceptor.SavedCallsInterceptor;
 import org.openlmis.requisition.utils.Pagination;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -40,6 +41,9 @@ public class CustomWebMvcConfigurerAdapter implements WebMvcConfigurer {
   @Autowired
   private MvcInterceptor mvcInterceptor;
 
+  @Autowired
+  private SavedCallsInterceptor savedCallsInterceptor;
+
   @Override
   public void addViewControllers(ViewControllerRegistry registry) {
     registry.addViewController("/requisition/docs")
@@ -67,5 +71,6 @@ public class CustomWebMvcConfigurerAdapter implements WebMvcConfigurer {
   @Override
   public void addInterceptors(InterceptorRegistry registry) {
     registry.addInterceptor(mvcInterceptor);
+    registry.addInterceptor(savedCallsInterceptor);
   }
 }
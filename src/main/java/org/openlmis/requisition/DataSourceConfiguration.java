@@ -0,0 +1,113 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition;
+
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Configures the data sources. The primary database is used for all writes and regular
+ * transactions. If a read replica is enabled, read-only transactions and reporting queries use
+ * a separate connection pool to the replica (see {@link ReplicaRoutingDataSource}). For local
+ * testing the replica URL can point to the primary database, then both pools use one database.
+ */
+@Configuration
+public class DataSourceConfiguration {
+
+  @Value("${db.replica.enabled}")
+  private boolean replicaEnabled;
+
+  @Value("${db.replica.url}")
+  private String replicaUrl;
+
+  @Value("${db.replica.username}")
+  private String replicaUsername;
+
+  @Value("${db.replica.password}")
+  private String replicaPassword;
+
+  @Value("${db.replica.pool.maxSize}")
+  private int replicaPoolMaxSize;
+
+  @Value("${db.replica.pool.connectionTimeout}")
+  private long replicaPoolConnectionTimeout;
+
+  @Value("${db.replica.maxLag}")
+  private long replicaMaxLag;
+
+  /**
+   * Creates the connection pool to the primary database, configured with the
+   * spring.datasource properties.
+   */
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties
+        .initializeDataSourceBuilder()
+        .type(HikariDataSource.class)
+        .build();
+  }
+
+  /**
+   * Creates the data source routing connections to the primary database or the read replica.
+   * The replica connection pool is only created if the replica is enabled.
+   */
+  @Bean
+  public ReplicaRoutingDataSource routingDataSource(DataSourceProperties properties,
+      HikariDataSource primaryDataSource) {
+    HikariDataSource replica = null;
+
+    if (replicaEnabled) {
+      replica = new HikariDataSource();
+      replica.setPoolName("replica");
+      replica.setDriverClassName(properties.determineDriverClassName());
+      replica.setJdbcUrl(replicaUrl);
+      replica.setUsername(replicaUsername);
+      replica.setPassword(replicaPassword);
+      replica.setMaximumPoolSize(replicaPoolMaxSize);
+      replica.setConnectionTimeout(replicaPoolConnectionTimeout);
+      replica.setReadOnly(true);
+    }
+
+    return new ReplicaRoutingDataSource(primaryDataSource, replica, replicaMaxLag);
+  }
+
+  /**
+   * Creates the data source used by JPA, JDBC templates and Flyway. Connections are obtained
+   * lazily, so they are routed after the read-only flag of the transaction is known.
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+
+  /**
+   * Creates the data source used for reporting queries. Connections are taken from the read
+   * replica whenever it is available.
+   */
+  @Bean
+  public DataSource replicationDataSource(ReplicaRoutingDataSource routingDataSource) {
+    return routingDataSource.replicaPreferring();
+  }
+}
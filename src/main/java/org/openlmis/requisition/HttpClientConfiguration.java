@@ -0,0 +1,143 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Configures the HTTP client used for communication with other OpenLMIS services. All outgoing
+ * requests share a single connection pool with a per-host limit, so connections to reference
+ * data, stock management, fulfillment, notification and auth services are kept alive and reused
+ * between requests. Responses are requested with gzip/deflate compression when enabled.
+ */
+@Configuration
+public class HttpClientConfiguration {
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(HttpClientConfiguration.class);
+
+  @Value("${http.client.pool.maxTotal}")
+  private int maxTotal;
+
+  @Value("${http.client.pool.maxPerRoute}")
+  private int maxPerRoute;
+
+  @Value("${http.client.pool.validateAfterInactivity}")
+  private int validateAfterInactivity;
+
+  @Value("${http.client.keepAlive}")
+  private long keepAlive;
+
+  @Value("${http.client.connectTimeout}")
+  private int connectTimeout;
+
+  @Value("${http.client.connectionRequestTimeout}")
+  private int connectionRequestTimeout;
+
+  @Value("${http.client.readTimeout}")
+  private int readTimeout;
+
+  @Value("${http.client.compression.enabled}")
+  private boolean compressionEnabled;
+
+  /**
+   * Creates the connection pool shared by all outgoing requests.
+   */
+  @Bean
+  public PoolingHttpClientConnectionManager httpClientConnectionManager() {
+    PoolingHttpClientConnectionManager connectionManager =
+        new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxTotal);
+    connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+    connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+    return connectionManager;
+  }
+
+  /**
+   * Creates the HTTP client which uses the shared connection pool. Connections are kept alive for
+   * the time returned by the server in the Keep-Alive header, but never longer than the
+   * configured value. Idle and expired connections are evicted in the background.
+   */
+  @Bean(destroyMethod = "close")
+  public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager) {
+    RequestConfig requestConfig = RequestConfig
+        .custom()
+        .setConnectTimeout(connectTimeout)
+        .setConnectionRequestTimeout(connectionRequestTimeout)
+        .setSocketTimeout(readTimeout)
+        .build();
+
+    HttpClientBuilder builder = HttpClientBuilder
+        .create()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .setKeepAliveStrategy((response, context) -> {
+          long duration = DefaultConnectionKeepAliveStrategy.INSTANCE
+              .getKeepAliveDuration(response, context);
+          return duration > 0 && duration < keepAlive ? duration : keepAlive;
+        })
+        .evictExpiredConnections()
+        .evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS);
+
+    if (!compressionEnabled) {
+      builder.disableContentCompression();
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * Creates the rest template used by all services that communicate with other OpenLMIS services.
+   */
+  @Bean
+  public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+    return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+  }
+
+  /**
+   * Logs usage of the connection pool, in total and for each host.
+   */
+  @Scheduled(fixedDelayString = "${http.client.pool.statsInterval}")
+  public void logPoolStats() {
+    if (!XLOGGER.isDebugEnabled()) {
+      return;
+    }
+
+    PoolingHttpClientConnectionManager connectionManager = httpClientConnectionManager();
+    PoolStats total = connectionManager.getTotalStats();
+    XLOGGER.debug("HTTP connection pool: leased={}, available={}, pending={}, max={}",
+        total.getLeased(), total.getAvailable(), total.getPending(), total.getMax());
+
+    connectionManager.getRoutes().forEach(route -> {
+      PoolStats stats = connectionManager.getStats(route);
+      XLOGGER.debug("HTTP connection pool for {}: leased={}, available={}, pending={}, max={}",
+          route.getTargetHost(), stats.getLeased(), stats.getAvailable(), stats.getPending(),
+          stats.getMax());
+    });
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes connections either to the primary database or to a read replica. Connections for
+ * read-only transactions ({@code @Transactional(readOnly = true)}) and for the data source
+ * returned by {@link #replicaPreferring()} are taken from the replica, all other connections are
+ * taken from the primary.
+ *
+ * <p>The replication lag of the replica is checked periodically. If it exceeds the configured
+ * tolerance, if it can't be checked or if a connection to the replica can't be obtained, the
+ * replica is treated as unavailable and all connections are taken from the primary until the
+ * next successful check.
+ *
+ * <p>This data source should be wrapped with a lazy connection proxy, so that the connection is
+ * obtained after the read-only flag of the transaction has been set.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(ReplicaRoutingDataSource.class);
+
+  // the lag is 0 if the database is not a standby (for example two pools for one database)
+  // or if the standby has replayed everything it has received
+  static final String REPLICATION_LAG_SQL = "SELECT CASE"
+      + " WHEN NOT pg_is_in_recovery()"
+      + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+      + " ELSE CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS bigint)"
+      + " END";
+
+  private final DataSource primary;
+  private final DataSource replica;
+  private final long maxLag;
+
+  private volatile boolean replicaAvailable;
+  private volatile long replicationLag;
+
+  private final AtomicLong primaryConnections = new AtomicLong();
+  private final AtomicLong replicaConnections = new AtomicLong();
+  private final AtomicLong fallbacks = new AtomicLong();
+
+  /**
+   * Creates a new data source routing to the given primary and replica. If the replica is
+   * {@code null}, all connections are taken from the primary.
+   *
+   * @param primary the primary data source
+   * @param replica the replica data source, may be null
+   * @param maxLag  the maximum replication lag (in milliseconds) for the replica to be used
+   */
+  public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long maxLag) {
+    this.primary = primary;
+    this.replica = replica;
+    this.maxLag = maxLag;
+    this.replicaAvailable = null != replica;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return getConnection(TransactionSynchronizationManager.isCurrentTransactionReadOnly(),
+        DataSource::getConnection);
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return getConnection(TransactionSynchronizationManager.isCurrentTransactionReadOnly(),
+        dataSource -> dataSource.getConnection(username, password));
+  }
+
+  /**
+   * Returns a data source which takes connections from the replica whenever it is available,
+   * regardless of the current transaction. It is meant for reporting queries that are run
+   * directly on a connection.
+   */
+  public DataSource replicaPreferring() {
+    return new AbstractDataSource() {
+
+      @Override
+      public Connection getConnection() throws SQLException {
+        return ReplicaRoutingDataSource.this.getConnection(true, DataSource::getConnection);
+      }
+
+      @Override
+      public Connection getConnection(String username, String password) throws SQLException {
+        return ReplicaRoutingDataSource.this.getConnection(true,
+            dataSource -> dataSource.getConnection(username, password));
+      }
+    };
+  }
+
+  /**
+   * Checks the replication lag of the replica and marks the replica as available or unavailable.
+   */
+  @Scheduled(fixedDelayString = "${db.replica.lagCheckInterval}")
+  public void checkReplica() {
+    if (null == replica) {
+      return;
+    }
+
+    try (Connection connection = replica.getConnection();
+         Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery(REPLICATION_LAG_SQL)) {
+      resultSet.next();
+      long lag = resultSet.getLong(1);
+
+      if (resultSet.wasNull()) {
+        markReplicaUnavailable("the replication lag is unknown");
+        return;
+      }
+
+      replicationLag = lag;
+
+      if (lag > maxLag) {
+        markReplicaUnavailable("the replication lag is " + lag + " ms");
+      } else if (!replicaAvailable) {
+        XLOGGER.info("Read replica is available, the replication lag is {} ms", lag);
+        replicaAvailable = true;
+      }
+    } catch (SQLException ex) {
+      markReplicaUnavailable(ex.getMessage());
+    }
+
+    XLOGGER.debug("Database connections: primary={}, replica={}, fallbacks={}, "
+            + "replicaAvailable={}, replicationLag={} ms", getPrimaryConnectionCount(),
+        getReplicaConnectionCount(), getFallbackCount(), isReplicaAvailable(),
+        getReplicationLag());
+  }
+
+  public boolean isReplicaAvailable() {
+    return replicaAvailable;
+  }
+
+  public long getReplicationLag() {
+    return replicationLag;
+  }
+
+  public long getPrimaryConnectionCount() {
+    return primaryConnections.get();
+  }
+
+  public long getReplicaConnectionCount() {
+    return replicaConnections.get();
+  }
+
+  /**
+   * Returns how many times a connection to the replica could not be obtained and a connection to
+   * the primary was used instead.
+   */
+  public long getFallbackCount() {
+    return fallbacks.get();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (replica instanceof Closeable) {
+      ((Closeable) replica).close();
+    }
+  }
+
+  private Connection getConnection(boolean readOnly, ConnectionFactory factory)
+      throws SQLException {
+    if (readOnly && replicaAvailable) {
+      try {
+        Connection connection = factory.connect(replica);
+        replicaConnections.incrementAndGet();
+        return connection;
+      } catch (SQLException ex) {
+        fallbacks.incrementAndGet();
+        markReplicaUnavailable(ex.getMessage());
+      }
+    }
+
+    Connection connection = factory.connect(primary);
+    primaryConnections.incrementAndGet();
+    return connection;
+  }
+
+  private void markReplicaUnavailable(String reason) {
+    if (replicaAvailable) {
+      XLOGGER.warn("Read replica is unavailable, using the primary database: {}", reason);
+    }
+
+    replicaAvailable = false;
+  }
+
+  @FunctionalInterface
+  private interface ConnectionFactory {
+    Connection connect(DataSource dataSource) throws SQLException;
+  }
+}
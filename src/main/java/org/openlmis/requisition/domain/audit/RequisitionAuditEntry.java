@@ -0,0 +1,108 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.audit;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Type;
+import org.openlmis.requisition.domain.BaseEntity;
+
+/**
+ * The state of a requisition at the end of a transaction that saved or deleted it, waiting to be
+ * committed to the audit log. Entries of a requisition are committed in the order of their
+ * requisition version, and of their position for the same version. A deleted requisition has no
+ * state and is committed after all of its saved states. An entry that failed to be committed the
+ * maximum number of times is parked: it stays in the table, but is not committed any more and
+ * does not block later entries.
+ */
+@Entity
+@Table(name = "requisition_audit_entries")
+@NoArgsConstructor(access = AccessLevel.PACKAGE)
+@Getter
+public class RequisitionAuditEntry extends BaseEntity {
+
+  @Column(insertable = false, updatable = false)
+  private Long position;
+
+  @Type(type = UUID_TYPE)
+  @Column(nullable = false)
+  private UUID requisitionId;
+
+  private Long requisitionVersion;
+
+  @Column(columnDefinition = TEXT_COLUMN_DEFINITION)
+  private String author;
+
+  @Column(columnDefinition = TEXT_COLUMN_DEFINITION)
+  private String state;
+
+  @Column(nullable = false, columnDefinition = "timestamp with time zone")
+  private ZonedDateTime capturedDate;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  @Column(columnDefinition = TEXT_COLUMN_DEFINITION)
+  private String lastError;
+
+  private RequisitionAuditEntry(UUID requisitionId, Long requisitionVersion, String author,
+      String state, ZonedDateTime capturedDate) {
+    this.requisitionId = requisitionId;
+    this.requisitionVersion = requisitionVersion;
+    this.author = author;
+    this.state = state;
+    this.capturedDate = capturedDate;
+  }
+
+  /**
+   * Creates an entry for the given state of a saved requisition.
+   */
+  public static RequisitionAuditEntry saved(UUID requisitionId, Long requisitionVersion,
+      String author, String state, ZonedDateTime capturedDate) {
+    return new RequisitionAuditEntry(requisitionId, requisitionVersion, author, state,
+        capturedDate);
+  }
+
+  /**
+   * Creates an entry for a deleted requisition.
+   */
+  public static RequisitionAuditEntry deleted(UUID requisitionId, String author,
+      ZonedDateTime capturedDate) {
+    return new RequisitionAuditEntry(requisitionId, null, author, null, capturedDate);
+  }
+
+  public boolean isDeletion() {
+    return null == state;
+  }
+
+  /**
+   * Records a failed attempt to commit the entry.
+   */
+  public void markFailed(String error) {
+    this.attempts += 1;
+    this.lastError = error;
+  }
+
+  public boolean isParked(int maxAttempts) {
+    return attempts >= maxAttempts;
+  }
+}
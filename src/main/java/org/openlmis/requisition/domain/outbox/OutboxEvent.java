@@ -0,0 +1,174 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.outbox;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.openlmis.requisition.domain.BaseTimestampedEntity;
+
+/**
+ * A message to another service that was saved in the same transaction as the change that caused
+ * it. Pending events are delivered in the background until they are delivered or the number of
+ * attempts is exhausted, in which case they become dead and can be replayed manually. The ID of
+ * an event is sent as the idempotency key of each delivery attempt.
+ */
+@Entity
+@Table(name = "outbox_events")
+@NoArgsConstructor(access = AccessLevel.PACKAGE)
+@Getter
+public class OutboxEvent extends BaseTimestampedEntity {
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private OutboxEventType type;
+
+  @Column(nullable = false, columnDefinition = TEXT_COLUMN_DEFINITION)
+  private String payload;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private OutboxEventStatus status;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  @Column(nullable = false, columnDefinition = "timestamp with time zone")
+  private ZonedDateTime nextAttemptDate;
+
+  @Column(columnDefinition = "timestamp with time zone")
+  private ZonedDateTime deliveryDate;
+
+  @Column(columnDefinition = TEXT_COLUMN_DEFINITION)
+  private String lastError;
+
+  private OutboxEvent(OutboxEventType type, String payload, ZonedDateTime nextAttemptDate) {
+    this.type = type;
+    this.payload = payload;
+    this.status = OutboxEventStatus.PENDING;
+    this.attempts = 0;
+    this.nextAttemptDate = nextAttemptDate;
+  }
+
+  /**
+   * Creates a new pending event that should be delivered as soon as possible.
+   */
+  public static OutboxEvent newOutboxEvent(OutboxEventType type, String payload,
+      ZonedDateTime now) {
+    return new OutboxEvent(type, payload, now);
+  }
+
+  /**
+   * Marks the beginning of a delivery attempt. The event will not be picked up for delivery
+   * again before the lease ends, unless the attempt is finished earlier.
+   */
+  public void claim(ZonedDateTime now, ZonedDateTime leaseEnd) {
+    this.attempts += 1;
+    this.nextAttemptDate = leaseEnd;
+    setModifiedDate(now);
+  }
+
+  /**
+   * Gives back a claimed event whose delivery was not started, so it is delivered as soon as
+   * possible without using up an attempt.
+   */
+  public void release(ZonedDateTime now) {
+    this.attempts -= 1;
+    this.nextAttemptDate = now;
+    setModifiedDate(now);
+  }
+
+  /**
+   * Marks the event as delivered.
+   */
+  public void markDelivered(ZonedDateTime now) {
+    this.status = OutboxEventStatus.DELIVERED;
+    this.deliveryDate = now;
+    this.lastError = null;
+    setModifiedDate(now);
+  }
+
+  /**
+   * Records a failed delivery attempt. The event will be delivered again at the given date,
+   * unless it is dead.
+   */
+  public void markFailed(String error, ZonedDateTime now, ZonedDateTime nextAttemptDate,
+      boolean dead) {
+    this.status = dead ? OutboxEventStatus.DEAD : OutboxEventStatus.PENDING;
+    this.lastError = error;
+    this.nextAttemptDate = nextAttemptDate;
+    setModifiedDate(now);
+  }
+
+  /**
+   * Makes an undelivered event pending again so it is delivered as soon as possible with a new
+   * set of attempts.
+   */
+  public void replay(ZonedDateTime now) {
+    this.status = OutboxEventStatus.PENDING;
+    this.attempts = 0;
+    this.nextAttemptDate = now;
+    setModifiedDate(now);
+  }
+
+  public boolean isDelivered() {
+    return OutboxEventStatus.DELIVERED == status;
+  }
+
+  /**
+   * Export this object to the specified exporter (DTO).
+   *
+   * @param exporter exporter to export to
+   */
+  public void export(Exporter exporter) {
+    exporter.setId(id);
+    exporter.setCreatedDate(getCreatedDate());
+    exporter.setType(type);
+    exporter.setPayload(payload);
+    exporter.setStatus(status);
+    exporter.setAttempts(attempts);
+    exporter.setNextAttemptDate(nextAttemptDate);
+    exporter.setDeliveryDate(deliveryDate);
+    exporter.setLastError(lastError);
+  }
+
+  public interface Exporter {
+    void setId(UUID id);
+
+    void setCreatedDate(ZonedDateTime createdDate);
+
+    void setType(OutboxEventType type);
+
+    void setPayload(String payload);
+
+    void setStatus(OutboxEventStatus status);
+
+    void setAttempts(int attempts);
+
+    void setNextAttemptDate(ZonedDateTime nextAttemptDate);
+
+    void setDeliveryDate(ZonedDateTime deliveryDate);
+
+    void setLastError(String lastError);
+  }
+}
@@ -271,6 +271,11 @@ public class Requisition extends BaseTimestampedEntity {
   @Embedded
   private ExtraDataEntity extraData = new ExtraDataEntity();
 
+  // the same value is kept in extra data; the column is used to find split requisitions
+  @Type(type = UUID_TYPE)
+  @DiffIgnore
+  private UUID originalRequisitionId;
+
   /**
    * Constructor.
    *
@@ -303,7 +308,7 @@ public class Requisition extends BaseTimestampedEntity {
         original.reportOnly, original.numberOfMonthsInPeriod, original.supervisoryNodeId,
         original.previousRequisitions, original.availableProducts,
         original.datePhysicalStockCountCompleted, null,
-        null, new ExtraDataEntity());
+        null, new ExtraDataEntity(), original.originalRequisitionId);
 
     setId(original.getId());
 
@@ -503,6 +508,16 @@ public class Requisition extends BaseTimestampedEntity {
     this.requisitionLineItems = new ArrayList<>();
 
     if (isNotTrue(emergency)) {
+      Map<UUID, StockCardRangeSummaryDto> summaries =
+          groupStockCardRangeSummariesByOrderable(stockCardRangeSummaries);
+      Map<UUID, StockCardRangeSummaryDto> summariesToAverage =
+          groupStockCardRangeSummariesByOrderable(stockCardRangeSummariesToAverage);
+      List<Map<VersionEntityReference, RequisitionLineItem>> previousLineItems =
+          previousRequisitions
+              .stream()
+              .map(Requisition::getLineItemsByOrderable)
+              .collect(toList());
+
       for (ApprovedProductDto product : fullSupplyProducts) {
         UUID orderableId = product.getOrderable().getId();
 
@@ -517,17 +532,15 @@ public class Requisition extends BaseTimestampedEntity {
             ? stockData.getBeginningBalance(orderableId)
             : 0);
 
-        StockCardRangeSummaryDto summary = findStockCardRangeSummary(
-            stockCardRangeSummaries, lineItem.getOrderable().getId());
-        StockCardRangeSummaryDto summaryToAverage = findStockCardRangeSummary(
-            stockCardRangeSummariesToAverage, lineItem.getOrderable().getId());
+        StockCardRangeSummaryDto summary = summaries.get(orderableId);
+        StockCardRangeSummaryDto summaryToAverage = summariesToAverage.get(orderableId);
 
         lineItem.calculateAndSetStockBasedTotalReceivedQuantity(template, summary);
         lineItem.calculateAndSetStockBasedTotalStockoutDays(summary, numberOfMonthsInPeriod);
         lineItem.calculateAndSetStockBasedTotalConsumedQuantity(template, summary);
         lineItem.calculateAndSetStockBasedTotalLossesAndAdjustments(template, summary);
         lineItem.calculateAndSetStockBasedAverageConsumption(summaryToAverage, template, periods,
-            previousRequisitions);
+            previousLineItems);
 
         this.requisitionLineItems.add(lineItem);
       }
@@ -818,6 +831,23 @@ public class Requisition extends BaseTimestampedEntity {
         .orElse(null);
   }
 
+  /**
+   * Returns line items of this requisition keyed by orderable (id and version). If there is more
+   * than one line item for an orderable, the first one is used, the same as in
+   * {@link #findLineByProduct(UUID, Long)}. The map is built on each call, so it should be kept
+   * by callers that look up line items of many orderables.
+   */
+  Map<VersionEntityReference, RequisitionLineItem> getLineItemsByOrderable() {
+    if (null == requisitionLineItems) {
+      return Collections.emptyMap();
+    }
+
+    return requisitionLineItems
+        .stream()
+        .filter(line -> null != line.getOrderable())
+        .collect(toMap(RequisitionLineItem::getOrderable, identity(), (first, second) -> first));
+  }
+
   public void setDraftStatusMessage(String draftStatusMessage) {
     this.draftStatusMessage = (draftStatusMessage == null) ? "" : draftStatusMessage;
   }
@@ -1104,14 +1134,14 @@ public class Requisition extends BaseTimestampedEntity {
       requisitionLineItems = new ArrayList<>();
     }
 
+    Map<UUID, RequisitionLineItem> existingLineItems = requisitionLineItems
+        .stream()
+        .filter(line -> null != line.getId())
+        .collect(toMap(RequisitionLineItem::getId, identity(), (first, second) -> first));
     List<RequisitionLineItem> updatedList = new ArrayList<>();
 
     for (RequisitionLineItem item : newLineItems) {
-      RequisitionLineItem existing = requisitionLineItems
-          .stream()
-          .filter(l -> l.getId().equals(item.getId()))
-          .findFirst()
-          .orElse(null);
+      RequisitionLineItem existing = existingLineItems.get(item.getId());
 
       if (null == existing) {
         item.setRequisition(this);
@@ -1127,13 +1157,12 @@ public class Requisition extends BaseTimestampedEntity {
     requisitionLineItems.addAll(updatedList);
   }
 
-  private StockCardRangeSummaryDto findStockCardRangeSummary(
-      List<StockCardRangeSummaryDto> stockCardRangeSummaryDtos, UUID orderableId) {
+  private Map<UUID, StockCardRangeSummaryDto> groupStockCardRangeSummariesByOrderable(
+      List<StockCardRangeSummaryDto> stockCardRangeSummaryDtos) {
     return stockCardRangeSummaryDtos
         .stream()
-        .filter(range -> range.getOrderable().getId().equals(orderableId))
-        .findFirst()
-        .orElse(null);
+        .collect(toMap(range -> range.getOrderable().getId(), identity(),
+            (first, second) -> first));
   }
 
   public Map<String, Object> getExtraData() {
@@ -1146,20 +1175,27 @@ public class Requisition extends BaseTimestampedEntity {
   }
 
   /**
-   * Gets a value of extra data originalRequisition key.
+   * Gets an id of the original requisition. If it is not set (for example for a requisition
+   * built from a DTO), a value of extra data originalRequisition key is used.
    */
   public UUID getOriginalRequisitionId() {
+    if (null != originalRequisitionId) {
+      return originalRequisitionId;
+    }
+
     Object value = this.extraData.get(EXTRA_DATA_ORIGINAL_REQUISITION_ID);
     String asString = null == value ? null : value.toString();
     return null == asString ? null : UUID.fromString(asString);
   }
 
   public void setOriginalRequisitionId(UUID originalRequisitionId) {
+    this.originalRequisitionId = originalRequisitionId;
     this.extraData.put(EXTRA_DATA_ORIGINAL_REQUISITION_ID, originalRequisitionId);
   }
 
   public boolean hasOriginalRequisitionId() {
-    return this.extraData.containsKey(EXTRA_DATA_ORIGINAL_REQUISITION_ID);
+    return null != originalRequisitionId
+        || this.extraData.containsKey(EXTRA_DATA_ORIGINAL_REQUISITION_ID);
   }
 
   @PrePersist
@@ -604,11 +604,12 @@ public class RequisitionLineItem extends BaseEntity {
    */
   void calculateAndSetStockBasedAverageConsumption(
       StockCardRangeSummaryDto stockCardRangeSummaryToAverage, RequisitionTemplate template,
-      List<ProcessingPeriodDto> periods, List<Requisition> previousRequisitions) {
+      List<ProcessingPeriodDto> periods,
+      List<Map<VersionEntityReference, RequisitionLineItem>> previousLineItems) {
     setAverageConsumption(calculateStockBasedAverageConsumption(stockCardRangeSummaryToAverage,
         this.orderable.getId(), template, periods,
         template.isColumnDisplayed(ADDITIONAL_QUANTITY_REQUIRED)
-            ? getSumOfAdditionalQuantitiesFromPreviousLineItems(previousRequisitions) : null));
+            ? getSumOfAdditionalQuantitiesFromPreviousLineItems(previousLineItems) : null));
   }
 
   /**
@@ -787,9 +788,9 @@ public class RequisitionLineItem extends BaseEntity {
   }
 
   private Integer getSumOfAdditionalQuantitiesFromPreviousLineItems(
-      List<Requisition> previousRequisitions) {
-    return previousRequisitions.stream()
-        .map(req -> req.findLineByProduct(orderable.getId(), orderable.getVersionNumber()))
+      List<Map<VersionEntityReference, RequisitionLineItem>> previousLineItems) {
+    return previousLineItems.stream()
+        .map(lineItems -> lineItems.get(orderable))
         .filter(Objects::nonNull)
         .filter(lineItem -> Objects.nonNull(lineItem.getAdditionalQuantityRequired()))
         .mapToInt(RequisitionLineItem::getAdditionalQuantityRequired)
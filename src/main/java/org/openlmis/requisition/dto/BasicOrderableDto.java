@@ -38,6 +38,19 @@ public class BasicOrderableDto implements Versionable {
   private boolean roundToZero;
   private MetadataDto meta = new MetadataDto();
 
+  /**
+   * A copy constructor.
+   */
+  public BasicOrderableDto(BasicOrderableDto original) {
+    this.id = original.id;
+    this.productCode = original.productCode;
+    this.fullProductName = original.fullProductName;
+    this.netContent = original.netContent;
+    this.packRoundingThreshold = original.packRoundingThreshold;
+    this.roundToZero = original.roundToZero;
+    this.meta = null == original.meta ? null : new MetadataDto(original.meta);
+  }
+
   /**
    * Returns the number of packs to order. For this Orderable given a desired number of
    * dispensing units, will return the number of packs that should be ordered.
@@ -29,4 +29,12 @@ import lombok.Setter;
 public final class DispensableDto {
   private String dispensingUnit;
   private String displayUnit;
+
+  /**
+   * A copy constructor.
+   */
+  public DispensableDto(DispensableDto original) {
+    this.dispensingUnit = original.dispensingUnit;
+    this.displayUnit = original.displayUnit;
+  }
 }
@@ -20,11 +20,13 @@ import static org.apache.commons.lang.StringUtils.defaultIfBlank;
 import static org.openlmis.requisition.i18n.MessageKeys.CAN_NOT_FIND_PROGRAM_DETAILS_FROM_ORDERABLE;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -45,6 +47,25 @@ public final class OrderableDto extends BasicOrderableDto {
   private DispensableDto dispensable;
   private Map<String, String> identifiers;
 
+  /**
+   * A copy constructor. Programs, dispensable and identifiers are copied as well.
+   */
+  public OrderableDto(OrderableDto original) {
+    super(original);
+    this.programs = null == original.programs
+        ? null
+        : original.programs
+            .stream()
+            .map(ProgramOrderableDto::new)
+            .collect(Collectors.toSet());
+    this.dispensable = null == original.dispensable
+        ? null
+        : new DispensableDto(original.dispensable);
+    this.identifiers = null == original.identifiers
+        ? null
+        : new HashMap<>(original.identifiers);
+  }
+
   /**
    * Gets ProgramOrderableDto in programs using programId. If it can't be found an exception will be
    * thrown.
@@ -0,0 +1,50 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.dto;
+
+import java.time.ZonedDateTime;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.openlmis.requisition.domain.outbox.OutboxEvent;
+import org.openlmis.requisition.domain.outbox.OutboxEventStatus;
+import org.openlmis.requisition.domain.outbox.OutboxEventType;
+
+@Getter
+@Setter
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public final class OutboxEventDto extends BaseDto implements OutboxEvent.Exporter {
+  private ZonedDateTime createdDate;
+  private OutboxEventType type;
+  private String payload;
+  private OutboxEventStatus status;
+  private int attempts;
+  private ZonedDateTime nextAttemptDate;
+  private ZonedDateTime deliveryDate;
+  private String lastError;
+
+  /**
+   * Creates a new instance of {@link OutboxEventDto} based on the given event.
+   */
+  public static OutboxEventDto newInstance(OutboxEvent event) {
+    OutboxEventDto dto = new OutboxEventDto();
+    event.export(dto);
+
+    return dto;
+  }
+}
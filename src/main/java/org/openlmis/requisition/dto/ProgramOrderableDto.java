@@ -42,4 +42,17 @@ public final class ProgramOrderableDto {
   @JsonSerialize(using = MoneySerializer.class)
   @JsonDeserialize(using = MoneyDeserializer.class)
   private Money pricePerPack;
+
+  /**
+   * A copy constructor.
+   */
+  public ProgramOrderableDto(ProgramOrderableDto original) {
+    this.programId = original.programId;
+    this.orderableDisplayCategoryId = original.orderableDisplayCategoryId;
+    this.orderableCategoryDisplayName = original.orderableCategoryDisplayName;
+    this.orderableCategoryDisplayOrder = original.orderableCategoryDisplayOrder;
+    this.fullSupply = original.fullSupply;
+    this.displayOrder = original.displayOrder;
+    this.pricePerPack = original.pricePerPack;
+  }
 }
@@ -0,0 +1,56 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.dto;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.openlmis.requisition.service.report.ReportJob;
+import org.openlmis.requisition.service.report.ReportJobStatus;
+
+@Getter
+@Setter
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public final class ReportJobDto extends BaseDto {
+  private UUID templateId;
+  private String format;
+  private ReportJobStatus status;
+  private ZonedDateTime createdDate;
+  private ZonedDateTime startedDate;
+  private ZonedDateTime finishedDate;
+  private String error;
+
+  /**
+   * Creates a new instance of {@link ReportJobDto} based on the given job.
+   */
+  public static ReportJobDto newInstance(ReportJob job) {
+    ReportJobDto dto = new ReportJobDto();
+    dto.setId(job.getId());
+    dto.setTemplateId(job.getTemplateId());
+    dto.setFormat(job.getFormat());
+    dto.setStatus(job.getStatus());
+    dto.setCreatedDate(job.getCreatedDate());
+    dto.setStartedDate(job.getStartedDate());
+    dto.setFinishedDate(job.getFinishedDate());
+    dto.setError(job.getError());
+
+    return dto;
+  }
+}
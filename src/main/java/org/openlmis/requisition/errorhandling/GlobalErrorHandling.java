@@ -33,6 +33,7 @@ import org.openlmis.requisition.exception.AuthenticationMessageException;
 import org.openlmis.requisition.exception.ExternalApiException;
 import org.openlmis.requisition.exception.IdempotencyKeyException;
 import org.openlmis.requisition.exception.ServerException;
+import org.openlmis.requisition.exception.ServiceUnavailableMessageException;
 import org.openlmis.requisition.exception.ValidationMessageException;
 import org.openlmis.requisition.exception.VersionMismatchException;
 import org.openlmis.requisition.service.DataRetrievalException;
@@ -194,6 +195,14 @@ public class GlobalErrorHandling extends AbstractErrorHandling {
     return getLocalizedMessage(ex);
   }
 
+  @ExceptionHandler(ServiceUnavailableMessageException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  @ResponseBody
+  public Message.LocalizedMessage handleServiceUnavailableException(
+      ServiceUnavailableMessageException ex) {
+    return getLocalizedMessage(ex);
+  }
+
   @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
   @ResponseStatus(HttpStatus.CONFLICT)
   @ResponseBody
@@ -46,6 +46,12 @@ public abstract class MessageKeys {
       + ".reporting.template.exist";
   public static final String ERROR_REPORTING_TEMPLATE_NOT_FOUND = ERROR_PREFIX
       + ".reporting.template.notFound";
+  public static final String ERROR_REPORTING_JOB_NOT_FOUND = ERROR_PREFIX
+      + ".reporting.job.notFound";
+  public static final String ERROR_REPORTING_JOB_NOT_COMPLETED = ERROR_PREFIX
+      + ".reporting.job.notCompleted";
+  public static final String ERROR_REPORTING_JOB_QUEUE_FULL = ERROR_PREFIX
+      + ".reporting.job.queueFull";
   public static final String ERROR_MUST_BE_SUBMITTED_TO_BE_AUTHORIZED = ERROR_PREFIX
       + ".authorize.mustBeSubmittedToBeAuthorize";
   public static final String ERROR_FINISH_PROVIOUS_REQUISITION = ERROR_PREFIX
@@ -264,6 +270,10 @@ public abstract class MessageKeys {
       ERROR_PREFIX + ".validation.params.requisitionStatus.notValidStatus";
   public static final String ERROR_SEARCH_INVALID_PARAMS =
       ERROR_PREFIX + ".search.invalidParams";
+  public static final String ERROR_CURSOR_INVALID =
+      ERROR_PREFIX + ".search.cursor.invalid";
+  public static final String ERROR_CURSOR_SORT_NOT_SUPPORTED =
+      ERROR_PREFIX + ".search.cursor.sortNotSupported";
   public static final String ERROR_INVALID_DATE_FORMAT =
       ERROR_PREFIX + ".validation.invalidDateFormat";
   public static final String ERROR_INVALID_BOOLEAN_FORMAT =
@@ -327,6 +337,14 @@ public abstract class MessageKeys {
   public static final String ERROR_MISSING_REJECTION_REASON = ERROR_PREFIX
           + ".reject.missingRejectionReason";
 
+  public static final String ERROR_OUTBOX_EVENT_NOT_FOUND = ERROR_PREFIX
+      + ".outboxEvent.notFound";
+  public static final String ERROR_OUTBOX_EVENT_ALREADY_DELIVERED = ERROR_PREFIX
+      + ".outboxEvent.alreadyDelivered";
+
+  public static final String ERROR_TOKEN_CACHE_ACCESS_TOKEN_REQUIRED = ERROR_PREFIX
+      + ".tokenCache.accessTokenRequired";
+
   public static final String REQUISITION_EMAIL_UNSKIPPED_LINE_ITEMS_SUBJECT
           = "requisition.email.unskipped.line.items.subject";
 
@@ -0,0 +1,53 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.interceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.openlmis.requisition.utils.AuthenticationHelper;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * Logs (at debug level) how many reference data calls for the current user and rights were saved
+ * while a request was handled.
+ */
+@Component
+public class SavedCallsInterceptor extends HandlerInterceptorAdapter {
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(SavedCallsInterceptor.class);
+
+  @Autowired
+  private AuthenticationHelper authenticationHelper;
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+      Object handler, Exception ex) {
+    if (!XLOGGER.isDebugEnabled()) {
+      return;
+    }
+
+    int savedCalls = authenticationHelper.getSavedCallsInRequest();
+
+    if (savedCalls > 0) {
+      XLOGGER.debug("Saved {} reference data calls for current user and rights in {} {}",
+          savedCalls, request.getMethod(), request.getRequestURI());
+    }
+  }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.openlmis.requisition.domain.audit.RequisitionAuditEntry;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+public interface RequisitionAuditEntryRepository
+    extends CrudRepository<RequisitionAuditEntry, UUID> {
+
+  long countByAttemptsGreaterThanEqual(int attempts);
+
+  /**
+   * Finds and locks the oldest entries that can be committed to the audit log. An entry is only
+   * returned if no earlier entry of the same requisition is waiting (deletions come last), so
+   * the states of a requisition are committed in order even if several instances commit entries
+   * at the same time. Parked entries (attempted the maximum number of times) and entries locked
+   * by another transaction are skipped.
+   */
+  @Query(value = "SELECT e.*"
+      + " FROM requisition.requisition_audit_entries e"
+      + " WHERE e.attempts < :maxAttempts"
+      + " AND NOT EXISTS ("
+      + "   SELECT 1"
+      + "   FROM requisition.requisition_audit_entries o"
+      + "   WHERE o.requisitionid = e.requisitionid"
+      + "   AND o.attempts < :maxAttempts"
+      + "   AND (COALESCE(o.requisitionversion, " + Long.MAX_VALUE + "), o.position)"
+      + "     < (COALESCE(e.requisitionversion, " + Long.MAX_VALUE + "), e.position))"
+      + " ORDER BY e.position"
+      + " LIMIT :limit"
+      + " FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<RequisitionAuditEntry> findNextForUpdate(@Param("maxAttempts") int maxAttempts,
+      @Param("limit") int limit);
+
+  /**
+   * Finds and locks the entry with the given ID, unless it is locked by another transaction.
+   */
+  @Query(value = "SELECT e.*"
+      + " FROM requisition.requisition_audit_entries e"
+      + " WHERE e.id = :id"
+      + " FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  Optional<RequisitionAuditEntry> findByIdForUpdate(@Param("id") UUID id);
+}
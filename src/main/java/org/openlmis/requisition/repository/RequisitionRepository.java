@@ -15,10 +15,14 @@
 
 package org.openlmis.requisition.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import org.javers.spring.annotation.JaversSpringDataAuditable;
 import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionStatus;
+import org.openlmis.requisition.domain.requisition.RequisitionVersion;
 import org.openlmis.requisition.repository.custom.RequisitionRepositoryCustom;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -28,7 +32,10 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-@JaversSpringDataAuditable
+/**
+ * Saved and deleted requisitions are committed to the audit log by the
+ * {@link org.openlmis.requisition.service.audit.RequisitionAuditor}.
+ */
 public interface RequisitionRepository extends
     JpaRepository<Requisition, UUID>,
     RequisitionRepositoryCustom,
@@ -56,10 +63,20 @@ public interface RequisitionRepository extends
       nativeQuery = true)
   Page<Requisition> findAllWithoutSnapshots(Pageable pageable);
 
-  @Query(value = "SELECT CASE WHEN count(r) > 0 THEN true ELSE false END"
-      + " FROM requisition.requisitions r"
-      + " WHERE (r.extradata ->> 'originalRequisition')\\:\\:uuid = :originalRequisitionId",
-      nativeQuery = true
-  )
-  boolean existsByOriginalRequisitionId(@Param("originalRequisitionId") UUID originalRequisitionId);
+  @Query("SELECT new org.openlmis.requisition.domain.requisition.RequisitionVersion("
+      + "r.id, r.version, r.facilityId, r.programId)"
+      + " FROM Requisition r"
+      + " WHERE r.id = :id")
+  Optional<RequisitionVersion> findVersionById(@Param("id") UUID id);
+
+  boolean existsByOriginalRequisitionId(UUID originalRequisitionId);
+
+  @Query("SELECT DISTINCT r.facilityId FROM Requisition r"
+      + " WHERE r.programId = :programId"
+      + " AND r.processingPeriodId = :processingPeriodId"
+      + " AND r.status IN :statuses")
+  Set<UUID> findFacilityIdsByProgramIdAndProcessingPeriodIdAndStatusIn(
+      @Param("programId") UUID programId,
+      @Param("processingPeriodId") UUID processingPeriodId,
+      @Param("statuses") Collection<RequisitionStatus> statuses);
 }
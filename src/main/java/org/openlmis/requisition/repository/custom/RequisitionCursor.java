@@ -0,0 +1,149 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.repository.custom;
+
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_CURSOR_INVALID;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_CURSOR_SORT_NOT_SUPPORTED;
+
+import com.google.common.collect.ImmutableMap;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.exception.ValidationMessageException;
+import org.openlmis.requisition.utils.Message;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+
+/**
+ * Position in a list of requisitions sorted by one property and then by ID, used for keyset
+ * (seek) pagination. The next page contains requisitions that come right after the position,
+ * so the database does not have to skip the rows of the previous pages. Clients get the cursor
+ * as an opaque token and pass it back to get the next page.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@EqualsAndHashCode
+@ToString
+public final class RequisitionCursor {
+  public static final String DEFAULT_SORT_PROPERTY = "createdDate";
+
+  private static final String SEPARATOR = "|";
+
+  // only non-null properties can be used, null values can't be compared with the cursor
+  private static final Map<String, Function<Requisition, Object>> GETTERS = ImmutableMap.of(
+      DEFAULT_SORT_PROPERTY, Requisition::getCreatedDate,
+      "emergency", Requisition::getEmergency,
+      "facilityId", Requisition::getFacilityId,
+      "programId", Requisition::getProgramId,
+      "processingPeriodId", Requisition::getProcessingPeriodId);
+
+  private static final Map<String, Function<String, Object>> PARSERS = ImmutableMap.of(
+      DEFAULT_SORT_PROPERTY, ZonedDateTime::parse,
+      "emergency", Boolean::valueOf,
+      "facilityId", UUID::fromString,
+      "programId", UUID::fromString,
+      "processingPeriodId", UUID::fromString);
+
+  private final String property;
+  private final Direction direction;
+  private final Object value;
+  private final UUID id;
+
+  /**
+   * Creates a cursor pointing before the first requisition sorted in the given order. If the sort
+   * is unsorted, requisitions are sorted by the created date in ascending order.
+   *
+   * @param sort the sort of requisitions, may contain at most one property
+   * @return cursor of the first page
+   */
+  public static RequisitionCursor first(Sort sort) {
+    if (null == sort || sort.isUnsorted()) {
+      return new RequisitionCursor(DEFAULT_SORT_PROPERTY, Direction.ASC, null, null);
+    }
+
+    Iterator<Sort.Order> orders = sort.iterator();
+    Sort.Order order = orders.next();
+
+    if (orders.hasNext() || !GETTERS.containsKey(order.getProperty())) {
+      throw new ValidationMessageException(
+          new Message(ERROR_CURSOR_SORT_NOT_SUPPORTED, sort, GETTERS.keySet()));
+    }
+
+    return new RequisitionCursor(order.getProperty(), order.getDirection(), null, null);
+  }
+
+  /**
+   * Reads a cursor from the token returned by {@link #encode()}.
+   *
+   * @param token the token to read
+   * @return the cursor
+   * @throws ValidationMessageException if the token is invalid
+   */
+  public static RequisitionCursor decode(String token) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = StringUtils.splitPreserveAllTokens(decoded, SEPARATOR);
+
+      if (parts.length != 4 || !PARSERS.containsKey(parts[0])) {
+        throw new IllegalArgumentException("Unexpected cursor format: " + decoded);
+      }
+
+      return new RequisitionCursor(parts[0], Direction.fromString(parts[1]),
+          PARSERS.get(parts[0]).apply(parts[2]), UUID.fromString(parts[3]));
+    } catch (RuntimeException ex) {
+      throw new ValidationMessageException(new Message(ERROR_CURSOR_INVALID, token), ex);
+    }
+  }
+
+  /**
+   * Checks whether this cursor points before the first requisition.
+   */
+  public boolean isFirst() {
+    return null == id;
+  }
+
+  /**
+   * Creates a cursor with the same sort pointing to the given requisition.
+   *
+   * @param requisition the last requisition of the current page
+   * @return cursor of the next page
+   */
+  public RequisitionCursor after(Requisition requisition) {
+    return new RequisitionCursor(property, direction,
+        GETTERS.get(property).apply(requisition), requisition.getId());
+  }
+
+  /**
+   * Writes this cursor as an opaque, URL-safe token.
+   */
+  public String encode() {
+    String raw = String.join(SEPARATOR, property, direction.name(), String.valueOf(value),
+        String.valueOf(id));
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -15,13 +15,16 @@
 
 package org.openlmis.requisition.repository.custom;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import org.apache.commons.lang3.tuple.Pair;
 import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionApprovalDate;
 import org.openlmis.requisition.domain.requisition.RequisitionPeriod;
+import org.openlmis.requisition.utils.KeysetPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -31,6 +34,10 @@ public interface RequisitionRepositoryCustom {
       List<String> userPermissionStrings, Set<Pair<UUID, UUID>> programNodePairs,
       Pageable pageable);
 
+  KeysetPage<Requisition> searchRequisitions(RequisitionSearchParams params,
+      List<String> userPermissionStrings, Set<Pair<UUID, UUID>> programNodePairs,
+      RequisitionCursor cursor, int pageSize, boolean count);
+
   List<Requisition> searchRequisitions(UUID processingPeriod,
       UUID facility, UUID program, Boolean emergency);
 
@@ -39,9 +46,16 @@ public interface RequisitionRepositoryCustom {
   List<RequisitionPeriod> searchRequisitionIdAndStatusPairs(UUID facility, UUID program,
       Boolean emergency);
 
+  List<RequisitionApprovalDate> searchApprovalDates(UUID program,
+      Collection<UUID> processingPeriods, Boolean emergency);
+
   Page<Requisition> searchApprovedRequisitions(UUID facilityId,
       Set<Pair<UUID, UUID>> programSupervisoryNodePair, Pageable pageable);
 
   Page<Requisition> searchApprovableRequisitionsByProgramSupervisoryNodePairs(
       Set<Pair<UUID, UUID>> programNodePairs, Pageable pageable);
+
+  KeysetPage<Requisition> searchApprovableRequisitionsByProgramSupervisoryNodePairs(
+      Set<Pair<UUID, UUID>> programNodePairs, RequisitionCursor cursor, int pageSize,
+      boolean count);
 }
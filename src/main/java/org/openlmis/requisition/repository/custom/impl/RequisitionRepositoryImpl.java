@@ -21,6 +21,7 @@ import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import com.google.common.base.Joiner;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -52,13 +53,16 @@ import org.hibernate.type.PostgresUUIDType;
 import org.hibernate.type.ZonedDateTimeType;
 import org.openlmis.requisition.domain.BaseEntity;
 import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionApprovalDate;
 import org.openlmis.requisition.domain.requisition.RequisitionPeriod;
 import org.openlmis.requisition.domain.requisition.RequisitionPermissionString;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.openlmis.requisition.domain.requisition.StatusChange;
 import org.openlmis.requisition.repository.StatusChangeRepository;
+import org.openlmis.requisition.repository.custom.RequisitionCursor;
 import org.openlmis.requisition.repository.custom.RequisitionRepositoryCustom;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
+import org.openlmis.requisition.utils.KeysetPage;
 import org.openlmis.requisition.utils.Pagination;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
@@ -67,6 +71,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
 
 @SuppressWarnings("PMD.TooManyMethods")
 public class RequisitionRepositoryImpl
@@ -125,7 +130,7 @@ public class RequisitionRepositoryImpl
 
     CriteriaQuery<Long> countQuery = builder.createQuery(Long.class);
     countQuery = prepareQuery(builder, countQuery, params,
-        userPermissionStrings, programNodePairs, true, pageable);
+        userPermissionStrings, programNodePairs, true, pageable, null);
 
     Long count = countEntities(countQuery);
 
@@ -135,12 +140,51 @@ public class RequisitionRepositoryImpl
 
     CriteriaQuery<Requisition> requisitionQuery = builder.createQuery(Requisition.class);
     requisitionQuery = prepareQuery(builder, requisitionQuery, params,
-        userPermissionStrings, programNodePairs, false, pageable);
+        userPermissionStrings, programNodePairs, false, pageable, null);
 
     List<Requisition> requisitions = getEntities(requisitionQuery, pageable);
     return Pagination.getPage(requisitions, pageable, count);
   }
 
+  /**
+   * Method returns a page of Requisitions with matched parameters that come after the given
+   * cursor. The total number of requisitions is only counted if requested. User permission
+   * strings must not be empty.
+   *
+   * @param params It contains parameters which have to be matched by requisition.
+   * @param userPermissionStrings Permission strings of current user.
+   * @param programNodePairs program / supervisoryNode pairs
+   * @param cursor position after which the page starts
+   * @param pageSize maximum number of requisitions in the page
+   * @param count whether the total number of requisitions should be counted
+   * @return Page of Requisitions with matched parameters.
+   */
+  @Override
+  public KeysetPage<Requisition> searchRequisitions(RequisitionSearchParams params,
+      List<String> userPermissionStrings, Set<Pair<UUID, UUID>> programNodePairs,
+      RequisitionCursor cursor, int pageSize, boolean count) {
+    CriteriaBuilder builder = getCriteriaBuilder();
+    Long total = null;
+
+    if (count) {
+      CriteriaQuery<Long> countQuery = builder.createQuery(Long.class);
+      countQuery = prepareQuery(builder, countQuery, params,
+          userPermissionStrings, programNodePairs, true, null, null);
+
+      total = countEntities(countQuery);
+    }
+
+    CriteriaQuery<Requisition> requisitionQuery = builder.createQuery(Requisition.class);
+    requisitionQuery = prepareQuery(builder, requisitionQuery, params,
+        userPermissionStrings, programNodePairs, false, null, cursor);
+
+    List<Requisition> requisitions = entityManager.createQuery(requisitionQuery)
+        .setMaxResults(withLookahead(pageSize))
+        .getResultList();
+
+    return toKeysetPage(requisitions, cursor, pageSize, total);
+  }
+
 
   /**
    * Method returns all Requisitions with matched parameters.
@@ -237,6 +281,62 @@ public class RequisitionRepositoryImpl
     return requisitionIdStatusList;
   }
 
+  /**
+   * Method returns the first approval date of every requisition for the given program and
+   * processing periods. Requisitions which have not been approved are returned with
+   * a {@code null} approved date. Status changes are aggregated in the database, so no
+   * requisition entities are loaded.
+   *
+   * @param program           Program of searched requisitions.
+   * @param processingPeriods Processing periods of searched requisitions.
+   * @param emergency         if {@code true}, the method will look only for emergency
+   *                          requisitions, if {@code false}, the method will look only for
+   *                          standard requisitions, if {@code null} the method will check all
+   *                          requisitions.
+   * @return List of requisition approval dates with matched parameters.
+   */
+  @Override
+  public List<RequisitionApprovalDate> searchApprovalDates(UUID program,
+      Collection<UUID> processingPeriods, Boolean emergency) {
+    XLOGGER.entry(program, processingPeriods, emergency);
+
+    if (processingPeriods.isEmpty()) {
+      XLOGGER.exit(Collections.emptyList());
+      return Collections.emptyList();
+    }
+
+    Profiler profiler = new Profiler("SEARCH_REQUISITION_APPROVAL_DATES");
+    profiler.setLogger(XLOGGER);
+
+    CriteriaBuilder builder = getCriteriaBuilder();
+    CriteriaQuery<RequisitionApprovalDate> query = builder
+        .createQuery(RequisitionApprovalDate.class);
+    Root<Requisition> root = query.from(Requisition.class);
+
+    ListJoin<Object, Object> statusChanges = root
+        .joinList(Requisition.STATUS_CHANGES, JoinType.LEFT);
+    statusChanges.on(builder.equal(statusChanges.get(STATUS), RequisitionStatus.APPROVED));
+
+    query.multiselect(root.get("id"), root.get(FACILITY_ID), root.get(PROCESSING_PERIOD_ID),
+        builder.least(statusChanges.<ZonedDateTime>get(CREATED_DATE)));
+
+    Predicate predicate = builder.conjunction();
+    predicate = addEqualFilter(predicate, builder, root, PROGRAM_ID, program);
+    predicate = addEqualFilter(predicate, builder, root, EMERGENCY, emergency);
+    predicate = addInFilter(predicate, builder, root, PROCESSING_PERIOD_ID, processingPeriods);
+    query.where(predicate);
+
+    query.groupBy(root.get("id"), root.get(FACILITY_ID), root.get(PROCESSING_PERIOD_ID));
+
+    profiler.start("EXECUTE_QUERY_TO_FIND_APPROVAL_DATES");
+    List<RequisitionApprovalDate> approvalDates = entityManager.createQuery(query)
+        .getResultList();
+
+    XLOGGER.exit(approvalDates);
+    profiler.stop().log();
+    return approvalDates;
+  }
+
   /**
    * Get approved requisitions matching all of provided parameters.
    * Empty list is returned if:
@@ -298,7 +398,8 @@ public class RequisitionRepositoryImpl
 
     profiler.start("PREPARE_COUNT_QUERY");
     CriteriaQuery<Long> countQuery = builder.createQuery(Long.class);
-    countQuery = prepareApprovableQuery(builder, countQuery, programNodePairs, true, pageable);
+    countQuery = prepareApprovableQuery(builder, countQuery, programNodePairs, true, pageable,
+        null);
 
     profiler.start("EXECUTE_COUNT_QUERY");
     Long count = countEntities(countQuery);
@@ -318,7 +419,7 @@ public class RequisitionRepositoryImpl
 
     profiler.start("PREPARE_MAIN_QUERY");
     CriteriaQuery<Requisition> query = builder.createQuery(Requisition.class);
-    query = prepareApprovableQuery(builder, query, programNodePairs, false, pageable);
+    query = prepareApprovableQuery(builder, query, programNodePairs, false, pageable, null);
 
     profiler.start("EXECUTE_MAIN_QUERY");
     List<Requisition> requisitions = entityManager.createQuery(query)
@@ -326,6 +427,70 @@ public class RequisitionRepositoryImpl
         .setFirstResult(maxAndFirst.getRight())
         .getResultList();
 
+    setStatusChanges(requisitions, profiler);
+
+    profiler.start("CREATE_RESULT_PAGE");
+    Page<Requisition> page = Pagination.getPage(requisitions, pageable, count);
+
+    XLOGGER.exit(page);
+    profiler.stop().log();
+
+    return page;
+  }
+
+  /**
+   * Get a page of requisitions that match any of the program/supervisoryNode pairs, that can be
+   * approved (AUTHORIZED, IN_APPROVAL) and come after the given cursor. Pairs must not be null.
+   * The total number of requisitions is only counted if requested.
+   *
+   * @param programNodePairs program / supervisoryNode pairs
+   * @param cursor position after which the page starts
+   * @param pageSize maximum number of requisitions in the page
+   * @param count whether the total number of requisitions should be counted
+   * @return matching requisitions
+   */
+  @Override
+  public KeysetPage<Requisition> searchApprovableRequisitionsByProgramSupervisoryNodePairs(
+      Set<Pair<UUID, UUID>> programNodePairs, RequisitionCursor cursor, int pageSize,
+      boolean count) {
+    XLOGGER.entry(programNodePairs, cursor, pageSize, count);
+
+    Profiler profiler = new Profiler("SEARCH_APPROBABLE_REQ_BY_PROGRAM_SUP_NODE_PAIRS_CURSOR");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("CREATE_BUILDER");
+    CriteriaBuilder builder = getCriteriaBuilder();
+    Long total = null;
+
+    if (count) {
+      profiler.start("EXECUTE_COUNT_QUERY");
+      CriteriaQuery<Long> countQuery = builder.createQuery(Long.class);
+      countQuery = prepareApprovableQuery(builder, countQuery, programNodePairs, true, null,
+          null);
+
+      total = countEntities(countQuery);
+    }
+
+    profiler.start("EXECUTE_MAIN_QUERY");
+    CriteriaQuery<Requisition> query = builder.createQuery(Requisition.class);
+    query = prepareApprovableQuery(builder, query, programNodePairs, false, null, cursor);
+
+    List<Requisition> requisitions = entityManager.createQuery(query)
+        .setMaxResults(withLookahead(pageSize))
+        .getResultList();
+
+    profiler.start("CREATE_RESULT_PAGE");
+    KeysetPage<Requisition> page = toKeysetPage(requisitions, cursor, pageSize, total);
+
+    setStatusChanges(page.getContent(), profiler);
+
+    XLOGGER.exit(page);
+    profiler.stop().log();
+
+    return page;
+  }
+
+  private void setStatusChanges(List<Requisition> requisitions, Profiler profiler) {
     profiler.start("GET_REQUISITIONS_IDS");
     Set<UUID> requisitionIds = requisitions
         .stream()
@@ -344,19 +509,30 @@ public class RequisitionRepositoryImpl
           List<StatusChange> statusChanges = allStatusChanges.get(requisition.getId());
           requisition.setStatusChanges(statusChanges);
         });
+  }
 
-    profiler.start("CREATE_RESULT_PAGE");
-    Page<Requisition> page = Pagination.getPage(requisitions, pageable, count);
+  // one more requisition than the page size is retrieved to know if there is a next page, unless
+  // the page is unbounded
+  private static int withLookahead(int pageSize) {
+    return Integer.MAX_VALUE == pageSize ? pageSize : pageSize + 1;
+  }
 
-    XLOGGER.exit(page);
-    profiler.stop().log();
+  private KeysetPage<Requisition> toKeysetPage(List<Requisition> requisitions,
+      RequisitionCursor cursor, int pageSize, Long total) {
+    if (requisitions.size() <= pageSize) {
+      return new KeysetPage<>(requisitions, pageSize, null, total);
+    }
 
-    return page;
+    List<Requisition> content = new ArrayList<>(requisitions.subList(0, pageSize));
+    String nextCursor = cursor.after(content.get(pageSize - 1)).encode();
+
+    return new KeysetPage<>(content, pageSize, nextCursor, total);
   }
 
   private <T> CriteriaQuery<T> prepareQuery(CriteriaBuilder builder, CriteriaQuery<T> query,
       RequisitionSearchParams params, List<String> userPermissionStrings,
-      Set<Pair<UUID, UUID>> programNodePairs, boolean count, Pageable pageable) {
+      Set<Pair<UUID, UUID>> programNodePairs, boolean count, Pageable pageable,
+      RequisitionCursor cursor) {
 
     Root<Requisition> root = query.from(Requisition.class);
 
@@ -391,6 +567,11 @@ public class RequisitionRepositoryImpl
     predicate = createPermissionPredicate(
         builder, root, predicate, userPermissionStrings, programNodePairs);
 
+    if (!count && null != cursor) {
+      predicate = addCursorFilter(predicate, builder, root, cursor);
+      query = addCursorSortProperties(builder, query, root, cursor);
+    }
+
     query.where(predicate);
 
     query.distinct(true);
@@ -436,7 +617,7 @@ public class RequisitionRepositoryImpl
 
   private <T> CriteriaQuery<T> prepareApprovableQuery(CriteriaBuilder builder,
       CriteriaQuery<T> query, Set<Pair<UUID, UUID>> programNodePairs,
-      boolean isCountQuery, Pageable pageable) {
+      boolean isCountQuery, Pageable pageable, RequisitionCursor cursor) {
 
     Root<Requisition> root = query.from(Requisition.class);
 
@@ -473,6 +654,11 @@ public class RequisitionRepositoryImpl
               .or(statusChanges.isNull(), statusChanges.get(CREATED_DATE).in(subquery)));
     }
 
+    if (!isCountQuery && null != cursor) {
+      predicate = addCursorFilter(predicate, builder, root, cursor);
+      query = addCursorSortProperties(builder, query, root, cursor);
+    }
+
     if (!isCountQuery && pageable != null && !pageable.getSort().isEmpty()) {
       query = addSortProperties(builder, query, root, pageable);
     }
@@ -530,6 +716,38 @@ public class RequisitionRepositoryImpl
     return query.orderBy(orders);
   }
 
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Predicate addCursorFilter(Predicate predicate, CriteriaBuilder builder,
+      Root<Requisition> root, RequisitionCursor cursor) {
+    if (cursor.isFirst()) {
+      return predicate;
+    }
+
+    Path<Comparable> property = root.get(cursor.getProperty());
+    Path<UUID> id = root.get("id");
+    Comparable value = (Comparable) cursor.getValue();
+
+    // (property, id) > (value, lastId) for ascending order, < for descending order
+    Predicate after = Direction.ASC == cursor.getDirection()
+        ? builder.or(builder.greaterThan(property, value),
+            builder.and(builder.equal(property, value), builder.greaterThan(id, cursor.getId())))
+        : builder.or(builder.lessThan(property, value),
+            builder.and(builder.equal(property, value), builder.lessThan(id, cursor.getId())));
+
+    return builder.and(predicate, after);
+  }
+
+  private <T> CriteriaQuery<T> addCursorSortProperties(CriteriaBuilder builder,
+      CriteriaQuery<T> query, Root<Requisition> root, RequisitionCursor cursor) {
+    if (Direction.ASC == cursor.getDirection()) {
+      return query.orderBy(builder.asc(root.get(cursor.getProperty())),
+          builder.asc(root.get("id")));
+    }
+
+    return query.orderBy(builder.desc(root.get(cursor.getProperty())),
+        builder.desc(root.get("id")));
+  }
+
   private Query createQuery(UUID facilityId, Set<Pair<UUID, UUID>> programSupervisoryNode,
       Boolean count, Pageable pageable) {
     StringBuilder builder =
@@ -15,22 +15,114 @@
 
 package org.openlmis.requisition.security;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.RemoteTokenServices;
 
+/**
+ * Checks access tokens with the auth service, retrying when a token is reported as invalid.
+ * Authentications of valid tokens can be kept in memory, keyed by a hash of the token, until the
+ * token expires, but no longer than the max age. A token revoked in the auth service is still
+ * accepted until it is evicted (see {@link #evict(String)} and {@link #evictAll()}) or its max
+ * age passes, so keep the max age short.
+ */
 public class CustomTokenServices extends RemoteTokenServices {
+  private static final String EXPIRATION = "exp";
+
+  private final ThreadLocal<Long> checkedTokenExpiration = new ThreadLocal<>();
 
   private int invalidTokenRetryLimit;
+  private long maxAge;
+  private Cache<String, CachedAuthentication> authentications;
 
   public CustomTokenServices(int invalidTokenRetryLimit) {
+    this(invalidTokenRetryLimit, 0, 0);
+  }
+
+  /**
+   * Creates token services that keep up to the given number of authentications in memory for
+   * at most the given max age, in milliseconds. Authentications are not kept if the max age is
+   * not positive.
+   */
+  public CustomTokenServices(int invalidTokenRetryLimit, long maxSize, long maxAge) {
+    this(invalidTokenRetryLimit, maxSize, maxAge, Ticker.systemTicker());
+  }
+
+  CustomTokenServices(int invalidTokenRetryLimit, long maxSize, long maxAge, Ticker ticker) {
     super();
     this.invalidTokenRetryLimit = invalidTokenRetryLimit;
+    this.maxAge = maxAge;
+
+    if (maxAge > 0) {
+      this.authentications = CacheBuilder
+          .newBuilder()
+          .maximumSize(maxSize)
+          .expireAfterWrite(maxAge, TimeUnit.MILLISECONDS)
+          .ticker(ticker)
+          .build();
+    }
+  }
+
+  @Override
+  public void setAccessTokenConverter(AccessTokenConverter accessTokenConverter) {
+    super.setAccessTokenConverter(new ExpirationCapturingConverter(accessTokenConverter));
   }
 
   @Override
   public OAuth2Authentication loadAuthentication(String accessToken) {
-    return loadAuthentication(accessToken, 0);
+    try {
+      if (null == authentications) {
+        return loadAuthentication(accessToken, 0);
+      }
+
+      String key = hash(accessToken);
+      CachedAuthentication cached = authentications.getIfPresent(key);
+
+      if (null != cached) {
+        if (System.currentTimeMillis() < cached.expiresAt) {
+          return cached.copy();
+        }
+
+        authentications.invalidate(key);
+      }
+
+      OAuth2Authentication authentication = loadAuthentication(accessToken, 0);
+      authentications.put(key, new CachedAuthentication(authentication,
+          getExpiresAt(checkedTokenExpiration.get())));
+
+      return authentication;
+    } finally {
+      checkedTokenExpiration.remove();
+    }
+  }
+
+  /**
+   * Removes the authentication of the given token from memory, so the token is checked with the
+   * auth service again when it is used next time.
+   */
+  public void evict(String accessToken) {
+    if (null != authentications) {
+      authentications.invalidate(hash(accessToken));
+    }
+  }
+
+  /**
+   * Removes all authentications from memory.
+   */
+  public void evictAll() {
+    if (null != authentications) {
+      authentications.invalidateAll();
+    }
   }
 
   private OAuth2Authentication loadAuthentication(String accessToken, int attempt) {
@@ -46,4 +138,61 @@ public class CustomTokenServices extends RemoteTokenServices {
       }
     }
   }
-}
\ No newline at end of file
+
+  private long getExpiresAt(Long tokenExpiration) {
+    long maxExpiresAt = System.currentTimeMillis() + maxAge;
+
+    return null == tokenExpiration ? maxExpiresAt : Math.min(tokenExpiration, maxExpiresAt);
+  }
+
+  private static String hash(String accessToken) {
+    return Hashing.sha256().hashString(accessToken, UTF_8).toString();
+  }
+
+  private static final class CachedAuthentication {
+    private final OAuth2Authentication authentication;
+    private final long expiresAt;
+
+    CachedAuthentication(OAuth2Authentication authentication, long expiresAt) {
+      this.authentication = authentication;
+      this.expiresAt = expiresAt;
+    }
+
+    // the authentication is changed (details, authenticated flag) by the authentication manager,
+    // so each request gets its own copy
+    OAuth2Authentication copy() {
+      return new OAuth2Authentication(authentication.getOAuth2Request(),
+          authentication.getUserAuthentication());
+    }
+  }
+
+  private final class ExpirationCapturingConverter implements AccessTokenConverter {
+    private final AccessTokenConverter delegate;
+
+    ExpirationCapturingConverter(AccessTokenConverter delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Map<String, ?> convertAccessToken(OAuth2AccessToken token,
+        OAuth2Authentication authentication) {
+      return delegate.convertAccessToken(token, authentication);
+    }
+
+    @Override
+    public OAuth2AccessToken extractAccessToken(String value, Map<String, ?> map) {
+      return delegate.extractAccessToken(value, map);
+    }
+
+    @Override
+    public OAuth2Authentication extractAuthentication(Map<String, ?> map) {
+      Object expiration = map.get(EXPIRATION);
+
+      if (expiration instanceof Number) {
+        checkedTokenExpiration.set(TimeUnit.SECONDS.toMillis(((Number) expiration).longValue()));
+      }
+
+      return delegate.extractAuthentication(map);
+    }
+  }
+}
@@ -52,7 +52,7 @@ import org.openlmis.requisition.dto.ProcessingPeriodDto;
 import org.openlmis.requisition.dto.ProgramDto;
 import org.openlmis.requisition.dto.RightDto;
 import org.openlmis.requisition.dto.UserDto;
-import org.openlmis.requisition.service.notification.NotificationService;
+import org.openlmis.requisition.service.notification.NotificationDispatcher;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
 import org.openlmis.requisition.service.referencedata.ProgramReferenceDataService;
@@ -78,7 +78,7 @@ public class ApprovalNotifier extends BaseNotifier {
   private PeriodReferenceDataService periodReferenceDataService;
 
   @Autowired
-  private NotificationService notificationService;
+  private NotificationDispatcher notificationDispatcher;
 
   @Autowired
   private SupervisingUsersReferenceDataService supervisingUsersReferenceDataService;
@@ -141,7 +141,7 @@ public class ApprovalNotifier extends BaseNotifier {
 
     for (UserDto approver : approvers) {
       valuesMap.put("approver", approver.getUsername());
-      notificationService.notify(approver, subject,
+      notificationDispatcher.dispatch(approver, subject,
           sub.replace(emailContent), sub.replace(smsContent), NOTIFICATION_TAG);
     }
   }
@@ -208,7 +208,7 @@ public class ApprovalNotifier extends BaseNotifier {
         LOGGER.warn("Initiator is null for requisition %s",requisition.getId());
         return;
       }
-      notificationService.notify(initiator, subject,
+      notificationDispatcher.dispatch(initiator, subject,
               emailBody, REQUISITION_EMAIL_UNSKIPPED_LINE_ITEMS_SMS, "");
     }
   }
@@ -33,7 +33,7 @@ import org.openlmis.requisition.domain.BaseTimestampedEntity;
 import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.openlmis.requisition.dto.UserDto;
-import org.openlmis.requisition.service.notification.NotificationService;
+import org.openlmis.requisition.service.notification.NotificationDispatcher;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
 import org.openlmis.requisition.service.referencedata.ProgramReferenceDataService;
@@ -56,7 +56,7 @@ public class ApprovedRequisitionNotifier extends BaseNotifier {
   private FacilityReferenceDataService facilityReferenceDataService;
 
   @Autowired
-  private NotificationService notificationService;
+  private NotificationDispatcher notificationDispatcher;
 
   @Autowired
   private AuthenticationHelper authenticationHelper;
@@ -94,7 +94,7 @@ public class ApprovedRequisitionNotifier extends BaseNotifier {
 
     for (UserDto user : getClerks(requisition)) {
       messageParams.put("user", user.getUsername());
-      notificationService.notify(user, subject,
+      notificationDispatcher.dispatch(user, subject,
           new StrSubstitutor(messageParams).replace(emailContent),
           new StrSubstitutor(messageParams).replace(smsContent), NOTIFICATION_TAG);
     }
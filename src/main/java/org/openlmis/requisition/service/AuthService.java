@@ -19,6 +19,7 @@ import static org.openlmis.requisition.utils.RequestHelper.createUri;
 
 import java.util.Map;
 import org.apache.commons.codec.binary.Base64;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -78,7 +79,8 @@ public class AuthService {
     // Intentionally blank
   }
 
-  void setRestTemplate(RestOperations restTemplate) {
+  @Autowired
+  public void setRestTemplate(RestOperations restTemplate) {
     this.restTemplate = restTemplate;
   }
   
@@ -25,6 +25,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.openlmis.requisition.dto.ResultDto;
@@ -55,6 +56,8 @@ public abstract class BaseCommunicationService<T> {
 
   protected AuthService authService;
 
+  private SplitRequestExecutor splitRequestExecutor = new SplitRequestExecutor();
+
   @Value("${request.maxUrlLength}")
   private int maxUrlLength;
 
@@ -171,6 +174,17 @@ public abstract class BaseCommunicationService<T> {
     }
   }
 
+  /**
+   * Return all reference data T objects, unless they have not changed since the given ETag was
+   * returned. In that case the response is not modified and has no body.
+   *
+   * @param etag ETag of the previously returned objects, may be null.
+   * @return the response with all reference data T objects, or a not modified response.
+   */
+  public ServiceResponse<List<T>> tryFindAll(String etag) {
+    return tryFindAll("", getArrayResultClass(), etag);
+  }
+
   protected <P> ServiceResponse<List<P>> tryFindAll(String resourceUrl, Class<P[]> type,
       String etag) {
     String url = getServiceUrl() + getUrl() + resourceUrl;
@@ -251,12 +265,14 @@ public abstract class BaseCommunicationService<T> {
                                                 Class<E[]> type) {
     HttpEntity<Object> entity = RequestHelper
         .createEntity(payload, authService.obtainAccessToken());
-    List<E[]> arrays = new ArrayList<>();
+    List<Supplier<E[]>> tasks = new ArrayList<>();
 
     for (URI uri : RequestHelper.splitRequest(url, parameters, maxUrlLength)) {
-      arrays.add(restTemplate.exchange(uri, method, entity, type).getBody());
+      tasks.add(() -> restTemplate.exchange(uri, method, entity, type).getBody());
     }
 
+    List<E[]> arrays = splitRequestExecutor.execute(tasks);
+
     E[] body = Merger
         .ofArrays(arrays)
         .withDefaultValue(() -> (E[]) Array.newInstance(type.getComponentType(), 0))
@@ -274,12 +290,14 @@ public abstract class BaseCommunicationService<T> {
         .createEntity(payload, authService.obtainAccessToken());
     ParameterizedTypeReference<PageDto<E>> parameterizedType =
         new DynamicPageTypeReference<>(type);
-    List<PageDto<E>> pages = new ArrayList<>();
+    List<Supplier<PageDto<E>>> tasks = new ArrayList<>();
 
     for (URI uri : RequestHelper.splitRequest(url, parameters, maxUrlLength)) {
-      pages.add(restTemplate.exchange(uri, method, entity, parameterizedType).getBody());
+      tasks.add(() -> restTemplate.exchange(uri, method, entity, parameterizedType).getBody());
     }
 
+    List<PageDto<E>> pages = splitRequestExecutor.execute(tasks);
+
     PageDto<E> body = Merger
         .ofPages(pages)
         .withDefaultValue(PageDto::new)
@@ -354,10 +372,16 @@ public abstract class BaseCommunicationService<T> {
     this.authService = authService;
   }
 
-  void setRestTemplate(RestOperations template) {
+  @Autowired
+  public void setRestTemplate(RestOperations template) {
     this.restTemplate = template;
   }
 
+  @Autowired
+  public void setSplitRequestExecutor(SplitRequestExecutor splitRequestExecutor) {
+    this.splitRequestExecutor = splitRequestExecutor;
+  }
+
   private RequestHeaders addAuthHeader(RequestHeaders headers) {
     return null == headers
         ? RequestHeaders.init().setAuth(authService.obtainAccessToken())
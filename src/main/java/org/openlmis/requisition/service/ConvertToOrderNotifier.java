@@ -28,7 +28,7 @@ import org.openlmis.requisition.domain.requisition.StatusChange;
 import org.openlmis.requisition.dto.ProcessingPeriodDto;
 import org.openlmis.requisition.dto.ProgramDto;
 import org.openlmis.requisition.dto.UserDto;
-import org.openlmis.requisition.service.notification.NotificationService;
+import org.openlmis.requisition.service.notification.NotificationDispatcher;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
 import org.openlmis.requisition.service.referencedata.ProgramReferenceDataService;
 import org.openlmis.requisition.service.referencedata.UserReferenceDataService;
@@ -50,7 +50,7 @@ public class ConvertToOrderNotifier extends BaseNotifier {
   private PeriodReferenceDataService periodReferenceDataService;
 
   @Autowired
-  private NotificationService notificationService;
+  private NotificationDispatcher notificationDispatcher;
 
   @Autowired
   private UserReferenceDataService userReferenceDataService;
@@ -87,6 +87,6 @@ public class ConvertToOrderNotifier extends BaseNotifier {
     String smsContent = getMessage(REQUISITION_SMS_CONVERT_TO_ORDER_CONTENT, locale,
         program.getName(), period.getName());
 
-    notificationService.notify(initiator, subject, emailContent, smsContent, NOTIFICATION_TAG);
+    notificationDispatcher.dispatch(initiator, subject, emailContent, smsContent, NOTIFICATION_TAG);
   }
 }
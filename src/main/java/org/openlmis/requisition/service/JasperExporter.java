@@ -15,9 +15,10 @@
 
 package org.openlmis.requisition.service;
 
+import java.io.OutputStream;
 import net.sf.jasperreports.engine.JRException;
 
 public interface JasperExporter {
 
-  byte[] exportReport() throws JRException;
+  void exportReport(OutputStream outputStream) throws JRException;
 }
@@ -21,10 +21,13 @@ import static org.openlmis.requisition.i18n.MessageKeys.ERROR_IO;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_JASPER_FILE_FORMAT;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_REPORTING_TEMPLATE_PARAMETER_INVALID;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
@@ -43,13 +46,16 @@ import javax.sql.DataSource;
 import net.sf.jasperreports.engine.JRBand;
 import net.sf.jasperreports.engine.JRDataSource;
 import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
 import net.sf.jasperreports.engine.JasperCompileManager;
-import net.sf.jasperreports.engine.JasperExportManager;
 import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
 import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.fill.JRAbstractLRUVirtualizer;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
 import net.sf.jasperreports.engine.xml.JRXmlLoader;
 import org.openlmis.requisition.domain.JasperTemplate;
 import org.openlmis.requisition.domain.RequisitionTemplate;
@@ -66,31 +72,52 @@ import org.openlmis.requisition.dto.RequisitionReportDto;
 import org.openlmis.requisition.dto.TimelinessReportFacilityDto;
 import org.openlmis.requisition.exception.JasperReportViewException;
 import org.openlmis.requisition.exception.ValidationMessageException;
-import org.openlmis.requisition.repository.custom.DefaultRequisitionSearchParams;
-import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
+import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.GeographicZoneReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
 import org.openlmis.requisition.service.referencedata.ProgramReferenceDataService;
 import org.openlmis.requisition.utils.Message;
-import org.openlmis.requisition.utils.Pagination;
 import org.openlmis.requisition.utils.ReportUtils;
 import org.openlmis.requisition.web.ReportingRateReportDtoBuilder;
 import org.openlmis.requisition.web.RequisitionReportDtoBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 @Service
 @SuppressWarnings({"PMD.TooManyMethods"})
 public class JasperReportsViewService {
+  public static final String TIMELINESS_REPORT = "Timeliness Report";
+  public static final String REPORTING_RATE_REPORT = "Reporting Rate Report";
+
+  private static final int DEFAULT_DUE_DAYS = 10;
   private static final String DATASOURCE = "datasource";
   private static final String REQUISITION_REPORT_DIR = "/jasperTemplates/requisition.jrxml";
   private static final String REQUISITION_LINE_REPORT_DIR =
       "/jasperTemplates/requisitionLines.jrxml";
+  private static final long MAX_CACHED_LINE_SUBREPORTS = 100;
+  private static final long MAX_CACHED_TEMPLATE_REPORTS = 100;
+  private static final int SWAP_BLOCK_SIZE = 4096;
+  private static final int SWAP_MIN_GROW_COUNT = 100;
+
+  private final Cache<String, JasperReport> compiledReports = CacheBuilder
+      .newBuilder()
+      .build();
+
+  private final Cache<List<String>, JasperReport> compiledLineSubreports = CacheBuilder
+      .newBuilder()
+      .maximumSize(MAX_CACHED_LINE_SUBREPORTS)
+      .build();
+
+  private final Cache<UUID, CachedTemplateReport> templateReports = CacheBuilder
+      .newBuilder()
+      .maximumSize(MAX_CACHED_TEMPLATE_REPORTS)
+      .build();
 
   @Autowired
+  @Qualifier("replicationDataSource")
   private DataSource replicationDataSource;
 
   @Autowired
@@ -109,7 +136,7 @@ public class JasperReportsViewService {
   private GeographicZoneReferenceDataService geographicZoneReferenceDataService;
 
   @Autowired
-  private RequisitionService requisitionService;
+  private RequisitionRepository requisitionRepository;
 
   @Autowired
   private ReportingRateReportDtoBuilder reportingRateReportDtoBuilder;
@@ -129,17 +156,43 @@ public class JasperReportsViewService {
   @Value("${currencyLocale}")
   private String currencyLocale;
 
+  @Value("${reports.virtualizer.maxSize}")
+  private int virtualizerMaxSize;
+
+  @Value("${reports.virtualizer.directory}")
+  private String virtualizerDirectory;
+
+  /**
+   * Generate Jasper Report with the generator matching the type of the template.
+   *
+   * @param jasperTemplate template that will be used to generate the report
+   * @param params report parameters
+   * @param outputStream stream the generated report will be written to
+   * @throws JasperReportViewException if there will be any problem with generating the report.
+   */
+  public void generateTemplateReport(JasperTemplate jasperTemplate, Map<String, Object> params,
+      OutputStream outputStream) throws JasperReportViewException {
+    if (TIMELINESS_REPORT.equals(jasperTemplate.getType())) {
+      generateTimelinessReport(jasperTemplate, params, outputStream);
+    } else if (REPORTING_RATE_REPORT.equals(jasperTemplate.getType())) {
+      params.putIfAbsent("DueDays", String.valueOf(DEFAULT_DUE_DAYS));
+      generateReportingRateReport(jasperTemplate, params, outputStream);
+    } else {
+      generateReport(jasperTemplate, params, outputStream);
+    }
+  }
+
   /**
    * Generate Jasper Report.
    *
    * @param jasperTemplate template that will be used to generate the report
    * @param params report parameters
-   * @return generated report.
+   * @param outputStream stream the generated report will be written to
    * @throws JasperReportViewException if there will be any problem with generating the report.
    */
-  public byte[] generateReport(JasperTemplate jasperTemplate, Map<String, Object> params)
-      throws JasperReportViewException {
-    return fillAndExportReport(getReportFromTemplateData(jasperTemplate), params);
+  public void generateReport(JasperTemplate jasperTemplate, Map<String, Object> params,
+      OutputStream outputStream) throws JasperReportViewException {
+    fillAndExportReport(getReportFromTemplateData(jasperTemplate), params, outputStream);
   }
 
   /**
@@ -147,11 +200,11 @@ public class JasperReportsViewService {
    *
    * @param jasperTemplate template that will be used to generate the report
    * @param params report parameters
-   * @return generated report.
+   * @param outputStream stream the generated report will be written to
    * @throws JasperReportViewException if there will be any problem with generating the report.
    */
-  public byte[] generateReportingRateReport(JasperTemplate jasperTemplate,
-      Map<String, Object> params)
+  public void generateReportingRateReport(JasperTemplate jasperTemplate,
+      Map<String, Object> params, OutputStream outputStream)
       throws JasperReportViewException {
 
     UUID programId = (UUID) processParameter(params, "Program", true, UUID.class);
@@ -178,23 +231,23 @@ public class JasperReportsViewService {
     params.put("dateFormat", dateFormat);
     params.put("decimalFormat", createDecimalFormat());
 
-    return fillAndExportReport(getReportFromTemplateData(jasperTemplate), params);
+    fillAndExportReport(getReportFromTemplateData(jasperTemplate), params, outputStream);
   }
 
   /**
    * Generate Jasper Report for printing a requisition.
    *
    * @param requisition requisition for printing the report.
-   * @return generated report.
+   * @param outputStream stream the generated report will be written to
    * @throws JasperReportViewException if there will be any problem with generating the report.
    */
-  public byte[] generateRequisitionReport(Requisition requisition)
+  public void generateRequisitionReport(Requisition requisition, OutputStream outputStream)
       throws JasperReportViewException {
     RequisitionReportDto reportDto = requisitionReportDtoBuilder.build(requisition);
     RequisitionTemplate template = requisition.getTemplate();
 
     Map<String, Object> params = ReportUtils.createParametersMap();
-    params.put("subreport", createCustomizedRequisitionLineSubreport(template,
+    params.put("subreport", getCompiledRequisitionLineSubreport(template,
         requisition.getStatus()));
     params.put(DATASOURCE, Collections.singletonList(reportDto));
     params.put("template", template);
@@ -203,7 +256,19 @@ public class JasperReportsViewService {
     params.put("currencyDecimalFormat",
         NumberFormat.getCurrencyInstance(getLocaleFromService()));
 
-    return fillAndExportReport(compileReportFromTemplateUrl(REQUISITION_REPORT_DIR), params);
+    fillAndExportReport(getCompiledReport(REQUISITION_REPORT_DIR), params, outputStream);
+  }
+
+  /**
+   * Removes the compiled report of the given Jasper template from the cache. Should be called
+   * when the template is replaced or deleted.
+   *
+   * @param templateId id of the Jasper template.
+   */
+  public void evictTemplate(UUID templateId) {
+    if (null != templateId) {
+      templateReports.invalidate(templateId);
+    }
   }
 
   /**
@@ -211,11 +276,11 @@ public class JasperReportsViewService {
    *
    * @param jasperTemplate template that will be used to generate the report
    * @param parameters report parameters
-   * @return generated report.
+   * @param outputStream stream the generated report will be written to
    * @throws JasperReportViewException if there will be any problem with generating the report.
    */
-  public byte[] generateTimelinessReport(JasperTemplate jasperTemplate,
-      Map<String, Object> parameters)
+  public void generateTimelinessReport(JasperTemplate jasperTemplate,
+      Map<String, Object> parameters, OutputStream outputStream)
       throws JasperReportViewException {
     ProgramDto program = programReferenceDataService.findOne(
         UUID.fromString(parameters.get("program").toString())
@@ -236,20 +301,31 @@ public class JasperReportsViewService {
     parameters.put("period", period);
     parameters.put("district", district);
 
-    return fillAndExportReport(getReportFromTemplateData(jasperTemplate), parameters);
+    fillAndExportReport(getReportFromTemplateData(jasperTemplate), parameters, outputStream);
   }
 
-  private JasperDesign createCustomizedRequisitionLineSubreport(RequisitionTemplate template,
-                                                                RequisitionStatus requisitionStatus)
-      throws JasperReportViewException {
+  /**
+   * Returns the compiled line subreport for the given template and status. The customized design
+   * depends only on the ordered keys of the printed columns, so compiled subreports are cached by
+   * that list.
+   */
+  private JasperReport getCompiledRequisitionLineSubreport(RequisitionTemplate template,
+      RequisitionStatus requisitionStatus) throws JasperReportViewException {
+    Map<String, RequisitionTemplateColumn> columns =
+        ReportUtils.getSortedTemplateColumnsForPrint(template.viewColumns(), requisitionStatus);
+    List<String> columnKeys = new ArrayList<>(columns.keySet());
+
+    return getFromCache(compiledLineSubreports, columnKeys,
+        () -> compileReport(createCustomizedRequisitionLineSubreport(columns)));
+  }
+
+  private JasperDesign createCustomizedRequisitionLineSubreport(
+      Map<String, RequisitionTemplateColumn> columns) throws JasperReportViewException {
     try (InputStream inputStream = getClass().getResourceAsStream(REQUISITION_LINE_REPORT_DIR)) {
       JasperDesign design = JRXmlLoader.load(inputStream);
       JRBand detail = design.getDetailSection().getBands()[0];
       JRBand header = design.getColumnHeader();
 
-      Map<String, RequisitionTemplateColumn> columns =
-          ReportUtils.getSortedTemplateColumnsForPrint(template.viewColumns(), requisitionStatus);
-
       ReportUtils.customizeBandWithTemplateFields(detail, columns, design.getPageWidth(), 9);
       ReportUtils.customizeBandWithTemplateFields(header, columns, design.getPageWidth(), 9);
 
@@ -262,43 +338,54 @@ public class JasperReportsViewService {
   }
 
   /**
-   * Fill in and export a compiled report.
+   * Fill in a compiled report and export it to the given stream. Filled pages above the
+   * virtualizer limit are swapped to disk, so the memory used does not grow with the size of
+   * the report.
    */
-  byte[] fillAndExportReport(JasperReport compiledReport, Map<String, Object> params)
-      throws JasperReportViewException {
-
-    byte[] bytes;
+  void fillAndExportReport(JasperReport compiledReport, Map<String, Object> params,
+      OutputStream outputStream) throws JasperReportViewException {
+    JRAbstractLRUVirtualizer virtualizer = createVirtualizer();
 
     try {
+      params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+
       JasperPrint jasperPrint;
       if (params.containsKey(DATASOURCE)) {
         jasperPrint = fillJasperReport(compiledReport, params,
             new JRBeanCollectionDataSource((List) params.get(DATASOURCE)));
       } else {
-        jasperPrint = fillJasperReport(compiledReport, params,
-            replicationDataSource.getConnection());
+        try (Connection connection = replicationDataSource.getConnection()) {
+          jasperPrint = fillJasperReport(compiledReport, params, connection);
+        }
       }
 
+      virtualizer.setReadOnly(true);
+
       String format = (String) params.get("format");
       if ("csv".equals(format)) {
-        bytes = exportJasperReportToCsv(jasperPrint);
+        exportJasperReportToCsv(jasperPrint, outputStream);
       } else if ("xls".equals(format)) {
-        bytes = exportJasperReportToXls(jasperPrint);
+        exportJasperReportToXls(jasperPrint, outputStream);
       } else if ("html".equals(format)) {
-        bytes = exportJasperReportToHtml(jasperPrint);
+        exportJasperReportToHtml(jasperPrint, outputStream);
       } else {
-        bytes = exportJasperReportToPdf(jasperPrint);
+        exportJasperReportToPdf(jasperPrint, outputStream);
       }
     } catch (Exception e) {
       throw new JasperReportViewException(e, ERROR_JASPER_FILE_FORMAT, e.getMessage());
+    } finally {
+      virtualizer.cleanup();
     }
-
-    return bytes;
   }
 
   /**
-   * Return a compiled report from a Jasper template URL string.
+   * Return a compiled report from a Jasper template URL string. Reports are compiled only once.
    */
+  private JasperReport getCompiledReport(String templateUrl) throws JasperReportViewException {
+    return getFromCache(compiledReports, templateUrl,
+        () -> compileReportFromTemplateUrl(templateUrl));
+  }
+
   private JasperReport compileReportFromTemplateUrl(String templateUrl)
       throws JasperReportViewException {
     try (InputStream inputStream = getClass().getResourceAsStream(templateUrl)) {
@@ -311,11 +398,39 @@ public class JasperReportsViewService {
     }
   }
 
+  private JasperReport compileReport(JasperDesign design) throws JasperReportViewException {
+    try {
+      return JasperCompileManager.compileReport(design);
+    } catch (JRException ex) {
+      throw new JasperReportViewException(ex, ERROR_JASPER_FILE_FORMAT, ex.getMessage());
+    }
+  }
+
   /**
-   * Get (compiled) Jasper report from Jasper template.
+   * Get (compiled) Jasper report from Jasper template. Templates have no version, so a cached
+   * report is reused only as long as the stored template data has not changed.
    */
   private JasperReport getReportFromTemplateData(JasperTemplate jasperTemplate)
       throws JasperReportViewException {
+    UUID templateId = jasperTemplate.getId();
+
+    if (null == templateId) {
+      return readReportFromTemplateData(jasperTemplate);
+    }
+
+    CachedTemplateReport cached = templateReports.getIfPresent(templateId);
+
+    if (null == cached || !cached.isFor(jasperTemplate)) {
+      cached = new CachedTemplateReport(jasperTemplate.getData(),
+          readReportFromTemplateData(jasperTemplate));
+      templateReports.put(templateId, cached);
+    }
+
+    return cached.report;
+  }
+
+  private JasperReport readReportFromTemplateData(JasperTemplate jasperTemplate)
+      throws JasperReportViewException {
 
     try (ObjectInputStream inputStream = createObjectInputStream(jasperTemplate)) {
 
@@ -327,6 +442,18 @@ public class JasperReportsViewService {
     }
   }
 
+  private <K> JasperReport getFromCache(Cache<K, JasperReport> cache, K key,
+      ReportLoader loader) throws JasperReportViewException {
+    JasperReport report = cache.getIfPresent(key);
+
+    if (null == report) {
+      report = loader.load();
+      cache.put(key, report);
+    }
+
+    return report;
+  }
+
   private List<FacilityDto> getFacilitiesForTimelinessReport(
       ProgramDto program, ProcessingPeriodDto processingPeriod, GeographicZoneDto district) {
     Set<RequisitionStatus> validStatuses = Arrays.stream(RequisitionStatus.values())
@@ -340,26 +467,18 @@ public class JasperReportsViewService {
       facilities.addAll(facilityReferenceDataService.findAll());
     }
 
+    // one query for facilities with an approved R&R instead of one search per facility
+    Set<UUID> facilitiesWithRnR = requisitionRepository
+        .findFacilityIdsByProgramIdAndProcessingPeriodIdAndStatusIn(
+            program.getId(), processingPeriod.getId(), validStatuses);
+
     List<TimelinessReportFacilityDto> facilitiesMissingRnR = new ArrayList<>();
     // find active facilities that are missing R&R
     for (MinimalFacilityDto facility : facilities) {
-      if (facility.getActive()) {
-        RequisitionSearchParams params = new DefaultRequisitionSearchParams(
-            facility.getId(), program.getId(), processingPeriod.getId(),
-            null, null, null, null, null, null, validStatuses);
-
-        PageRequest pageRequest = PageRequest.of(Pagination.DEFAULT_PAGE_NUMBER,
-            Pagination.NO_PAGINATION);
-
-        List<Requisition> requisitions = requisitionService
-            .searchRequisitions(params, pageRequest)
-            .getContent();
-
-        if (requisitions.isEmpty()) {
-          TimelinessReportFacilityDto timelinessFacility = new TimelinessReportFacilityDto();
-          facility.export(timelinessFacility);
-          facilitiesMissingRnR.add(timelinessFacility);
-        }
+      if (facility.getActive() && !facilitiesWithRnR.contains(facility.getId())) {
+        TimelinessReportFacilityDto timelinessFacility = new TimelinessReportFacilityDto();
+        facility.export(timelinessFacility);
+        facilitiesMissingRnR.add(timelinessFacility);
       }
     }
 
@@ -427,23 +546,51 @@ public class JasperReportsViewService {
     return JasperFillManager.fillReport(jasperReport, parameters, connection);
   }
 
-  byte[] exportJasperReportToCsv(JasperPrint jasperPrint) throws JRException {
-    return new JasperCsvExporter(jasperPrint).exportReport();
+  void exportJasperReportToCsv(JasperPrint jasperPrint, OutputStream outputStream)
+      throws JRException {
+    new JasperCsvExporter(jasperPrint).exportReport(outputStream);
+  }
+
+  void exportJasperReportToXls(JasperPrint jasperPrint, OutputStream outputStream)
+      throws JRException {
+    new JasperXlsExporter(jasperPrint).exportReport(outputStream);
   }
 
-  byte[] exportJasperReportToXls(JasperPrint jasperPrint) throws JRException {
-    return new JasperXlsExporter(jasperPrint).exportReport();
+  void exportJasperReportToHtml(JasperPrint jasperPrint, OutputStream outputStream)
+      throws JRException {
+    new JasperHtmlExporter(jasperPrint).exportReport(outputStream);
   }
 
-  byte[] exportJasperReportToHtml(JasperPrint jasperPrint) throws JRException {
-    return new JasperHtmlExporter(jasperPrint).exportReport();
+  void exportJasperReportToPdf(JasperPrint jasperPrint, OutputStream outputStream)
+      throws JRException {
+    new JasperPdfExporter(jasperPrint).exportReport(outputStream);
   }
 
-  byte[] exportJasperReportToPdf(JasperPrint jasperPrint) throws JRException {
-    return JasperExportManager.exportReportToPdf(jasperPrint);
+  JRAbstractLRUVirtualizer createVirtualizer() {
+    return new JRSwapFileVirtualizer(virtualizerMaxSize,
+        new JRSwapFile(virtualizerDirectory, SWAP_BLOCK_SIZE, SWAP_MIN_GROW_COUNT), true);
   }
 
   protected Locale getLocaleFromService() {
     return new Locale(defaultLocale, currencyLocale);
   }
+
+  @FunctionalInterface
+  private interface ReportLoader {
+    JasperReport load() throws JasperReportViewException;
+  }
+
+  private static final class CachedTemplateReport {
+    private final byte[] data;
+    private final JasperReport report;
+
+    CachedTemplateReport(byte[] data, JasperReport report) {
+      this.data = data;
+      this.report = report;
+    }
+
+    boolean isFor(JasperTemplate jasperTemplate) {
+      return Arrays.equals(data, jasperTemplate.getData());
+    }
+  }
 }
@@ -64,6 +64,9 @@ public class JasperTemplateService {
   @Autowired
   private JasperTemplateRepository jasperTemplateRepository;
 
+  @Autowired
+  private JasperReportsViewService jasperReportsViewService;
+
   public JasperTemplate getByName(String name) {
     return jasperTemplateRepository.findByName(name);
   }
@@ -87,6 +90,7 @@ public class JasperTemplateService {
     JasperTemplate templateTmp = jasperTemplateRepository.findByName(jasperTemplate.getName());
     if (templateTmp != null) {
       jasperTemplateRepository.deleteById(templateTmp.getId());
+      jasperReportsViewService.evictTemplate(templateTmp.getId());
     }
     validateFileAndSetData(jasperTemplate, file);
     saveWithParameters(jasperTemplate);
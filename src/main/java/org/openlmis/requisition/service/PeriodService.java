@@ -25,9 +25,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionPeriod;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.openlmis.requisition.dto.ProcessingPeriodDto;
@@ -264,15 +265,15 @@ public class PeriodService {
     Collection<ProcessingPeriodDto> periods = searchByProgramAndFacility(programId, facilityId);
 
     if (periods != null) {
+      Map<UUID, RequisitionPeriod> requisitionPeriods =
+          getRegularRequisitionPeriods(facilityId, programId);
       RequisitionStatus previousStatus = null;
 
       for (ProcessingPeriodDto dto : periods) {
-        // There is always maximum one regular requisition for given period, facility and program
-        List<Requisition> requisitions = requisitionRepository.searchRequisitions(
-            dto.getId(), facilityId, programId, false);
+        RequisitionPeriod requisitionPeriod = requisitionPeriods.get(dto.getId());
 
-        if (!requisitions.isEmpty()) {
-          previousStatus = requisitions.get(0).getStatus();
+        if (null != requisitionPeriod) {
+          previousStatus = requisitionPeriod.getRequisitionStatus();
         } else {
           if (null != previousStatus && previousStatus.isPreAuthorize()) {
             throw new ValidationMessageException(new Message(ERROR_FINISH_PROVIOUS_REQUISITION));
@@ -287,6 +288,19 @@ public class PeriodService {
     return result;
   }
 
+  /**
+   * Returns IDs and statuses of regular requisitions for the given facility and program, keyed
+   * by the ID of their period. There is always maximum one regular requisition for given period,
+   * facility and program.
+   */
+  Map<UUID, RequisitionPeriod> getRegularRequisitionPeriods(UUID facilityId, UUID programId) {
+    return requisitionRepository
+        .searchRequisitionIdAndStatusPairs(facilityId, programId, false)
+        .stream()
+        .collect(Collectors.toMap(RequisitionPeriod::getPeriodId, Function.identity(),
+            (first, second) -> first));
+  }
+
   private void setRequisitionPeriodStatusAndId(RequisitionPeriodDto requisitionPeriodDto,
       RequisitionPeriod requisitionPeriod) {
     requisitionPeriodDto.setRequisitionId(requisitionPeriod.getRequisitionId());
@@ -29,6 +29,7 @@ import java.util.stream.Collectors;
 import org.openlmis.requisition.domain.BaseEntity;
 import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
+import org.openlmis.requisition.domain.requisition.RequisitionVersion;
 import org.openlmis.requisition.dto.ReleasableRequisitionDto;
 import org.openlmis.requisition.errorhandling.ValidationResult;
 import org.openlmis.requisition.repository.RequisitionRepository;
@@ -201,6 +202,17 @@ public class PermissionService {
     return checkRightOrRole(REQUISITION_VIEW, requisition);
   }
 
+  /**
+   * Checks if current user has a right assignment to view a requisition with the given version.
+   * Unlike {@link #canViewRequisition(Requisition)}, role assignments are not checked, so a failed
+   * result does not mean the user cannot view the requisition.
+   *
+   * @return ValidationResult containing info about the result of this check
+   */
+  public ValidationResult canViewRequisitionByRights(RequisitionVersion version) {
+    return checkRight(REQUISITION_VIEW, version.getFacilityId(), version.getProgramId());
+  }
+
   /**
    * Checks if current user has permission to convert requisition to order.
    *
@@ -245,6 +257,26 @@ public class PermissionService {
     return checkRight(REQUISITION_TEMPLATES_MANAGE);
   }
 
+  /**
+   * Checks if current user has permission to inspect and replay outbox events. This requires
+   * the right to manage requisition templates, the administrative right of this service.
+   *
+   * @return ValidationResult containing info about the result of this check
+   */
+  public ValidationResult canManageOutbox() {
+    return checkRight(REQUISITION_TEMPLATES_MANAGE);
+  }
+
+  /**
+   * Checks if current user has permission to evict checked access tokens from memory. This
+   * requires the right to manage requisition templates, the administrative right of this service.
+   *
+   * @return ValidationResult containing info about the result of this check
+   */
+  public ValidationResult canManageTokenCache() {
+    return checkRight(REQUISITION_TEMPLATES_MANAGE);
+  }
+
   /**
    * Checks if current user has permission to edit a report template.
    *
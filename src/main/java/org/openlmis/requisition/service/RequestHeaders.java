@@ -19,10 +19,13 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 import com.google.common.collect.Maps;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Consumer;
 import org.springframework.http.HttpHeaders;
 
 public final class RequestHeaders {
+  static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
   private Map<String, String> headers = Maps.newHashMap();
 
   private RequestHeaders() {
@@ -40,6 +43,10 @@ public final class RequestHeaders {
     return set(HttpHeaders.IF_NONE_MATCH, value);
   }
 
+  public RequestHeaders setIdempotencyKey(UUID key) {
+    return null == key ? this : set(IDEMPOTENCY_KEY, key.toString());
+  }
+
   /**
    * Set parameter (key argument) with the value only if the value is not null.
    */
@@ -51,6 +51,8 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.openlmis.requisition.domain.Rejection;
@@ -60,6 +62,7 @@ import org.openlmis.requisition.domain.requisition.ApprovedProductReference;
 import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionBuilder;
 import org.openlmis.requisition.domain.requisition.RequisitionLineItem;
+import org.openlmis.requisition.domain.requisition.RequisitionPeriod;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.openlmis.requisition.domain.requisition.StatusChange;
 import org.openlmis.requisition.domain.requisition.StatusMessage;
@@ -88,8 +91,9 @@ import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.repository.RejectionRepository;
 import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.repository.StatusMessageRepository;
+import org.openlmis.requisition.repository.custom.RequisitionCursor;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
-import org.openlmis.requisition.service.fulfillment.OrderFulfillmentService;
+import org.openlmis.requisition.service.outbox.OutboxService;
 import org.openlmis.requisition.service.referencedata.ApproveProductsAggregator;
 import org.openlmis.requisition.service.referencedata.IdealStockAmountReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PermissionStringDto;
@@ -101,6 +105,7 @@ import org.openlmis.requisition.service.referencedata.UserRoleAssignmentsReferen
 import org.openlmis.requisition.service.stockmanagement.StockCardRangeSummaryStockManagementService;
 import org.openlmis.requisition.service.stockmanagement.StockOnHandRetrieverBuilderFactory;
 import org.openlmis.requisition.utils.AuthenticationHelper;
+import org.openlmis.requisition.utils.KeysetPage;
 import org.openlmis.requisition.utils.Message;
 import org.openlmis.requisition.utils.Pagination;
 import org.openlmis.requisition.web.OrderDtoBuilder;
@@ -137,7 +142,7 @@ public class RequisitionService {
   private UserFulfillmentFacilitiesReferenceDataService fulfillmentFacilitiesReferenceDataService;
 
   @Autowired
-  private OrderFulfillmentService orderFulfillmentService;
+  private OutboxService outboxService;
 
   @Autowired
   private AuthenticationHelper authenticationHelper;
@@ -374,6 +379,96 @@ public class RequisitionService {
   public Page<Requisition> searchRequisitions(RequisitionSearchParams params, Pageable pageable) {
     Profiler profiler = new Profiler("REQUISITION_SERVICE_SEARCH");
     profiler.setLogger(LOGGER);
+    Optional<SearchPermissions> permissions = getSearchPermissions(params, profiler);
+
+    if (!permissions.isPresent()) {
+      profiler.stop().log();
+      return Pagination.getPage(Collections.emptyList(), pageable);
+    }
+
+    profiler.start("REPOSITORY_SEARCH");
+    Page<Requisition> results = requisitionRepository
+            .searchRequisitions(params, permissions.get().getPermissionStrings(),
+                permissions.get().getProgramNodePairs(), pageable);
+
+    profiler.stop().log();
+    return results;
+  }
+
+  /**
+   * Finds a page of requisitions matching all of the provided parameters that come after the
+   * given cursor.
+   */
+  public KeysetPage<Requisition> searchRequisitions(RequisitionSearchParams params,
+      RequisitionCursor cursor, int pageSize, boolean count) {
+    Profiler profiler = new Profiler("REQUISITION_SERVICE_SEARCH_CURSOR");
+    profiler.setLogger(LOGGER);
+    Optional<SearchPermissions> permissions = getSearchPermissions(params, profiler);
+
+    if (!permissions.isPresent()) {
+      profiler.stop().log();
+      return emptyKeysetPage(pageSize, count);
+    }
+
+    profiler.start("REPOSITORY_SEARCH");
+    KeysetPage<Requisition> results = requisitionRepository
+            .searchRequisitions(params, permissions.get().getPermissionStrings(),
+                permissions.get().getProgramNodePairs(), cursor, pageSize, count);
+
+    profiler.stop().log();
+    return results;
+  }
+
+  /**
+   * Get requisitions to approve for the specified user.
+   */
+  public Page<Requisition> getRequisitionsForApproval(UserDto user, UUID programId,
+                                                      Pageable pageable) {
+    Profiler profiler = new Profiler("REQUISITION_SERVICE_GET_FOR_APPROVAL");
+    profiler.setLogger(LOGGER);
+
+    Page<Requisition> requisitionsForApproval = Pagination.getPage(
+            Collections.emptyList(), pageable);
+    Optional<Set<Pair<UUID, UUID>>> programNodePairs = getApprovableProgramNodePairs(
+        user, programId, profiler);
+
+    if (programNodePairs.isPresent()) {
+      profiler.start("REQUISITION_REPOSITORY_SEARCH_APPROVABLE_BY_PAIRS");
+      requisitionsForApproval = requisitionRepository
+              .searchApprovableRequisitionsByProgramSupervisoryNodePairs(programNodePairs.get(),
+                      pageable);
+    }
+
+    profiler.stop().log();
+    return requisitionsForApproval;
+  }
+
+  /**
+   * Get a page of requisitions to approve for the specified user that come after the given
+   * cursor.
+   */
+  public KeysetPage<Requisition> getRequisitionsForApproval(UserDto user, UUID programId,
+      RequisitionCursor cursor, int pageSize, boolean count) {
+    Profiler profiler = new Profiler("REQUISITION_SERVICE_GET_FOR_APPROVAL_CURSOR");
+    profiler.setLogger(LOGGER);
+
+    KeysetPage<Requisition> requisitionsForApproval = emptyKeysetPage(pageSize, count);
+    Optional<Set<Pair<UUID, UUID>>> programNodePairs = getApprovableProgramNodePairs(
+        user, programId, profiler);
+
+    if (programNodePairs.isPresent()) {
+      profiler.start("REQUISITION_REPOSITORY_SEARCH_APPROVABLE_BY_PAIRS");
+      requisitionsForApproval = requisitionRepository
+              .searchApprovableRequisitionsByProgramSupervisoryNodePairs(programNodePairs.get(),
+                  cursor, pageSize, count);
+    }
+
+    profiler.stop().log();
+    return requisitionsForApproval;
+  }
+
+  private Optional<SearchPermissions> getSearchPermissions(RequisitionSearchParams params,
+      Profiler profiler) {
     UserDto user = authenticationHelper.getCurrentUser();
     List<String> permissionStrings = new ArrayList<>();
     Set<Pair<UUID, UUID>> programNodePairs = Sets.newHashSet();
@@ -401,29 +496,15 @@ public class RequisitionService {
               .collect(toSet());
 
       if (permissionStrings.isEmpty() && programNodePairs.isEmpty()) {
-        profiler.stop().log();
-        return Pagination.getPage(Collections.emptyList(), pageable);
+        return Optional.empty();
       }
     }
 
-    profiler.start("REPOSITORY_SEARCH");
-    Page<Requisition> results = requisitionRepository
-            .searchRequisitions(params, permissionStrings, programNodePairs, pageable);
-
-    profiler.stop().log();
-    return results;
+    return Optional.of(new SearchPermissions(permissionStrings, programNodePairs));
   }
 
-  /**
-   * Get requisitions to approve for the specified user.
-   */
-  public Page<Requisition> getRequisitionsForApproval(UserDto user, UUID programId,
-                                                      Pageable pageable) {
-    Profiler profiler = new Profiler("REQUISITION_SERVICE_GET_FOR_APPROVAL");
-    profiler.setLogger(LOGGER);
-
-    Page<Requisition> requisitionsForApproval = Pagination.getPage(
-            Collections.emptyList(), pageable);
+  private Optional<Set<Pair<UUID, UUID>>> getApprovableProgramNodePairs(UserDto user,
+      UUID programId, Profiler profiler) {
     RightDto right = rightReferenceDataService.findRight(PermissionService.REQUISITION_APPROVE);
     List<DetailedRoleAssignmentDto> roleAssignments = userRoleAssignmentsReferenceDataService
         .getRoleAssignments(user.getId())
@@ -431,25 +512,23 @@ public class RequisitionService {
         .filter(r -> r.getRole().getRights().contains(right))
         .collect(toList());
 
-    if (!CollectionUtils.isEmpty(roleAssignments)) {
-      profiler.start("GET_PROGRAM_AND_NODE_IDS_FROM_ROLE_ASSIGNMENTS");
-      Set<Pair<UUID, UUID>> programNodePairs = roleAssignments
-              .stream()
-              .filter(item -> Objects.nonNull(item.getRole().getId()))
-              .filter(item -> Objects.nonNull(item.getSupervisoryNodeId()))
-              .filter(item -> Objects.nonNull(item.getProgramId()))
-              .filter(item -> null == programId || programId.equals(item.getProgramId()))
-              .map(item -> new ImmutablePair<>(item.getProgramId(), item.getSupervisoryNodeId()))
-              .collect(toSet());
-
-      profiler.start("REQUISITION_REPOSITORY_SEARCH_APPROVABLE_BY_PAIRS");
-      requisitionsForApproval = requisitionRepository
-              .searchApprovableRequisitionsByProgramSupervisoryNodePairs(programNodePairs,
-                      pageable);
+    if (CollectionUtils.isEmpty(roleAssignments)) {
+      return Optional.empty();
     }
 
-    profiler.stop().log();
-    return requisitionsForApproval;
+    profiler.start("GET_PROGRAM_AND_NODE_IDS_FROM_ROLE_ASSIGNMENTS");
+    return Optional.of(roleAssignments
+            .stream()
+            .filter(item -> Objects.nonNull(item.getRole().getId()))
+            .filter(item -> Objects.nonNull(item.getSupervisoryNodeId()))
+            .filter(item -> Objects.nonNull(item.getProgramId()))
+            .filter(item -> null == programId || programId.equals(item.getProgramId()))
+            .map(item -> new ImmutablePair<>(item.getProgramId(), item.getSupervisoryNodeId()))
+            .collect(toSet()));
+  }
+
+  private KeysetPage<Requisition> emptyKeysetPage(int pageSize, boolean count) {
+    return new KeysetPage<>(Collections.emptyList(), pageSize, null, count ? 0L : null);
   }
 
   /**
@@ -698,8 +777,8 @@ public class RequisitionService {
     profiler.start("BUILD_ORDER_DTOS_AND_SAVE_REQUISITION");
     List<OrderDto> orders = buildOrders(releasedRequisitions, user);
 
-    profiler.start("CREATE_ORDER_IN_FULFILLMENT");
-    orderFulfillmentService.create(orders);
+    profiler.start("PUBLISH_ORDERS");
+    outboxService.publishOrders(orders);
 
     profiler.stop().log();
     return releasedRequisitions;
@@ -780,32 +859,34 @@ public class RequisitionService {
   }
 
   private boolean isRequisitionNewest(Requisition requisition) {
-    Requisition recentRequisition = findRecentRegularRequisition(
+    UUID recentRequisitionId = findRecentRegularRequisitionId(
             requisition.getProgramId(), requisition.getFacilityId()
     );
-    return null == recentRequisition || requisition.getId().equals(recentRequisition.getId());
+    return null == recentRequisitionId || requisition.getId().equals(recentRequisitionId);
   }
 
   /**
-   * Returns requisition associated with the most recent period for given program and facility.
+   * Returns ID of requisition associated with the most recent period for given program and
+   * facility.
    *
    * @param programId  Program for Requisition
    * @param facilityId Facility for Requisition
-   * @return Requisition.
+   * @return Requisition ID.
    */
-  private Requisition findRecentRegularRequisition(UUID programId, UUID facilityId) {
-    Requisition result = null;
+  private UUID findRecentRegularRequisitionId(UUID programId, UUID facilityId) {
+    UUID result = null;
     Collection<ProcessingPeriodDto> periods =
             periodService.searchByProgramAndFacility(programId, facilityId);
 
     if (periods != null) {
+      Map<UUID, RequisitionPeriod> requisitionPeriods =
+          periodService.getRegularRequisitionPeriods(facilityId, programId);
+
       for (ProcessingPeriodDto dto : periods) {
-        // There is always maximum one regular requisition for given period, facility and program
-        List<Requisition> requisitions = requisitionRepository.searchRequisitions(
-                dto.getId(), facilityId, programId, false);
+        RequisitionPeriod requisitionPeriod = requisitionPeriods.get(dto.getId());
 
-        if (!requisitions.isEmpty()) {
-          result = requisitions.get(0);
+        if (null != requisitionPeriod) {
+          result = requisitionPeriod.getRequisitionId();
         } else {
           break;
         }
@@ -889,4 +970,11 @@ public class RequisitionService {
     approvalNotifier
             .notifyApproversUnskippedRequisitionLineItems(requisition,approver,locale,initiator);
   }
+
+  @Getter
+  @AllArgsConstructor
+  private static final class SearchPermissions {
+    private final List<String> permissionStrings;
+    private final Set<Pair<UUID, UUID>> programNodePairs;
+  }
 }
@@ -36,7 +36,7 @@ import org.openlmis.requisition.dto.FacilityDto;
 import org.openlmis.requisition.dto.ProcessingPeriodDto;
 import org.openlmis.requisition.dto.ProgramDto;
 import org.openlmis.requisition.dto.UserDto;
-import org.openlmis.requisition.service.notification.NotificationService;
+import org.openlmis.requisition.service.notification.NotificationDispatcher;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
 import org.openlmis.requisition.service.referencedata.ProgramReferenceDataService;
@@ -63,7 +63,7 @@ public class RequisitionStatusNotifier extends BaseNotifier {
   private FacilityReferenceDataService facilityReferenceDataService;
 
   @Autowired
-  private NotificationService notificationService;
+  private NotificationDispatcher notificationDispatcher;
 
   @Autowired
   private UserReferenceDataService userReferenceDataService;
@@ -121,7 +121,7 @@ public class RequisitionStatusNotifier extends BaseNotifier {
 
     StrSubstitutor sub = new StrSubstitutor(valuesMap);
 
-    notificationService.notify(initiator, subject, sub.replace(emailContent),
+    notificationDispatcher.dispatch(initiator, subject, sub.replace(emailContent),
         sub.replace(smsContent), NOTIFICATION_TAG);
   }
 
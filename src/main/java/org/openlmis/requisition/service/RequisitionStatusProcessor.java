@@ -22,10 +22,10 @@ import org.springframework.scheduling.annotation.Async;
 public interface RequisitionStatusProcessor {
 
   /**
-   * Process requisition status change.
+   * Process requisition status change. Runs on the {@link StatusChangeExecutor}.
    *
    * @param requisition a requisition that has just changed its status
    */
-  @Async
+  @Async(StatusChangeExecutor.NAME)
   void statusChange(Requisition requisition, Locale locale);
 }
@@ -15,17 +15,37 @@
 
 package org.openlmis.requisition.service;
 
+import java.util.Set;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import org.openlmis.requisition.dto.ResultDto;
 import org.openlmis.requisition.dto.RightDto;
 import org.openlmis.requisition.dto.UserDto;
+import org.openlmis.requisition.service.referencedata.PermissionStringDto;
+import org.openlmis.requisition.service.referencedata.PermissionStrings;
 import org.openlmis.requisition.service.referencedata.UserReferenceDataService;
 import org.openlmis.requisition.utils.AuthenticationHelper;
+import org.openlmis.requisition.utils.RequestMemo;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Checks right assignments of the current user against the user's permission strings, which are
+ * cached in memory. The reference data service is asked only if the permission strings could not
+ * be retrieved or, when the remote fallback is enabled, if they do not contain the right. Results
+ * are kept for the rest of the HTTP request.
+ */
 @Component
 class RightAssignmentPermissionValidator extends BasePermissionValidator {
+  private static final XLogger XLOGGER =
+      XLoggerFactory.getXLogger(RightAssignmentPermissionValidator.class);
+
+  private static final String MEMO_NAME = "rightAssignmentPermissions";
 
   @Autowired
   private AuthenticationHelper authenticationHelper;
@@ -33,8 +53,56 @@ class RightAssignmentPermissionValidator extends BasePermissionValidator {
   @Autowired
   private UserReferenceDataService userReferenceDataService;
 
+  @Autowired
+  private PermissionStrings permissionStrings;
+
+  @Value("${permissionCheck.remoteFallback}")
+  private boolean remoteFallback;
+
   @Override
   boolean checkUserToken(PermissionValidationDetails details, Profiler profiler) {
+    profiler.start("GET_CURRENT_USER_ID");
+    UUID userId = authenticationHelper.getCurrentUserId();
+
+    return RequestMemo.get(MEMO_NAME, new MemoKey(userId, details),
+        key -> checkUserRight(userId, details, profiler));
+  }
+
+  private boolean checkUserRight(UUID userId, PermissionValidationDetails details,
+      Profiler profiler) {
+    profiler.start("GET_PERMISSION_STRINGS");
+    Set<PermissionStringDto> userPermissionStrings = getPermissionStrings(userId);
+
+    if (null != userPermissionStrings) {
+      profiler.start("CHECK_PERMISSION_STRINGS");
+      UUID facilityId = null == details.getWarehouseId()
+          ? details.getFacilityId()
+          : details.getWarehouseId();
+      PermissionStringDto permissionString = PermissionStringDto
+          .create(details.getRightName(), facilityId, details.getProgramId());
+
+      if (userPermissionStrings.contains(permissionString)) {
+        return true;
+      }
+
+      if (!remoteFallback) {
+        return false;
+      }
+    }
+
+    return checkRemoteRight(details, profiler);
+  }
+
+  private Set<PermissionStringDto> getPermissionStrings(UUID userId) {
+    try {
+      return permissionStrings.forUser(userId).get();
+    } catch (RuntimeException ex) {
+      XLOGGER.warn("Could not retrieve permission strings of user {}", userId, ex);
+      return null;
+    }
+  }
+
+  private boolean checkRemoteRight(PermissionValidationDetails details, Profiler profiler) {
     profiler.start("GET_CURRENT_USER");
     UserDto user = authenticationHelper.getCurrentUser();
 
@@ -49,4 +117,11 @@ class RightAssignmentPermissionValidator extends BasePermissionValidator {
     return null != result && result.getResult();
   }
 
+  @EqualsAndHashCode
+  @AllArgsConstructor
+  private static final class MemoKey {
+    private final UUID userId;
+    private final PermissionValidationDetails details;
+  }
+
 }
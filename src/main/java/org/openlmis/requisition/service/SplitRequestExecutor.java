@@ -0,0 +1,103 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.openlmis.requisition.utils.BoundedExecutors;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the sub-requests of a request that was split because of the maximum URL length. The
+ * sub-requests are executed concurrently on a bounded, shared thread pool. When the pool and its
+ * queue are saturated the sub-request is executed by the calling thread. With a queue capacity
+ * of zero sub-requests are never queued. With parallelism lower than two all sub-requests are
+ * executed sequentially by the calling thread.
+ */
+@Component
+public class SplitRequestExecutor implements DisposableBean {
+  private final ExecutorService executor;
+
+  SplitRequestExecutor() {
+    this(1, 0);
+  }
+
+  /**
+   * Creates a new executor with the given number of threads and queue capacity.
+   */
+  @Autowired
+  public SplitRequestExecutor(@Value("${request.split.parallelism}") int parallelism,
+      @Value("${request.split.queueCapacity}") int queueCapacity) {
+    if (parallelism > 1) {
+      executor = BoundedExecutors.newThreadPool(parallelism, queueCapacity, "split-request-",
+          new ThreadPoolExecutor.CallerRunsPolicy());
+    } else {
+      executor = null;
+    }
+  }
+
+  /**
+   * Executes the given tasks and returns their results in the same order as the tasks. If any
+   * task fails, the exception thrown by the first failed task (in task order) is rethrown and
+   * tasks that have not started yet are skipped. Tasks that are already running, for example
+   * with a request in flight, are not interrupted; they finish and their results are discarded.
+   */
+  public <R> List<R> execute(List<Supplier<R>> tasks) {
+    if (null == executor || tasks.size() < 2) {
+      return tasks
+          .stream()
+          .map(Supplier::get)
+          .collect(Collectors.toList());
+    }
+
+    List<CompletableFuture<R>> futures = tasks
+        .stream()
+        .map(task -> supplyAsync(task, executor))
+        .collect(Collectors.toList());
+
+    try {
+      return futures
+          .stream()
+          .map(CompletableFuture::join)
+          .collect(Collectors.toList());
+    } catch (CompletionException ex) {
+      futures.forEach(future -> future.cancel(true));
+
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+
+      throw ex;
+    }
+  }
+
+  @Override
+  public void destroy() {
+    if (null != executor) {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openlmis.requisition.utils.BoundedExecutors;
+import org.openlmis.requisition.utils.LatencyStats;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs requisition status change processing (see {@link RequisitionStatusProcessor}) on a bounded
+ * thread pool with a bounded queue. When the queue is full, the task is either run by the calling
+ * thread or dropped, depending on the configured rejection policy. On shutdown, queued tasks are
+ * given the configured time to finish before the remaining ones are cancelled.
+ */
+@Component(StatusChangeExecutor.NAME)
+public class StatusChangeExecutor implements TaskExecutor, DisposableBean {
+  public static final String NAME = "statusChangeExecutor";
+
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(StatusChangeExecutor.class);
+
+  public enum RejectionPolicy {
+    CALLER_RUNS, DROP
+  }
+
+  private final ThreadPoolExecutor executor;
+  private final long shutdownTimeout;
+
+  private final AtomicLong callerRuns = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final LatencyStats queueTimes = new LatencyStats();
+  private final LatencyStats latencies = new LatencyStats();
+
+  /**
+   * Creates a new executor with the given number of threads, queue capacity, rejection policy
+   * and time (in milliseconds) given to queued tasks to finish on shutdown.
+   */
+  @Autowired
+  public StatusChangeExecutor(@Value("${statusChange.executor.threads}") int threads,
+      @Value("${statusChange.executor.queueCapacity}") int queueCapacity,
+      @Value("${statusChange.executor.rejectionPolicy}") RejectionPolicy rejectionPolicy,
+      @Value("${statusChange.executor.shutdownTimeout}") long shutdownTimeout) {
+    this.shutdownTimeout = shutdownTimeout;
+    this.executor = BoundedExecutors.newThreadPool(threads, queueCapacity, "status-change-",
+        createRejectionHandler(rejectionPolicy));
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    executor.execute(measure(task));
+  }
+
+  public int getQueueSize() {
+    return executor.getQueue().size();
+  }
+
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  public long getCompletedCount() {
+    return latencies.getCount();
+  }
+
+  public long getCallerRunsCount() {
+    return callerRuns.get();
+  }
+
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * Returns the average time (in milliseconds) a task waited in the queue before it was started.
+   */
+  public double getAverageQueueTime() {
+    return queueTimes.getAverage();
+  }
+
+  public long getMaxQueueTime() {
+    return queueTimes.getMax();
+  }
+
+  /**
+   * Returns the average time (in milliseconds) from submitting a task until it was finished.
+   */
+  public double getAverageLatency() {
+    return latencies.getAverage();
+  }
+
+  public long getMaxLatency() {
+    return latencies.getMax();
+  }
+
+  /**
+   * Logs usage statistics of the executor (at debug level).
+   */
+  @Scheduled(fixedDelayString = "${statusChange.executor.statsInterval}")
+  public void logStats() {
+    XLOGGER.debug("Status change executor: queued={}, active={}, completed={}, callerRuns={}, "
+            + "dropped={}, averageQueueTime={} ms, maxQueueTime={} ms, averageLatency={} ms, "
+            + "maxLatency={} ms", getQueueSize(), getActiveCount(), getCompletedCount(),
+        getCallerRunsCount(), getDroppedCount(), getAverageQueueTime(), getMaxQueueTime(),
+        getAverageLatency(), getMaxLatency());
+  }
+
+  /**
+   * Stops accepting new tasks and waits for the queued ones to finish, at most for the shutdown
+   * timeout. Tasks that have not started by then are cancelled.
+   */
+  @Override
+  public void destroy() {
+    executor.shutdown();
+
+    try {
+      if (!executor.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+        int cancelled = executor.shutdownNow().size();
+        XLOGGER.warn("Status change executor did not finish within {} ms, {} tasks were cancelled",
+            shutdownTimeout, cancelled);
+      }
+    } catch (InterruptedException ex) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private Runnable measure(Runnable task) {
+    long submittedAt = System.currentTimeMillis();
+
+    return () -> {
+      long queueTime = System.currentTimeMillis() - submittedAt;
+
+      try {
+        task.run();
+      } finally {
+        queueTimes.record(queueTime);
+        latencies.record(System.currentTimeMillis() - submittedAt);
+      }
+    };
+  }
+
+  private RejectedExecutionHandler createRejectionHandler(RejectionPolicy rejectionPolicy) {
+    return (task, pool) -> {
+      if (RejectionPolicy.CALLER_RUNS == rejectionPolicy && !pool.isShutdown()) {
+        callerRuns.incrementAndGet();
+        task.run();
+      } else {
+        dropped.incrementAndGet();
+        XLOGGER.warn("Status change task was dropped, queue size: {}", pool.getQueue().size());
+      }
+    };
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.audit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Passes requisitions saved or deleted through the
+ * {@link org.openlmis.requisition.repository.RequisitionRepository} to the
+ * {@link RequisitionAuditor}, so that they are committed to the audit log.
+ */
+@Aspect
+@Component
+public class RequisitionAuditAspect {
+
+  @Autowired
+  private RequisitionAuditor requisitionAuditor;
+
+  /**
+   * Records the requisitions returned by a save method of the repository.
+   */
+  @AfterReturning(
+      pointcut = "this(org.openlmis.requisition.repository.RequisitionRepository)"
+          + " && execution(public * save*(..))",
+      returning = "result")
+  public void onSave(Object result) {
+    requisitionAuditor.saved(toRequisitions(result));
+  }
+
+  /**
+   * Records the requisitions passed to a delete method of the repository.
+   */
+  @AfterReturning("this(org.openlmis.requisition.repository.RequisitionRepository)"
+      + " && execution(public * delete*(..))")
+  public void onDelete(JoinPoint joinPoint) {
+    List<Requisition> requisitions = new ArrayList<>();
+
+    for (Object arg : joinPoint.getArgs()) {
+      requisitions.addAll(toRequisitions(arg));
+    }
+
+    if (!requisitions.isEmpty()) {
+      requisitionAuditor.deleted(requisitions);
+    }
+  }
+
+  private List<Requisition> toRequisitions(Object object) {
+    List<Requisition> requisitions = new ArrayList<>();
+
+    if (object instanceof Iterable) {
+      for (Object element : (Iterable<?>) object) {
+        requisitions.addAll(toRequisitions(element));
+      }
+    } else if (object instanceof Requisition) {
+      requisitions.add((Requisition) object);
+    } else if (object instanceof UUID) {
+      Requisition requisition = new Requisition();
+      requisition.setId((UUID) object);
+      requisitions.add(requisition);
+    }
+
+    return requisitions;
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.audit;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.openlmis.requisition.domain.requisition.ApprovedProductReference;
+import org.openlmis.requisition.domain.requisition.DatePhysicalStockCountCompleted;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionStatus;
+import org.openlmis.requisition.domain.requisition.VersionEntityReference;
+
+/**
+ * The audited properties of a requisition, stored until the requisition is committed to the
+ * audit log. Dates are kept as text, so that they are restored with the same time zone.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public final class RequisitionAuditState {
+  private UUID id;
+  private String createdDate;
+  private String modifiedDate;
+  private Long version;
+  private String draftStatusMessage;
+  private UUID facilityId;
+  private UUID programId;
+  private UUID processingPeriodId;
+  private UUID supplyingFacilityId;
+  private RequisitionStatus status;
+  private Boolean emergency;
+  private Boolean reportOnly;
+  private Integer numberOfMonthsInPeriod;
+  private UUID supervisoryNodeId;
+  private List<AvailableProduct> availableProducts;
+  private String datePhysicalStockCountCompleted;
+  private Map<String, Object> extraData;
+
+  /**
+   * Creates the state of the given requisition.
+   */
+  public static RequisitionAuditState of(Requisition requisition) {
+    RequisitionAuditState state = new RequisitionAuditState();
+    state.id = requisition.getId();
+    state.createdDate = format(requisition.getCreatedDate());
+    state.modifiedDate = format(requisition.getModifiedDate());
+    state.version = requisition.getVersion();
+    state.draftStatusMessage = requisition.getDraftStatusMessage();
+    state.facilityId = requisition.getFacilityId();
+    state.programId = requisition.getProgramId();
+    state.processingPeriodId = requisition.getProcessingPeriodId();
+    state.supplyingFacilityId = requisition.getSupplyingFacilityId();
+    state.status = requisition.getStatus();
+    state.emergency = requisition.getEmergency();
+    state.reportOnly = requisition.getReportOnly();
+    state.numberOfMonthsInPeriod = requisition.getNumberOfMonthsInPeriod();
+    state.supervisoryNodeId = requisition.getSupervisoryNodeId();
+    state.availableProducts = Optional
+        .ofNullable(requisition.getAvailableProducts())
+        .map(products -> products
+            .stream()
+            .map(AvailableProduct::of)
+            .collect(Collectors.toList()))
+        .orElse(null);
+    state.datePhysicalStockCountCompleted = Optional
+        .ofNullable(requisition.getDatePhysicalStockCountCompleted())
+        .map(date -> date.getLocalDate().toString())
+        .orElse(null);
+    state.extraData = new LinkedHashMap<>(requisition.getExtraData());
+    return state;
+  }
+
+  /**
+   * Creates a requisition with the audited properties of this state. Other properties are not
+   * set.
+   */
+  public Requisition toRequisition() {
+    Requisition requisition = new Requisition();
+    requisition.setId(id);
+    requisition.setCreatedDate(parse(createdDate));
+    requisition.setModifiedDate(parse(modifiedDate));
+    requisition.setVersion(version);
+
+    if (null != draftStatusMessage) {
+      requisition.setDraftStatusMessage(draftStatusMessage);
+    }
+
+    requisition.setFacilityId(facilityId);
+    requisition.setProgramId(programId);
+    requisition.setProcessingPeriodId(processingPeriodId);
+    requisition.setSupplyingFacilityId(supplyingFacilityId);
+    requisition.setStatus(status);
+    requisition.setEmergency(emergency);
+    requisition.setReportOnly(reportOnly);
+    requisition.setNumberOfMonthsInPeriod(numberOfMonthsInPeriod);
+    requisition.setSupervisoryNodeId(supervisoryNodeId);
+
+    if (null != availableProducts) {
+      Set<ApprovedProductReference> products = availableProducts
+          .stream()
+          .map(AvailableProduct::toReference)
+          .collect(Collectors.toCollection(LinkedHashSet::new));
+      requisition.setAvailableProducts(products);
+    }
+
+    if (null != datePhysicalStockCountCompleted) {
+      requisition.setDatePhysicalStockCountCompleted(new DatePhysicalStockCountCompleted(
+          LocalDate.parse(datePhysicalStockCountCompleted)));
+    }
+
+    requisition.setExtraData(extraData);
+    return requisition;
+  }
+
+  private static String format(ZonedDateTime date) {
+    return null == date ? null : date.toString();
+  }
+
+  private static ZonedDateTime parse(String date) {
+    return null == date ? null : ZonedDateTime.parse(date);
+  }
+
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  @ToString
+  public static final class AvailableProduct {
+    private UUID orderableId;
+    private Long orderableVersionNumber;
+    private UUID facilityTypeApprovedProductId;
+    private Long facilityTypeApprovedProductVersionNumber;
+
+    static AvailableProduct of(ApprovedProductReference reference) {
+      VersionEntityReference orderable = reference.getOrderable();
+      VersionEntityReference approvedProduct = reference.getFacilityTypeApprovedProduct();
+
+      return new AvailableProduct(
+          null == orderable ? null : orderable.getId(),
+          null == orderable ? null : orderable.getVersionNumber(),
+          null == approvedProduct ? null : approvedProduct.getId(),
+          null == approvedProduct ? null : approvedProduct.getVersionNumber());
+    }
+
+    ApprovedProductReference toReference() {
+      return new ApprovedProductReference(facilityTypeApprovedProductId,
+          facilityTypeApprovedProductVersionNumber, orderableId, orderableVersionNumber);
+    }
+  }
+}
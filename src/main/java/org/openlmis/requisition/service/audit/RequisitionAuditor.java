@@ -0,0 +1,411 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.audit;
+
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_IO;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.javers.core.Javers;
+import org.javers.repository.jql.QueryBuilder;
+import org.javers.spring.auditable.AuthorProvider;
+import org.openlmis.requisition.domain.audit.RequisitionAuditEntry;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.exception.ServerException;
+import org.openlmis.requisition.repository.RequisitionAuditEntryRepository;
+import org.openlmis.requisition.utils.LatencyStats;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.slf4j.profiler.Profiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Commits saved and deleted requisitions to the audit log in the background. When a transaction
+ * that saved or deleted requisitions is about to commit, the audited state of each requisition
+ * is stored as a {@link RequisitionAuditEntry} in the same transaction, together with the author
+ * of the transaction. Entries are committed to JaVers in batches, one JaVers commit per entry,
+ * and are deleted in the same transaction, so each entry is committed exactly once and the
+ * table only holds entries that were not committed yet. The entries of a requisition are
+ * committed in the order in which its transactions were committed. An entry that keeps failing
+ * is parked after the maximum number of attempts: it stays in the table for inspection and no
+ * longer blocks the entries behind it. When the auditor is disabled, or a requisition is saved
+ * outside of a transaction, the requisition is committed immediately.
+ */
+@Component
+public class RequisitionAuditor {
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(RequisitionAuditor.class);
+
+  static final String CAPTURED_DATE_PROPERTY = "capturedDate";
+
+  @Autowired
+  private Javers javers;
+
+  @Autowired
+  private AuthorProvider authorProvider;
+
+  @Autowired
+  private RequisitionAuditEntryRepository auditEntryRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private Clock clock;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Value("${audit.async.enabled}")
+  private boolean enabled;
+
+  @Value("${audit.async.batchSize}")
+  private int batchSize;
+
+  @Value("${audit.async.maxAttempts}")
+  private int maxAttempts;
+
+  private final AtomicLong captured = new AtomicLong();
+  private final AtomicLong committed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong parked = new AtomicLong();
+  private final LatencyStats lags = new LatencyStats();
+
+  /**
+   * Records that the given requisitions were saved. Their state at the end of the current
+   * transaction is committed to the audit log after the transaction commits.
+   */
+  public void saved(Collection<Requisition> requisitions) {
+    if (requisitions.isEmpty()) {
+      return;
+    }
+
+    if (!isDeferred()) {
+      String author = authorProvider.provide();
+      requisitions.forEach(requisition -> javers.commit(author, requisition));
+      return;
+    }
+
+    PendingAudit pending = getPendingAudit();
+
+    for (Requisition requisition : requisitions) {
+      pending.saved.put(requisition.getId(), requisition);
+    }
+  }
+
+  /**
+   * Records that the given requisitions were deleted. The deletion is committed to the audit log
+   * after the current transaction commits. Requisitions that were never committed to the audit
+   * log are skipped.
+   */
+  public void deleted(Collection<Requisition> requisitions) {
+    if (!isDeferred()) {
+      String author = authorProvider.provide();
+      requisitions.forEach(requisition -> commitDeletion(author, requisition.getId(),
+          Collections.emptyMap()));
+      return;
+    }
+
+    PendingAudit pending = getPendingAudit();
+
+    for (Requisition requisition : requisitions) {
+      pending.saved.remove(requisition.getId());
+      pending.deleted.add(requisition.getId());
+    }
+  }
+
+  /**
+   * Commits waiting entries to the audit log, at most the batch size in one transaction, until
+   * there are no more entries that can be committed. If a batch fails, its entries are committed
+   * one by one, so that a failing entry does not hold back the others, and the flush stops until
+   * the next interval. An entry that failed the maximum number of times is parked.
+   */
+  @Scheduled(fixedDelayString = "${audit.async.interval}")
+  public void flush() {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    List<UUID> claimed = new ArrayList<>();
+    List<RequisitionAuditEntry> entries;
+
+    do {
+      Profiler profiler = new Profiler("FLUSH_REQUISITION_AUDIT");
+      profiler.setLogger(XLOGGER);
+      claimed.clear();
+
+      try {
+        entries = transaction.execute(status -> commitNext(claimed, profiler));
+        recordCommitted(entries);
+      } catch (RuntimeException ex) {
+        XLOGGER.warn("Could not commit a batch of {} requisition audit entries, committing them"
+            + " one by one", claimed.size(), ex);
+        profiler.start("COMMIT_ONE_BY_ONE");
+        Set<UUID> blocked = new LinkedHashSet<>();
+        claimed.forEach(id -> commitSeparately(transaction, id, blocked));
+        entries = Collections.emptyList();
+      }
+
+      profiler.stop().log();
+    } while (!entries.isEmpty());
+  }
+
+  /**
+   * Returns the number of entries waiting to be committed.
+   */
+  public long getQueueDepth() {
+    return auditEntryRepository.count();
+  }
+
+  public long getCapturedCount() {
+    return captured.get();
+  }
+
+  public long getCommittedCount() {
+    return committed.get();
+  }
+
+  public long getFailedCount() {
+    return failed.get();
+  }
+
+  /**
+   * Returns the number of entries that were parked by this instance.
+   */
+  public long getParkedCount() {
+    return parked.get();
+  }
+
+  /**
+   * Returns the number of parked entries kept in the database.
+   */
+  public long getParkedEntryCount() {
+    return auditEntryRepository.countByAttemptsGreaterThanEqual(maxAttempts);
+  }
+
+  /**
+   * Returns the average time (in milliseconds) from committing a transaction until its entries
+   * were committed to the audit log. Returns 0 if no entry was committed yet.
+   */
+  public double getAverageLag() {
+    return lags.getAverage();
+  }
+
+  public long getMaxLag() {
+    return lags.getMax();
+  }
+
+  /**
+   * Logs usage statistics of the auditor (at debug level).
+   */
+  @Scheduled(fixedDelayString = "${audit.async.statsInterval}")
+  public void logStats() {
+    XLOGGER.debug("Requisition auditor: waiting={}, parkedEntries={}, captured={}, committed={},"
+            + " failed={}, parked={}, averageLag={} ms, maxLag={} ms", getQueueDepth(),
+        getParkedEntryCount(), getCapturedCount(), getCommittedCount(), getFailedCount(),
+        getParkedCount(), getAverageLag(), getMaxLag());
+  }
+
+  private boolean isDeferred() {
+    return enabled && TransactionSynchronizationManager.isActualTransactionActive()
+        && TransactionSynchronizationManager.isSynchronizationActive();
+  }
+
+  private PendingAudit getPendingAudit() {
+    PendingAudit pending = (PendingAudit) TransactionSynchronizationManager.getResource(this);
+
+    if (null == pending) {
+      pending = new PendingAudit(authorProvider.provide());
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    return pending;
+  }
+
+  private List<RequisitionAuditEntry> commitNext(List<UUID> claimed, Profiler profiler) {
+    profiler.start("FIND_ENTRIES");
+    List<RequisitionAuditEntry> entries = auditEntryRepository
+        .findNextForUpdate(maxAttempts, batchSize);
+    entries.forEach(entry -> claimed.add(entry.getId()));
+
+    profiler.start("COMMIT_SNAPSHOTS");
+    entries.forEach(this::commit);
+
+    profiler.start("DELETE_ENTRIES");
+    auditEntryRepository.deleteAll(entries);
+
+    return entries;
+  }
+
+  // entries of a requisition that failed are skipped, so that the order of its entries is kept
+  private void commitSeparately(TransactionTemplate transaction, UUID id, Set<UUID> blocked) {
+    try {
+      RequisitionAuditEntry committedEntry = transaction.execute(status -> auditEntryRepository
+          .findByIdForUpdate(id)
+          .filter(entry -> !entry.isParked(maxAttempts))
+          .filter(entry -> !blocked.contains(entry.getRequisitionId()))
+          .map(entry -> {
+            commit(entry);
+            auditEntryRepository.delete(entry);
+            return entry;
+          })
+          .orElse(null));
+
+      if (null != committedEntry) {
+        recordCommitted(Collections.singletonList(committedEntry));
+      }
+    } catch (RuntimeException ex) {
+      failed.incrementAndGet();
+      transaction.execute(status -> {
+        auditEntryRepository.findById(id).ifPresent(entry -> {
+          blocked.add(entry.getRequisitionId());
+          recordFailure(entry, ex);
+        });
+        return null;
+      });
+    }
+  }
+
+  private void recordFailure(RequisitionAuditEntry entry, RuntimeException ex) {
+    entry.markFailed(ex.getMessage());
+    auditEntryRepository.save(entry);
+
+    if (entry.isParked(maxAttempts)) {
+      parked.incrementAndGet();
+      XLOGGER.error("Requisition audit entry {} of requisition {} failed {} times and is parked,"
+          + " it will not be committed", entry.getId(), entry.getRequisitionId(),
+          entry.getAttempts(), ex);
+    } else {
+      XLOGGER.warn("Could not commit requisition audit entry {} of requisition {}",
+          entry.getId(), entry.getRequisitionId(), ex);
+    }
+  }
+
+  private void commit(RequisitionAuditEntry entry) {
+    Map<String, String> properties = Collections
+        .singletonMap(CAPTURED_DATE_PROPERTY, entry.getCapturedDate().toString());
+
+    if (entry.isDeletion()) {
+      commitDeletion(entry.getAuthor(), entry.getRequisitionId(), properties);
+    } else {
+      javers.commit(entry.getAuthor(), readState(entry).toRequisition(), properties);
+    }
+  }
+
+  private void commitDeletion(String author, UUID requisitionId,
+      Map<String, String> properties) {
+    boolean audited = !javers
+        .findSnapshots(QueryBuilder
+            .byInstanceId(requisitionId, Requisition.class)
+            .limit(1)
+            .build())
+        .isEmpty();
+
+    if (audited) {
+      Requisition requisition = new Requisition();
+      requisition.setId(requisitionId);
+      javers.commitShallowDelete(author, requisition, properties);
+    }
+  }
+
+  private RequisitionAuditState readState(RequisitionAuditEntry entry) {
+    try {
+      return objectMapper.readValue(entry.getState(), RequisitionAuditState.class);
+    } catch (IOException ex) {
+      throw new ServerException(ex, ERROR_IO, ex.getMessage());
+    }
+  }
+
+  private String writeState(Requisition requisition) {
+    try {
+      return objectMapper.writeValueAsString(RequisitionAuditState.of(requisition));
+    } catch (IOException ex) {
+      throw new ServerException(ex, ERROR_IO, ex.getMessage());
+    }
+  }
+
+  private void recordCommitted(List<RequisitionAuditEntry> entries) {
+    long now = clock.millis();
+
+    for (RequisitionAuditEntry entry : entries) {
+      lags.record(now - entry.getCapturedDate().toInstant().toEpochMilli());
+    }
+
+    committed.addAndGet(entries.size());
+  }
+
+  private final class PendingAudit extends TransactionSynchronizationAdapter {
+    private final String author;
+    private final Map<UUID, Requisition> saved = new LinkedHashMap<>();
+    private final Set<UUID> deleted = new LinkedHashSet<>();
+
+    PendingAudit(String author) {
+      this.author = author;
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      if (saved.isEmpty() && deleted.isEmpty()) {
+        return;
+      }
+
+      // writes pending changes first, so versions are final and the requisition rows stay
+      // locked until the entries (and their positions) are written at commit
+      entityManager.flush();
+
+      ZonedDateTime now = ZonedDateTime.now(clock);
+      List<RequisitionAuditEntry> entries = new ArrayList<>();
+
+      for (Requisition requisition : saved.values()) {
+        entries.add(RequisitionAuditEntry.saved(requisition.getId(), requisition.getVersion(),
+            author, writeState(requisition), now));
+      }
+
+      for (UUID requisitionId : deleted) {
+        entries.add(RequisitionAuditEntry.deleted(requisitionId, author, now));
+      }
+
+      auditEntryRepository.saveAll(entries);
+      captured.addAndGet(entries.size());
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResourceIfPossible(RequisitionAuditor.this);
+    }
+  }
+}
@@ -18,20 +18,31 @@ package org.openlmis.requisition.service.fulfillment;
 import static org.openlmis.requisition.utils.RequestHelper.createEntity;
 import static org.openlmis.requisition.utils.RequestHelper.createUri;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
+import org.openlmis.requisition.dto.LocalizedMessageDto;
 import org.openlmis.requisition.dto.OrderDto;
+import org.openlmis.requisition.exception.ExternalApiException;
 import org.openlmis.requisition.exception.ValidationMessageException;
 import org.openlmis.requisition.i18n.MessageKeys;
+import org.openlmis.requisition.service.RequestHeaders;
 import org.openlmis.requisition.service.RequestParameters;
 import org.openlmis.requisition.utils.Message;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClientException;
 
 @Service
 public class OrderFulfillmentService extends BaseFulfillmentService<OrderDto> {
 
+  @Autowired
+  private ObjectMapper objectMapper;
+
   /**
    * Creates a new instance of order multiple orders by posting to the
    * batch order creation endpoint.
@@ -39,10 +50,38 @@ public class OrderFulfillmentService extends BaseFulfillmentService<OrderDto> {
    * @param orders list of orders to create
    */
   public void create(List<OrderDto> orders) {
+    create(orders, null);
+  }
+
+  /**
+   * Creates a new instance of order multiple orders by posting to the
+   * batch order creation endpoint. The idempotency key, if present, is sent so that repeated
+   * deliveries of the same orders can be recognized. If the fulfillment service rejects the
+   * orders, an {@link ExternalApiException} is thrown, as sending them again would not help. If
+   * the access token was rejected, the token cache is cleared so that the next attempt uses a new
+   * token.
+   *
+   * @param orders list of orders to create
+   * @param idempotencyKey the key identifying the orders, may be null
+   * @throws ExternalApiException if the fulfillment service rejected the orders
+   * @throws ValidationMessageException if the orders could not be sent
+   */
+  public void create(List<OrderDto> orders, UUID idempotencyKey) {
     try {
       String url = getServiceUrl() + getBatchUrl();
-      HttpEntity<List<OrderDto>> body = createEntity(orders, authService.obtainAccessToken());
+      HttpEntity<List<OrderDto>> body = createEntity(orders, RequestHeaders.init()
+          .setAuth(authService.obtainAccessToken())
+          .setIdempotencyKey(idempotencyKey));
       postNew(url, body);
+    } catch (HttpStatusCodeException ex) {
+      if (HttpStatus.UNAUTHORIZED == ex.getStatusCode()) {
+        // the token has (most likely) expired - clear the cache so the next attempt gets a new one
+        authService.clearTokenCache();
+      } else if (ex.getStatusCode().is4xxClientError()) {
+        throw new ExternalApiException(ex, readLocalizedMessage(ex));
+      }
+      throw new ValidationMessageException(
+          new Message(MessageKeys.ERROR_CONVERTING_MULTIPLE_REQUISITIONS), ex);
     } catch (RestClientException ex) {
       throw new ValidationMessageException(
           new Message(MessageKeys.ERROR_CONVERTING_MULTIPLE_REQUISITIONS), ex);
@@ -65,6 +104,16 @@ public class OrderFulfillmentService extends BaseFulfillmentService<OrderDto> {
     return getPage("", parameters).getContent();
   }
 
+  private LocalizedMessageDto readLocalizedMessage(HttpStatusCodeException ex) {
+    try {
+      return objectMapper.readValue(ex.getResponseBodyAsString(), LocalizedMessageDto.class);
+    } catch (IOException ex2) {
+      // the response is not a localized message, so it is passed on as it is
+      return new LocalizedMessageDto(MessageKeys.ERROR_CONVERTING_MULTIPLE_REQUISITIONS,
+          ex.getResponseBodyAsString());
+    }
+  }
+
   private void postNew(String url, HttpEntity<?> body) {
     restTemplate.postForEntity(createUri(url), body, Object.class);
   }
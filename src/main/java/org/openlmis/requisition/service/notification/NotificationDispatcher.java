@@ -0,0 +1,328 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.notification;
+
+import com.google.common.collect.Lists;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openlmis.requisition.dto.UserDto;
+import org.openlmis.requisition.utils.BoundedExecutors;
+import org.openlmis.requisition.utils.LatencyStats;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Delivers notifications in the background. Notifications are queued and sent in batches, with
+ * at most the configured number of notifications of a batch being sent at once. A notification
+ * identical to one that is still queued is not queued again. A failed delivery is retried with
+ * exponential backoff until the maximum number of attempts is reached. Notifications rejected by
+ * the notification service as invalid are dropped immediately. When the queue is full the
+ * notification is sent by the calling thread.
+ */
+@Component
+public class NotificationDispatcher implements DisposableBean {
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(NotificationDispatcher.class);
+
+  private final NotificationService notificationService;
+  private final Clock clock;
+  private final Executor executor;
+  private final int batchSize;
+  private final int queueCapacity;
+  private final long initialBackoff;
+  private final long maxBackoff;
+  private final int maxAttempts;
+
+  private final Object lock = new Object();
+  private final Map<NotificationDto, PendingNotification> queue = new LinkedHashMap<>();
+
+  private final AtomicLong queued = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final AtomicLong sentByCaller = new AtomicLong();
+  private final AtomicLong retried = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final LatencyStats latencies = new LatencyStats();
+
+  /**
+   * Creates a new dispatcher with the given batch size, number of threads, queue capacity and
+   * retry policy. Backoff times are in milliseconds.
+   */
+  @Autowired
+  public NotificationDispatcher(NotificationService notificationService, Clock clock,
+      @Value("${notification.dispatcher.batchSize}") int batchSize,
+      @Value("${notification.dispatcher.threads}") int threads,
+      @Value("${notification.dispatcher.queueCapacity}") int queueCapacity,
+      @Value("${notification.retry.initialBackoff}") long initialBackoff,
+      @Value("${notification.retry.maxBackoff}") long maxBackoff,
+      @Value("${notification.retry.maxAttempts}") int maxAttempts) {
+    // a flush hands at most a batch to the executor and waits for it, so it never holds more
+    this(notificationService, clock,
+        BoundedExecutors.newThreadPool(threads, batchSize, "notification-"), batchSize,
+        queueCapacity, initialBackoff, maxBackoff, maxAttempts);
+  }
+
+  NotificationDispatcher(NotificationService notificationService, Clock clock,
+      Executor executor, int batchSize, int queueCapacity, long initialBackoff, long maxBackoff,
+      int maxAttempts) {
+    this.notificationService = notificationService;
+    this.clock = clock;
+    this.executor = executor;
+    this.batchSize = batchSize;
+    this.queueCapacity = queueCapacity;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+    this.maxAttempts = maxAttempts;
+  }
+
+  /**
+   * Queues an email and SMS notification for the given user.
+   *
+   * @param user         receiver of the notification
+   * @param subject      subject of the email
+   * @param emailContent content of the email
+   * @param smsContent   content of the SMS
+   * @param tag          tag of the notification
+   */
+  public void dispatch(UserDto user, String subject, String emailContent, String smsContent,
+      String tag) {
+    dispatch(NotificationService
+        .buildNotification(user, subject, emailContent, smsContent, tag));
+  }
+
+  /**
+   * Queues the given notification, unless an identical notification is already queued.
+   */
+  public void dispatch(NotificationDto notification) {
+    PendingNotification pending = new PendingNotification(notification, clock.millis());
+
+    synchronized (lock) {
+      if (queue.containsKey(notification)) {
+        coalesced.incrementAndGet();
+        return;
+      }
+
+      if (queue.size() < queueCapacity) {
+        queue.put(notification, pending);
+        queued.incrementAndGet();
+        return;
+      }
+    }
+
+    sentByCaller.incrementAndGet();
+    record(pending, deliver(pending), true);
+  }
+
+  /**
+   * Sends a batch of queued notifications that are due and waits until all of them are sent or
+   * have failed.
+   */
+  @Scheduled(fixedDelayString = "${notification.dispatcher.interval}")
+  public void flush() {
+    List<PendingNotification> batch = pollDueNotifications();
+
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    send(batch, true);
+    logStats();
+  }
+
+  /**
+   * Returns the number of notifications waiting to be sent.
+   */
+  public int getQueueDepth() {
+    synchronized (lock) {
+      return queue.size();
+    }
+  }
+
+  public long getQueuedCount() {
+    return queued.get();
+  }
+
+  public long getCoalescedCount() {
+    return coalesced.get();
+  }
+
+  public long getSentByCallerCount() {
+    return sentByCaller.get();
+  }
+
+  public long getDeliveredCount() {
+    return latencies.getCount();
+  }
+
+  public long getRetriedCount() {
+    return retried.get();
+  }
+
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * Returns the average time (in milliseconds) from dispatching a notification until it was
+   * delivered. Returns 0 if no notification was delivered yet.
+   */
+  public double getAverageLatency() {
+    return latencies.getAverage();
+  }
+
+  public long getMaxLatency() {
+    return latencies.getMax();
+  }
+
+  /**
+   * Makes one last attempt to send every queued notification, including retries that are not due
+   * yet, before shutting down the executor. Notifications that still fail are dropped and logged.
+   */
+  @Override
+  public void destroy() {
+    List<PendingNotification> remaining;
+
+    synchronized (lock) {
+      remaining = new ArrayList<>(queue.values());
+      queue.clear();
+    }
+
+    Lists.partition(remaining, batchSize).forEach(batch -> send(batch, false));
+    logStats();
+
+    if (executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdown();
+    }
+  }
+
+  private List<PendingNotification> pollDueNotifications() {
+    List<PendingNotification> batch = new ArrayList<>();
+    long now = clock.millis();
+
+    synchronized (lock) {
+      Iterator<PendingNotification> iterator = queue.values().iterator();
+
+      while (batch.size() < batchSize && iterator.hasNext()) {
+        PendingNotification pending = iterator.next();
+
+        if (pending.nextAttemptAt <= now) {
+          iterator.remove();
+          batch.add(pending);
+        }
+      }
+    }
+
+    return batch;
+  }
+
+  private void send(List<PendingNotification> batch, boolean retry) {
+    List<CompletableFuture<Void>> deliveries = new ArrayList<>(batch.size());
+
+    for (PendingNotification pending : batch) {
+      deliveries.add(CompletableFuture
+          .supplyAsync(() -> deliver(pending), executor)
+          .thenAccept(result -> record(pending, result, retry)));
+    }
+
+    CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0])).join();
+  }
+
+  private Result deliver(PendingNotification pending) {
+    ++pending.attempts;
+
+    try {
+      notificationService.send(pending.notification);
+      return Result.DELIVERED;
+    } catch (HttpClientErrorException ex) {
+      if (HttpStatus.UNAUTHORIZED == ex.getStatusCode()) {
+        return Result.FAILED;
+      }
+
+      XLOGGER.error("Notification for user {} was rejected. Error code: {}, response: {}",
+          pending.notification.getUserId(), ex.getStatusCode(), ex.getResponseBodyAsString());
+      return Result.REJECTED;
+    } catch (RuntimeException ex) {
+      XLOGGER.warn("Notification for user {} could not be sent, attempt {} of {}: {}",
+          pending.notification.getUserId(), pending.attempts, maxAttempts, ex.getMessage());
+      return Result.FAILED;
+    }
+  }
+
+  private void record(PendingNotification pending, Result result, boolean retry) {
+    if (Result.DELIVERED == result) {
+      latencies.record(clock.millis() - pending.dispatchedAt);
+    } else if (Result.REJECTED == result || pending.attempts >= maxAttempts || !retry) {
+      dropped.incrementAndGet();
+      XLOGGER.error("Notification for user {} was dropped after {} attempts",
+          pending.notification.getUserId(), pending.attempts);
+    } else {
+      retried.incrementAndGet();
+      pending.nextAttemptAt = clock.millis() + getBackoff(pending.attempts);
+
+      synchronized (lock) {
+        queue.putIfAbsent(pending.notification, pending);
+      }
+    }
+  }
+
+  private void logStats() {
+    XLOGGER.debug("Notifications: queueDepth={}, queued={}, coalesced={}, sentByCaller={}, "
+            + "delivered={}, retried={}, dropped={}, averageLatency={}, maxLatency={}",
+        getQueueDepth(), getQueuedCount(), getCoalescedCount(), getSentByCallerCount(),
+        getDeliveredCount(), getRetriedCount(), getDroppedCount(), getAverageLatency(),
+        getMaxLatency());
+  }
+
+  private long getBackoff(int attempts) {
+    long backoff = initialBackoff;
+
+    for (int i = 1; i < attempts && backoff < maxBackoff; ++i) {
+      backoff *= 2;
+    }
+
+    return Math.min(backoff, maxBackoff);
+  }
+
+  private enum Result {
+    DELIVERED, FAILED, REJECTED
+  }
+
+  private static final class PendingNotification {
+    private final NotificationDto notification;
+    private final long dispatchedAt;
+    private volatile int attempts;
+    private volatile long nextAttemptAt;
+
+    PendingNotification(NotificationDto notification, long dispatchedAt) {
+      this.notification = notification;
+      this.dispatchedAt = dispatchedAt;
+      this.nextAttemptAt = dispatchedAt;
+    }
+  }
+}
@@ -27,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestOperations;
@@ -55,15 +56,10 @@ public class NotificationService {
    */
   public boolean notify(UserDto user, String subject, String emailContent, String smsContent,
       String tag) {
-    String url = notificationUrl + "/api/notifications";
-
     NotificationDto request = buildNotification(user, subject, emailContent, smsContent, tag);
 
     try {
-      restTemplate.postForObject(
-              RequestHelper.createUri(url),
-              RequestHelper.createEntity(request, authService.obtainAccessToken()),
-              Object.class);
+      send(request);
     } catch (HttpStatusCodeException ex) {
       logger.error(
           "Unable to send notification. Error code: {}, response message: {}",
@@ -74,11 +70,35 @@ public class NotificationService {
     return true;
   }
 
-  void setRestTemplate(RestOperations restTemplate) {
+  /**
+   * Send the given notification. If the access token was rejected, the token cache is cleared so
+   * that the next attempt uses a new token.
+   *
+   * @param notification notification to send
+   * @throws HttpStatusCodeException if the notification service rejected the notification
+   */
+  public void send(NotificationDto notification) {
+    String url = notificationUrl + "/api/notifications";
+
+    try {
+      restTemplate.postForObject(
+              RequestHelper.createUri(url),
+              RequestHelper.createEntity(notification, authService.obtainAccessToken()),
+              Object.class);
+    } catch (HttpStatusCodeException ex) {
+      if (HttpStatus.UNAUTHORIZED == ex.getStatusCode()) {
+        authService.clearTokenCache();
+      }
+      throw ex;
+    }
+  }
+
+  @Autowired
+  public void setRestTemplate(RestOperations restTemplate) {
     this.restTemplate = restTemplate;
   }
 
-  private NotificationDto buildNotification(UserDto user, String subject,
+  static NotificationDto buildNotification(UserDto user, String subject,
       String emailContent, String smsContent, String tag) {
     Map<String, MessageDto> messages = new HashMap<>();
     messages.put(EMAIL.toString(), new MessageDto(subject, emailContent, tag));
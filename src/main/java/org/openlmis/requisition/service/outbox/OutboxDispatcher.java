@@ -0,0 +1,262 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import org.openlmis.requisition.domain.outbox.OutboxEvent;
+import org.openlmis.requisition.domain.outbox.OutboxEventType;
+import org.openlmis.requisition.dto.OrderDto;
+import org.openlmis.requisition.dto.stockmanagement.StockEventDto;
+import org.openlmis.requisition.exception.ExternalApiException;
+import org.openlmis.requisition.service.fulfillment.OrderFulfillmentService;
+import org.openlmis.requisition.service.stockmanagement.StockEventExecutor;
+import org.openlmis.requisition.service.stockmanagement.StockEventStockManagementService;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.slf4j.profiler.Profiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers pending {@link OutboxEvent}s in batches. Stock events are sent concurrently through
+ * the {@link StockEventExecutor}, orders are sent one batch after another. A failed delivery is
+ * retried with exponential backoff until the maximum number of attempts is reached, after which
+ * the event becomes dead. Events rejected by the receiving service as invalid become dead
+ * immediately. Deliveries that did not finish (for example because of a timeout) are retried
+ * after their lease ends.
+ *
+ * <p>New deliveries are only started during the first half of the lease; claimed events that were
+ * not started by then are released and picked up again by the next run. Delivery is at least
+ * once: an event whose delivery finished but whose result was not saved (for example because the
+ * instance was stopped) is sent again with the same idempotency key, which the receiving service
+ * uses to ignore the duplicate.
+ */
+@Component
+public class OutboxDispatcher {
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(OutboxDispatcher.class);
+
+  @Autowired
+  private OutboxService outboxService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private Clock clock;
+
+  @Autowired
+  private StockEventStockManagementService stockEventStockManagementService;
+
+  @Autowired
+  private OrderFulfillmentService orderFulfillmentService;
+
+  @Autowired
+  private StockEventExecutor stockEventExecutor;
+
+  @Value("${outbox.dispatcher.batchSize}")
+  private int batchSize;
+
+  @Value("${outbox.dispatcher.lease}")
+  private long lease;
+
+  @Value("${http.client.readTimeout}")
+  private long readTimeout;
+
+  @Value("${stockEvent.submit.timeout}")
+  private long stockEventTimeout;
+
+  @Value("${outbox.retry.initialBackoff}")
+  private long initialBackoff;
+
+  @Value("${outbox.retry.maxBackoff}")
+  private long maxBackoff;
+
+  @Value("${outbox.retry.maxAttempts}")
+  private int maxAttempts;
+
+  private final AtomicLong deliveredCount = new AtomicLong();
+  private final AtomicLong failedCount = new AtomicLong();
+  private final AtomicLong deadCount = new AtomicLong();
+  private final AtomicLong releasedCount = new AtomicLong();
+
+  /**
+   * Warns if a single delivery can take longer than the half of the lease in which deliveries
+   * are started, because such a delivery could be sent again while it is still in progress.
+   */
+  @PostConstruct
+  public void checkLease() {
+    long maxDeliveryTime = Math.max(readTimeout, stockEventTimeout);
+
+    if (maxDeliveryTime > lease / 2) {
+      XLOGGER.warn("Outbox lease of {} ms should be at least twice as long as the longest "
+          + "delivery ({} ms), otherwise events can be delivered twice", lease, maxDeliveryTime);
+    }
+  }
+
+  /**
+   * Delivers a batch of pending events that are due.
+   */
+  @Scheduled(fixedDelayString = "${outbox.dispatcher.interval}")
+  public void dispatch() {
+    ZonedDateTime deadline = ZonedDateTime.now(clock).plus(lease / 2, ChronoUnit.MILLIS);
+    List<OutboxEvent> events = outboxService.claimDueEvents(batchSize, lease);
+
+    if (events.isEmpty()) {
+      return;
+    }
+
+    Profiler profiler = new Profiler("DISPATCH_OUTBOX_EVENTS");
+    profiler.setLogger(XLOGGER);
+
+    Map<UUID, Optional<Exception>> results = Maps.newConcurrentMap();
+    Set<UUID> started = Sets.newConcurrentHashSet();
+    List<Runnable> stockEvents = Lists.newArrayList();
+    List<OutboxEvent> otherEvents = Lists.newArrayList();
+
+    for (OutboxEvent event : events) {
+      if (OutboxEventType.STOCK_EVENT == event.getType()) {
+        stockEvents.add(() -> deliver(event, deadline, started, results));
+      } else {
+        otherEvents.add(event);
+      }
+    }
+
+    profiler.start("DELIVER_ORDERS");
+    otherEvents.forEach(event -> deliver(event, deadline, started, results));
+
+    profiler.start("DELIVER_STOCK_EVENTS");
+    try {
+      stockEventExecutor.execute(stockEvents);
+    } catch (RuntimeException ex) {
+      XLOGGER.warn("Not all stock events were delivered, they will be retried", ex);
+    }
+
+    profiler.start("SAVE_RESULTS");
+    List<OutboxEvent> finished = Lists.newArrayList();
+    ZonedDateTime now = ZonedDateTime.now(clock);
+
+    for (OutboxEvent event : events) {
+      if (results.containsKey(event.getId())) {
+        record(event, results.get(event.getId()), now);
+        finished.add(event);
+      } else if (!started.contains(event.getId())) {
+        releasedCount.incrementAndGet();
+        event.release(now);
+        finished.add(event);
+      }
+    }
+
+    outboxService.saveAll(finished);
+
+    profiler.stop().log();
+    XLOGGER.debug("Outbox events: delivered={}, failed={}, dead={}, released={}",
+        deliveredCount.get(), failedCount.get(), deadCount.get(), releasedCount.get());
+  }
+
+  public long getDeliveredCount() {
+    return deliveredCount.get();
+  }
+
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  public long getDeadCount() {
+    return deadCount.get();
+  }
+
+  public long getReleasedCount() {
+    return releasedCount.get();
+  }
+
+  private void deliver(OutboxEvent event, ZonedDateTime deadline, Set<UUID> started,
+      Map<UUID, Optional<Exception>> results) {
+    if (!ZonedDateTime.now(clock).isBefore(deadline)) {
+      return;
+    }
+
+    started.add(event.getId());
+
+    try {
+      if (OutboxEventType.STOCK_EVENT == event.getType()) {
+        stockEventStockManagementService.submit(
+            objectMapper.readValue(event.getPayload(), StockEventDto.class), event.getId());
+      } else {
+        orderFulfillmentService.create(
+            Arrays.asList(objectMapper.readValue(event.getPayload(), OrderDto[].class)),
+            event.getId());
+      }
+
+      results.put(event.getId(), Optional.empty());
+    } catch (IOException | RuntimeException ex) {
+      results.put(event.getId(), Optional.of(ex));
+    }
+  }
+
+  private void record(OutboxEvent event, Optional<Exception> failure, ZonedDateTime now) {
+    if (!failure.isPresent()) {
+      deliveredCount.incrementAndGet();
+      event.markDelivered(now);
+      return;
+    }
+
+    Exception result = failure.get();
+    boolean dead = event.getAttempts() >= maxAttempts
+        || result instanceof ExternalApiException
+        || result instanceof IOException;
+    String error = result.getClass().getSimpleName() + ": " + result.getMessage();
+
+    if (dead) {
+      deadCount.incrementAndGet();
+      XLOGGER.error("Outbox event {} could not be delivered after {} attempts",
+          event.getId(), event.getAttempts(), result);
+    } else {
+      failedCount.incrementAndGet();
+      XLOGGER.warn("Outbox event {} could not be delivered, attempt {} of {}: {}",
+          event.getId(), event.getAttempts(), maxAttempts, error);
+    }
+
+    event.markFailed(error, now, now.plus(getBackoff(event.getAttempts()), ChronoUnit.MILLIS),
+        dead);
+  }
+
+  private long getBackoff(int attempts) {
+    long backoff = initialBackoff;
+
+    for (int i = 1; i < attempts && backoff < maxBackoff; ++i) {
+      backoff *= 2;
+    }
+
+    return Math.min(backoff, maxBackoff);
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.outbox;
+
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_IO;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_OUTBOX_EVENT_ALREADY_DELIVERED;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_OUTBOX_EVENT_NOT_FOUND;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.openlmis.requisition.domain.outbox.OutboxEvent;
+import org.openlmis.requisition.domain.outbox.OutboxEventStatus;
+import org.openlmis.requisition.domain.outbox.OutboxEventType;
+import org.openlmis.requisition.dto.OrderDto;
+import org.openlmis.requisition.dto.stockmanagement.StockEventDto;
+import org.openlmis.requisition.exception.ContentNotFoundMessageException;
+import org.openlmis.requisition.exception.ServerException;
+import org.openlmis.requisition.exception.ValidationMessageException;
+import org.openlmis.requisition.repository.OutboxEventRepository;
+import org.openlmis.requisition.service.fulfillment.OrderFulfillmentService;
+import org.openlmis.requisition.service.stockmanagement.StockEventExecutor;
+import org.openlmis.requisition.service.stockmanagement.StockEventStockManagementService;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Publishes messages to other services. When the outbox is enabled, messages are saved as
+ * {@link OutboxEvent}s in the current transaction and delivered later by the
+ * {@link OutboxDispatcher}. Otherwise they are delivered immediately.
+ */
+@Service
+public class OutboxService {
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(OutboxService.class);
+
+  @Autowired
+  private OutboxEventRepository outboxEventRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private Clock clock;
+
+  @Autowired
+  private StockEventStockManagementService stockEventStockManagementService;
+
+  @Autowired
+  private OrderFulfillmentService orderFulfillmentService;
+
+  @Autowired
+  private StockEventExecutor stockEventExecutor;
+
+  @Value("${outbox.enabled}")
+  private boolean enabled;
+
+  /**
+   * Publishes the given stock events to the stock management service.
+   */
+  @Transactional
+  public void publishStockEvents(List<StockEventDto> stockEvents) {
+    if (!enabled) {
+      stockEventExecutor.execute(stockEvents
+          .stream()
+          .map(stockEvent -> (Runnable) () -> stockEventStockManagementService.submit(stockEvent))
+          .collect(Collectors.toList()));
+      return;
+    }
+
+    stockEvents.forEach(stockEvent -> save(OutboxEventType.STOCK_EVENT, stockEvent));
+  }
+
+  /**
+   * Publishes the given orders to the fulfillment service. All orders are created by a single
+   * request.
+   */
+  @Transactional
+  public void publishOrders(List<OrderDto> orders) {
+    if (!enabled) {
+      orderFulfillmentService.create(orders);
+      return;
+    }
+
+    if (!orders.isEmpty()) {
+      save(OutboxEventType.ORDERS, orders);
+    }
+  }
+
+  /**
+   * Finds pending events that should be delivered now and claims them for the given time (in
+   * milliseconds). Events claimed by another instance are skipped.
+   */
+  @Transactional
+  public List<OutboxEvent> claimDueEvents(int limit, long lease) {
+    ZonedDateTime now = ZonedDateTime.now(clock);
+    List<OutboxEvent> events = outboxEventRepository.findDueForUpdate(now, limit);
+
+    events.forEach(event -> event.claim(now, now.plus(lease, ChronoUnit.MILLIS)));
+    outboxEventRepository.saveAll(events);
+
+    return events;
+  }
+
+  @Transactional
+  public void saveAll(Collection<OutboxEvent> events) {
+    outboxEventRepository.saveAll(events);
+  }
+
+  /**
+   * Returns a page of events with the given status, or of all events if the status is null.
+   */
+  @Transactional(readOnly = true)
+  public Page<OutboxEvent> search(OutboxEventStatus status, Pageable pageable) {
+    return null == status
+        ? outboxEventRepository.findAll(pageable)
+        : outboxEventRepository.findByStatus(status, pageable);
+  }
+
+  /**
+   * Makes the given undelivered event pending again so that it is delivered as soon as possible.
+   */
+  @Transactional
+  public OutboxEvent replay(UUID id) {
+    OutboxEvent event = outboxEventRepository
+        .findById(id)
+        .orElseThrow(() -> new ContentNotFoundMessageException(ERROR_OUTBOX_EVENT_NOT_FOUND, id));
+
+    if (event.isDelivered()) {
+      throw new ValidationMessageException(ERROR_OUTBOX_EVENT_ALREADY_DELIVERED, id);
+    }
+
+    XLOGGER.info("Replaying outbox event {} after {} attempts", id, event.getAttempts());
+    event.replay(ZonedDateTime.now(clock));
+
+    return outboxEventRepository.save(event);
+  }
+
+  private void save(OutboxEventType type, Object payload) {
+    try {
+      outboxEventRepository.save(OutboxEvent.newOutboxEvent(type,
+          objectMapper.writeValueAsString(payload), ZonedDateTime.now(clock)));
+    } catch (JsonProcessingException ex) {
+      throw new ServerException(ex, ERROR_IO, ex.getMessage());
+    }
+  }
+}
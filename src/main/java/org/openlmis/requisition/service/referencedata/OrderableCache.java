@@ -0,0 +1,123 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.referencedata;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.openlmis.requisition.domain.requisition.VersionEntityReference;
+import org.openlmis.requisition.dto.OrderableDto;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process-wide cache of orderables keyed by their version identity. A given version of
+ * an orderable never changes in the reference data service, so entries do not expire. The
+ * cache is bounded by weight, where each orderable weighs one unit plus one unit for every
+ * program and identifier it contains. Cached orderables are copied when they are put into and
+ * retrieved from the cache, so changes made by one caller are not seen by the others.
+ */
+@Component
+public class OrderableCache {
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(OrderableCache.class);
+
+  static final long DEFAULT_MAX_WEIGHT = 100_000;
+
+  private final Cache<VersionEntityReference, OrderableDto> cache;
+
+  OrderableCache() {
+    this(DEFAULT_MAX_WEIGHT);
+  }
+
+  /**
+   * Creates a new cache that holds orderables up to the given total weight.
+   */
+  @Autowired
+  public OrderableCache(@Value("${referencedata.orderables.cache.maxWeight}") long maxWeight) {
+    this.cache = CacheBuilder
+        .newBuilder()
+        .maximumWeight(maxWeight)
+        .weigher(OrderableCache::weigh)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Returns copies of cached orderables for the given references. References without a version
+   * number are never present in the cache.
+   */
+  public Map<VersionEntityReference, OrderableDto> getAllPresent(
+      Set<VersionEntityReference> references) {
+    Map<VersionEntityReference, OrderableDto> present = new HashMap<>();
+    cache.getAllPresent(references)
+        .forEach((reference, orderable) -> present.put(reference, new OrderableDto(orderable)));
+
+    return present;
+  }
+
+  /**
+   * Puts copies of the given orderables into the cache. Orderables without an id or a version
+   * number are ignored.
+   */
+  public void putAll(Collection<OrderableDto> orderables) {
+    for (OrderableDto orderable : orderables) {
+      if (null != orderable.getId() && null != orderable.getVersionNumber()) {
+        cache.put(
+            new VersionEntityReference(orderable.getId(), orderable.getVersionNumber()),
+            new OrderableDto(orderable));
+      }
+    }
+  }
+
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Logs usage statistics of the cache (at debug level).
+   */
+  @Scheduled(fixedDelayString = "${referencedata.orderables.cache.statsInterval}")
+  public void logStats() {
+    CacheStats stats = cache.stats();
+    XLOGGER.debug("Orderable cache: size={}, hits={}, misses={}, evictions={}, hitRate={}",
+        cache.size(), stats.hitCount(), stats.missCount(), stats.evictionCount(),
+        stats.hitRate());
+  }
+
+  private static int weigh(VersionEntityReference key, OrderableDto value) {
+    int programs = Optional.ofNullable(value.getPrograms()).map(Set::size).orElse(0);
+    int identifiers = Optional.ofNullable(value.getIdentifiers()).map(Map::size).orElse(0);
+
+    return 1 + programs + identifiers;
+  }
+}
@@ -15,14 +15,17 @@
 
 package org.openlmis.requisition.service.referencedata;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.openlmis.requisition.domain.requisition.VersionEntityReference;
 import org.openlmis.requisition.dto.OrderableDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.service.RequestParameters;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
@@ -30,6 +33,8 @@ import org.springframework.util.CollectionUtils;
 public class OrderableReferenceDataService
         extends BaseReferenceDataService<OrderableDto> {
 
+  private OrderableCache orderableCache = new OrderableCache();
+
   @Override
   protected String getUrl() {
     return "/api/orderables/";
@@ -51,13 +56,38 @@ public class OrderableReferenceDataService
   }
 
   /**
-   * Finds orderables by their identities.
+   * Finds orderables by their identities. Orderable versions never change, so only identities
+   * that are not present in the {@link OrderableCache} are retrieved from the reference data
+   * service.
    */
   public List<OrderableDto> findByIdentities(Set<VersionEntityReference> references) {
     if (CollectionUtils.isEmpty(references)) {
       return Collections.emptyList();
     }
 
+    Map<VersionEntityReference, OrderableDto> cached = orderableCache.getAllPresent(references);
+    Set<VersionEntityReference> missing = references
+        .stream()
+        .filter(reference -> !cached.containsKey(reference))
+        .collect(Collectors.toSet());
+
+    List<OrderableDto> orderables = new ArrayList<>(cached.values());
+
+    if (!missing.isEmpty()) {
+      List<OrderableDto> retrieved = retrieveByIdentities(missing);
+      orderableCache.putAll(retrieved);
+      orderables.addAll(retrieved);
+    }
+
+    return orderables;
+  }
+
+  @Autowired
+  public void setOrderableCache(OrderableCache orderableCache) {
+    this.orderableCache = orderableCache;
+  }
+
+  private List<OrderableDto> retrieveByIdentities(Set<VersionEntityReference> references) {
     List<VersionIdentityDto> identities = references
         .stream()
         .map(ref -> new VersionIdentityDto(ref.getId(), ref.getVersionNumber()))
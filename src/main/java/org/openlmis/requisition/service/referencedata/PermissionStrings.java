@@ -15,34 +15,150 @@
 
 package org.openlmis.requisition.service.referencedata;
 
-import com.google.common.collect.Maps;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import org.openlmis.requisition.service.ServiceResponse;
+import org.openlmis.requisition.utils.BoundedExecutors;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Keeps permission strings of users. Handlers are kept in a cache bounded by size and idle time.
+ * Permission strings younger than the freshness window are served without contacting the
+ * reference data service. Older permission strings are served as they are while they are
+ * revalidated in the background, unless they are older than the max stale time, in which case
+ * they are revalidated before being returned.
+ */
 @Component
-public class PermissionStrings {
-  private final Map<UUID, Handler> handlers = Maps.newConcurrentMap();
+public class PermissionStrings implements DisposableBean {
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(PermissionStrings.class);
+
+  private final LoadingCache<UUID, Handler> handlers;
+  private final Executor revalidationExecutor;
+  private final long freshness;
+  private final long maxStale;
+
+  private final AtomicLong freshHits = new AtomicLong();
+  private final AtomicLong staleHits = new AtomicLong();
+  private final AtomicLong loads = new AtomicLong();
+  private final AtomicLong revalidationFailures = new AtomicLong();
 
+  private final UserReferenceDataService userReferenceDataService;
+
+  /**
+   * Creates a new instance with a cache of the given size, idle time and freshness, revalidated
+   * by the given number of threads with a queue of the given capacity. Times are in milliseconds.
+   */
   @Autowired
-  private UserReferenceDataService userReferenceDataService;
+  public PermissionStrings(UserReferenceDataService userReferenceDataService,
+      @Value("${permissionStrings.cache.maxSize}") long maxSize,
+      @Value("${permissionStrings.cache.expireAfterAccess}") long expireAfterAccess,
+      @Value("${permissionStrings.cache.freshness}") long freshness,
+      @Value("${permissionStrings.cache.maxStale}") long maxStale,
+      @Value("${permissionStrings.revalidation.threads}") int revalidationThreads,
+      @Value("${permissionStrings.revalidation.queueCapacity}") int revalidationQueueCapacity) {
+    this(userReferenceDataService, maxSize, expireAfterAccess, freshness, maxStale,
+        BoundedExecutors.newThreadPool(revalidationThreads, revalidationQueueCapacity,
+            "permission-strings-"));
+  }
+
+  PermissionStrings(UserReferenceDataService userReferenceDataService, long maxSize,
+      long expireAfterAccess, long freshness, long maxStale, Executor revalidationExecutor) {
+    this.userReferenceDataService = userReferenceDataService;
+    this.freshness = freshness;
+    this.maxStale = maxStale;
+    this.revalidationExecutor = revalidationExecutor;
+    this.handlers = CacheBuilder
+        .newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterAccess(expireAfterAccess, TimeUnit.MILLISECONDS)
+        .recordStats()
+        .build(CacheLoader.from(Handler::new));
+  }
 
   public Handler forUser(UUID user) {
-    return handlers.computeIfAbsent(user, Handler::new);
+    return handlers.getUnchecked(user);
+  }
+
+  public long getHandlerCount() {
+    return handlers.size();
+  }
+
+  public CacheStats getHandlerStats() {
+    return handlers.stats();
+  }
+
+  /**
+   * Returns the ratio of permission string requests that were served from memory, either fresh
+   * or stale, to all permission string requests. Returns 1.0 if there were no requests.
+   */
+  public double getHitRate() {
+    long hits = freshHits.get() + staleHits.get();
+    long total = hits + loads.get();
+
+    return 0 == total ? 1.0 : (double) hits / total;
+  }
+
+  public long getFreshHitCount() {
+    return freshHits.get();
+  }
+
+  public long getStaleHitCount() {
+    return staleHits.get();
+  }
+
+  public long getLoadCount() {
+    return loads.get();
+  }
+
+  public long getRevalidationFailureCount() {
+    return revalidationFailures.get();
+  }
+
+  /**
+   * Logs usage statistics of the permission strings cache (at debug level).
+   */
+  @Scheduled(fixedDelayString = "${permissionStrings.cache.statsInterval}")
+  public void logStats() {
+    XLOGGER.debug("Permission strings cache: handlers={}, freshHits={}, staleHits={}, loads={}, "
+            + "revalidationFailures={}, hitRate={}, evictions={}", getHandlerCount(),
+        getFreshHitCount(), getStaleHitCount(), getLoadCount(), getRevalidationFailureCount(),
+        getHitRate(), handlers.stats().evictionCount());
+  }
+
+  @Override
+  public void destroy() {
+    if (revalidationExecutor instanceof ExecutorService) {
+      ((ExecutorService) revalidationExecutor).shutdown();
+    }
   }
 
   public class Handler implements Supplier<Set<PermissionStringDto>> {
     private final Object lock = new Object();
+    private final AtomicBoolean revalidating = new AtomicBoolean();
 
     private UUID userId;
 
-    private Set<PermissionStringDto> permissionStrings;
-    private String etag;
+    private volatile Set<PermissionStringDto> permissionStrings;
+    private volatile String etag;
+    private volatile long validatedAt;
 
     Handler(UUID userId) {
       this.userId = userId;
@@ -50,10 +166,43 @@ public class PermissionStrings {
 
     @Override
     public Set<PermissionStringDto> get() {
-      updatePermissionStrings();
+      long age = System.currentTimeMillis() - validatedAt;
+
+      if (null == permissionStrings || age >= maxStale) {
+        loads.incrementAndGet();
+        updatePermissionStrings();
+      } else if (age < freshness) {
+        freshHits.incrementAndGet();
+      } else {
+        staleHits.incrementAndGet();
+        revalidate();
+      }
+
       return permissionStrings;
     }
 
+    private void revalidate() {
+      if (!revalidating.compareAndSet(false, true)) {
+        return;
+      }
+
+      try {
+        revalidationExecutor.execute(() -> {
+          try {
+            updatePermissionStrings();
+          } catch (RuntimeException ex) {
+            revalidationFailures.incrementAndGet();
+            XLOGGER.warn("Could not revalidate permission strings of user {}", userId, ex);
+          } finally {
+            revalidating.set(false);
+          }
+        });
+      } catch (RejectedExecutionException ex) {
+        revalidating.set(false);
+        XLOGGER.debug("Revalidation of permission strings of user {} was rejected", userId);
+      }
+    }
+
     private void updatePermissionStrings() {
       synchronized (lock) {
         ServiceResponse<List<String>> response = userReferenceDataService
@@ -63,6 +212,8 @@ public class PermissionStrings {
           permissionStrings = PermissionStringDto.from(response.getBody());
           etag = response.getETag();
         }
+
+        validatedAt = System.currentTimeMillis();
       }
     }
   }
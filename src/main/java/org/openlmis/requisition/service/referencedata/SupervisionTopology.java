@@ -0,0 +1,235 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.referencedata;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import org.openlmis.requisition.dto.FacilityDto;
+import org.openlmis.requisition.dto.RequisitionGroupDto;
+import org.openlmis.requisition.dto.RightDto;
+import org.openlmis.requisition.dto.RoleDto;
+import org.openlmis.requisition.dto.SupervisoryNodeDto;
+import org.openlmis.requisition.service.ServiceResponse;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps supervisory nodes, the facilities of their requisition groups and the roles that contain
+ * each right in memory, so that role assignment checks do not contact the reference data service.
+ * The topology is loaded when it is used for the first time and then refreshed in the background.
+ * Requisition groups and roles are retrieved again only if their ETag has changed. If the topology
+ * could not be refreshed for longer than the max age, it is loaded again before it is used.
+ */
+@Component
+public class SupervisionTopology {
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(SupervisionTopology.class);
+
+  private final Object lock = new Object();
+
+  private final SupervisoryNodeReferenceDataService supervisoryNodeReferenceDataService;
+  private final RequisitionGroupReferenceDataService requisitionGroupReferenceDataService;
+  private final RoleReferenceDataService roleReferenceDataService;
+  private final long maxAge;
+
+  private volatile Snapshot snapshot;
+
+  private Map<UUID, Set<UUID>> requisitionGroupFacilities = emptyMap();
+  private String requisitionGroupsETag;
+  private Map<UUID, Set<UUID>> rightRoles = emptyMap();
+  private String rolesETag;
+
+  /**
+   * Creates a new instance. The max age is in milliseconds.
+   */
+  @Autowired
+  public SupervisionTopology(
+      SupervisoryNodeReferenceDataService supervisoryNodeReferenceDataService,
+      RequisitionGroupReferenceDataService requisitionGroupReferenceDataService,
+      RoleReferenceDataService roleReferenceDataService,
+      @Value("${supervisionTopology.maxAge}") long maxAge) {
+    this.supervisoryNodeReferenceDataService = supervisoryNodeReferenceDataService;
+    this.requisitionGroupReferenceDataService = requisitionGroupReferenceDataService;
+    this.roleReferenceDataService = roleReferenceDataService;
+    this.maxAge = maxAge;
+  }
+
+  /**
+   * Returns ids of roles that contain the right with the given id.
+   */
+  public Set<UUID> getRoleIds(UUID rightId) {
+    return getSnapshot().rightRoles.getOrDefault(rightId, emptySet());
+  }
+
+  /**
+   * Checks if the facility is a member of the requisition group of the supervisory node.
+   */
+  public boolean supervisesFacility(UUID supervisoryNodeId, UUID facilityId) {
+    return getSnapshot()
+        .supervisoryNodeFacilities
+        .getOrDefault(supervisoryNodeId, emptySet())
+        .contains(facilityId);
+  }
+
+  /**
+   * Returns the time in milliseconds since the topology was last refreshed, or -1 if it has not
+   * been loaded yet.
+   */
+  public long getMillisSinceLastRefresh() {
+    Snapshot current = snapshot;
+    return null == current ? -1 : System.currentTimeMillis() - current.refreshedAt;
+  }
+
+  /**
+   * Refreshes the topology in the background, if it has been loaded already. If the topology
+   * could not be refreshed, the previous one is kept.
+   */
+  @Scheduled(fixedDelayString = "${supervisionTopology.refreshInterval}")
+  public void refresh() {
+    if (null == snapshot) {
+      return;
+    }
+
+    try {
+      load();
+    } catch (RuntimeException ex) {
+      XLOGGER.warn("Could not refresh supervision topology, last refreshed {} ms ago",
+          getMillisSinceLastRefresh(), ex);
+    }
+  }
+
+  /**
+   * Logs the time since the topology was last refreshed (at debug level).
+   */
+  @Scheduled(fixedDelayString = "${supervisionTopology.statsInterval}")
+  public void logStats() {
+    XLOGGER.debug("Supervision topology: millisSinceLastRefresh={}",
+        getMillisSinceLastRefresh());
+  }
+
+  private Snapshot getSnapshot() {
+    Snapshot current = snapshot;
+
+    if (isUsable(current)) {
+      return current;
+    }
+
+    synchronized (lock) {
+      current = snapshot;
+      return isUsable(current) ? current : load();
+    }
+  }
+
+  private boolean isUsable(Snapshot current) {
+    return null != current && System.currentTimeMillis() - current.refreshedAt < maxAge;
+  }
+
+  private Snapshot load() {
+    synchronized (lock) {
+      ServiceResponse<List<RequisitionGroupDto>> groups = requisitionGroupReferenceDataService
+          .tryFindAll(requisitionGroupsETag);
+
+      if (groups.isModified()) {
+        requisitionGroupFacilities = getRequisitionGroupFacilities(groups.getBody());
+        requisitionGroupsETag = groups.getETag();
+      }
+
+      ServiceResponse<List<RoleDto>> roles = roleReferenceDataService.tryFindAll(rolesETag);
+
+      if (roles.isModified()) {
+        rightRoles = getRightRoles(roles.getBody());
+        rolesETag = roles.getETag();
+      }
+
+      Map<UUID, Set<UUID>> supervisoryNodeFacilities = new HashMap<>();
+
+      for (SupervisoryNodeDto node : supervisoryNodeReferenceDataService
+          .findAllSupervisoryNodes()) {
+        Set<UUID> facilities = requisitionGroupFacilities.get(node.getRequisitionGroupId());
+
+        if (null != facilities) {
+          supervisoryNodeFacilities.put(node.getId(), facilities);
+        }
+      }
+
+      snapshot = new Snapshot(supervisoryNodeFacilities, rightRoles);
+      XLOGGER.debug("Loaded supervision topology with {} supervisory nodes and {} rights",
+          supervisoryNodeFacilities.size(), rightRoles.size());
+
+      return snapshot;
+    }
+  }
+
+  private Map<UUID, Set<UUID>> getRequisitionGroupFacilities(List<RequisitionGroupDto> groups) {
+    Map<UUID, Set<UUID>> facilities = new HashMap<>();
+
+    for (RequisitionGroupDto group : groups) {
+      Set<UUID> members = new HashSet<>();
+
+      if (null != group.getMemberFacilities()) {
+        group.getMemberFacilities()
+            .stream()
+            .map(FacilityDto::getId)
+            .filter(Objects::nonNull)
+            .forEach(members::add);
+      }
+
+      facilities.put(group.getId(), members);
+    }
+
+    return facilities;
+  }
+
+  private Map<UUID, Set<UUID>> getRightRoles(List<RoleDto> roles) {
+    Map<UUID, Set<UUID>> rightRoleIds = new HashMap<>();
+
+    for (RoleDto role : roles) {
+      if (null == role.getRights()) {
+        continue;
+      }
+
+      for (RightDto right : role.getRights()) {
+        rightRoleIds.computeIfAbsent(right.getId(), key -> new HashSet<>()).add(role.getId());
+      }
+    }
+
+    return rightRoleIds;
+  }
+
+  private static final class Snapshot {
+    private final Map<UUID, Set<UUID>> supervisoryNodeFacilities;
+    private final Map<UUID, Set<UUID>> rightRoles;
+    private final long refreshedAt;
+
+    Snapshot(Map<UUID, Set<UUID>> supervisoryNodeFacilities, Map<UUID, Set<UUID>> rightRoles) {
+      this.supervisoryNodeFacilities = supervisoryNodeFacilities;
+      this.rightRoles = rightRoles;
+      this.refreshedAt = System.currentTimeMillis();
+    }
+  }
+
+}
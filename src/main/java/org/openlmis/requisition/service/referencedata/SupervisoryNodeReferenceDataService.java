@@ -54,6 +54,15 @@ public class SupervisoryNodeReferenceDataService
     return content.isEmpty() ? null : content.get(0);
   }
 
+  /**
+   * Finds all supervisory nodes.
+   *
+   * @return a list of all supervisory nodes.
+   */
+  public List<SupervisoryNodeDto> findAllSupervisoryNodes() {
+    return getPage(RequestParameters.init().set("size", Integer.MAX_VALUE)).getContent();
+  }
+
   /**
    * Finds supervisory nodes by their ids.
    *
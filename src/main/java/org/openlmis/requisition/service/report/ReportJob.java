@@ -0,0 +1,124 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.report;
+
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.openlmis.requisition.domain.JasperTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+
+/**
+ * A report generated in the background. Jobs are kept in memory of the instance that accepted
+ * them, and their results are stored on its local disk. A job is generated with the security
+ * context of the user who submitted it, because reports are filtered by the user's rights.
+ */
+@Getter
+public class ReportJob {
+  private final UUID id = UUID.randomUUID();
+  private final UUID templateId;
+  private final String templateName;
+  private final String format;
+  private final ZonedDateTime createdDate;
+
+  private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+  private volatile ZonedDateTime startedDate;
+  private volatile ZonedDateTime finishedDate;
+  private volatile String error;
+
+  @Getter(AccessLevel.PACKAGE)
+  private final JasperTemplate template;
+
+  @Getter(AccessLevel.PACKAGE)
+  private final SecurityContext securityContext;
+
+  @Getter(AccessLevel.PACKAGE)
+  private final Key key;
+
+  @Getter(AccessLevel.PACKAGE)
+  private volatile Path resultFile;
+
+  ReportJob(JasperTemplate template, String format, Map<String, Object> parameters,
+      SecurityContext securityContext, ZonedDateTime createdDate) {
+    this.template = template;
+    this.securityContext = securityContext;
+    this.templateId = template.getId();
+    this.templateName = template.getName();
+    this.format = format;
+    this.createdDate = createdDate;
+    this.key = new Key(templateId, format, parameters,
+        getName(securityContext.getAuthentication()));
+  }
+
+  String getTemplateType() {
+    return template.getType();
+  }
+
+  Map<String, Object> getParameters() {
+    return new HashMap<>(key.parameters);
+  }
+
+  boolean isFinished() {
+    return ReportJobStatus.COMPLETED == status || ReportJobStatus.FAILED == status;
+  }
+
+  void start(ZonedDateTime date) {
+    status = ReportJobStatus.RUNNING;
+    startedDate = date;
+  }
+
+  void complete(Path file, ZonedDateTime date) {
+    resultFile = file;
+    finishedDate = date;
+    status = ReportJobStatus.COMPLETED;
+  }
+
+  void fail(String reason, ZonedDateTime date) {
+    error = reason;
+    finishedDate = date;
+    status = ReportJobStatus.FAILED;
+  }
+
+  private static String getName(Authentication authentication) {
+    return null == authentication ? null : authentication.getName();
+  }
+
+  /**
+   * Identifies reports with the same template, format and parameters, requested by the same
+   * user.
+   */
+  @EqualsAndHashCode
+  static final class Key {
+    private final UUID templateId;
+    private final String format;
+    private final Map<String, Object> parameters;
+    private final String user;
+
+    Key(UUID templateId, String format, Map<String, Object> parameters, String user) {
+      this.templateId = templateId;
+      this.format = format;
+      this.parameters = Collections.unmodifiableMap(new HashMap<>(parameters));
+      this.user = user;
+    }
+  }
+}
@@ -0,0 +1,352 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.report;
+
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_REPORTING_JOB_NOT_COMPLETED;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_REPORTING_JOB_NOT_FOUND;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_REPORTING_JOB_QUEUE_FULL;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openlmis.requisition.domain.JasperTemplate;
+import org.openlmis.requisition.exception.ContentNotFoundMessageException;
+import org.openlmis.requisition.exception.JasperReportViewException;
+import org.openlmis.requisition.exception.ServiceUnavailableMessageException;
+import org.openlmis.requisition.exception.ValidationMessageException;
+import org.openlmis.requisition.service.JasperReportsViewService;
+import org.openlmis.requisition.utils.BoundedExecutors;
+import org.openlmis.requisition.utils.Message;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Generates reports in the background on a bounded thread pool. At most the configured number of
+ * jobs run at once, and at most the configured number of jobs of the same report type, so long
+ * reports of one type cannot take all threads. Jobs that cannot run yet wait in a bounded queue.
+ * A report that is requested again while it is still queued or running is not generated twice;
+ * the existing job is returned instead. Jobs run with the security context of the user who
+ * submitted them, and are only shared between requests of the same user. Results are written to
+ * the local disk and removed, with their jobs, once they are older than the configured time to
+ * live.
+ */
+@Service
+public class ReportJobService implements DisposableBean {
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(ReportJobService.class);
+
+  private final JasperReportsViewService jasperReportsViewService;
+  private final Clock clock;
+  private final Executor executor;
+  private final int maxRunning;
+  private final int maxRunningPerType;
+  private final int queueCapacity;
+  private final Path directory;
+  private final long timeToLive;
+
+  private final Map<UUID, ReportJob> jobs = new ConcurrentHashMap<>();
+
+  private final Object lock = new Object();
+  private final Deque<ReportJob> queue = new ArrayDeque<>();
+  private final Map<ReportJob.Key, ReportJob> unfinishedJobs = new HashMap<>();
+  private final Map<String, Integer> runningPerType = new HashMap<>();
+  private int running;
+
+  private final AtomicLong submitted = new AtomicLong();
+  private final AtomicLong deduplicated = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+
+  /**
+   * Creates a new service with the given total and per report type number of threads, queue
+   * capacity, result directory and time to live (in milliseconds) of finished jobs.
+   */
+  @Autowired
+  public ReportJobService(JasperReportsViewService jasperReportsViewService, Clock clock,
+      @Value("${reports.jobs.threads}") int threads,
+      @Value("${reports.jobs.threadsPerType}") int threadsPerType,
+      @Value("${reports.jobs.queueCapacity}") int queueCapacity,
+      @Value("${reports.jobs.directory}") String directory,
+      @Value("${reports.jobs.timeToLive}") long timeToLive) {
+    // a thread finishing a job starts the next one before it is free again, hence the queue
+    this(jasperReportsViewService, clock,
+        BoundedExecutors.newThreadPool(threads, threads, "report-job-"), threads, threadsPerType,
+        queueCapacity, Paths.get(directory), timeToLive);
+  }
+
+  ReportJobService(JasperReportsViewService jasperReportsViewService, Clock clock,
+      Executor executor, int maxRunning, int maxRunningPerType, int queueCapacity,
+      Path directory, long timeToLive) {
+    this.jasperReportsViewService = jasperReportsViewService;
+    this.clock = clock;
+    this.executor = executor;
+    this.maxRunning = maxRunning;
+    this.maxRunningPerType = maxRunningPerType;
+    this.queueCapacity = queueCapacity;
+    this.directory = directory;
+    this.timeToLive = timeToLive;
+  }
+
+  /**
+   * Submits a job generating a report from the given template, in the given format and with the
+   * given parameters, as the current user. If the same user already has the same report queued
+   * or running, its job is returned.
+   *
+   * @throws ServiceUnavailableMessageException if the queue of jobs is full
+   */
+  public ReportJob submit(JasperTemplate template, String format,
+      Map<String, Object> parameters) {
+    // the holder's context is cleared after the request, so the job keeps its own copy
+    SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+    securityContext.setAuthentication(SecurityContextHolder.getContext().getAuthentication());
+
+    ReportJob job = new ReportJob(template, format, parameters, securityContext,
+        ZonedDateTime.now(clock));
+    List<ReportJob> startable;
+
+    synchronized (lock) {
+      ReportJob existing = unfinishedJobs.get(job.getKey());
+
+      if (null != existing) {
+        deduplicated.incrementAndGet();
+        return existing;
+      }
+
+      if (queue.size() >= queueCapacity) {
+        rejected.incrementAndGet();
+        throw new ServiceUnavailableMessageException(new Message(ERROR_REPORTING_JOB_QUEUE_FULL));
+      }
+
+      submitted.incrementAndGet();
+      jobs.put(job.getId(), job);
+      unfinishedJobs.put(job.getKey(), job);
+      queue.add(job);
+
+      startable = pollStartableJobs();
+    }
+
+    startable.forEach(this::start);
+    return job;
+  }
+
+  /**
+   * Returns the job with the given ID.
+   *
+   * @throws ContentNotFoundMessageException if there is no such job
+   */
+  public ReportJob getJob(UUID id) {
+    ReportJob job = jobs.get(id);
+
+    if (null == job) {
+      throw new ContentNotFoundMessageException(new Message(ERROR_REPORTING_JOB_NOT_FOUND, id));
+    }
+
+    return job;
+  }
+
+  /**
+   * Returns the file with the report generated by the job with the given ID.
+   *
+   * @throws ContentNotFoundMessageException if there is no such job
+   * @throws ValidationMessageException if the job has not completed successfully
+   */
+  public Path getResult(UUID id) {
+    ReportJob job = getJob(id);
+
+    if (ReportJobStatus.COMPLETED != job.getStatus()) {
+      throw new ValidationMessageException(new Message(ERROR_REPORTING_JOB_NOT_COMPLETED, id));
+    }
+
+    return job.getResultFile();
+  }
+
+  /**
+   * Removes finished jobs older than the time to live, together with their results.
+   */
+  @Scheduled(fixedDelayString = "${reports.jobs.cleanupInterval}")
+  public void removeExpiredJobs() {
+    ZonedDateTime expiryDate = ZonedDateTime.now(clock).minusNanos(timeToLive * 1_000_000);
+    Iterator<ReportJob> iterator = jobs.values().iterator();
+
+    while (iterator.hasNext()) {
+      ReportJob job = iterator.next();
+
+      if (job.isFinished() && job.getFinishedDate().isBefore(expiryDate)) {
+        iterator.remove();
+        deleteResult(job.getResultFile());
+      }
+    }
+
+    logStats();
+  }
+
+  public long getJobCount() {
+    return jobs.size();
+  }
+
+  /**
+   * Returns the number of jobs waiting for a free thread.
+   */
+  public int getQueuedCount() {
+    synchronized (lock) {
+      return queue.size();
+    }
+  }
+
+  /**
+   * Returns the number of jobs being generated at the moment.
+   */
+  public int getRunningCount() {
+    synchronized (lock) {
+      return running;
+    }
+  }
+
+  public long getSubmittedCount() {
+    return submitted.get();
+  }
+
+  public long getDeduplicatedCount() {
+    return deduplicated.get();
+  }
+
+  public long getRejectedCount() {
+    return rejected.get();
+  }
+
+  public long getFailedCount() {
+    return failed.get();
+  }
+
+  @Override
+  public void destroy() {
+    if (executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdownNow();
+    }
+  }
+
+  private void logStats() {
+    XLOGGER.debug("Report jobs: jobs={}, queued={}, running={}, submitted={}, deduplicated={}, "
+            + "rejected={}, failed={}", getJobCount(), getQueuedCount(), getRunningCount(),
+        getSubmittedCount(), getDeduplicatedCount(), getRejectedCount(), getFailedCount());
+  }
+
+  // must be called while holding the lock
+  private List<ReportJob> pollStartableJobs() {
+    List<ReportJob> startable = new ArrayList<>();
+    Iterator<ReportJob> iterator = queue.iterator();
+
+    while (running < maxRunning && iterator.hasNext()) {
+      ReportJob job = iterator.next();
+      int runningOfType = runningPerType.getOrDefault(job.getTemplateType(), 0);
+
+      if (runningOfType < maxRunningPerType) {
+        iterator.remove();
+        runningPerType.put(job.getTemplateType(), runningOfType + 1);
+        ++running;
+        startable.add(job);
+      }
+    }
+
+    return startable;
+  }
+
+  private void start(ReportJob job) {
+    try {
+      executor.execute(new DelegatingSecurityContextRunnable(() -> run(job),
+          job.getSecurityContext()));
+    } catch (RejectedExecutionException ex) {
+      failed.incrementAndGet();
+      XLOGGER.warn("Report job {} was rejected by the executor", job.getId(), ex);
+      job.fail(ex.getMessage(), ZonedDateTime.now(clock));
+      finish(job);
+    }
+  }
+
+  private void run(ReportJob job) {
+    job.start(ZonedDateTime.now(clock));
+    Path file = directory.resolve(job.getId() + "." + job.getFormat());
+
+    try {
+      Files.createDirectories(directory);
+
+      try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file))) {
+        jasperReportsViewService.generateTemplateReport(job.getTemplate(), job.getParameters(),
+            outputStream);
+      }
+
+      job.complete(file, ZonedDateTime.now(clock));
+    } catch (IOException | JasperReportViewException | RuntimeException ex) {
+      failed.incrementAndGet();
+      XLOGGER.warn("Report job {} failed", job.getId(), ex);
+      deleteResult(file);
+      job.fail(ex.getMessage(), ZonedDateTime.now(clock));
+    } finally {
+      finish(job);
+    }
+  }
+
+  private void finish(ReportJob job) {
+    List<ReportJob> startable;
+
+    synchronized (lock) {
+      unfinishedJobs.remove(job.getKey());
+      runningPerType.merge(job.getTemplateType(), -1, Integer::sum);
+      --running;
+
+      startable = pollStartableJobs();
+    }
+
+    startable.forEach(this::start);
+  }
+
+  private void deleteResult(Path file) {
+    if (null == file) {
+      return;
+    }
+
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException ex) {
+      XLOGGER.warn("Could not delete report job result {}", file, ex);
+    }
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.stockmanagement;
+
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_SERVICE_OCCURED;
+
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openlmis.requisition.exception.ServerException;
+import org.openlmis.requisition.utils.BoundedExecutors;
+import org.openlmis.requisition.utils.LatencyStats;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends stock events to the stock management service on a bounded, shared thread pool. Each
+ * stock event has to be sent within the configured timeout, counted from the moment it was handed
+ * to the executor. When the pool and its queue are saturated the stock event is rejected and
+ * fails like one that timed out. With parallelism lower than two all stock events are sent
+ * sequentially by the calling thread; the timeout does not apply then, and a stock event is only
+ * bounded by the timeouts of the HTTP client.
+ */
+@Component
+public class StockEventExecutor implements DisposableBean {
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(StockEventExecutor.class);
+
+  private static final String SERVICE_NAME = "stockmanagement";
+
+  private final ThreadPoolExecutor executor;
+  private final long timeout;
+
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong timedOut = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final LatencyStats latencies = new LatencyStats();
+
+  public StockEventExecutor() {
+    this(1, 0, 0);
+  }
+
+  /**
+   * Creates a new executor with the given number of threads, queue capacity and timeout (in
+   * milliseconds) of a single stock event.
+   */
+  @Autowired
+  public StockEventExecutor(@Value("${stockEvent.submit.parallelism}") int parallelism,
+      @Value("${stockEvent.submit.queueCapacity}") int queueCapacity,
+      @Value("${stockEvent.submit.timeout}") long timeout) {
+    this.timeout = timeout;
+
+    if (parallelism > 1) {
+      executor = BoundedExecutors.newThreadPool(parallelism, queueCapacity, "stock-event-");
+    } else {
+      executor = null;
+    }
+  }
+
+  /**
+   * Executes the given stock event submissions and waits until all of them are finished. If any
+   * submission fails, is rejected or does not finish within the timeout, the remaining
+   * submissions are cancelled and an exception is thrown.
+   */
+  @SuppressWarnings("PMD.PreserveStackTrace")
+  public void execute(List<Runnable> submissions) {
+    if (null == executor) {
+      submissions.forEach(submission -> measure(submission).run());
+      return;
+    }
+
+    List<Future<?>> futures = Lists.newArrayList();
+    List<Long> deadlines = Lists.newArrayList();
+
+    try {
+      for (Runnable submission : submissions) {
+        deadlines.add(System.currentTimeMillis() + timeout);
+        futures.add(executor.submit(measure(submission)));
+      }
+
+      for (int i = 0, size = futures.size(); i < size; ++i) {
+        long remaining = Math.max(0, deadlines.get(i) - System.currentTimeMillis());
+        futures.get(i).get(remaining, TimeUnit.MILLISECONDS);
+      }
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+
+      throw new ServerException(ex.getCause(), ERROR_SERVICE_OCCURED, SERVICE_NAME);
+    } catch (TimeoutException ex) {
+      timedOut.incrementAndGet();
+      XLOGGER.warn("Stock event was not sent within {} ms", timeout);
+      throw new ServerException(ex, ERROR_SERVICE_OCCURED, SERVICE_NAME);
+    } catch (RejectedExecutionException ex) {
+      rejected.incrementAndGet();
+      XLOGGER.warn("Stock event was rejected, queue size: {}", executor.getQueue().size());
+      throw new ServerException(ex, ERROR_SERVICE_OCCURED, SERVICE_NAME);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ServerException(ex, ERROR_SERVICE_OCCURED, SERVICE_NAME);
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  public int getQueueSize() {
+    return null == executor ? 0 : executor.getQueue().size();
+  }
+
+  public int getActiveCount() {
+    return null == executor ? 0 : executor.getActiveCount();
+  }
+
+  public long getSubmittedCount() {
+    return latencies.getCount();
+  }
+
+  public long getFailedCount() {
+    return failed.get();
+  }
+
+  public long getTimedOutCount() {
+    return timedOut.get();
+  }
+
+  public long getRejectedCount() {
+    return rejected.get();
+  }
+
+  /**
+   * Returns the average time (in milliseconds) of sending a single stock event.
+   */
+  public double getAverageLatency() {
+    return latencies.getAverage();
+  }
+
+  public long getMaxLatency() {
+    return latencies.getMax();
+  }
+
+  /**
+   * Logs usage statistics of the executor (at debug level).
+   */
+  @Scheduled(fixedDelayString = "${stockEvent.submit.statsInterval}")
+  public void logStats() {
+    XLOGGER.debug("Stock event executor: queued={}, active={}, submitted={}, failed={}, "
+            + "timedOut={}, rejected={}, averageLatency={} ms, maxLatency={} ms", getQueueSize(),
+        getActiveCount(), getSubmittedCount(), getFailedCount(), getTimedOutCount(),
+        getRejectedCount(), getAverageLatency(), getMaxLatency());
+  }
+
+  @Override
+  public void destroy() {
+    if (null != executor) {
+      executor.shutdown();
+    }
+  }
+
+  private Runnable measure(Runnable submission) {
+    return () -> {
+      long start = System.currentTimeMillis();
+
+      try {
+        submission.run();
+      } catch (RuntimeException ex) {
+        failed.incrementAndGet();
+        throw ex;
+      } finally {
+        latencies.record(System.currentTimeMillis() - start);
+      }
+    };
+  }
+}
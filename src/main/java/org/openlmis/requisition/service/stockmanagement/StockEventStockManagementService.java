@@ -25,6 +25,7 @@ import org.openlmis.requisition.dto.stockmanagement.StockEventDto;
 import org.openlmis.requisition.exception.ExternalApiException;
 import org.openlmis.requisition.exception.ServerException;
 import org.openlmis.requisition.i18n.MessageKeys;
+import org.openlmis.requisition.service.RequestHeaders;
 import org.openlmis.requisition.utils.RequestHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,8 +50,19 @@ public class StockEventStockManagementService
    *
    * @param stockEventDto  the physical inventory to be submitted
    */
-  @SuppressWarnings("PMD.PreserveStackTrace")
   public void submit(StockEventDto stockEventDto) {
+    submit(stockEventDto, null);
+  }
+
+  /**
+   * Saves the given stock event to the stockmanagement service. The idempotency key, if present,
+   * is sent so that repeated deliveries of the same stock event can be recognized.
+   *
+   * @param stockEventDto  the physical inventory to be submitted
+   * @param idempotencyKey the key identifying the stock event, may be null
+   */
+  @SuppressWarnings("PMD.PreserveStackTrace")
+  public void submit(StockEventDto stockEventDto, UUID idempotencyKey) {
     String url = getServiceUrl() + getUrl();
 
     LOGGER.debug("Sending Stock Events to Stock Management: {}", stockEventDto);
@@ -60,7 +72,9 @@ public class StockEventStockManagementService
           restTemplate.exchange(
               createUri(url),
               HttpMethod.POST,
-              RequestHelper.createEntity(stockEventDto, authService.obtainAccessToken()),
+              RequestHelper.createEntity(stockEventDto, RequestHeaders.init()
+                  .setAuth(authService.obtainAccessToken())
+                  .setIdempotencyKey(idempotencyKey)),
               UUID.class
           ));
 
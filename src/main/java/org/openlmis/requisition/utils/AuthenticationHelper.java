@@ -18,7 +18,11 @@ package org.openlmis.requisition.utils;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_RIGHT_NOT_FOUND;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_USER_NOT_FOUND;
 
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.openlmis.requisition.dto.RightDto;
 import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.exception.AuthenticationMessageException;
@@ -28,8 +32,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+/**
+ * Provides the current user and rights. The current user is retrieved from the reference data
+ * service once per HTTP request. Rights are kept in memory for the lifetime of the service, as
+ * they do not change. Calls to the reference data service that were saved this way are counted.
+ */
 @Component
 public class AuthenticationHelper {
+  private static final String CURRENT_USER_MEMO = "currentUser";
+  private static final String SAVED_CALLS_MEMO = "savedReferenceDataCalls";
 
   @Autowired
   private UserReferenceDataService userReferenceDataService;
@@ -37,39 +48,96 @@ public class AuthenticationHelper {
   @Autowired
   private RightReferenceDataService rightReferenceDataService;
 
+  private final Map<String, RightDto> rights = new ConcurrentHashMap<>();
+
+  private final AtomicLong savedUserCalls = new AtomicLong();
+  private final AtomicLong savedRightCalls = new AtomicLong();
+
   /**
    * Method returns current user based on Spring context
-   * and fetches his data from reference-data service.
+   * and fetches his data from reference-data service (once per request).
    *
    * @return UserDto entity of current user.
    * @throws AuthenticationMessageException if user cannot be found.
    */
   public UserDto getCurrentUser() {
-    UUID userId = (UUID) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-    UserDto user = userReferenceDataService.findOne(userId);
+    UUID userId = getCurrentUserId();
+    UserDto user = RequestMemo.getIfPresent(CURRENT_USER_MEMO, userId);
+
+    if (null != user) {
+      savedUserCalls.incrementAndGet();
+      countSavedCall();
+      return user;
+    }
+
+    user = userReferenceDataService.findOne(userId);
 
     if (user == null) {
       throw new AuthenticationMessageException(new Message(ERROR_USER_NOT_FOUND, userId));
     }
 
+    RequestMemo.put(CURRENT_USER_MEMO, userId, user);
     return user;
   }
 
   /**
-   * Method returns a correct right and fetches his data from reference-data service.
+   * Method returns id of the current user based on Spring context, without contacting
+   * the reference-data service.
+   *
+   * @return id of the current user.
+   */
+  public UUID getCurrentUserId() {
+    return (UUID) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+  }
+
+  /**
+   * Method returns a correct right and fetches his data from reference-data service (once for
+   * each right name).
    *
    * @param name right name
    * @return RightDto entity of right.
    * @throws AuthenticationMessageException if right cannot be found.
    */
   public RightDto getRight(String name) {
-    RightDto right = rightReferenceDataService.findRight(name);
+    RightDto right = rights.get(name);
+
+    if (null != right) {
+      savedRightCalls.incrementAndGet();
+      countSavedCall();
+      return right;
+    }
+
+    right = rightReferenceDataService.findRight(name);
 
     if (null == right) {
       throw new AuthenticationMessageException(new Message(ERROR_RIGHT_NOT_FOUND, name));
     }
 
+    rights.put(name, right);
     return right;
   }
 
+  /**
+   * Returns the number of reference data calls saved while handling the current request, or 0
+   * if there is no current request.
+   */
+  public int getSavedCallsInRequest() {
+    AtomicInteger counter = RequestMemo.getIfPresent(SAVED_CALLS_MEMO, SAVED_CALLS_MEMO);
+    return null == counter ? 0 : counter.get();
+  }
+
+  public long getSavedUserCalls() {
+    return savedUserCalls.get();
+  }
+
+  public long getSavedRightCalls() {
+    return savedRightCalls.get();
+  }
+
+  private void countSavedCall() {
+    RequestMemo
+        .get(SAVED_CALLS_MEMO, SAVED_CALLS_MEMO, key -> new AtomicInteger())
+        .incrementAndGet();
+  }
+
 }
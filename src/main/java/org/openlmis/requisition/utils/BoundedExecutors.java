@@ -0,0 +1,67 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.utils;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Creates the fixed size thread pools used for background work. Each pool has a bounded queue,
+ * or hands tasks directly to a free thread when the queue capacity is 0, so a burst of tasks is
+ * rejected instead of piling up in memory. Idle threads are stopped after a minute.
+ */
+public final class BoundedExecutors {
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private BoundedExecutors() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Creates a pool with the given number of threads and queue capacity that throws
+   * {@link java.util.concurrent.RejectedExecutionException} when it is full.
+   */
+  public static ThreadPoolExecutor newThreadPool(int threads, int queueCapacity,
+      String threadNamePrefix) {
+    return newThreadPool(threads, queueCapacity, threadNamePrefix,
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * Creates a pool with the given number of threads and queue capacity that passes tasks it
+   * cannot accept to the given handler.
+   */
+  public static ThreadPoolExecutor newThreadPool(int threads, int queueCapacity,
+      String threadNamePrefix, RejectedExecutionHandler rejectionHandler) {
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+        KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, createQueue(queueCapacity),
+        new CustomizableThreadFactory(threadNamePrefix), rejectionHandler);
+    pool.allowCoreThreadTimeOut(true);
+
+    return pool;
+  }
+
+  private static BlockingQueue<Runnable> createQueue(int queueCapacity) {
+    return 0 == queueCapacity
+        ? new SynchronousQueue<>()
+        : new LinkedBlockingQueue<>(queueCapacity);
+  }
+}
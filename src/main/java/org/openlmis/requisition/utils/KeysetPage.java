@@ -0,0 +1,66 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.utils;
+
+import java.util.List;
+import java.util.function.Function;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A page of a list paginated with a cursor (keyset pagination). Instead of a page number, the
+ * page contains a cursor that has to be passed to get the next page. The total number of
+ * elements is only known if it was requested, as counting them is usually more expensive than
+ * retrieving the page.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public final class KeysetPage<T> {
+
+  private final List<T> content;
+
+  private final int size;
+
+  /**
+   * The cursor of the next page, or {@code null} if this is the last page.
+   */
+  private final String nextCursor;
+
+  /**
+   * The total number of elements, or {@code null} if they were not counted.
+   */
+  private final Long totalElements;
+
+  public int getNumberOfElements() {
+    return content.size();
+  }
+
+  public boolean isLast() {
+    return null == nextCursor;
+  }
+
+  /**
+   * Returns a page with the same cursor and total, and the content converted with the given
+   * function.
+   */
+  public <S> KeysetPage<S> map(Function<List<T>, List<S>> converter) {
+    return new KeysetPage<>(converter.apply(content), size, nextCursor, totalElements);
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the number, average and maximum of measured times (in milliseconds) for usage
+ * statistics. Safe to use from many threads.
+ */
+public class LatencyStats {
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong total = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Adds the given time to the statistics.
+   */
+  public void record(long millis) {
+    total.addAndGet(millis);
+    max.accumulateAndGet(millis, Math::max);
+    count.incrementAndGet();
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Returns the average of the recorded times, or 0 if nothing was recorded yet.
+   */
+  public double getAverage() {
+    long recorded = count.get();
+    return 0 == recorded ? 0 : (double) total.get() / recorded;
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.utils;
+
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Keeps values computed while a single HTTP request is handled, so that they are computed only
+ * once per request. Values are kept as attributes of the current request and are dropped with it.
+ * Outside of a request (for example in background threads) values are always computed.
+ */
+public final class RequestMemo {
+  private static final String ATTRIBUTE_PREFIX = RequestMemo.class.getName() + '.';
+
+  private RequestMemo() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Returns the value kept in the memo with the given name for the given key. If there is no
+   * such value, it is computed with the given function and kept for the rest of the request.
+   *
+   * @param name     name of the memo, values of different memos never mix
+   * @param key      key of the value
+   * @param function function used to compute the value when it is not present
+   * @return the kept or computed value
+   */
+  public static <K, V> V get(String name, K key, Function<? super K, ? extends V> function) {
+    Map<K, V> memo = getMemo(name);
+
+    if (null == memo) {
+      return function.apply(key);
+    }
+
+    if (memo.containsKey(key)) {
+      return memo.get(key);
+    }
+
+    V value = function.apply(key);
+    memo.put(key, value);
+
+    return value;
+  }
+
+  /**
+   * Returns the value kept in the memo with the given name for the given key, or null if there is
+   * no such value or there is no current request.
+   */
+  public static <K, V> V getIfPresent(String name, K key) {
+    Map<K, V> memo = getMemo(name);
+    return null == memo ? null : memo.get(key);
+  }
+
+  /**
+   * Keeps the value in the memo with the given name for the rest of the current request. Does
+   * nothing if there is no current request.
+   */
+  public static <K, V> void put(String name, K key, V value) {
+    Map<K, V> memo = getMemo(name);
+
+    if (null != memo) {
+      memo.put(key, value);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <K, V> Map<K, V> getMemo(String name) {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+    if (null == attributes) {
+      return null;
+    }
+
+    String attribute = ATTRIBUTE_PREFIX + name;
+    Map<K, V> memo = (Map<K, V>) attributes.getAttribute(attribute, SCOPE_REQUEST);
+
+    if (null == memo) {
+      memo = new HashMap<>();
+      attributes.setAttribute(attribute, memo, SCOPE_REQUEST);
+    }
+
+    return memo;
+  }
+
+}
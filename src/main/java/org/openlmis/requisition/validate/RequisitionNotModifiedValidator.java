@@ -0,0 +1,138 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.validate;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.servlet.http.HttpServletRequest;
+import org.apache.commons.lang3.StringUtils;
+import org.openlmis.requisition.domain.requisition.RequisitionVersion;
+import org.openlmis.requisition.repository.RequisitionRepository;
+import org.openlmis.requisition.service.PermissionService;
+import org.openlmis.requisition.web.ETagResource;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Validates conditional requests (with the If-None-Match header) for a requisition. Only the
+ * version of the requisition is read from the database, so the check can be done before the
+ * requisition and its reference data are retrieved. A requisition is not modified if one of the
+ * given eTags matches its current version and the current user has a right assignment to view it.
+ * In any other case the request should be handled as a regular one.
+ */
+@Component
+public class RequisitionNotModifiedValidator {
+
+  private static final XLogger XLOGGER =
+      XLoggerFactory.getXLogger(RequisitionNotModifiedValidator.class);
+
+  private static final String ANY_ETAG = "*";
+
+  @Autowired
+  private RequisitionRepository requisitionRepository;
+
+  @Autowired
+  private PermissionService permissionService;
+
+  private final AtomicLong conditionalRequests = new AtomicLong();
+  private final AtomicLong notModifiedResponses = new AtomicLong();
+
+  /**
+   * Checks whether the requisition with the given ID has not been modified since the version
+   * passed in the If-None-Match header of the request. Requests without the header are never
+   * treated as not modified.
+   *
+   * @param request       the incoming request to get the requisition
+   * @param requisitionId the ID of the requested requisition
+   * @return the version of the requisition if it has not been modified, otherwise empty
+   */
+  public Optional<RequisitionVersion> findNotModifiedVersion(HttpServletRequest request,
+      UUID requisitionId) {
+    String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+
+    if (StringUtils.isBlank(ifNoneMatch)) {
+      return Optional.empty();
+    }
+
+    conditionalRequests.incrementAndGet();
+
+    Optional<RequisitionVersion> notModified = requisitionRepository
+        .findVersionById(requisitionId)
+        .filter(version -> matches(ifNoneMatch, version.getVersion()))
+        .filter(version -> permissionService.canViewRequisitionByRights(version).isSuccess());
+
+    if (notModified.isPresent()) {
+      notModifiedResponses.incrementAndGet();
+    }
+
+    return notModified;
+  }
+
+  public long getConditionalRequestCount() {
+    return conditionalRequests.get();
+  }
+
+  public long getNotModifiedCount() {
+    return notModifiedResponses.get();
+  }
+
+  /**
+   * Returns the share of conditional requests that were answered as not modified.
+   */
+  public double getNotModifiedRatio() {
+    long count = conditionalRequests.get();
+    return 0 == count ? 0 : (double) notModifiedResponses.get() / count;
+  }
+
+  /**
+   * Logs how many conditional requests were answered as not modified (at debug level).
+   */
+  @Scheduled(fixedDelayString = "${requisition.conditionalGet.statsInterval}")
+  public void logStats() {
+    XLOGGER.debug("Conditional requisition requests: total={}, notModified={}, ratio={}",
+        getConditionalRequestCount(), getNotModifiedCount(), getNotModifiedRatio());
+  }
+
+  private boolean matches(String ifNoneMatch, Long version) {
+    if (null == version) {
+      return false;
+    }
+
+    for (String etag : StringUtils.split(ifNoneMatch, ',')) {
+      String trimmed = etag.trim();
+
+      if (ANY_ETAG.equals(trimmed) || version.equals(readVersion(trimmed))) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private Long readVersion(String etag) {
+    try {
+      return ETagResource.readVersionFromEtag(StringUtils.remove(etag, '"'));
+    } catch (NumberFormatException ex) {
+      XLOGGER.debug("Ignoring invalid eTag: {}", etag);
+      return null;
+    }
+  }
+}
@@ -28,6 +28,7 @@ import static org.openlmis.requisition.i18n.MessageKeys.IDEMPOTENCY_KEY_WRONG_FO
 import static org.springframework.util.CollectionUtils.isEmpty;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Collection;
@@ -51,6 +52,7 @@ import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionBuilder;
 import org.openlmis.requisition.domain.requisition.RequisitionLineItem;
 import org.openlmis.requisition.domain.requisition.RequisitionValidationService;
+import org.openlmis.requisition.domain.requisition.RequisitionVersion;
 import org.openlmis.requisition.domain.requisition.StockAdjustmentReason;
 import org.openlmis.requisition.domain.requisition.VersionEntityReference;
 import org.openlmis.requisition.dto.ApprovedProductDto;
@@ -83,6 +85,7 @@ import org.openlmis.requisition.service.PermissionService;
 import org.openlmis.requisition.service.RequisitionService;
 import org.openlmis.requisition.service.RequisitionStatusProcessor;
 import org.openlmis.requisition.service.RequisitionTemplateService;
+import org.openlmis.requisition.service.outbox.OutboxService;
 import org.openlmis.requisition.service.referencedata.ApproveProductsAggregator;
 import org.openlmis.requisition.service.referencedata.ApprovedProductReferenceDataService;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
@@ -91,7 +94,6 @@ import org.openlmis.requisition.service.referencedata.OrderableReferenceDataServ
 import org.openlmis.requisition.service.referencedata.ProgramReferenceDataService;
 import org.openlmis.requisition.service.referencedata.SupervisoryNodeReferenceDataService;
 import org.openlmis.requisition.service.referencedata.SupplyLineReferenceDataService;
-import org.openlmis.requisition.service.stockmanagement.StockEventStockManagementService;
 import org.openlmis.requisition.service.stockmanagement.ValidReasonStockmanagementService;
 import org.openlmis.requisition.utils.AuthenticationHelper;
 import org.openlmis.requisition.utils.DateHelper;
@@ -99,6 +101,7 @@ import org.openlmis.requisition.utils.DatePhysicalStockCountCompletedEnabledPred
 import org.openlmis.requisition.utils.Message;
 import org.openlmis.requisition.utils.StockEventBuilder;
 import org.openlmis.requisition.validate.ReasonsValidator;
+import org.openlmis.requisition.validate.RequisitionNotModifiedValidator;
 import org.openlmis.requisition.validate.RequisitionVersionValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -109,6 +112,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 
 @SuppressWarnings("PMD.TooManyMethods")
 public abstract class BaseRequisitionController extends BaseController {
@@ -146,6 +150,9 @@ public abstract class BaseRequisitionController extends BaseController {
   @Autowired
   RequisitionVersionValidator requisitionVersionValidator;
 
+  @Autowired
+  RequisitionNotModifiedValidator requisitionNotModifiedValidator;
+
   @Autowired
   SupplyLineReferenceDataService supplyLineReferenceDataService;
 
@@ -153,7 +160,7 @@ public abstract class BaseRequisitionController extends BaseController {
   private RequisitionStatusProcessor requisitionStatusProcessor;
 
   @Autowired
-  private StockEventStockManagementService stockEventStockManagementService;
+  private OutboxService outboxService;
 
   @Autowired
   private StockEventBuilder stockEventBuilder;
@@ -425,16 +432,27 @@ public abstract class BaseRequisitionController extends BaseController {
 
   void submitStockEvent(Requisition requisition, UUID currentUserId,
       Map<VersionIdentityDto, OrderableDto> orderables) {
-    Profiler profiler = getProfiler("SUBMIT_STOCK_EVENT", requisition, currentUserId);
-    if (requisition.getStatus().isApproved() && isNotTrue(requisition.getEmergency())) {
-      profiler.start("BUILD_STOCK_EVENT_FROM_REQUISITION");
-      StockEventDto stockEventDto = stockEventBuilder
-          .fromRequisition(requisition, currentUserId, orderables);
-
-      profiler.start("SUBMIT_STOCK_EVENT");
-      stockEventStockManagementService.submit(stockEventDto);
-      stopProfiler(profiler, stockEventDto);
+    submitStockEvents(Collections.singletonList(requisition), currentUserId, orderables);
+  }
+
+  void submitStockEvents(List<Requisition> requisitions, UUID currentUserId,
+      Map<VersionIdentityDto, OrderableDto> orderables) {
+    Profiler profiler = getProfiler("SUBMIT_STOCK_EVENTS", requisitions, currentUserId);
+    List<StockEventDto> stockEvents = Lists.newArrayList();
+
+    profiler.start("BUILD_STOCK_EVENTS_FROM_REQUISITIONS");
+    for (Requisition requisition : requisitions) {
+      if (requisition.getStatus().isApproved() && isNotTrue(requisition.getEmergency())) {
+        stockEvents.add(stockEventBuilder.fromRequisition(requisition, currentUserId, orderables));
+      }
+    }
+
+    if (!stockEvents.isEmpty()) {
+      profiler.start("PUBLISH_STOCK_EVENTS");
+      outboxService.publishStockEvents(stockEvents);
     }
+
+    stopProfiler(profiler, stockEvents.size());
   }
 
   Set<VersionEntityReference> getLineItemOrderableIdentities(Requisition requisition) {
@@ -523,6 +541,23 @@ public abstract class BaseRequisitionController extends BaseController {
     extLogger.exit(exitArgs);
   }
 
+  boolean isNotModified(UUID requisitionId, HttpServletRequest request,
+      HttpServletResponse response, Profiler profiler) {
+    profiler.start("CHECK_NOT_MODIFIED");
+    Optional<RequisitionVersion> notModified = requisitionNotModifiedValidator
+        .findNotModifiedVersion(request, requisitionId);
+
+    if (notModified.isPresent()) {
+      response.setStatus(HttpStatus.NOT_MODIFIED.value());
+      response.setHeader(HttpHeaders.ETAG,
+          ETagResource.buildWeakETag(notModified.get().getVersion()));
+      stopProfiler(profiler);
+      return true;
+    }
+
+    return false;
+  }
+
   Requisition findRequisition(UUID requisitionId, Profiler profiler) {
     profiler.start("GET_REQUISITION_BY_ID");
     Requisition requisition = requisitionRepository.findById(requisitionId).orElse(null);
@@ -15,7 +15,6 @@
 
 package org.openlmis.requisition.web;
 
-import static java.util.concurrent.CompletableFuture.runAsync;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.apache.commons.lang3.BooleanUtils.isFalse;
@@ -28,12 +27,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.beanutils.PropertyUtils;
@@ -210,7 +205,8 @@ public class BatchRequisitionController extends BaseRequisitionController {
           facilities, periods, approveParams, approvedProducts);
     }
 
-    submitStockEvent(profiler, user, requisitions, orderables);
+    profiler.start("SEND_STOCK_EVENTS");
+    submitStockEvents(requisitions, user.getId(), orderables);
 
     ResponseEntity<RequisitionsProcessingStatusDto> response =
         buildResponse(processingStatus, profiler, HttpStatus.OK);
@@ -423,23 +419,6 @@ public class BatchRequisitionController extends BaseRequisitionController {
     return ValidationResult.success();
   }
 
-  private void submitStockEvent(Profiler profiler, UserDto user, List<Requisition> requisitions,
-      Map<VersionIdentityDto, OrderableDto> orderables) {
-    profiler.start("SEND_STOCK_EVENT");
-    ExecutorService executor = Executors.newFixedThreadPool(requisitions.size());
-    List<CompletableFuture<Void>> futures = Lists.newArrayList();
-    try {
-      for (Requisition requisition : requisitions) {
-        CompletableFuture<Void> future = runAsync(
-            () -> submitStockEvent(requisition, user.getId(), orderables), executor);
-        futures.add(future);
-      }
-    } finally {
-      profiler.start("JOIN_RESULTS");
-      futures.forEach(CompletableFuture::join);
-    }
-  }
-
   private Requisition buildRequisition(ApproveRequisitionDto dto, Requisition requisitionToUpdate,
       ProcessingPeriodDto processingPeriodDto, Map<VersionIdentityDto, OrderableDto> orderables) {
     Map<VersionEntityReference, ApprovedProductReference> productReferences = requisitionToUpdate
@@ -457,13 +436,18 @@ public class BatchRequisitionController extends BaseRequisitionController {
   }
 
   private Requisition updateOne(ApproveRequisitionDto dto, Requisition requisition) {
+    Map<UUID, RequisitionLineItem> originals = requisition
+        .getRequisitionLineItems()
+        .stream()
+        .filter(original -> null != original.getId())
+        .collect(toMap(RequisitionLineItem::getId, Function.identity(), (first, second) -> first));
+
     for (ApproveRequisitionLineItemDto line : dto.getRequisitionLineItems()) {
-      requisition
-          .getRequisitionLineItems()
-          .stream()
-          .filter(original -> Objects.equals(original.getId(), line.getId()))
-          .findFirst()
-          .ifPresent(original -> original.setApprovedQuantity(line.getApprovedQuantity()));
+      RequisitionLineItem original = originals.get(line.getId());
+
+      if (null != original) {
+        original.setApprovedQuantity(line.getApprovedQuantity());
+      }
     }
     requisition.setModifiedDate(dto.getModifiedDate());
     setNullForCalculatedFields(requisition);
@@ -15,12 +15,13 @@
 
 package org.openlmis.requisition.web;
 
-import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.UUID;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.openlmis.requisition.domain.JasperTemplate;
 import org.openlmis.requisition.dto.JasperTemplateDto;
+import org.openlmis.requisition.dto.ReportJobDto;
 import org.openlmis.requisition.exception.ContentNotFoundMessageException;
 import org.openlmis.requisition.exception.JasperReportViewException;
 import org.openlmis.requisition.exception.ReportingException;
@@ -29,14 +30,14 @@ import org.openlmis.requisition.repository.JasperTemplateRepository;
 import org.openlmis.requisition.service.JasperReportsViewService;
 import org.openlmis.requisition.service.JasperTemplateService;
 import org.openlmis.requisition.service.PermissionService;
+import org.openlmis.requisition.service.report.ReportJob;
+import org.openlmis.requisition.service.report.ReportJobService;
 import org.openlmis.requisition.utils.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -53,9 +54,6 @@ import org.springframework.web.multipart.MultipartFile;
 public class JasperTemplateController extends BaseController {
 
   private static final String CONSISTENCY_REPORT = "Consistency Report";
-  private static final String TIMELINESS_REPORT = "Timeliness Report";
-  private static final String REPORTING_RATE_REPORT = "Reporting Rate Report";
-  private static final int DUE_DAYS = 10;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(JasperTemplateController.class);
 
@@ -68,6 +66,9 @@ public class JasperTemplateController extends BaseController {
   @Autowired
   private JasperReportsViewService jasperReportsViewService;
 
+  @Autowired
+  private ReportJobService reportJobService;
+
   @Autowired
   private PermissionService permissionService;
 
@@ -153,6 +154,7 @@ public class JasperTemplateController extends BaseController {
             MessageKeys.ERROR_JASPER_TEMPLATE_NOT_FOUND, templateId)));
 
     jasperTemplateRepository.delete(jasperTemplate);
+    jasperReportsViewService.evictTemplate(templateId);
   }
 
   /**
@@ -161,52 +163,63 @@ public class JasperTemplateController extends BaseController {
    * @param request    request (to get the request parameters)
    * @param templateId report template ID
    * @param format     report format to generate, default is PDF
-   * @return the generated report
+   * @param response   response the generated report will be written to
    */
   @RequestMapping(value = "/{id}/{format}", method = RequestMethod.GET)
+  @Transactional(readOnly = true)
+  public void generateReport(HttpServletRequest request,
+      @PathVariable("id") UUID templateId,
+      @PathVariable("format") String format, HttpServletResponse response)
+      throws JasperReportViewException {
+    permissionService.canViewReports().throwExceptionIfHasErrors();
+
+    JasperTemplate template = jasperTemplateRepository.findById(templateId)
+        .orElseThrow(() -> new ContentNotFoundMessageException(new Message(
+            MessageKeys.ERROR_JASPER_TEMPLATE_NOT_FOUND, templateId)));
+
+    jasperReportsViewService.generateTemplateReport(template,
+        getReportParameters(request, template, format), new ReportOutputStream(response,
+            ReportOutputStream.getMediaType(format),
+            ReportOutputStream.getFileName(template.getName(), format)));
+  }
+
+  /**
+   * Submits a job generating a report based on the template, the format and the request
+   * parameters. The report is generated in the background and can be downloaded from
+   * /api/reports/jobs/{jobId}/result once the job is completed. If the same report is already
+   * being generated, the existing job is returned.
+   *
+   * @param request    request (to get the request parameters)
+   * @param templateId report template ID
+   * @param format     report format to generate, default is PDF
+   * @return the report job
+   */
+  @RequestMapping(value = "/{id}/{format}/jobs", method = RequestMethod.POST)
+  @ResponseStatus(HttpStatus.ACCEPTED)
   @ResponseBody
-  public ResponseEntity<byte[]> generateReport(HttpServletRequest request,
+  public ReportJobDto submitReportJob(HttpServletRequest request,
       @PathVariable("id") UUID templateId,
-      @PathVariable("format") String format) throws JasperReportViewException {
+      @PathVariable("format") String format) {
     permissionService.canViewReports().throwExceptionIfHasErrors();
 
     JasperTemplate template = jasperTemplateRepository.findById(templateId)
         .orElseThrow(() -> new ContentNotFoundMessageException(new Message(
             MessageKeys.ERROR_JASPER_TEMPLATE_NOT_FOUND, templateId)));
 
+    ReportJob job = reportJobService.submit(template, format,
+        getReportParameters(request, template, format));
+
+    return ReportJobDto.newInstance(job);
+  }
+
+  private Map<String, Object> getReportParameters(HttpServletRequest request,
+      JasperTemplate template, String format) {
     Map<String, Object> map = jasperTemplateService
         .mapRequestParametersToTemplate(request, template);
     map.put("format", format);
     map.put("dateTimeFormat", dateTimeFormat);
     map.put("timeZoneId", timeZoneId);
 
-    byte[] reportData;
-    
-    if (TIMELINESS_REPORT.equals(template.getType())) {
-      reportData = jasperReportsViewService.generateTimelinessReport(template, map);
-    } else if (REPORTING_RATE_REPORT.equals(template.getType())) {
-      map.putIfAbsent("DueDays", String.valueOf(DUE_DAYS));
-      reportData = jasperReportsViewService.generateReportingRateReport(template, map);
-    } else {
-      reportData = jasperReportsViewService.generateReport(template, map);
-    }
-
-    MediaType mediaType;
-    if ("csv".equals(format)) {
-      mediaType = new MediaType("text", "csv", StandardCharsets.UTF_8);
-    } else if ("xls".equals(format)) {
-      mediaType = new MediaType("application", "vnd.ms-excel", StandardCharsets.UTF_8);
-    } else if ("html".equals(format)) {
-      mediaType = new MediaType("text", "html", StandardCharsets.UTF_8);
-    } else {
-      mediaType = new MediaType("application", "pdf", StandardCharsets.UTF_8);
-    }
-    String fileName = template.getName().replaceAll("\\s+", "_");
-
-    return ResponseEntity
-        .ok()
-        .contentType(mediaType)
-        .header("Content-Disposition", "inline; filename=" + fileName + "." + format)
-        .body(reportData);
+    return map;
   }
 }
@@ -0,0 +1,105 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.web;
+
+import java.util.UUID;
+import org.openlmis.requisition.domain.outbox.OutboxEvent;
+import org.openlmis.requisition.domain.outbox.OutboxEventStatus;
+import org.openlmis.requisition.dto.OutboxEventDto;
+import org.openlmis.requisition.service.PermissionService;
+import org.openlmis.requisition.service.outbox.OutboxService;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.slf4j.profiler.Profiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Controller
+@RequestMapping(OutboxEventController.RESOURCE_URL)
+public class OutboxEventController extends BaseController {
+  static final String RESOURCE_URL = API_URL + "/outboxEvents";
+
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(OutboxEventController.class);
+
+  @Autowired
+  private OutboxService outboxService;
+
+  @Autowired
+  private PermissionService permissionService;
+
+  /**
+   * Returns a page of outbox events, optionally only those with the given status.
+   *
+   * @param status   status of events to return, all events are returned if not set
+   * @param pageable holds pagination and sort parameters
+   * @return page of outbox events
+   */
+  @GetMapping
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public Page<OutboxEventDto> getOutboxEvents(
+      @RequestParam(value = "status", required = false) OutboxEventStatus status,
+      Pageable pageable) {
+    Profiler profiler = new Profiler("GET_OUTBOX_EVENTS");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("CHECK_PERMISSION");
+    permissionService.canManageOutbox().throwExceptionIfHasErrors();
+
+    profiler.start("SEARCH");
+    Page<OutboxEvent> page = outboxService.search(status, pageable);
+
+    profiler.start("TO_DTO");
+    Page<OutboxEventDto> result = page.map(OutboxEventDto::newInstance);
+
+    profiler.stop().log();
+    return result;
+  }
+
+  /**
+   * Schedules an undelivered outbox event to be delivered again as soon as possible, with a new
+   * set of attempts.
+   *
+   * @param id ID of the outbox event to replay
+   * @return the replayed outbox event
+   */
+  @PostMapping("/{id}/replay")
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public OutboxEventDto replayOutboxEvent(@PathVariable("id") UUID id) {
+    Profiler profiler = new Profiler("REPLAY_OUTBOX_EVENT");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("CHECK_PERMISSION");
+    permissionService.canManageOutbox().throwExceptionIfHasErrors();
+
+    profiler.start("REPLAY");
+    OutboxEventDto result = OutboxEventDto.newInstance(outboxService.replay(id));
+
+    profiler.stop().log();
+    return result;
+  }
+}
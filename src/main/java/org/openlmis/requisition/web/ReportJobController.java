@@ -0,0 +1,81 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.UUID;
+import javax.servlet.http.HttpServletResponse;
+import org.openlmis.requisition.dto.ReportJobDto;
+import org.openlmis.requisition.service.PermissionService;
+import org.openlmis.requisition.service.report.ReportJob;
+import org.openlmis.requisition.service.report.ReportJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Controller
+@RequestMapping(ReportJobController.RESOURCE_URL)
+public class ReportJobController extends BaseController {
+  static final String RESOURCE_URL = API_URL + "/reports/jobs";
+
+  @Autowired
+  private ReportJobService reportJobService;
+
+  @Autowired
+  private PermissionService permissionService;
+
+  /**
+   * Returns the status of a report job.
+   *
+   * @param id ID of the report job
+   * @return the report job
+   */
+  @GetMapping("/{id}")
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public ReportJobDto getReportJob(@PathVariable("id") UUID id) {
+    permissionService.canViewReports().throwExceptionIfHasErrors();
+
+    return ReportJobDto.newInstance(reportJobService.getJob(id));
+  }
+
+  /**
+   * Downloads the report generated by a completed report job.
+   *
+   * @param id       ID of the report job
+   * @param response response the report will be written to
+   */
+  @GetMapping("/{id}/result")
+  public void getReportJobResult(@PathVariable("id") UUID id, HttpServletResponse response)
+      throws IOException {
+    permissionService.canViewReports().throwExceptionIfHasErrors();
+
+    ReportJob job = reportJobService.getJob(id);
+
+    try (OutputStream outputStream = new ReportOutputStream(response,
+        ReportOutputStream.getMediaType(job.getFormat()),
+        ReportOutputStream.getFileName(job.getTemplateName(), job.getFormat()))) {
+      Files.copy(reportJobService.getResult(id), outputStream);
+    }
+  }
+}
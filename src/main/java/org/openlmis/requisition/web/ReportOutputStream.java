@@ -0,0 +1,91 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+/**
+ * Writes a report directly to the response. The content type and file name of the response are
+ * set when the first byte of the report is written, so errors raised while the report is being
+ * filled are still returned as regular error responses.
+ */
+class ReportOutputStream extends OutputStream {
+  private final HttpServletResponse response;
+  private final MediaType mediaType;
+  private final String fileName;
+
+  private OutputStream outputStream;
+
+  ReportOutputStream(HttpServletResponse response, MediaType mediaType, String fileName) {
+    this.response = response;
+    this.mediaType = mediaType;
+    this.fileName = fileName;
+  }
+
+  /**
+   * Returns the media type of a report in the given format. Reports are in PDF unless CSV, XLS
+   * or HTML is requested.
+   */
+  static MediaType getMediaType(String format) {
+    if ("csv".equals(format)) {
+      return new MediaType("text", "csv", StandardCharsets.UTF_8);
+    } else if ("xls".equals(format)) {
+      return new MediaType("application", "vnd.ms-excel", StandardCharsets.UTF_8);
+    } else if ("html".equals(format)) {
+      return new MediaType("text", "html", StandardCharsets.UTF_8);
+    } else {
+      return new MediaType("application", "pdf", StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Returns the name of the file of a report with the given name and format.
+   */
+  static String getFileName(String reportName, String format) {
+    return reportName.replaceAll("\\s+", "_") + "." + format;
+  }
+
+  @Override
+  public void write(int value) throws IOException {
+    open().write(value);
+  }
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    open().write(bytes, offset, length);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (null != outputStream) {
+      outputStream.flush();
+    }
+  }
+
+  private OutputStream open() throws IOException {
+    if (null == outputStream) {
+      response.setContentType(mediaType.toString());
+      response.setHeader("Content-Disposition", "inline; filename=" + fileName);
+      outputStream = response.getOutputStream();
+    }
+
+    return outputStream;
+  }
+}
@@ -19,15 +19,16 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.openlmis.requisition.domain.requisition.Requisition;
-import org.openlmis.requisition.domain.requisition.RequisitionStatus;
-import org.openlmis.requisition.domain.requisition.StatusChange;
+import org.openlmis.requisition.domain.requisition.RequisitionApprovalDate;
 import org.openlmis.requisition.dto.GeographicZoneDto;
 import org.openlmis.requisition.dto.MinimalFacilityDto;
 import org.openlmis.requisition.dto.ProcessingPeriodDto;
@@ -40,12 +41,12 @@ import org.openlmis.requisition.service.referencedata.GeographicZoneReferenceDat
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 @Component
 public class ReportingRateReportDtoBuilder {
   private static int LATEST_PERIODS = 3;
   private static int GEOGRAPHIC_ZONE_LEVEL = 3;
-  private static RequisitionStatus REQUIRED_STATUS = RequisitionStatus.APPROVED;
 
   @Autowired
   private PeriodReferenceDataService periodReferenceDataService;
@@ -67,28 +68,39 @@ public class ReportingRateReportDtoBuilder {
    * @param zone geographic zone for reporting
    * @return newly created report dto
    */
+  @Transactional(readOnly = true)
   public ReportingRateReportDto build(
       ProgramDto program, ProcessingPeriodDto period, GeographicZoneDto zone, Integer dueDays) {
     ReportingRateReportDto report = new ReportingRateReportDto();
 
     Collection<ProcessingPeriodDto> periods = getLatestPeriods(period, LATEST_PERIODS);
     Collection<GeographicZoneDto> zones = getAvailableGeographicZones(zone);
-    Collection<MinimalFacilityDto> facilities = getAvailableFacilities(zones);
+    Map<GeographicZoneDto, Collection<MinimalFacilityDto>> facilitiesByZone =
+        getAvailableFacilitiesByZone(zones);
+    Collection<MinimalFacilityDto> facilities = facilitiesByZone
+        .values()
+        .stream()
+        .flatMap(Collection::stream)
+        .collect(Collectors.toList());
+    Map<UUID, Map<UUID, List<RequisitionApprovalDate>>> approvalDates =
+        getApprovalDates(program, periods);
 
-    report.setCompletionByPeriod(getCompletionsByPeriod(program, periods, facilities, dueDays));
-    report.setCompletionByZone(getCompletionsByZone(program, periods, zones, dueDays));
+    report.setCompletionByPeriod(
+        getCompletionsByPeriod(periods, facilities, dueDays, approvalDates));
+    report.setCompletionByZone(
+        getCompletionsByZone(periods, facilitiesByZone, dueDays, approvalDates));
 
     return report;
   }
 
   private List<RequisitionCompletionDto> getCompletionsByPeriod(
-      ProgramDto program, Collection<ProcessingPeriodDto> periods,
-      Collection<MinimalFacilityDto> facilities, Integer dueDays) {
+      Collection<ProcessingPeriodDto> periods, Collection<MinimalFacilityDto> facilities,
+      Integer dueDays, Map<UUID, Map<UUID, List<RequisitionApprovalDate>>> approvalDates) {
     List<RequisitionCompletionDto> completionByPeriod = new ArrayList<>();
 
     for (ProcessingPeriodDto period : periods) {
       RequisitionCompletionDto completion = getCompletionForFacilities(
-          program, Collections.singletonList(period), facilities, dueDays);
+          Collections.singletonList(period), facilities, dueDays, approvalDates);
       completion.setGrouping(period.getName());
       completionByPeriod.add(completion);
     }
@@ -97,18 +109,19 @@ public class ReportingRateReportDtoBuilder {
   }
 
   private List<RequisitionCompletionDto> getCompletionsByZone(
-      ProgramDto program, Collection<ProcessingPeriodDto> periods,
-      Collection<GeographicZoneDto> zones, Integer dueDays) {
+      Collection<ProcessingPeriodDto> periods,
+      Map<GeographicZoneDto, Collection<MinimalFacilityDto>> facilitiesByZone,
+      Integer dueDays, Map<UUID, Map<UUID, List<RequisitionApprovalDate>>> approvalDates) {
     List<RequisitionCompletionDto> completionByZone = new ArrayList<>();
 
-    for (GeographicZoneDto zone : zones) {
-      Collection<MinimalFacilityDto> facilities =
-          getAvailableFacilities(Collections.singletonList(zone));
+    for (Map.Entry<GeographicZoneDto, Collection<MinimalFacilityDto>> entry
+        : facilitiesByZone.entrySet()) {
+      Collection<MinimalFacilityDto> facilities = entry.getValue();
 
       if (!facilities.isEmpty()) {
         RequisitionCompletionDto completion =
-            getCompletionForFacilities(program, periods, facilities, dueDays);
-        completion.setGrouping(zone.getName());
+            getCompletionForFacilities(periods, facilities, dueDays, approvalDates);
+        completion.setGrouping(entry.getKey().getName());
         completionByZone.add(completion);
       }
     }
@@ -121,16 +134,18 @@ public class ReportingRateReportDtoBuilder {
   }
 
   private RequisitionCompletionDto getCompletionForFacilities(
-      ProgramDto program, Collection<ProcessingPeriodDto> periods,
-      Collection<MinimalFacilityDto> facilities, Integer dueDays) {
+      Collection<ProcessingPeriodDto> periods, Collection<MinimalFacilityDto> facilities,
+      Integer dueDays, Map<UUID, Map<UUID, List<RequisitionApprovalDate>>> approvalDates) {
     CompletionCounter completions = new CompletionCounter();
 
     for (ProcessingPeriodDto period : periods) {
       LocalDate dueDate = period.getEndDate().plusDays(dueDays);
+      Map<UUID, List<RequisitionApprovalDate>> approvalDatesByFacility = approvalDates
+          .getOrDefault(period.getId(), Collections.emptyMap());
 
       for (MinimalFacilityDto facility : facilities) {
-        List<Requisition> requisitions = requisitionRepository
-            .searchRequisitions(period.getId(), facility.getId(), program.getId(), false);
+        List<RequisitionApprovalDate> requisitions = approvalDatesByFacility
+            .getOrDefault(facility.getId(), Collections.emptyList());
 
         updateCompletionsWithRequisitions(completions, requisitions, dueDate);
       }
@@ -156,21 +171,18 @@ public class ReportingRateReportDtoBuilder {
     return completion;
   }
 
-  void updateCompletionsWithRequisitions(
-      CompletionCounter completions, List<Requisition> requisitions, LocalDate dueDate) {
+  void updateCompletionsWithRequisitions(CompletionCounter completions,
+      List<RequisitionApprovalDate> requisitions, LocalDate dueDate) {
     int missed = completions.getMissed();
     int late = completions.getLate();
     int onTime = completions.getOnTime();
 
     if (!requisitions.isEmpty()) {
-      for (Requisition requisition : requisitions) {
-        Optional<StatusChange> entry = requisition.getStatusChanges().stream()
-            .filter(statusChange -> statusChange.getStatus() == REQUIRED_STATUS)
-            .findFirst();
-        if (!entry.isPresent()) {
+      for (RequisitionApprovalDate requisition : requisitions) {
+        if (null == requisition.getApprovedDate()) {
           missed++;
         } else {
-          LocalDate submissionDate = entry.get().getCreatedDate().toLocalDate();
+          LocalDate submissionDate = requisition.getApprovedDate().toLocalDate();
           if (submissionDate.isAfter(dueDate)) {
             late++;
           } else {
@@ -187,6 +199,34 @@ public class ReportingRateReportDtoBuilder {
     completions.setLate(late);
   }
 
+  /**
+   * Retrieves approval dates of all regular requisitions for the given program and periods with
+   * a single query, and groups them by processing period and facility.
+   */
+  Map<UUID, Map<UUID, List<RequisitionApprovalDate>>> getApprovalDates(ProgramDto program,
+      Collection<ProcessingPeriodDto> periods) {
+    Set<UUID> periodIds = periods
+        .stream()
+        .map(ProcessingPeriodDto::getId)
+        .collect(Collectors.toSet());
+
+    return requisitionRepository
+        .searchApprovalDates(program.getId(), periodIds, false)
+        .stream()
+        .collect(Collectors.groupingBy(RequisitionApprovalDate::getProcessingPeriodId,
+            Collectors.groupingBy(RequisitionApprovalDate::getFacilityId)));
+  }
+
+  Map<GeographicZoneDto, Collection<MinimalFacilityDto>> getAvailableFacilitiesByZone(
+      Collection<GeographicZoneDto> zones) {
+    Map<GeographicZoneDto, Collection<MinimalFacilityDto>> facilities = new LinkedHashMap<>();
+    for (GeographicZoneDto zone : zones) {
+      facilities.put(zone, getAvailableFacilities(Collections.singletonList(zone)));
+    }
+
+    return facilities;
+  }
+
   Collection<MinimalFacilityDto> getAvailableFacilities(Collection<GeographicZoneDto> zones) {
     List<MinimalFacilityDto> facilities = new ArrayList<>();
     for (GeographicZoneDto zone : zones) {
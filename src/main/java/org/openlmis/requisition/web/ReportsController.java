@@ -15,8 +15,8 @@
 
 package org.openlmis.requisition.web;
 
-import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import javax.servlet.http.HttpServletResponse;
 import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.exception.ContentNotFoundMessageException;
 import org.openlmis.requisition.exception.JasperReportViewException;
@@ -26,13 +26,10 @@ import org.openlmis.requisition.service.JasperReportsViewService;
 import org.openlmis.requisition.service.PermissionService;
 import org.openlmis.requisition.utils.Message;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
-import org.springframework.web.bind.annotation.ResponseBody;
 
 @Controller
 public class ReportsController extends BaseController {
@@ -47,15 +44,13 @@ public class ReportsController extends BaseController {
   private JasperReportsViewService jasperReportsViewService;
 
   /**
-   * Print out requisition as a PDF file.
+   * Print out requisition as a PDF file. The report is written directly to the response.
    *
    * @param id The UUID of the requisition to print
-   * @return ResponseEntity with the "#200 OK" HTTP response status and PDF file on success, or
-   *     ResponseEntity containing the error description status.
+   * @param response the response the PDF file will be written to
    */
   @RequestMapping(value = "/requisitions/{id}/print", method = RequestMethod.GET)
-  @ResponseBody
-  public ResponseEntity<byte[]> print(@PathVariable("id") UUID id)
+  public void print(@PathVariable("id") UUID id, HttpServletResponse response)
       throws JasperReportViewException {
     permissionService.canViewRequisition(id).throwExceptionIfHasErrors();
 
@@ -63,12 +58,8 @@ public class ReportsController extends BaseController {
         .orElseThrow(() -> new ContentNotFoundMessageException(
             new Message(MessageKeys.ERROR_REQUISITION_NOT_FOUND, id)));
 
-    byte[] bytes = jasperReportsViewService.generateRequisitionReport(requisition);
-
-    return ResponseEntity
-        .ok()
-        .contentType(new MediaType("application", "pdf", StandardCharsets.UTF_8))
-        .header("Content-Disposition", "inline; filename=requisition" + id.toString() + ".pdf")
-        .body(bytes);
+    jasperReportsViewService.generateRequisitionReport(requisition, new ReportOutputStream(
+        response, ReportOutputStream.getMediaType("pdf"),
+        "requisition" + id.toString() + ".pdf"));
   }
 }
@@ -15,6 +15,8 @@
 
 package org.openlmis.requisition.web;
 
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -44,13 +46,16 @@ import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.exception.ValidationMessageException;
 import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.repository.custom.DefaultRequisitionSearchParams;
+import org.openlmis.requisition.repository.custom.RequisitionCursor;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
 import org.openlmis.requisition.service.RequisitionStatusNotifier;
 import org.openlmis.requisition.service.referencedata.SupervisoryNodeReferenceDataService;
+import org.openlmis.requisition.utils.KeysetPage;
 import org.openlmis.requisition.utils.Message;
 import org.openlmis.requisition.utils.Pagination;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -60,6 +65,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -77,6 +83,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 public class RequisitionController extends BaseRequisitionController {
 
   private static final String BUILD_DTO_LIST = "BUILD_DTO_LIST";
+  private static final String CURSOR = "cursor";
+  private static final String COUNT = "count";
 
   @Autowired
   private RequisitionStatusNotifier requisitionStatusNotifier;
@@ -84,6 +92,9 @@ public class RequisitionController extends BaseRequisitionController {
   @Autowired
   private SupervisoryNodeReferenceDataService supervisoryNodeService;
 
+  @Value("${requisitions.cursor.maxPageSize}")
+  private int cursorMaxPageSize;
+
   /**
    * Allows creating new requisitions.
    *
@@ -277,14 +288,19 @@ public class RequisitionController extends BaseRequisitionController {
    * Get chosen requisition.
    *
    * @param requisitionId UUID of requisition whose we want to get
-   * @return Requisition.
+   * @return Requisition, or nothing if it has not been modified since the version passed in the
+   *         If-None-Match header.
    */
   @GetMapping(RESOURCE_URL + "/{id}")
-  @ResponseStatus(HttpStatus.OK)
   @ResponseBody
   public RequisitionDto getRequisition(@PathVariable("id") UUID requisitionId,
-      HttpServletResponse response) {
+      HttpServletRequest request, HttpServletResponse response) {
     Profiler profiler = getProfiler("GET_REQUISITION", requisitionId);
+
+    if (isNotModified(requisitionId, request, response, profiler)) {
+      return null;
+    }
+
     Requisition requisition = findRequisition(requisitionId, profiler);
     checkPermission(profiler, () -> permissionService.canViewRequisition(requisition));
     RequisitionDto requisitionDto = buildDto(
@@ -308,6 +324,7 @@ public class RequisitionController extends BaseRequisitionController {
   @GetMapping(RESOURCE_URL + "/search")
   @ResponseStatus(HttpStatus.OK)
   @ResponseBody
+  @Transactional(readOnly = true)
   public Page<BasicRequisitionDto> searchRequisitions(
       @RequestParam MultiValueMap<String, String> queryParams,
       Pageable pageable) {
@@ -329,6 +346,41 @@ public class RequisitionController extends BaseRequisitionController {
     return requisitionDtoPage;
   }
 
+  /**
+   * Finds a page of requisitions matching all of the provided parameters, using keyset (seek)
+   * pagination. The first page is requested with an empty cursor and each page contains the
+   * cursor of the next one. The total number of elements is only counted if requested.
+   */
+  @GetMapping(value = RESOURCE_URL + "/search", params = CURSOR)
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  @Transactional(readOnly = true)
+  public KeysetPage<BasicRequisitionDto> searchRequisitionsByCursor(
+      @RequestParam MultiValueMap<String, String> queryParams,
+      @RequestParam(CURSOR) String cursor,
+      @RequestParam(value = COUNT, defaultValue = "false") boolean count,
+      Pageable pageable) {
+
+    MultiValueMap<String, String> searchParams = new LinkedMultiValueMap<>(queryParams);
+    searchParams.remove(CURSOR);
+    searchParams.remove(COUNT);
+    RequisitionSearchParams params = new QueryRequisitionSearchParams(searchParams);
+
+    Profiler profiler = getProfiler("REQUISITIONS_SEARCH_CURSOR", params, cursor);
+    RequisitionCursor requisitionCursor = getCursor(cursor, pageable, profiler);
+
+    profiler.start("REQUISITION_SERVICE_SEARCH");
+    KeysetPage<Requisition> requisitionPage = requisitionService
+        .searchRequisitions(params, requisitionCursor, getCursorPageSize(pageable), count);
+
+    profiler.start("REQUISITION_DTO_BUILD");
+    KeysetPage<BasicRequisitionDto> requisitionDtoPage = requisitionPage
+        .map(basicRequisitionDtoBuilder::build);
+
+    stopProfiler(profiler, requisitionDtoPage);
+    return requisitionDtoPage;
+  }
+
   /**
    * Skipping chosen requisition period.
    */
@@ -464,6 +516,7 @@ public class RequisitionController extends BaseRequisitionController {
   @GetMapping(RESOURCE_URL + "/requisitionsForApproval")
   @ResponseStatus(HttpStatus.OK)
   @ResponseBody
+  @Transactional(readOnly = true)
   public Page<BasicRequisitionDto> requisitionsForApproval(
       @RequestParam(value = "program", required = false) UUID programId,
       Pageable pageable) {
@@ -484,6 +537,39 @@ public class RequisitionController extends BaseRequisitionController {
     return dtoPage;
   }
 
+  /**
+   * Get a page of requisitions to approve for right supervisor, using keyset (seek) pagination.
+   * The first page is requested with an empty cursor and each page contains the cursor of the
+   * next one.
+   *
+   * @return Approved requisitions.
+   */
+  @GetMapping(value = RESOURCE_URL + "/requisitionsForApproval", params = CURSOR)
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  @Transactional(readOnly = true)
+  public KeysetPage<BasicRequisitionDto> requisitionsForApprovalByCursor(
+      @RequestParam(value = "program", required = false) UUID programId,
+      @RequestParam(CURSOR) String cursor,
+      @RequestParam(value = COUNT, defaultValue = "false") boolean count,
+      Pageable pageable) {
+    Profiler profiler = getProfiler("REQUISITIONS_FOR_APPROVAL_CURSOR", programId, cursor);
+    RequisitionCursor requisitionCursor = getCursor(cursor, pageable, profiler);
+    UserDto user = getCurrentUser(profiler);
+
+    profiler.start("REQUISITION_SERVICE_GET_FOR_APPROVAL");
+    KeysetPage<Requisition> approvalRequisitions = requisitionService
+        .getRequisitionsForApproval(user, programId, requisitionCursor,
+            getCursorPageSize(pageable), count);
+
+    profiler.start(BUILD_DTO_LIST);
+    KeysetPage<BasicRequisitionDto> dtoPage = approvalRequisitions
+        .map(basicRequisitionDtoBuilder::build);
+
+    stopProfiler(profiler);
+    return dtoPage;
+  }
+
   /**
    * Get all submitted Requisitions.
    *
@@ -615,6 +701,18 @@ public class RequisitionController extends BaseRequisitionController {
     stopProfiler(profiler);
   }
 
+  // without a size the pageable asks for all requisitions, which a cursor page must not return
+  private int getCursorPageSize(Pageable pageable) {
+    return Math.min(pageable.getPageSize(), cursorMaxPageSize);
+  }
+
+  private RequisitionCursor getCursor(String cursor, Pageable pageable, Profiler profiler) {
+    profiler.start("DECODE_CURSOR");
+    return isBlank(cursor)
+        ? RequisitionCursor.first(pageable.getSort())
+        : RequisitionCursor.decode(cursor);
+  }
+
   private SupervisoryNodeDto getSupervisoryNodeDto(Profiler profiler, Requisition requisition) {
     profiler.start("GET_SUPERVISORY_NODE");
     return supervisoryNodeService
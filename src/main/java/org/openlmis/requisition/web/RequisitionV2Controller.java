@@ -155,13 +155,18 @@ public class RequisitionV2Controller extends BaseRequisitionController {
    * Get chosen requisition.
    *
    * @param requisitionId UUID of requisition whose we want to get
-   * @return Requisition.
+   * @return Requisition, or nothing if it has not been modified since the version passed in the
+   *         If-None-Match header.
    */
   @GetMapping("/{id}")
   public RequisitionV2Dto getRequisition(@PathVariable("id") UUID requisitionId,
-      HttpServletResponse response) {
+      HttpServletRequest request, HttpServletResponse response) {
     Profiler profiler = getProfiler("GET_REQUISITION_V2", requisitionId);
 
+    if (isNotModified(requisitionId, request, response, profiler)) {
+      return null;
+    }
+
     Requisition requisition = findRequisition(requisitionId, profiler);
 
     checkPermission(profiler, () -> permissionService.canViewRequisition(requisition));
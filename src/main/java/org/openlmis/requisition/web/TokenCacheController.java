@@ -0,0 +1,100 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.web;
+
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_TOKEN_CACHE_ACCESS_TOKEN_REQUIRED;
+
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.openlmis.requisition.exception.ValidationMessageException;
+import org.openlmis.requisition.security.CustomTokenServices;
+import org.openlmis.requisition.service.PermissionService;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.slf4j.profiler.Profiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Evicts access tokens checked with the auth service from memory, so that revoked tokens are
+ * rejected before their max age passes.
+ */
+@Controller
+@RequestMapping(TokenCacheController.RESOURCE_URL)
+public class TokenCacheController extends BaseController {
+  static final String RESOURCE_URL = API_URL + "/tokenCache";
+  static final String ACCESS_TOKEN = "accessToken";
+
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(TokenCacheController.class);
+
+  @Autowired
+  private CustomTokenServices tokenServices;
+
+  @Autowired
+  private PermissionService permissionService;
+
+  /**
+   * Evicts the given access token, so it is checked with the auth service again when it is used
+   * next time.
+   *
+   * @param body holds the access token to evict
+   */
+  @PostMapping("/evict")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void evictAccessToken(@RequestBody Map<String, String> body) {
+    Profiler profiler = new Profiler("EVICT_ACCESS_TOKEN");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("CHECK_PERMISSION");
+    permissionService.canManageTokenCache().throwExceptionIfHasErrors();
+
+    String accessToken = body.get(ACCESS_TOKEN);
+
+    if (StringUtils.isBlank(accessToken)) {
+      throw new ValidationMessageException(ERROR_TOKEN_CACHE_ACCESS_TOKEN_REQUIRED);
+    }
+
+    profiler.start("EVICT");
+    tokenServices.evict(accessToken);
+
+    profiler.stop().log();
+  }
+
+  /**
+   * Evicts all access tokens, so each of them is checked with the auth service again when it is
+   * used next time.
+   */
+  @DeleteMapping
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void evictAllAccessTokens() {
+    Profiler profiler = new Profiler("EVICT_ALL_ACCESS_TOKENS");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("CHECK_PERMISSION");
+    permissionService.canManageTokenCache().throwExceptionIfHasErrors();
+
+    profiler.start("EVICT_ALL");
+    tokenServices.evictAll();
+
+    profiler.stop().log();
+  }
+}
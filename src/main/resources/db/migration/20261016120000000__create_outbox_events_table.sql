@@ -0,0 +1,16 @@
+CREATE TABLE outbox_events (
+    id uuid NOT NULL,
+    createddate timestamp with time zone,
+    modifieddate timestamp with time zone,
+    type character varying(255) NOT NULL,
+    payload text NOT NULL,
+    status character varying(255) NOT NULL,
+    attempts integer NOT NULL,
+    nextattemptdate timestamp with time zone NOT NULL,
+    deliverydate timestamp with time zone,
+    lasterror text,
+    CONSTRAINT outbox_events_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX outbox_events_status_nextattemptdate_idx
+    ON outbox_events (status, nextattemptdate);
@@ -0,0 +1,5 @@
+ALTER TABLE requisitions ADD COLUMN originalrequisitionid uuid;
+
+-- Existing split requisitions keep the original requisition ID in extradata only. The column is
+-- filled in by BackfillOriginalRequisitionIdMigration, which commits each batch on its own, and
+-- indexed concurrently by the next migration.
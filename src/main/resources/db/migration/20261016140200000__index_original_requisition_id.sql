@@ -0,0 +1,5 @@
+-- CONCURRENTLY does not block writes to requisitions while the index is built. Flyway runs this
+-- migration outside of a transaction, as PostgreSQL requires.
+CREATE INDEX CONCURRENTLY req_original_requisition_id
+ON requisitions(originalrequisitionid)
+WHERE originalrequisitionid IS NOT NULL;
@@ -0,0 +1,17 @@
+-- Requisition states waiting to be committed to the audit log. Rows are deleted once committed.
+-- The position is taken from a sequence while the transaction holds the lock on the requisition
+-- row, so it follows the commit order of transactions that changed the same requisition.
+CREATE TABLE requisition_audit_entries (
+    id uuid NOT NULL,
+    position bigserial NOT NULL,
+    requisitionid uuid NOT NULL,
+    requisitionversion bigint,
+    author text,
+    state text,
+    captureddate timestamp with time zone NOT NULL,
+    CONSTRAINT requisition_audit_entries_pkey PRIMARY KEY (id),
+    CONSTRAINT requisition_audit_entries_position_unique UNIQUE (position)
+);
+
+CREATE INDEX requisition_audit_entries_requisitionid_idx
+    ON requisition_audit_entries (requisitionid);
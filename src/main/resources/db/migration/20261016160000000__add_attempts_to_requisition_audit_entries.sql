@@ -0,0 +1,5 @@
+-- Entries that failed to be committed the maximum number of times are kept, but no longer block
+-- other entries.
+ALTER TABLE requisition_audit_entries
+    ADD COLUMN attempts integer NOT NULL DEFAULT 0,
+    ADD COLUMN lasterror text;
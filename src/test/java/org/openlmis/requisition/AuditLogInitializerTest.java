@@ -78,6 +78,10 @@ public class AuditLogInitializerTest {
 
     when(applicationContext.getBeansWithAnnotation(JaversSpringDataAuditable.class))
         .thenReturn(repositoryMap);
+    when(applicationContext.getBean(RequisitionRepository.class))
+        .thenReturn(requisitionRepository);
+    when(requisitionRepository.findAllWithoutSnapshots(any(Pageable.class)))
+        .thenReturn(new PageImpl<>(Lists.newArrayList()));
   }
 
   @Test
@@ -107,6 +111,20 @@ public class AuditLogInitializerTest {
     verify(javers, never()).commit(eq("System: AuditLogInitializer"), any());
   }
 
+  @Test
+  public void shouldCreateSnapshotForRequisitionRepositoryWithoutAnnotation() {
+    Requisition requisition = new RequisitionDataBuilder().build();
+    when(requisitionRepository.findAllWithoutSnapshots(any(Pageable.class)))
+        .thenReturn(new PageImpl<>(Lists.newArrayList(requisition)))
+        .thenReturn(new PageImpl<>(Lists.newArrayList()));
+
+    PowerMockito.when(javers.findSnapshots(any(JqlQuery.class)))
+        .thenReturn(Lists.newArrayList());
+
+    auditLogInitializer.run();
+    verify(javers).commit("System: AuditLogInitializer", requisition);
+  }
+
   @Getter
   @AllArgsConstructor
   class TestItem {
@@ -0,0 +1,160 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReplicaRoutingDataSourceTest {
+
+  private static final long MAX_LAG = 1000;
+
+  @Mock
+  private DataSource primary;
+
+  @Mock
+  private DataSource replica;
+
+  @Mock
+  private Connection primaryConnection;
+
+  @Mock
+  private Connection replicaConnection;
+
+  @Mock
+  private Statement statement;
+
+  @Mock
+  private ResultSet resultSet;
+
+  private ReplicaRoutingDataSource dataSource;
+
+  @Before
+  public void setUp() throws SQLException {
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    when(replica.getConnection()).thenReturn(replicaConnection);
+    when(replicaConnection.createStatement()).thenReturn(statement);
+    when(statement.executeQuery(ReplicaRoutingDataSource.REPLICATION_LAG_SQL))
+        .thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true);
+
+    dataSource = new ReplicaRoutingDataSource(primary, replica, MAX_LAG);
+  }
+
+  @After
+  public void tearDown() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+  }
+
+  @Test
+  public void shouldUsePrimaryOutsideOfReadOnlyTransaction() throws SQLException {
+    assertSame(primaryConnection, dataSource.getConnection());
+    verify(replica, never()).getConnection();
+  }
+
+  @Test
+  public void shouldUseReplicaInReadOnlyTransaction() throws SQLException {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    assertSame(replicaConnection, dataSource.getConnection());
+    assertEquals(1, dataSource.getReplicaConnectionCount());
+  }
+
+  @Test
+  public void shouldUseReplicaForReplicaPreferringDataSource() throws SQLException {
+    assertSame(replicaConnection, dataSource.replicaPreferring().getConnection());
+  }
+
+  @Test
+  public void shouldPassCredentialsToRoutedDataSource() throws SQLException {
+    when(primary.getConnection("user", "secret")).thenReturn(primaryConnection);
+    when(replica.getConnection("user", "secret")).thenReturn(replicaConnection);
+
+    assertSame(primaryConnection, dataSource.getConnection("user", "secret"));
+    assertSame(replicaConnection, dataSource.replicaPreferring().getConnection("user", "secret"));
+
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    assertSame(replicaConnection, dataSource.getConnection("user", "secret"));
+  }
+
+  @Test
+  public void shouldFallBackToPrimaryIfReplicaConnectionFails() throws SQLException {
+    when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    assertSame(primaryConnection, dataSource.getConnection());
+    assertFalse(dataSource.isReplicaAvailable());
+    assertEquals(1, dataSource.getFallbackCount());
+  }
+
+  @Test
+  public void shouldUsePrimaryIfReplicationLagIsTooHigh() throws SQLException {
+    when(resultSet.getLong(1)).thenReturn(MAX_LAG + 1);
+
+    dataSource.checkReplica();
+
+    assertFalse(dataSource.isReplicaAvailable());
+    assertSame(primaryConnection, dataSource.replicaPreferring().getConnection());
+  }
+
+  @Test
+  public void shouldUseReplicaAgainIfReplicationLagIsWithinTolerance() throws SQLException {
+    when(resultSet.getLong(1)).thenReturn(MAX_LAG + 1, MAX_LAG);
+
+    dataSource.checkReplica();
+    dataSource.checkReplica();
+
+    assertTrue(dataSource.isReplicaAvailable());
+    assertEquals(MAX_LAG, dataSource.getReplicationLag());
+  }
+
+  @Test
+  public void shouldUsePrimaryIfReplicationLagIsUnknown() throws SQLException {
+    when(resultSet.wasNull()).thenReturn(true);
+
+    dataSource.checkReplica();
+
+    assertFalse(dataSource.isReplicaAvailable());
+  }
+
+  @Test
+  public void shouldAlwaysUsePrimaryWithoutReplica() throws SQLException {
+    dataSource = new ReplicaRoutingDataSource(primary, null, MAX_LAG);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    assertSame(primaryConnection, dataSource.getConnection());
+    assertFalse(dataSource.isReplicaAvailable());
+  }
+}
@@ -66,6 +66,7 @@ public class RequisitionDataBuilder implements DataBuilder<Requisition>,
   private List<StockAdjustmentReason> stockAdjustmentReasons = new ArrayList<>();
   private List<RequisitionPermissionString> permissionStrings = new ArrayList<>();
   private Map<String, Object> extraData = Maps.newHashMap();
+  private UUID originalRequisitionId;
   private ZonedDateTime createdDate = ZonedDateTime.now();
   private ZonedDateTime modifiedDate = ZonedDateTime.now();
 
@@ -100,6 +101,9 @@ public class RequisitionDataBuilder implements DataBuilder<Requisition>,
     requisition.setDatePhysicalStockCountCompleted(datePhysicalStockCountCompleted);
     requisition.setStockAdjustmentReasons(stockAdjustmentReasons);
     requisition.setExtraData(extraData);
+    if (null != originalRequisitionId) {
+      requisition.setOriginalRequisitionId(originalRequisitionId);
+    }
     return requisition;
   }
 
@@ -130,7 +134,7 @@ public class RequisitionDataBuilder implements DataBuilder<Requisition>,
         processingPeriodId, supplyingFacilityId, status, statusChanges, emergency, reportOnly,
         numberOfMonthsInPeriod, supervisoryNodeId, previousRequisitions, availableProducts,
         datePhysicalStockCountCompleted, stockAdjustmentReasons, permissionStrings,
-        new ExtraDataEntity(extraData)
+        new ExtraDataEntity(extraData), originalRequisitionId
     );
     requisition.setId(id);
     requisition.setCreatedDate(createdDate);
@@ -270,6 +274,7 @@ public class RequisitionDataBuilder implements DataBuilder<Requisition>,
    */
   public RequisitionDataBuilder withOriginalRequisitionId(UUID originalRequisitionId) {
     this.extraData.put(Requisition.EXTRA_DATA_ORIGINAL_REQUISITION_ID, originalRequisitionId);
+    this.originalRequisitionId = originalRequisitionId;
     return this;
   }
 
@@ -380,6 +385,7 @@ public class RequisitionDataBuilder implements DataBuilder<Requisition>,
     stockAdjustmentReasons = new ArrayList<>();
     permissionStrings = new ArrayList<>();
     extraData = null;
+    originalRequisitionId = null;
     createdDate = null;
     modifiedDate = null;
     return this;
@@ -39,6 +39,7 @@ import com.google.common.collect.Sets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import org.joda.money.CurrencyUnit;
@@ -576,14 +577,15 @@ public class RequisitionLineItemTest {
         .withOrderable(orderableId, 1L)
         .withAdditionalQuantityRequired(30)
         .build();
-    List<Requisition> previousRequisitions = singletonList(
+    List<Map<VersionEntityReference, RequisitionLineItem>> previousLineItems = singletonList(
         new RequisitionDataBuilder()
             .withLineItems(singletonList(
                 new RequisitionLineItemDataBuilder()
                     .withAdditionalQuantityRequired(10)
                     .withOrderable(orderableId, 1L)
                     .build()), false)
-            .build());
+            .build()
+            .getLineItemsByOrderable());
     RequisitionTemplate template = new RequisitionTemplateDataBuilder()
         .withAdditionalQuantityRequiredColumnDisplayed()
         .withStockBasedColumn(TOTAL_CONSUMED_QUANTITY, COLUMN_IDENTIFIER, CONSUMED_TAG)
@@ -599,7 +601,7 @@ public class RequisitionLineItemTest {
         new ProcessingPeriodDtoDataBuilder().withDurationInMonths(3).buildAsDto());
 
     item.calculateAndSetStockBasedAverageConsumption(
-        summary, template, previousPeriods, previousRequisitions);
+        summary, template, previousPeriods, previousLineItems);
 
     assertEquals(new Integer(71), item.getAverageConsumption());
   }
@@ -611,14 +613,15 @@ public class RequisitionLineItemTest {
         .withOrderable(orderableId, 1L)
         .withAdditionalQuantityRequired(30)
         .build();
-    List<Requisition> previousRequisitions = singletonList(
+    List<Map<VersionEntityReference, RequisitionLineItem>> previousLineItems = singletonList(
         new RequisitionDataBuilder()
             .withLineItems(singletonList(
                 new RequisitionLineItemDataBuilder()
                     .withAdditionalQuantityRequired(10)
                     .withOrderable(orderableId, 1L)
                     .build()), false)
-            .build());
+            .build()
+            .getLineItemsByOrderable());
     RequisitionTemplate template = new RequisitionTemplateDataBuilder()
         .withColumn(ADDITIONAL_QUANTITY_REQUIRED, COLUMN_IDENTIFIER, SourceType.USER_INPUT,
             singleton(SourceType.USER_INPUT), false)
@@ -635,7 +638,7 @@ public class RequisitionLineItemTest {
         new ProcessingPeriodDtoDataBuilder().withDurationInMonths(3).buildAsDto());
 
     item.calculateAndSetStockBasedAverageConsumption(
-        summary, template, previousPeriods, previousRequisitions);
+        summary, template, previousPeriods, previousLineItems);
 
     assertEquals(new Integer(51), item.getAverageConsumption());
   }
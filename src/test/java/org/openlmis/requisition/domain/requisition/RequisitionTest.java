@@ -587,6 +587,21 @@ public class RequisitionTest {
     assertEquals(requisitionLineItem, found);
   }
 
+  @Test
+  public void shouldMapLineItemsByOrderable() {
+    RequisitionLineItem duplicate = new RequisitionLineItemDataBuilder()
+        .withOrderable(orderable.getId(), 1L)
+        .build();
+    requisition.getRequisitionLineItems().add(duplicate);
+
+    Map<VersionEntityReference, RequisitionLineItem> lineItems =
+        requisition.getLineItemsByOrderable();
+
+    assertEquals(requisitionLineItem,
+        lineItems.get(new VersionEntityReference(orderable.getId(), 1L)));
+    assertNull(lineItems.get(new VersionEntityReference(orderable.getId(), 2L)));
+  }
+
   @Test
   public void shouldSetRequisitionFieldForLineItemsAfterUpdate() {
     // given
@@ -1617,6 +1632,32 @@ public class RequisitionTest {
     requisition.skip(true, UUID.randomUUID());
   }
 
+  @Test
+  public void shouldSetOriginalRequisitionIdInColumnAndExtraData() {
+    UUID originalRequisitionId = UUID.randomUUID();
+    Requisition requisition = new RequisitionDataBuilder().build();
+
+    requisition.setOriginalRequisitionId(originalRequisitionId);
+
+    assertTrue(requisition.hasOriginalRequisitionId());
+    assertEquals(originalRequisitionId, requisition.getOriginalRequisitionId());
+    assertEquals(originalRequisitionId,
+        requisition.getExtraData().get(Requisition.EXTRA_DATA_ORIGINAL_REQUISITION_ID));
+    assertEquals(originalRequisitionId, new Requisition(requisition).getOriginalRequisitionId());
+  }
+
+  @Test
+  public void shouldGetOriginalRequisitionIdFromExtraDataIfColumnIsNotSet() {
+    UUID originalRequisitionId = UUID.randomUUID();
+    Requisition requisition = new RequisitionDataBuilder().build();
+
+    requisition.setExtraData(ImmutableMap.of(
+        Requisition.EXTRA_DATA_ORIGINAL_REQUISITION_ID, originalRequisitionId.toString()));
+
+    assertTrue(requisition.hasOriginalRequisitionId());
+    assertEquals(originalRequisitionId, requisition.getOriginalRequisitionId());
+  }
+
   @Test
   public void shouldNotSkipRequisitionIfProgramNotSupportSkip() {
     exception.expect(ValidationMessageException.class);
@@ -0,0 +1,103 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.requisition.repository.custom;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.junit.Test;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
+import org.openlmis.requisition.exception.ValidationMessageException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+
+public class RequisitionCursorTest {
+
+  private Requisition requisition = new RequisitionDataBuilder().build();
+
+  @Test
+  public void shouldSortByCreatedDateIfSortIsNotGiven() {
+    RequisitionCursor cursor = RequisitionCursor.first(Sort.unsorted());
+
+    assertThat(cursor.getProperty(), is(RequisitionCursor.DEFAULT_SORT_PROPERTY));
+    assertThat(cursor.getDirection(), is(Direction.ASC));
+    assertThat(cursor.getValue(), is(nullValue()));
+    assertTrue(cursor.isFirst());
+  }
+
+  @Test
+  public void shouldUseGivenSort() {
+    RequisitionCursor cursor = RequisitionCursor.first(Sort.by(Direction.DESC, "facilityId"));
+
+    assertThat(cursor.getProperty(), is("facilityId"));
+    assertThat(cursor.getDirection(), is(Direction.DESC));
+    assertTrue(cursor.isFirst());
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldNotAllowUnsupportedSortProperty() {
+    RequisitionCursor.first(Sort.by("supervisoryNodeId"));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldNotAllowSortByMultipleProperties() {
+    RequisitionCursor.first(Sort.by("createdDate", "facilityId"));
+  }
+
+  @Test
+  public void shouldPointToGivenRequisition() {
+    RequisitionCursor cursor = RequisitionCursor
+        .first(Sort.by(Direction.DESC, "createdDate"))
+        .after(requisition);
+
+    assertThat(cursor.getValue(), is(requisition.getCreatedDate()));
+    assertThat(cursor.getId(), is(requisition.getId()));
+    assertFalse(cursor.isFirst());
+  }
+
+  @Test
+  public void shouldDecodeEncodedCursor() {
+    for (String property : new String[]{"createdDate", "emergency", "facilityId", "programId",
+        "processingPeriodId"}) {
+      RequisitionCursor cursor = RequisitionCursor
+          .first(Sort.by(Direction.DESC, property))
+          .after(requisition);
+
+      assertThat(RequisitionCursor.decode(cursor.encode()), is(cursor));
+    }
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldNotDecodeInvalidToken() {
+    RequisitionCursor.decode("not a cursor");
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldNotDecodeTokenWithUnsupportedProperty() {
+    String raw = "supervisoryNodeId|ASC|" + requisition.getSupervisoryNodeId() + "|"
+        + requisition.getId();
+
+    RequisitionCursor.decode(Base64.getUrlEncoder()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -16,11 +16,17 @@
 package org.openlmis.requisition.security;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.base.Ticker;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -33,6 +39,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
 import org.springframework.web.client.RestTemplate;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -42,13 +49,24 @@ public class CustomTokenServicesTest {
   private static final String CLIENT_SECRET = "client-secret-1234";
   private static final String CLIENT_CHECK_TOKEN_ENDPOINT_URI = "/oauth/check_token";
   private static final String ACCESS_TOKEN = "access-token-1234";
+  private static final String OTHER_ACCESS_TOKEN = "access-token-5678";
   private static final int INVALID_TOKEN_RETRY_LIMIT = 3;
+  private static final long TOKEN_CACHE_MAX_SIZE = 10;
+  private static final long TOKEN_CACHE_MAX_AGE = 60000;
 
   @Mock
   private RestTemplate restTemplate;
 
   private CustomTokenServices customTokenServices;
 
+  private AtomicLong nanos = new AtomicLong();
+  private Ticker ticker = new Ticker() {
+    @Override
+    public long read() {
+      return nanos.get();
+    }
+  };
+
   @Before
   public void setUp() {
     this.customTokenServices = new CustomTokenServices(INVALID_TOKEN_RETRY_LIMIT);
@@ -88,4 +106,132 @@ public class CustomTokenServicesTest {
     this.customTokenServices.setRestTemplate(restTemplate);
     this.customTokenServices.loadAuthentication(ACCESS_TOKEN);
   }
+
+  @Test
+  public void shouldCheckTokenOnlyOnceIfTokenCacheIsEnabled() {
+    CustomTokenServices cachingTokenServices = createCachingTokenServices();
+    mockCheckTokenResponse(null);
+
+    OAuth2Authentication first = cachingTokenServices.loadAuthentication(ACCESS_TOKEN);
+    OAuth2Authentication second = cachingTokenServices.loadAuthentication(ACCESS_TOKEN);
+
+    assertNotNull(second);
+    assertNotSame(first, second);
+    verifyCheckTokenCalls(1);
+  }
+
+  @Test
+  public void shouldCheckTokenEachTimeIfTokenCacheIsDisabled() {
+    this.customTokenServices.setRestTemplate(restTemplate);
+    mockCheckTokenResponse(null);
+
+    this.customTokenServices.loadAuthentication(ACCESS_TOKEN);
+    this.customTokenServices.loadAuthentication(ACCESS_TOKEN);
+
+    verifyCheckTokenCalls(2);
+  }
+
+  @Test
+  public void shouldNotKeepTokenLongerThanItIsValid() {
+    CustomTokenServices cachingTokenServices = createCachingTokenServices();
+    mockCheckTokenResponse(System.currentTimeMillis() / 1000 - 1);
+
+    cachingTokenServices.loadAuthentication(ACCESS_TOKEN);
+    cachingTokenServices.loadAuthentication(ACCESS_TOKEN);
+
+    verifyCheckTokenCalls(2);
+  }
+
+  @Test
+  public void shouldCheckTokenAgainAfterMaxAge() {
+    CustomTokenServices cachingTokenServices = createCachingTokenServices();
+    mockCheckTokenResponse(System.currentTimeMillis() / 1000 + 3600);
+
+    cachingTokenServices.loadAuthentication(ACCESS_TOKEN);
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(TOKEN_CACHE_MAX_AGE));
+    cachingTokenServices.loadAuthentication(ACCESS_TOKEN);
+
+    verifyCheckTokenCalls(2);
+  }
+
+  @Test
+  public void shouldCheckTokenAgainAfterItWasEvicted() {
+    CustomTokenServices cachingTokenServices = createCachingTokenServices();
+    mockCheckTokenResponse(null);
+
+    cachingTokenServices.loadAuthentication(ACCESS_TOKEN);
+    cachingTokenServices.evict(ACCESS_TOKEN);
+    cachingTokenServices.loadAuthentication(ACCESS_TOKEN);
+    cachingTokenServices.loadAuthentication(ACCESS_TOKEN);
+
+    verifyCheckTokenCalls(2);
+  }
+
+  @Test
+  public void shouldCheckAllTokensAgainAfterAllWereEvicted() {
+    CustomTokenServices cachingTokenServices = createCachingTokenServices();
+    mockCheckTokenResponse(null);
+
+    cachingTokenServices.loadAuthentication(ACCESS_TOKEN);
+    cachingTokenServices.loadAuthentication(OTHER_ACCESS_TOKEN);
+    cachingTokenServices.evictAll();
+    cachingTokenServices.loadAuthentication(ACCESS_TOKEN);
+    cachingTokenServices.loadAuthentication(OTHER_ACCESS_TOKEN);
+
+    verifyCheckTokenCalls(4);
+  }
+
+  @Test
+  public void shouldNotKeepInvalidTokens() {
+    CustomTokenServices cachingTokenServices = createCachingTokenServices();
+    Map responseAttributes = new HashMap();
+    responseAttributes.put("error", "no_active_token");
+    when(restTemplate.exchange(
+        anyString(), Matchers.any(HttpMethod.class), Matchers.any(HttpEntity.class),
+        Matchers.any(Class.class)
+    )).thenReturn(new ResponseEntity<>(responseAttributes, HttpStatus.OK));
+
+    for (int i = 0; i < 2; ++i) {
+      try {
+        cachingTokenServices.loadAuthentication(ACCESS_TOKEN);
+      } catch (InvalidTokenException ex) {
+        // expected
+      }
+    }
+
+    verifyCheckTokenCalls(2 * (INVALID_TOKEN_RETRY_LIMIT + 1));
+  }
+
+  private CustomTokenServices createCachingTokenServices() {
+    CustomTokenServices cachingTokenServices = new CustomTokenServices(
+        INVALID_TOKEN_RETRY_LIMIT, TOKEN_CACHE_MAX_SIZE, TOKEN_CACHE_MAX_AGE, ticker);
+    cachingTokenServices.setClientId(CLIENT_ID);
+    cachingTokenServices.setClientSecret(CLIENT_SECRET);
+    cachingTokenServices.setCheckTokenEndpointUrl(CLIENT_CHECK_TOKEN_ENDPOINT_URI);
+    cachingTokenServices.setAccessTokenConverter(new DefaultAccessTokenConverter());
+    cachingTokenServices.setRestTemplate(restTemplate);
+
+    return cachingTokenServices;
+  }
+
+  private void mockCheckTokenResponse(Long expiration) {
+    Map responseAttributes = new HashMap();
+    responseAttributes.put("active", true);
+    responseAttributes.put("client_id", CLIENT_ID);
+
+    if (null != expiration) {
+      responseAttributes.put("exp", expiration);
+    }
+
+    when(restTemplate.exchange(
+        anyString(), Matchers.any(HttpMethod.class), Matchers.any(HttpEntity.class),
+        Matchers.any(Class.class)
+    )).thenReturn(new ResponseEntity<>(responseAttributes, HttpStatus.OK));
+  }
+
+  private void verifyCheckTokenCalls(int times) {
+    verify(restTemplate, times(times)).exchange(
+        anyString(), Matchers.any(HttpMethod.class), Matchers.any(HttpEntity.class),
+        Matchers.any(Class.class));
+  }
 }
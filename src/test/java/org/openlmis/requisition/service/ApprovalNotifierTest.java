@@ -53,7 +53,7 @@ import org.openlmis.requisition.dto.ProgramDto;
 import org.openlmis.requisition.dto.RightDto;
 import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.i18n.MessageService;
-import org.openlmis.requisition.service.notification.NotificationService;
+import org.openlmis.requisition.service.notification.NotificationDispatcher;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
 import org.openlmis.requisition.service.referencedata.ProgramReferenceDataService;
@@ -77,7 +77,7 @@ public class ApprovalNotifierTest {
   private PeriodReferenceDataService periodReferenceDataService;
 
   @Mock
-  private NotificationService notificationService;
+  private NotificationDispatcher notificationDispatcher;
 
   @Mock
   private SupervisingUsersReferenceDataService supervisingUsersReferenceDataService;
@@ -132,7 +132,7 @@ public class ApprovalNotifierTest {
 
     approvalNotifier.notifyApprovers(requisition, locale);
 
-    verify(notificationService).notify(refEq(approver), eq(SUBJECT),
+    verify(notificationDispatcher).dispatch(refEq(approver), eq(SUBJECT),
         contains("Dear approver: This email is informing you that the test requisition"),
         contains("The test requisition"),
         eq(ApprovalNotifier.NOTIFICATION_TAG));
@@ -151,7 +151,7 @@ public class ApprovalNotifierTest {
 
     approvalNotifier.notifyApprovers(requisition, locale);
 
-    verify(notificationService).notify(refEq(approver), eq(SUBJECT),
+    verify(notificationDispatcher).dispatch(refEq(approver), eq(SUBJECT),
         contains("Dear approver: This email is informing you that the emergency requisition"),
         contains("The emergency requisition"),
         eq(ApprovalNotifier.NOTIFICATION_TAG));
@@ -173,8 +173,8 @@ public class ApprovalNotifierTest {
     approvalNotifier.notifyApprovers(requisition, locale);
     ArgumentCaptor<String> argument = ArgumentCaptor.forClass(String.class);
 
-    verify(notificationService, times(2))
-        .notify(any(UserDto.class), eq(SUBJECT), argument.capture(),
+    verify(notificationDispatcher, times(2))
+        .dispatch(any(UserDto.class), eq(SUBJECT), argument.capture(),
             any(),
             eq(ApprovalNotifier.NOTIFICATION_TAG));
 
@@ -195,8 +195,8 @@ public class ApprovalNotifierTest {
 
     approvalNotifier.notifyApprovers(requisition, locale);
 
-    verify(notificationService, times(0))
-      .notify(any(UserDto.class), any(), any(), any(), eq(ApprovalNotifier.NOTIFICATION_TAG));
+    verify(notificationDispatcher, times(0))
+      .dispatch(any(UserDto.class), any(), any(), any(), eq(ApprovalNotifier.NOTIFICATION_TAG));
   }
 
   @Test
@@ -205,8 +205,8 @@ public class ApprovalNotifierTest {
     approvalNotifier.notifyApproversUnskippedRequisitionLineItems(requisition,
             approver,locale,null);
 
-    verify(notificationService, times(0))
-            .notify(any(UserDto.class), any(), any(), any(), eq(ApprovalNotifier.NOTIFICATION_TAG));
+    verify(notificationDispatcher, times(0)).dispatch(any(UserDto.class), any(), any(), any(),
+            eq(ApprovalNotifier.NOTIFICATION_TAG));
   }
 
   @Test
@@ -221,8 +221,8 @@ public class ApprovalNotifierTest {
 
     approvalNotifier.notifyApprovers(requisition, locale);
 
-    verify(notificationService, times(0))
-      .notify(any(UserDto.class), any(), any(), any(), eq(ApprovalNotifier.NOTIFICATION_TAG));
+    verify(notificationDispatcher, times(0))
+      .dispatch(any(UserDto.class), any(), any(), any(), eq(ApprovalNotifier.NOTIFICATION_TAG));
   }
 
   private void mockChangeDate() {
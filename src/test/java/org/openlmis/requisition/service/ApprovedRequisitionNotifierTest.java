@@ -46,7 +46,7 @@ import org.openlmis.requisition.dto.ProgramDto;
 import org.openlmis.requisition.dto.RightDto;
 import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.i18n.MessageService;
-import org.openlmis.requisition.service.notification.NotificationService;
+import org.openlmis.requisition.service.notification.NotificationDispatcher;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
 import org.openlmis.requisition.service.referencedata.ProgramReferenceDataService;
@@ -80,7 +80,7 @@ public class ApprovedRequisitionNotifierTest {
   private FacilityReferenceDataService facilityReferenceDataService;
 
   @Mock
-  private NotificationService notificationService;
+  private NotificationDispatcher notificationDispatcher;
 
   @Mock
   private AuthenticationHelper authenticationHelper;
@@ -139,17 +139,17 @@ public class ApprovedRequisitionNotifierTest {
   public void notifyClerksShouldNotifyAllClerksOnce() {
     approvedRequisitionNotifier.notifyClerks(requisition, locale);
 
-    verify(notificationService, times(1))
-        .notify(eq(clerkOne), any(), any(), any(),
+    verify(notificationDispatcher, times(1))
+        .dispatch(eq(clerkOne), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
-    verify(notificationService, times(1))
-        .notify(eq(clerkTwo), any(), any(), any(),
+    verify(notificationDispatcher, times(1))
+        .dispatch(eq(clerkTwo), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
-    verify(notificationService, times(1))
-        .notify(eq(clerkThree), any(), any(), any(),
+    verify(notificationDispatcher, times(1))
+        .dispatch(eq(clerkThree), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
-    verify(notificationService, times(1))
-        .notify(eq(clerkFour), any(), any(), any(),
+    verify(notificationDispatcher, times(1))
+        .dispatch(eq(clerkFour), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
   }
 
@@ -157,8 +157,8 @@ public class ApprovedRequisitionNotifierTest {
   public void notifyClerkShouldNotifyWithCorrectSubject() {
     approvedRequisitionNotifier.notifyClerks(requisition, locale);
 
-    verify(notificationService, times(4))
-        .notify(any(), eq(SUBJECT), any(), any(),
+    verify(notificationDispatcher, times(4))
+        .dispatch(any(), eq(SUBJECT), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
   }
 
@@ -179,7 +179,7 @@ public class ApprovedRequisitionNotifierTest {
 
     approvedRequisitionNotifier.notifyClerks(requisition, locale);
 
-    verify(notificationService).notify(eq(clerkOne), any(), eq(expectedEmailContent),
+    verify(notificationDispatcher).dispatch(eq(clerkOne), any(), eq(expectedEmailContent),
         eq(expectedSmsContent), eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
   }
 
@@ -189,17 +189,17 @@ public class ApprovedRequisitionNotifierTest {
 
     approvedRequisitionNotifier.notifyClerks(requisition, locale);
 
-    verify(notificationService, never())
-        .notify(eq(clerkOne), any(), any(), any(),
+    verify(notificationDispatcher, never())
+        .dispatch(eq(clerkOne), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
-    verify(notificationService, times(1))
-        .notify(eq(clerkTwo), any(), any(), any(),
+    verify(notificationDispatcher, times(1))
+        .dispatch(eq(clerkTwo), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
-    verify(notificationService, times(1))
-        .notify(eq(clerkThree), any(), any(), any(),
+    verify(notificationDispatcher, times(1))
+        .dispatch(eq(clerkThree), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
-    verify(notificationService, times(1))
-        .notify(eq(clerkFour), any(), any(), any(),
+    verify(notificationDispatcher, times(1))
+        .dispatch(eq(clerkFour), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
   }
 
@@ -209,17 +209,17 @@ public class ApprovedRequisitionNotifierTest {
 
     approvedRequisitionNotifier.notifyClerks(requisition, locale);
 
-    verify(notificationService, never())
-        .notify(eq(clerkOne), any(), any(), any(),
+    verify(notificationDispatcher, never())
+        .dispatch(eq(clerkOne), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
-    verify(notificationService, times(1))
-        .notify(eq(clerkTwo), any(), any(), any(),
+    verify(notificationDispatcher, times(1))
+        .dispatch(eq(clerkTwo), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
-    verify(notificationService, times(1))
-        .notify(eq(clerkThree), any(), any(), any(),
+    verify(notificationDispatcher, times(1))
+        .dispatch(eq(clerkThree), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
-    verify(notificationService, times(1))
-        .notify(eq(clerkFour), any(), any(), any(),
+    verify(notificationDispatcher, times(1))
+        .dispatch(eq(clerkFour), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
   }
 
@@ -229,17 +229,17 @@ public class ApprovedRequisitionNotifierTest {
 
     approvedRequisitionNotifier.notifyClerks(requisition, locale);
 
-    verify(notificationService, never())
-        .notify(eq(clerkOne), any(), any(), any(),
+    verify(notificationDispatcher, never())
+        .dispatch(eq(clerkOne), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
-    verify(notificationService, times(1))
-        .notify(eq(clerkTwo), any(), any(), any(),
+    verify(notificationDispatcher, times(1))
+        .dispatch(eq(clerkTwo), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
-    verify(notificationService, times(1))
-        .notify(eq(clerkThree), any(), any(), any(),
+    verify(notificationDispatcher, times(1))
+        .dispatch(eq(clerkThree), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
-    verify(notificationService, times(1))
-        .notify(eq(clerkFour), any(), any(), any(),
+    verify(notificationDispatcher, times(1))
+        .dispatch(eq(clerkFour), any(), any(), any(),
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
   }
 
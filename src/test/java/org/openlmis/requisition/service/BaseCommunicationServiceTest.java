@@ -81,7 +81,7 @@ public abstract class BaseCommunicationServiceTest<T> {
   protected RestTemplate restTemplate;
 
   @Mock
-  private AuthService authService;
+  protected AuthService authService;
 
   @Captor
   protected ArgumentCaptor<URI> uriCaptor;
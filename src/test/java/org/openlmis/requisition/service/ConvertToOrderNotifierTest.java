@@ -40,7 +40,7 @@ import org.openlmis.requisition.dto.ProcessingPeriodDto;
 import org.openlmis.requisition.dto.ProgramDto;
 import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.i18n.MessageService;
-import org.openlmis.requisition.service.notification.NotificationService;
+import org.openlmis.requisition.service.notification.NotificationDispatcher;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
 import org.openlmis.requisition.service.referencedata.ProgramReferenceDataService;
 import org.openlmis.requisition.service.referencedata.UserReferenceDataService;
@@ -58,7 +58,7 @@ public class ConvertToOrderNotifierTest {
   private PeriodReferenceDataService periodReferenceDataService;
 
   @Mock
-  private NotificationService notificationService;
+  private NotificationDispatcher notificationDispatcher;
 
   @Mock
   private UserReferenceDataService userReferenceDataService;
@@ -89,7 +89,7 @@ public class ConvertToOrderNotifierTest {
 
     convertToOrderNotifier.notifyConvertToOrder(requisition, locale);
 
-    verify(notificationService).notify(refEq(user),
+    verify(notificationDispatcher).dispatch(refEq(user),
         eq(REQUISITION_EMAIL_CONVERT_TO_ORDER_SUBJECT),
         eq(REQUISITION_EMAIL_CONVERT_TO_ORDER_CONTENT),
         eq(REQUISITION_SMS_CONVERT_TO_ORDER_CONTENT),
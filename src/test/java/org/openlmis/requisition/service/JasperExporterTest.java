@@ -15,30 +15,59 @@
 
 package org.openlmis.requisition.service;
 
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
+import java.io.ByteArrayOutputStream;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.base.JRBasePrintPage;
+import net.sf.jasperreports.engine.base.JRBasePrintText;
 import org.junit.Test;
 
 public class JasperExporterTest {
 
+  private ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
   @Test
-  public void csvExportReportShouldReturnData() throws JRException {
-    JasperCsvExporter exporter = new JasperCsvExporter(mock(JasperPrint.class));
-    assertNotNull(exporter.exportReport());
+  public void csvExportReportShouldWriteData() throws JRException {
+    JasperPrint jasperPrint = new JasperPrint();
+    jasperPrint.setPageWidth(100);
+    jasperPrint.setPageHeight(100);
+
+    JRBasePrintText text = new JRBasePrintText(jasperPrint.getDefaultStyleProvider());
+    text.setWidth(50);
+    text.setHeight(10);
+    text.setText("text");
+
+    JRBasePrintPage page = new JRBasePrintPage();
+    page.addElement(text);
+    jasperPrint.addPage(page);
+
+    JasperCsvExporter exporter = new JasperCsvExporter(jasperPrint);
+    exporter.exportReport(outputStream);
+    assertEquals("text\n", outputStream.toString());
   }
 
   @Test
-  public void xlsExportReportShouldReturnData() throws JRException {
+  public void xlsExportReportShouldWriteData() throws JRException {
     JasperXlsExporter exporter = new JasperXlsExporter(new JasperPrint());
-    assertNotNull(exporter.exportReport());
+    exporter.exportReport(outputStream);
+    assertTrue(outputStream.size() > 0);
   }
 
   @Test
-  public void htmlExportReportShouldReturnData() throws JRException {
+  public void htmlExportReportShouldWriteData() throws JRException {
     JasperHtmlExporter exporter = new JasperHtmlExporter(mock(JasperPrint.class));
-    assertNotNull(exporter.exportReport());
+    exporter.exportReport(outputStream);
+    assertTrue(outputStream.size() > 0);
+  }
+
+  @Test
+  public void pdfExportReportShouldWriteData() throws JRException {
+    JasperPdfExporter exporter = new JasperPdfExporter(new JasperPrint());
+    exporter.exportReport(outputStream);
+    assertTrue(outputStream.size() > 0);
   }
 }
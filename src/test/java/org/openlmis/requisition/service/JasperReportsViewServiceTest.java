@@ -16,14 +16,21 @@
 package org.openlmis.requisition.service;
 
 import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.openlmis.requisition.domain.requisition.RequisitionStatus.APPROVED;
@@ -32,9 +39,11 @@ import static org.openlmis.requisition.domain.requisition.RequisitionStatus.INIT
 import static org.openlmis.requisition.domain.requisition.RequisitionStatus.RELEASED;
 import static org.openlmis.requisition.domain.requisition.RequisitionStatus.RELEASED_WITHOUT_ORDER;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
@@ -45,15 +54,20 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import javax.sql.DataSource;
 import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.fill.JRAbstractLRUVirtualizer;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -64,6 +78,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.openlmis.requisition.domain.JasperTemplate;
 import org.openlmis.requisition.domain.RequisitionTemplate;
 import org.openlmis.requisition.domain.RequisitionTemplateDataBuilder;
@@ -78,8 +93,7 @@ import org.openlmis.requisition.dto.ProgramDto;
 import org.openlmis.requisition.dto.RequisitionReportDto;
 import org.openlmis.requisition.dto.SupervisoryNodeDto;
 import org.openlmis.requisition.exception.JasperReportViewException;
-import org.openlmis.requisition.repository.custom.DefaultRequisitionSearchParams;
-import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
+import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.GeographicZoneReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
@@ -87,7 +101,6 @@ import org.openlmis.requisition.service.referencedata.ProgramReferenceDataServic
 import org.openlmis.requisition.testutils.DtoGenerator;
 import org.openlmis.requisition.web.ReportingRateReportDtoBuilder;
 import org.openlmis.requisition.web.RequisitionReportDtoBuilder;
-import org.springframework.data.domain.Page;
 import org.springframework.test.util.ReflectionTestUtils;
 
 @SuppressWarnings({"PMD.TooManyMethods"})
@@ -120,7 +133,7 @@ public class JasperReportsViewServiceTest {
   private ReportingRateReportDtoBuilder reportingRateReportDtoBuilder; //NOPMD
 
   @Mock
-  private RequisitionService requisitionService;
+  private RequisitionRepository requisitionRepository;
 
   @Mock
   private ObjectInputStream objectInputStream;
@@ -134,6 +147,9 @@ public class JasperReportsViewServiceTest {
   @Mock
   private JasperPrint jasperPrint;
 
+  @Mock
+  private JRAbstractLRUVirtualizer virtualizer;
+
   @Mock
   private RequisitionReportDtoBuilder requisitionReportDtoBuilder;
 
@@ -162,8 +178,10 @@ public class JasperReportsViewServiceTest {
   private Locale locale = new Locale(DEFAULT_LOCALE, CURRENCY_LOCALE);
 
   private Map<String, Object> reportParams = new HashMap<>();
+  private Set<UUID> facilitiesWithRnR = new HashSet<>();
 
   private byte[] expectedReportData;
+  private ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
   @Before
   public void setUp() throws Exception {
@@ -176,7 +194,7 @@ public class JasperReportsViewServiceTest {
     ReflectionTestUtils.setField(service, "defaultLocale", DEFAULT_LOCALE);
     ReflectionTestUtils.setField(service, "currencyLocale", CURRENCY_LOCALE);
 
-    expectedReportData = new byte[1];
+    expectedReportData = new byte[]{1, 2, 3};
 
     doReturn(objectInputStream).when(service).createObjectInputStream(any(JasperTemplate.class));
     doReturn(jasperReport).when(service).readReportData(objectInputStream);
@@ -184,9 +202,11 @@ public class JasperReportsViewServiceTest {
         .fillJasperReport(any(JasperReport.class), anyMap(), nullable(Connection.class));
     doReturn(jasperPrint).when(service)
         .fillJasperReport(any(JasperReport.class), anyMap(), any(JRDataSource.class));
-    doReturn(expectedReportData).when(service).exportJasperReportToPdf(any(JasperPrint.class));
+    doAnswer(writeExpectedReportData()).when(service)
+        .exportJasperReportToPdf(any(JasperPrint.class), any(OutputStream.class));
 
     MockitoAnnotations.initMocks(this);
+    doReturn(virtualizer).when(service).createVirtualizer();
   }
 
   @Test
@@ -194,49 +214,133 @@ public class JasperReportsViewServiceTest {
     //given
 
     //when
-    byte[] reportData = service.generateReport(jasperTemplate, reportParams);
+    service.generateReport(jasperTemplate, reportParams, outputStream);
+    byte[] reportData = outputStream.toByteArray();
     
     //then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, reportData);
   }
 
   @Test
   public void generateReportShouldReturnCsvReport() throws Exception {
     //given
     reportParams.put(PARAM_KEY_FORMAT, "csv");
-    doReturn(expectedReportData).when(service).exportJasperReportToCsv(any(JasperPrint.class));
+    doAnswer(writeExpectedReportData()).when(service)
+        .exportJasperReportToCsv(any(JasperPrint.class), any(OutputStream.class));
 
     //when
-    byte[] reportData = service.generateReport(jasperTemplate, reportParams);
+    service.generateReport(jasperTemplate, reportParams, outputStream);
+    byte[] reportData = outputStream.toByteArray();
 
     //then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, reportData);
   }
 
   @Test
   public void generateReportShouldReturnXlsReport() throws Exception {
     //given
     reportParams.put(PARAM_KEY_FORMAT, "xls");
-    doReturn(expectedReportData).when(service).exportJasperReportToXls(any(JasperPrint.class));
+    doAnswer(writeExpectedReportData()).when(service)
+        .exportJasperReportToXls(any(JasperPrint.class), any(OutputStream.class));
 
     //when
-    byte[] reportData = service.generateReport(jasperTemplate, reportParams);
+    service.generateReport(jasperTemplate, reportParams, outputStream);
+    byte[] reportData = outputStream.toByteArray();
 
     //then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, reportData);
   }
 
   @Test
   public void generateReportShouldReturnHtmlReport() throws Exception {
     //given
     reportParams.put(PARAM_KEY_FORMAT, "html");
-    doReturn(expectedReportData).when(service).exportJasperReportToHtml(any(JasperPrint.class));
+    doAnswer(writeExpectedReportData()).when(service)
+        .exportJasperReportToHtml(any(JasperPrint.class), any(OutputStream.class));
+
+    //when
+    service.generateReport(jasperTemplate, reportParams, outputStream);
+    byte[] reportData = outputStream.toByteArray();
+
+    //then
+    assertArrayEquals(expectedReportData, reportData);
+  }
+
+  @Test
+  public void generateReportShouldFillReportWithVirtualizerAndCleanItUp() throws Exception {
+    //when
+    service.generateReport(jasperTemplate, reportParams, outputStream);
+
+    //then
+    ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
+    verify(service).fillJasperReport(any(JasperReport.class), paramArg.capture(),
+        nullable(Connection.class));
+    assertSame(virtualizer, paramArg.getValue().get(JRParameter.REPORT_VIRTUALIZER));
+    verify(virtualizer).setReadOnly(true);
+    verify(virtualizer).cleanup();
+  }
+
+  @Test
+  public void generateReportShouldCleanUpVirtualizerIfFillFails() throws Exception {
+    //given
+    doThrow(new JRException("test")).when(service)
+        .fillJasperReport(any(JasperReport.class), anyMap(), nullable(Connection.class));
+
+    //when
+    try {
+      service.generateReport(jasperTemplate, reportParams, outputStream);
+      Assert.fail("Expected JasperReportViewException");
+    } catch (JasperReportViewException ex) {
+      //then
+      verify(virtualizer).cleanup();
+      assertEquals(0, outputStream.size());
+    }
+  }
+
+  @Test
+  public void generateReportShouldReadTemplateDataOnlyOnce() throws Exception {
+    //given
+    when(jasperTemplate.getId()).thenReturn(UUID.randomUUID());
+    when(jasperTemplate.getData()).thenReturn(new byte[]{1, 2, 3});
+
+    //when
+    service.generateReport(jasperTemplate, reportParams, outputStream);
+    service.generateReport(jasperTemplate, reportParams, outputStream);
+
+    //then
+    verify(service, times(1)).readReportData(any(ObjectInputStream.class));
+    verify(service, times(2)).fillAndExportReport(any(JasperReport.class), anyMap(),
+        eq(outputStream));
+  }
+
+  @Test
+  public void generateReportShouldReadTemplateDataAgainIfDataChanged() throws Exception {
+    //given
+    when(jasperTemplate.getId()).thenReturn(UUID.randomUUID());
+    when(jasperTemplate.getData()).thenReturn(new byte[]{1, 2, 3}, new byte[]{4, 5, 6});
+
+    //when
+    service.generateReport(jasperTemplate, reportParams, outputStream);
+    service.generateReport(jasperTemplate, reportParams, outputStream);
+
+    //then
+    verify(service, times(2)).readReportData(any(ObjectInputStream.class));
+  }
+
+  @Test
+  public void generateReportShouldReadTemplateDataAgainAfterEviction() throws Exception {
+    //given
+    UUID templateId = UUID.randomUUID();
+    when(jasperTemplate.getId()).thenReturn(templateId);
+    when(jasperTemplate.getData()).thenReturn(new byte[]{1, 2, 3});
 
     //when
-    byte[] reportData = service.generateReport(jasperTemplate, reportParams);
+    service.generateReport(jasperTemplate, reportParams, outputStream);
+    service.evictTemplate(templateId);
+    service.generateReport(jasperTemplate, reportParams, outputStream);
 
     //then
-    assertEquals(expectedReportData, reportData);
+    verify(service, times(2)).readReportData(any(ObjectInputStream.class));
   }
 
   @Test
@@ -251,14 +355,16 @@ public class JasperReportsViewServiceTest {
     when(geographicZoneReferenceDataService.findOne(districtId)).thenReturn(district);
 
     // when
-    byte[] reportData = service.generateTimelinessReport(jasperTemplate, reportParams);
+    service.generateTimelinessReport(jasperTemplate, reportParams, outputStream);
+    byte[] reportData = outputStream.toByteArray();
     ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
-    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture());
+    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture(),
+        eq(outputStream));
     Map<String, Object> outputParams = paramArg.getValue();
     List<FacilityDto> facilities = extractFacilitiesFromOutputParams(outputParams);
 
     // then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, reportData);
     Assert.assertEquals(Collections.emptyList(), facilities);
     Assert.assertEquals(program, outputParams.get(PROGRAM));
     Assert.assertEquals(period, outputParams.get(PERIOD));
@@ -293,14 +399,16 @@ public class JasperReportsViewServiceTest {
     when(facilityReferenceDataService.findAll()).thenReturn(facilitiesToReturn);
 
     // when
-    byte[] reportData = service.generateTimelinessReport(jasperTemplate, reportParams);
+    service.generateTimelinessReport(jasperTemplate, reportParams, outputStream);
+    byte[] reportData = outputStream.toByteArray();
     ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
-    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture());
+    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture(),
+        eq(outputStream));
     Map<String, Object> outputParams = paramArg.getValue();
     List<FacilityDto> facilities = extractFacilitiesFromOutputParams(outputParams);
 
     // then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, reportData);
     assertEquals(2, facilities.size());
     List<UUID> facilityIds = facilities.stream()
         .map(FacilityDto::getId).collect(Collectors.toList());
@@ -338,14 +446,16 @@ public class JasperReportsViewServiceTest {
         .thenReturn(Arrays.asList(facility, childFacility));
 
     // when
-    byte[] reportData = service.generateTimelinessReport(jasperTemplate, reportParams);
+    service.generateTimelinessReport(jasperTemplate, reportParams, outputStream);
+    byte[] reportData = outputStream.toByteArray();
     ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
-    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture());
+    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture(),
+        eq(outputStream));
     Map<String, Object> outputParams = paramArg.getValue();
     List<FacilityDto> facilities = extractFacilitiesFromOutputParams(outputParams);
 
     // then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, reportData);
     assertEquals(2, facilities.size());
     List<UUID> facilityIds = facilities.stream()
         .map(FacilityDto::getId).collect(Collectors.toList());
@@ -377,14 +487,16 @@ public class JasperReportsViewServiceTest {
     when(facilityReferenceDataService.findAll()).thenReturn(facilitiesToReturn);
 
     // when
-    byte[] reportData = service.generateTimelinessReport(jasperTemplate, reportParams);
+    service.generateTimelinessReport(jasperTemplate, reportParams, outputStream);
+    byte[] reportData = outputStream.toByteArray();
     ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
-    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture());
+    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture(),
+        eq(outputStream));
     Map<String, Object> outputParams = paramArg.getValue();
     List<FacilityDto> facilities = extractFacilitiesFromOutputParams(outputParams);
 
     // then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, reportData);
     assertEquals(4, facilities.size());
     List<UUID> facilityIds = facilities.stream()
         .map(FacilityDto::getId).collect(Collectors.toList());
@@ -415,14 +527,16 @@ public class JasperReportsViewServiceTest {
         facility2B, facility2A, facility1A, facility1B));
 
     // when
-    byte[] reportData = service.generateTimelinessReport(jasperTemplate, reportParams);
+    service.generateTimelinessReport(jasperTemplate, reportParams, outputStream);
+    byte[] reportData = outputStream.toByteArray();
     ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
-    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture());
+    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture(),
+        eq(outputStream));
     Map<String, Object> outputParams = paramArg.getValue();
     List<FacilityDto> facilities = extractFacilitiesFromOutputParams(outputParams);
 
     // then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, reportData);
     assertEquals(4, facilities.size());
     assertEquals(facility1A.getId(), facilities.get(0).getId());
     assertEquals(facility1B.getId(), facilities.get(1).getId());
@@ -439,7 +553,7 @@ public class JasperReportsViewServiceTest {
     reportParams.put("DueDays", "10");
     when(geographicZoneReferenceDataService.findOne(districtId)).thenReturn(district);
 
-    service.generateReportingRateReport(jasperTemplate, reportParams);
+    service.generateReportingRateReport(jasperTemplate, reportParams, outputStream);
 
     assertEquals(DATE_FORMAT, reportParams.get("dateFormat"));
     assertEquals(createDecimalFormat(), reportParams.get("decimalFormat"));
@@ -453,18 +567,47 @@ public class JasperReportsViewServiceTest {
     RequisitionReportDto requisitionReportDto = DtoGenerator.of(RequisitionReportDto.class);
     when(requisitionReportDtoBuilder.build(requisition)).thenReturn(requisitionReportDto);
 
-    byte[] reportData = service.generateRequisitionReport(requisition);
+    service.generateRequisitionReport(requisition, outputStream);
+    byte[] reportData = outputStream.toByteArray();
     ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
-    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture());
+    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture(),
+        eq(outputStream));
     Map<String, Object> outputParams = paramArg.getValue();
 
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, reportData);
     assertEquals(DATE_FORMAT, outputParams.get("dateFormat"));
     assertEquals(createDecimalFormat(), outputParams.get("decimalFormat"));
     assertEquals(NumberFormat.getCurrencyInstance(locale),
         outputParams.get("currencyDecimalFormat"));
   }
 
+  @Test
+  public void generateRequisitionReportShouldReuseCompiledReports() throws Exception {
+    doReturn(locale).when(service).getLocaleFromService();
+    when(requisitionReportDtoBuilder.build(requisition))
+        .thenReturn(DtoGenerator.of(RequisitionReportDto.class));
+
+    service.generateRequisitionReport(requisition, outputStream);
+    service.generateRequisitionReport(requisition, outputStream);
+
+    ArgumentCaptor<JasperReport> reportArg = ArgumentCaptor.forClass(JasperReport.class);
+    ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
+    verify(service, times(2)).fillAndExportReport(reportArg.capture(), paramArg.capture(),
+        eq(outputStream));
+
+    assertSame(reportArg.getAllValues().get(0), reportArg.getAllValues().get(1));
+    assertThat(paramArg.getAllValues().get(0).get("subreport"), instanceOf(JasperReport.class));
+    assertSame(paramArg.getAllValues().get(0).get("subreport"),
+        paramArg.getAllValues().get(1).get("subreport"));
+  }
+
+  private Answer<Void> writeExpectedReportData() {
+    return invocation -> {
+      invocation.getArgument(1, OutputStream.class).write(expectedReportData);
+      return null;
+    };
+  }
+
   private List<FacilityDto> extractFacilitiesFromOutputParams(Map<String, Object> outputParams) {
     return (List<FacilityDto>) outputParams.get("datasource");
   }
@@ -512,17 +655,13 @@ public class JasperReportsViewServiceTest {
 
     when(geographicZoneReferenceDataService.findOne(districtId)).thenReturn(geographicZoneDto);
 
-    Requisition mockRequisition = mock(Requisition.class);
-    Page<Requisition> requisitionPage = mock(Page.class);
-    when(requisitionPage.getContent()).thenReturn(
-        (isMissingRnR) ? Collections.emptyList() : singletonList(mockRequisition));
-
-    RequisitionSearchParams params = new DefaultRequisitionSearchParams(
-        facilityId, program.getId(), period.getId(), null, null, null, null,
-        null, null, EnumSet.of(APPROVED, RELEASED, RELEASED_WITHOUT_ORDER));
+    if (!isMissingRnR) {
+      facilitiesWithRnR.add(facilityId);
+    }
 
-    when(requisitionService.searchRequisitions(eq(params), any()))
-        .thenReturn(requisitionPage);
+    when(requisitionRepository.findFacilityIdsByProgramIdAndProcessingPeriodIdAndStatusIn(
+        program.getId(), period.getId(), EnumSet.of(APPROVED, RELEASED, RELEASED_WITHOUT_ORDER)))
+        .thenReturn(facilitiesWithRnR);
 
     return geographicZoneDto;
   }
@@ -82,6 +82,9 @@ public class JasperTemplateServiceTest {
   @Mock
   private JasperTemplateRepository jasperTemplateRepository;
 
+  @Mock
+  private JasperReportsViewService jasperReportsViewService;
+
   @InjectMocks
   private JasperTemplateService jasperTemplateService;
 
@@ -30,6 +30,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -46,7 +47,6 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -97,6 +97,8 @@ public class PeriodServiceTest {
 
   private ProcessingScheduleDto schedule;
 
+  private List<RequisitionPeriod> foundRequisitionPeriods = new ArrayList<>();
+
   @Before
   public void setUp() throws Exception {
     schedule = new ProcessingScheduleDtoDataBuilder().buildAsDto();
@@ -388,7 +390,6 @@ public class PeriodServiceTest {
     setMockForFindPeriod();
 
     mockRequisitionFound(buildRequisition(INITIATED), currentPeriod.getId(), facilityId, programId);
-    mockNoRequisitionFound(period1.getId(), facilityId, programId);
 
     periodService.findPeriod(programId, facilityId, null, false);
   }
@@ -398,7 +399,6 @@ public class PeriodServiceTest {
     setMockForFindPeriod();
 
     mockRequisitionFound(buildRequisition(SUBMITTED), currentPeriod.getId(), facilityId, programId);
-    mockNoRequisitionFound(period1.getId(), facilityId, programId);
 
     periodService.findPeriod(programId, facilityId, null, false);
   }
@@ -409,7 +409,6 @@ public class PeriodServiceTest {
 
     mockRequisitionFound(buildRequisition(AUTHORIZED), currentPeriod.getId(), facilityId,
         programId);
-    mockNoRequisitionFound(period1.getId(), facilityId, programId);
 
     ProcessingPeriodDto period = periodService.findPeriod(programId, facilityId, null, false);
     assertEquals(period1, period);
@@ -420,7 +419,6 @@ public class PeriodServiceTest {
     setMockForFindPeriod();
 
     mockRequisitionFound(buildRequisition(APPROVED), currentPeriod.getId(), facilityId, programId);
-    mockNoRequisitionFound(period1.getId(), facilityId, programId);
 
     ProcessingPeriodDto period = periodService.findPeriod(programId, facilityId, null, false);
     assertEquals(period1, period);
@@ -431,7 +429,6 @@ public class PeriodServiceTest {
     setMockForFindPeriod();
 
     mockRequisitionFound(buildRequisition(SKIPPED), currentPeriod.getId(), facilityId, programId);
-    mockNoRequisitionFound(period1.getId(), facilityId, programId);
 
     ProcessingPeriodDto period = periodService.findPeriod(programId, facilityId, null, false);
     assertEquals(period1, period);
@@ -443,13 +440,27 @@ public class PeriodServiceTest {
 
     mockRequisitionFound(buildRequisition(AUTHORIZED), currentPeriod.getId(), facilityId,
         programId);
-    mockNoRequisitionFound(period1.getId(), facilityId, programId);
     mockRequisitionFound(buildRequisition(INITIATED), period2.getId(), facilityId, programId);
 
     ProcessingPeriodDto period = periodService.findPeriod(programId, facilityId, null, false);
     assertEquals(period1, period);
   }
 
+  @Test
+  public void shouldFindRequisitionsOfAllPeriodsWithSingleQuery() {
+    setMockForFindPeriod();
+
+    mockRequisitionFound(buildRequisition(APPROVED), currentPeriod.getId(), facilityId, programId);
+    mockRequisitionFound(buildRequisition(APPROVED), period1.getId(), facilityId, programId);
+
+    ProcessingPeriodDto period = periodService.findPeriod(programId, facilityId, null, false);
+
+    assertEquals(period2, period);
+    verify(requisitionRepository).searchRequisitionIdAndStatusPairs(facilityId, programId, false);
+    verify(requisitionRepository, never())
+        .searchRequisitions(any(UUID.class), any(UUID.class), any(UUID.class), any());
+  }
+
   @Test
   public void shouldUseNextAvailablePeriodWhenOneIsTaken() {
     //given
@@ -458,7 +469,6 @@ public class PeriodServiceTest {
     // we mock the requisition search to return a requisition for the first period
     // but not for the second
     mockRequisitionFound(buildRequisition(APPROVED), currentPeriod.getId(), facilityId, programId);
-    mockNoRequisitionFound(period1.getId(), facilityId, programId);
 
     //when
     ProcessingPeriodDto period = periodService.findPeriod(programId, facilityId, null, false);
@@ -505,15 +515,12 @@ public class PeriodServiceTest {
 
   private void mockRequisitionFound(
       Requisition requisition, UUID periodId, UUID facilityId, UUID programId) {
-    doReturn(singletonList(requisition))
-        .when(requisitionRepository)
-        .searchRequisitions(periodId, facilityId, programId, false);
-  }
+    foundRequisitionPeriods.add(
+        createRequisitionPeriod(requisition.getId(), requisition.getStatus(), periodId));
 
-  private void mockNoRequisitionFound(UUID periodId, UUID facilityId, UUID programId) {
-    doReturn(Collections.emptyList())
+    doReturn(new ArrayList<>(foundRequisitionPeriods))
         .when(requisitionRepository)
-        .searchRequisitions(periodId, facilityId, programId, false);
+        .searchRequisitionIdAndStatusPairs(facilityId, programId, false);
   }
 
   private void setMockForFindPeriod() {
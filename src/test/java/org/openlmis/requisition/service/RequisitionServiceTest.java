@@ -21,6 +21,7 @@ import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static java.util.stream.Collectors.toList;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
@@ -95,6 +96,7 @@ import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
 import org.openlmis.requisition.domain.requisition.RequisitionLineItem;
 import org.openlmis.requisition.domain.requisition.RequisitionLineItemDataBuilder;
+import org.openlmis.requisition.domain.requisition.RequisitionPeriod;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.openlmis.requisition.domain.requisition.StatusChange;
 import org.openlmis.requisition.domain.requisition.StatusMessage;
@@ -131,7 +133,7 @@ import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.repository.StatusMessageRepository;
 import org.openlmis.requisition.repository.custom.DefaultRequisitionSearchParams;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
-import org.openlmis.requisition.service.fulfillment.OrderFulfillmentService;
+import org.openlmis.requisition.service.outbox.OutboxService;
 import org.openlmis.requisition.service.referencedata.ApproveProductsAggregator;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.IdealStockAmountReferenceDataService;
@@ -218,7 +220,7 @@ public class RequisitionServiceTest {
   private RightReferenceDataService rightReferenceDataService;
 
   @Mock
-  private OrderFulfillmentService orderFulfillmentService;
+  private OutboxService outboxService;
 
   @Mock
   private StatusMessageRepository statusMessageRepository;
@@ -344,12 +346,7 @@ public class RequisitionServiceTest {
     when(secondPeriod.getId()).thenReturn(UUID.randomUUID());
     when(periodService.searchByProgramAndFacility(program.getId(), facility.getId()))
         .thenReturn(Arrays.asList(processingPeriod, secondPeriod));
-    when(requisitionRepository
-        .searchRequisitions(processingPeriod.getId(), facility.getId(), program.getId(), false))
-        .thenReturn(singletonList(requisition));
-    when(requisitionRepository
-        .searchRequisitions(secondPeriod.getId(), facility.getId(), program.getId(), false))
-        .thenReturn(emptyList());
+    stubRegularRequisitionPeriod(requisition.getId());
 
     requisitionService.delete(requisition);
     verify(requisitionRepository).delete(requisition);
@@ -1299,7 +1296,7 @@ public class RequisitionServiceTest {
     requisitionService.convertToOrder(list, user);
 
     // then
-    verify(orderFulfillmentService).create(any(List.class));
+    verify(outboxService).publishOrders(any(List.class));
   }
 
 
@@ -1651,10 +1648,6 @@ public class RequisitionServiceTest {
     when(periodService.searchByProgramAndFacility(any(), any()))
         .thenReturn(singletonList(processingPeriod));
 
-    when(requisitionRepository
-        .searchRequisitions(any(UUID.class), any(UUID.class), any(UUID.class), any(Boolean.class)))
-        .thenReturn(new ArrayList<>());
-
     when(idealStockAmountReferenceDataService.search(facility.getId(), processingPeriod.getId()))
         .thenReturn(Lists.newArrayList());
 
@@ -1694,9 +1687,13 @@ public class RequisitionServiceTest {
   private void stubRecentRequisition() {
     when(periodService.searchByProgramAndFacility(program.getId(), facility.getId()))
         .thenReturn(singleton(processingPeriod));
-    when(requisitionRepository
-        .searchRequisitions(processingPeriod.getId(), facility.getId(), program.getId(), false))
-        .thenReturn(singletonList(requisition));
+    stubRegularRequisitionPeriod(requisition.getId());
+  }
+
+  private void stubRegularRequisitionPeriod(UUID requisitionId) {
+    when(periodService.getRegularRequisitionPeriods(facility.getId(), program.getId()))
+        .thenReturn(singletonMap(processingPeriod.getId(),
+            new RequisitionPeriod(requisitionId, INITIATED, processingPeriod.getId())));
   }
 
   private void stubPreviousPeriod() {
@@ -1710,11 +1707,7 @@ public class RequisitionServiceTest {
   private void prepareRequisitionIsNotNewest() {
     when(periodService.searchByProgramAndFacility(program.getId(), facility.getId()))
         .thenReturn(singleton(processingPeriod));
-    Requisition newestRequisition = mock(Requisition.class);
-    when(newestRequisition.getId()).thenReturn(UUID.randomUUID());
-    when(requisitionRepository
-        .searchRequisitions(processingPeriod.getId(), facility.getId(), program.getId(), false))
-        .thenReturn(singletonList(newestRequisition));
+    stubRegularRequisitionPeriod(UUID.randomUUID());
   }
 
   private OngoingStubbing<List<StockCardSummaryDto>> whenGetStockCardSummaries() {
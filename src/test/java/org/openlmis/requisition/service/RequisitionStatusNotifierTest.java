@@ -44,7 +44,7 @@ import org.openlmis.requisition.dto.ProcessingPeriodDto;
 import org.openlmis.requisition.dto.ProgramDto;
 import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.i18n.MessageService;
-import org.openlmis.requisition.service.notification.NotificationService;
+import org.openlmis.requisition.service.notification.NotificationDispatcher;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
 import org.openlmis.requisition.service.referencedata.ProgramReferenceDataService;
@@ -68,7 +68,7 @@ public class RequisitionStatusNotifierTest {
   private FacilityReferenceDataService facilityReferenceDataService;
 
   @Mock
-  private NotificationService notificationService;
+  private NotificationDispatcher notificationDispatcher;
 
   @Mock
   private UserReferenceDataService userReferenceDataService;
@@ -114,7 +114,7 @@ public class RequisitionStatusNotifierTest {
 
     requisitionStatusNotifier.notifyStatusChanged(requisition, locale);
 
-    verify(notificationService).notify(refEq(user),
+    verify(notificationDispatcher).dispatch(refEq(user),
         eq(REQUISITION_EMAIL_STATUS_UPDATE_SUBJECT),
         eq(REQUISITION_EMAIL_STATUS_UPDATE_CONTENT),
         eq(REQUISITION_SMS_STATUS_UPDATE_CONTENT),
@@ -16,10 +16,16 @@
 package org.openlmis.requisition.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.Sets;
 import java.util.UUID;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -33,8 +39,14 @@ import org.openlmis.requisition.dto.ResultDto;
 import org.openlmis.requisition.dto.RightDto;
 import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.errorhandling.ValidationResult;
+import org.openlmis.requisition.service.referencedata.PermissionStringDto;
+import org.openlmis.requisition.service.referencedata.PermissionStrings;
 import org.openlmis.requisition.service.referencedata.UserReferenceDataService;
 import org.openlmis.requisition.testutils.DtoGenerator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 public class RightAssignmentPermissionValidatorTest
     extends BasePermissionValidatorTest {
@@ -51,6 +63,12 @@ public class RightAssignmentPermissionValidatorTest
   @Mock
   private UserReferenceDataService userReferenceDataService;
 
+  @Mock
+  private PermissionStrings permissionStrings;
+
+  @Mock
+  private PermissionStrings.Handler permissionStringsHandler;
+
   @InjectMocks
   private RightAssignmentPermissionValidator validator;
 
@@ -77,7 +95,120 @@ public class RightAssignmentPermissionValidatorTest
     when(requisition.getSupervisoryNodeId()).thenReturn(supervisoryNodeId);
 
     when(authenticationHelper.getCurrentUser()).thenReturn(user);
+    when(authenticationHelper.getCurrentUserId()).thenReturn(user.getId());
     when(authenticationHelper.getRight(RIGHT_NAME)).thenReturn(right);
+
+    when(permissionStrings.forUser(user.getId())).thenReturn(permissionStringsHandler);
+    ReflectionTestUtils.setField(validator, "remoteFallback", true);
+  }
+
+  @After
+  public void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  public void userShouldHavePermissionIfPermissionStringsContainGeneralRight() {
+    // given
+    given(permissionStringsHandler.get()).willReturn(Sets.newHashSet(
+        PermissionStringDto.create(RIGHT_NAME, null, null)));
+
+    // when
+    ValidationResult result = validator.hasPermission(getDetailsForGeneralPermission());
+
+    // then
+    assertThat(result.isSuccess()).isTrue();
+    verifyRemoteCheckSkipped();
+  }
+
+  @Test
+  public void userShouldHavePermissionIfPermissionStringsContainSupervisionRight() {
+    // given
+    given(permissionStringsHandler.get()).willReturn(Sets.newHashSet(
+        PermissionStringDto.create(RIGHT_NAME, FACILITY_ID, PROGRAM_ID)));
+
+    // when
+    ValidationResult result = validator.hasPermission(getDetailsForSupervisionPermission());
+
+    // then
+    assertThat(result.isSuccess()).isTrue();
+    verifyRemoteCheckSkipped();
+  }
+
+  @Test
+  public void userShouldHavePermissionIfPermissionStringsContainFulfillmentRight() {
+    // given
+    given(permissionStringsHandler.get()).willReturn(Sets.newHashSet(
+        PermissionStringDto.create(RIGHT_NAME, WAREHOUSE_ID, null)));
+
+    // when
+    ValidationResult result = validator.hasPermission(getDetailsForFulfillmentPermission());
+
+    // then
+    assertThat(result.isSuccess()).isTrue();
+    verifyRemoteCheckSkipped();
+  }
+
+  @Test
+  public void userShouldNotHavePermissionIfPermissionStringsDoNotContainRightAndNoFallback() {
+    // given
+    ReflectionTestUtils.setField(validator, "remoteFallback", false);
+    given(permissionStringsHandler.get()).willReturn(Sets.newHashSet(
+        PermissionStringDto.create(RIGHT_NAME, FACILITY_ID, UUID.randomUUID())));
+
+    // when
+    ValidationResult result = validator.hasPermission(getDetailsForSupervisionPermission());
+
+    // then
+    assertThat(result.isSuccess()).isFalse();
+    verifyRemoteCheckSkipped();
+  }
+
+  @Test
+  public void shouldCheckRightRemotelyIfPermissionStringsCouldNotBeRetrieved() {
+    // given
+    ReflectionTestUtils.setField(validator, "remoteFallback", false);
+    given(permissionStringsHandler.get()).willThrow(new IllegalStateException());
+    given(userReferenceDataService.hasRight(user.getId(), right.getId(),
+        PROGRAM_ID, FACILITY_ID, null))
+        .willReturn(new ResultDto<>(true));
+
+    // when
+    ValidationResult result = validator.hasPermission(getDetailsForSupervisionPermission());
+
+    // then
+    assertThat(result.isSuccess()).isTrue();
+  }
+
+  @Test
+  public void shouldCheckPermissionOnlyOnceWithinRequest() {
+    // given
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+    given(permissionStringsHandler.get()).willReturn(Sets.newHashSet(
+        PermissionStringDto.create(RIGHT_NAME, FACILITY_ID, PROGRAM_ID)));
+
+    // when
+    validator.hasPermission(getDetailsForSupervisionPermission());
+    ValidationResult result = validator.hasPermission(getDetailsForSupervisionPermission());
+
+    // then
+    assertThat(result.isSuccess()).isTrue();
+    verify(permissionStringsHandler, times(1)).get();
+  }
+
+  @Test
+  public void shouldCheckPermissionEachTimeOutsideOfRequest() {
+    // given
+    given(permissionStringsHandler.get()).willReturn(Sets.newHashSet(
+        PermissionStringDto.create(RIGHT_NAME, FACILITY_ID, PROGRAM_ID)));
+
+    // when
+    validator.hasPermission(getDetailsForSupervisionPermission());
+    validator.hasPermission(getDetailsForSupervisionPermission());
+
+    // then
+    verify(permissionStringsHandler, times(2)).get();
   }
 
   @Test
@@ -160,6 +291,12 @@ public class RightAssignmentPermissionValidatorTest
     assertThat(result.isSuccess()).isFalse();
   }
 
+  private void verifyRemoteCheckSkipped() {
+    verify(authenticationHelper, never()).getCurrentUser();
+    verify(userReferenceDataService, never())
+        .hasRight(any(UUID.class), any(UUID.class), any(), any(), any());
+  }
+
   @Override
   PermissionValidationDetails getDetailsForGeneralPermission() {
     return new RightAssignmentPermissionValidationDetails(RIGHT_NAME);
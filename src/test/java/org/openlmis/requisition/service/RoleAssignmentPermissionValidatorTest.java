@@ -16,6 +16,7 @@
 package org.openlmis.requisition.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.when;
 
@@ -43,8 +44,11 @@ import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.errorhandling.ValidationResult;
 import org.openlmis.requisition.service.referencedata.RequisitionGroupReferenceDataService;
 import org.openlmis.requisition.service.referencedata.RoleReferenceDataService;
+import org.openlmis.requisition.service.referencedata.SupervisionTopology;
 import org.openlmis.requisition.service.referencedata.SupervisoryNodeReferenceDataService;
 import org.openlmis.requisition.testutils.DtoGenerator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
 
 public class RoleAssignmentPermissionValidatorTest
     extends BasePermissionValidatorTest {
@@ -87,6 +91,7 @@ public class RoleAssignmentPermissionValidatorTest
 
     supervisoryNode.setRequisitionGroup(new ObjectReferenceDto(requisitionGroup.getId()));
     requisitionGroup.setMemberFacilities(Sets.newHashSet(facility));
+    role.setRights(Sets.newHashSet(right));
 
     when(requisition.getId()).thenReturn(requisitionId);
     when(requisition.getProgramId()).thenReturn(programId);
@@ -98,14 +103,19 @@ public class RoleAssignmentPermissionValidatorTest
     when(authenticationHelper.getCurrentUser()).thenReturn(user);
     when(authenticationHelper.getRight(RIGHT_NAME)).thenReturn(right);
 
-    when(roleReferenceDataService.search(right.getId()))
-        .thenReturn(Lists.newArrayList(role));
+    when(roleReferenceDataService.tryFindAll(any()))
+        .thenReturn(new ServiceResponse<>(Lists.newArrayList(role), new HttpHeaders(), true));
 
-    when(supervisoryNodeReferenceDataService.findByIds(Sets.newHashSet(supervisoryNodeId)))
+    when(supervisoryNodeReferenceDataService.findAllSupervisoryNodes())
         .thenReturn(Lists.newArrayList(supervisoryNode));
 
-    when(requisitionGroupReferenceDataService.findAll())
-        .thenReturn(Lists.newArrayList(requisitionGroup));
+    when(requisitionGroupReferenceDataService.tryFindAll(any()))
+        .thenReturn(new ServiceResponse<>(
+            Lists.newArrayList(requisitionGroup), new HttpHeaders(), true));
+
+    ReflectionTestUtils.setField(validator, "supervisionTopology", new SupervisionTopology(
+        supervisoryNodeReferenceDataService, requisitionGroupReferenceDataService,
+        roleReferenceDataService, Long.MAX_VALUE));
   }
 
   @Test
@@ -180,8 +190,8 @@ public class RoleAssignmentPermissionValidatorTest
   @Test
   public void userShouldNotHavePermissionIfThereAreNoRoles() {
     // given
-    given(roleReferenceDataService.search(right.getId()))
-        .willReturn(Collections.emptyList());
+    given(roleReferenceDataService.tryFindAll(any()))
+        .willReturn(new ServiceResponse<>(Collections.emptyList(), new HttpHeaders(), true));
 
     // when
     ValidationResult result = validator.hasPermission(getDetails());
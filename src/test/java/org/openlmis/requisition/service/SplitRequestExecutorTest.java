@@ -0,0 +1,135 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+public class SplitRequestExecutorTest {
+
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
+  private SplitRequestExecutor executor = new SplitRequestExecutor(4, 10);
+
+  @After
+  public void tearDown() {
+    executor.destroy();
+  }
+
+  @Test
+  public void shouldReturnResultsInTaskOrder() {
+    // given
+    List<Supplier<Integer>> tasks = Lists.newArrayList(
+        () -> sleepAndReturn(50, 1), () -> sleepAndReturn(0, 2), () -> sleepAndReturn(20, 3));
+
+    // when
+    List<Integer> results = executor.execute(tasks);
+
+    // then
+    assertThat(results, contains(1, 2, 3));
+  }
+
+  @Test
+  public void shouldExecuteTasksConcurrently() {
+    // given
+    CountDownLatch latch = new CountDownLatch(2);
+    Supplier<Boolean> task = () -> {
+      latch.countDown();
+      return await(latch);
+    };
+
+    // when
+    List<Boolean> results = executor.execute(Lists.newArrayList(task, task));
+
+    // then
+    assertThat(results, contains(true, true));
+  }
+
+  @Test
+  public void shouldExecuteTasksSequentiallyIfParallelismIsLowerThanTwo() {
+    // given
+    SplitRequestExecutor sequential = new SplitRequestExecutor(1, 0);
+    Thread caller = Thread.currentThread();
+    Supplier<Boolean> task = () -> caller == Thread.currentThread();
+
+    // when
+    List<Boolean> results = sequential.execute(Lists.newArrayList(task, task));
+
+    // then
+    assertThat(results, contains(true, true));
+  }
+
+  @Test
+  public void shouldExecuteTasksWithoutQueue() {
+    // given
+    SplitRequestExecutor withoutQueue = new SplitRequestExecutor(2, 0);
+    List<Supplier<Integer>> tasks = Lists.newArrayList(
+        () -> sleepAndReturn(20, 1), () -> sleepAndReturn(20, 2), () -> sleepAndReturn(20, 3));
+
+    // when
+    List<Integer> results = withoutQueue.execute(tasks);
+    withoutQueue.destroy();
+
+    // then
+    assertThat(results, contains(1, 2, 3));
+  }
+
+  @Test
+  public void shouldRethrowExceptionThrownByTask() {
+    // given
+    HttpClientErrorException exception = new HttpClientErrorException(HttpStatus.UNAUTHORIZED);
+    List<Supplier<Integer>> tasks = Lists.newArrayList(
+        () -> 1, () -> {
+          throw exception;
+        });
+
+    // when
+    expectedException.expect(is(exception));
+    executor.execute(tasks);
+  }
+
+  private Integer sleepAndReturn(long millis, Integer value) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    return value;
+  }
+
+  private Boolean await(CountDownLatch latch) {
+    try {
+      return latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Test;
+import org.openlmis.requisition.service.StatusChangeExecutor.RejectionPolicy;
+
+public class StatusChangeExecutorTest {
+  private static final long TIMEOUT = 5000;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final AtomicInteger executed = new AtomicInteger();
+
+  private StatusChangeExecutor executor;
+
+  @After
+  public void tearDown() {
+    release.countDown();
+
+    if (null != executor) {
+      executor.destroy();
+    }
+  }
+
+  @Test
+  public void shouldRunTaskInCallingThreadIfQueueIsFull() throws Exception {
+    executor = new StatusChangeExecutor(1, 1, RejectionPolicy.CALLER_RUNS, TIMEOUT);
+    blockWorker();
+    executor.execute(executed::incrementAndGet);
+
+    AtomicReference<Thread> thread = new AtomicReference<>();
+    executor.execute(() -> thread.set(Thread.currentThread()));
+
+    assertThat(thread.get(), is(Thread.currentThread()));
+    assertThat(executor.getCallerRunsCount(), is(1L));
+    assertThat(executor.getQueueSize(), is(1));
+    assertThat(executor.getActiveCount(), is(1));
+  }
+
+  @Test
+  public void shouldDropTaskIfQueueIsFull() throws Exception {
+    executor = new StatusChangeExecutor(1, 1, RejectionPolicy.DROP, TIMEOUT);
+    blockWorker();
+    executor.execute(executed::incrementAndGet);
+
+    executor.execute(executed::incrementAndGet);
+
+    assertThat(executor.getDroppedCount(), is(1L));
+
+    release.countDown();
+    executor.destroy();
+    assertThat(executed.get(), is(1));
+  }
+
+  @Test
+  public void shouldFinishQueuedTasksOnShutdown() throws Exception {
+    executor = new StatusChangeExecutor(1, 10, RejectionPolicy.DROP, TIMEOUT);
+    blockWorker();
+
+    for (int i = 0; i < 5; ++i) {
+      executor.execute(executed::incrementAndGet);
+    }
+
+    release.countDown();
+    executor.destroy();
+
+    assertThat(executed.get(), is(5));
+    assertThat(executor.getCompletedCount(), is(6L));
+  }
+
+  @Test
+  public void shouldRecordLatencyOfFinishedTasks() throws Exception {
+    executor = new StatusChangeExecutor(1, 10, RejectionPolicy.DROP, TIMEOUT);
+    blockWorker();
+    executor.execute(executed::incrementAndGet);
+
+    Thread.sleep(20);
+    release.countDown();
+    executor.destroy();
+
+    assertTrue(executor.getMaxQueueTime() >= 20);
+    assertTrue(executor.getMaxLatency() >= executor.getMaxQueueTime());
+    assertTrue(executor.getAverageLatency() > 0);
+  }
+
+  private void blockWorker() throws InterruptedException {
+    executor.execute(() -> {
+      started.countDown();
+
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    });
+
+    assertTrue(started.await(TIMEOUT, TimeUnit.MILLISECONDS));
+  }
+}
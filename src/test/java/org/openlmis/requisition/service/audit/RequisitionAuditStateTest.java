@@ -0,0 +1,99 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.audit;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import org.junit.Test;
+import org.openlmis.requisition.domain.requisition.ApprovedProductReference;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
+import org.openlmis.requisition.domain.requisition.RequisitionStatus;
+
+public class RequisitionAuditStateTest {
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  public void shouldRestoreAuditedPropertiesOfRequisition() throws Exception {
+    // given
+    Requisition requisition = new RequisitionDataBuilder()
+        .withStatus(RequisitionStatus.AUTHORIZED)
+        .withCreatedDate(ZonedDateTime.now(ZoneId.of("Europe/Warsaw")))
+        .withDatePhysicalStockCountCompleted(LocalDate.of(2026, 10, 1))
+        .withDraftStatusMessage("draft")
+        .build();
+    requisition.setVersion(3L);
+    requisition.setAvailableProducts(Sets.newHashSet(
+        new ApprovedProductReference(UUID.randomUUID(), 1L, UUID.randomUUID(), 2L)));
+    requisition.setExtraData(ImmutableMap.of("key", "value", "number", 5));
+
+    // when
+    String json = objectMapper.writeValueAsString(RequisitionAuditState.of(requisition));
+    Requisition restored = objectMapper
+        .readValue(json, RequisitionAuditState.class)
+        .toRequisition();
+
+    // then
+    assertThat(restored.getId(), is(requisition.getId()));
+    assertThat(restored.getCreatedDate(), is(requisition.getCreatedDate()));
+    assertThat(restored.getModifiedDate(), is(requisition.getModifiedDate()));
+    assertThat(restored.getVersion(), is(3L));
+    assertThat(restored.getDraftStatusMessage(), is("draft"));
+    assertThat(restored.getFacilityId(), is(requisition.getFacilityId()));
+    assertThat(restored.getProgramId(), is(requisition.getProgramId()));
+    assertThat(restored.getProcessingPeriodId(), is(requisition.getProcessingPeriodId()));
+    assertThat(restored.getSupplyingFacilityId(), is(requisition.getSupplyingFacilityId()));
+    assertThat(restored.getStatus(), is(RequisitionStatus.AUTHORIZED));
+    assertThat(restored.getEmergency(), is(requisition.getEmergency()));
+    assertThat(restored.getReportOnly(), is(requisition.getReportOnly()));
+    assertThat(restored.getNumberOfMonthsInPeriod(),
+        is(requisition.getNumberOfMonthsInPeriod()));
+    assertThat(restored.getSupervisoryNodeId(), is(requisition.getSupervisoryNodeId()));
+    assertThat(restored.getAvailableProducts(), is(requisition.getAvailableProducts()));
+    assertThat(restored.getDatePhysicalStockCountCompleted(),
+        is(requisition.getDatePhysicalStockCountCompleted()));
+    assertThat(restored.getExtraData(), is(requisition.getExtraData()));
+  }
+
+  @Test
+  public void shouldRestoreRequisitionWithEmptyFields() throws Exception {
+    // given
+    Requisition requisition = new RequisitionDataBuilder()
+        .withEmptyFields()
+        .build();
+
+    // when
+    String json = objectMapper.writeValueAsString(RequisitionAuditState.of(requisition));
+    Requisition restored = objectMapper
+        .readValue(json, RequisitionAuditState.class)
+        .toRequisition();
+
+    // then
+    assertThat(restored.getId(), is(requisition.getId()));
+    assertThat(restored.getCreatedDate(), is(nullValue()));
+    assertThat(restored.getDatePhysicalStockCountCompleted(), is(nullValue()));
+    assertThat(restored.getDraftStatusMessage(), is(requisition.getDraftStatusMessage()));
+  }
+}
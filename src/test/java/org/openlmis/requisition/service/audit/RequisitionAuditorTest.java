@@ -0,0 +1,408 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.audit;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import org.javers.core.Javers;
+import org.javers.core.metamodel.object.CdoSnapshot;
+import org.javers.repository.jql.JqlQuery;
+import org.javers.spring.auditable.AuthorProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.requisition.domain.audit.RequisitionAuditEntry;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
+import org.openlmis.requisition.domain.requisition.RequisitionStatus;
+import org.openlmis.requisition.repository.RequisitionAuditEntryRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RequisitionAuditorTest {
+  private static final String AUTHOR = "author";
+  private static final String ERROR = "error";
+
+  @Mock
+  private Javers javers;
+
+  @Mock
+  private AuthorProvider authorProvider;
+
+  @Mock
+  private RequisitionAuditEntryRepository auditEntryRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @InjectMocks
+  private RequisitionAuditor auditor;
+
+  private Clock clock = Clock.fixed(Instant.now(), ZoneId.systemDefault());
+  private ZonedDateTime now = ZonedDateTime.now(clock);
+
+  private Requisition requisition = new RequisitionDataBuilder().build();
+  private Requisition otherRequisition = new RequisitionDataBuilder().build();
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(auditor, "clock", clock);
+    ReflectionTestUtils.setField(auditor, "enabled", true);
+    ReflectionTestUtils.setField(auditor, "batchSize", 10);
+    ReflectionTestUtils.setField(auditor, "maxAttempts", 5);
+  }
+
+  @After
+  public void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    TransactionSynchronizationManager.setActualTransactionActive(false);
+  }
+
+  @Test
+  public void shouldCommitImmediatelyOutsideOfTransaction() {
+    // given
+    when(authorProvider.provide()).thenReturn(AUTHOR);
+
+    // when
+    auditor.saved(Collections.singletonList(requisition));
+
+    // then
+    verify(javers).commit(AUTHOR, requisition);
+    verifyZeroInteractions(auditEntryRepository);
+  }
+
+  @Test
+  public void shouldCommitImmediatelyIfDisabled() {
+    // given
+    ReflectionTestUtils.setField(auditor, "enabled", false);
+    when(authorProvider.provide()).thenReturn(AUTHOR);
+
+    // when
+    inTransaction(() -> auditor.saved(Collections.singletonList(requisition)));
+
+    // then
+    verify(javers).commit(AUTHOR, requisition);
+    verifyZeroInteractions(auditEntryRepository);
+  }
+
+  @Test
+  public void shouldStoreStateOfSavedRequisitionsAtEndOfTransaction() throws Exception {
+    // given
+    when(authorProvider.provide()).thenReturn(AUTHOR);
+
+    // when
+    inTransaction(() -> {
+      auditor.saved(Collections.singletonList(requisition));
+      auditor.saved(Arrays.asList(requisition, otherRequisition));
+      requisition.setStatus(RequisitionStatus.SUBMITTED);
+      requisition.setVersion(2L);
+    });
+
+    // then
+    verify(javers, never()).commit(any(String.class), any());
+    verify(entityManager).flush();
+
+    List<RequisitionAuditEntry> entries = captureSavedEntries();
+    assertThat(entries, hasSize(2));
+
+    RequisitionAuditEntry entry = entries.get(0);
+    RequisitionAuditState state = objectMapper
+        .readValue(entry.getState(), RequisitionAuditState.class);
+
+    assertThat(entry.getRequisitionId(), is(requisition.getId()));
+    assertThat(entry.getRequisitionVersion(), is(2L));
+    assertThat(entry.getAuthor(), is(AUTHOR));
+    assertThat(entry.getCapturedDate(), is(now));
+    assertThat(state.getStatus(), is(RequisitionStatus.SUBMITTED));
+    assertThat(entries.get(1).getRequisitionId(), is(otherRequisition.getId()));
+    assertThat(auditor.getCapturedCount(), is(2L));
+    assertThat(TransactionSynchronizationManager.getResource(auditor), is(nullValue()));
+  }
+
+  @Test
+  public void shouldStoreDeletionInsteadOfStateOfDeletedRequisition() {
+    // given
+    when(authorProvider.provide()).thenReturn(AUTHOR);
+
+    // when
+    inTransaction(() -> {
+      auditor.saved(Collections.singletonList(requisition));
+      auditor.deleted(Collections.singletonList(requisition));
+    });
+
+    // then
+    verify(javers, never()).commitShallowDelete(any(String.class), any());
+
+    List<RequisitionAuditEntry> entries = captureSavedEntries();
+    assertThat(entries, hasSize(1));
+    assertThat(entries.get(0).getRequisitionId(), is(requisition.getId()));
+    assertThat(entries.get(0).isDeletion(), is(true));
+  }
+
+  @Test
+  public void shouldCommitWaitingEntriesAndDeleteThem() throws Exception {
+    // given
+    RequisitionAuditEntry entry = RequisitionAuditEntry.saved(requisition.getId(), 1L, AUTHOR,
+        objectMapper.writeValueAsString(RequisitionAuditState.of(requisition)),
+        now.minusSeconds(1));
+    List<RequisitionAuditEntry> entries = Collections.singletonList(entry);
+    when(auditEntryRepository.findNextForUpdate(5, 10))
+        .thenReturn(entries)
+        .thenReturn(Collections.emptyList());
+
+    // when
+    auditor.flush();
+
+    // then
+    ArgumentCaptor<Requisition> captor = ArgumentCaptor.forClass(Requisition.class);
+    verify(javers).commit(eq(AUTHOR), captor.capture(), eq(capturedDate(entry)));
+    verify(auditEntryRepository).deleteAll(entries);
+
+    assertThat(captor.getValue().getId(), is(requisition.getId()));
+    assertThat(captor.getValue().getStatus(), is(requisition.getStatus()));
+    assertThat(auditor.getCommittedCount(), is(1L));
+    assertThat(auditor.getMaxLag(), is(1000L));
+  }
+
+  @Test
+  public void shouldCommitDeletionOfAuditedRequisition() {
+    // given
+    RequisitionAuditEntry entry = RequisitionAuditEntry
+        .deleted(requisition.getId(), AUTHOR, now);
+    when(auditEntryRepository.findNextForUpdate(5, 10))
+        .thenReturn(Collections.singletonList(entry))
+        .thenReturn(Collections.emptyList());
+
+    List<CdoSnapshot> snapshots = Collections.singletonList(null);
+    when(javers.findSnapshots(any(JqlQuery.class))).thenReturn(snapshots);
+
+    // when
+    auditor.flush();
+
+    // then
+    ArgumentCaptor<Requisition> captor = ArgumentCaptor.forClass(Requisition.class);
+    verify(javers).commitShallowDelete(eq(AUTHOR), captor.capture(), eq(capturedDate(entry)));
+    assertThat(captor.getValue().getId(), is(requisition.getId()));
+  }
+
+  @Test
+  public void shouldSkipDeletionOfNotAuditedRequisition() {
+    // given
+    when(auditEntryRepository.findNextForUpdate(5, 10))
+        .thenReturn(Collections.singletonList(RequisitionAuditEntry
+            .deleted(requisition.getId(), AUTHOR, now)))
+        .thenReturn(Collections.emptyList());
+    when(javers.findSnapshots(any(JqlQuery.class))).thenReturn(Collections.emptyList());
+
+    // when
+    auditor.flush();
+
+    // then
+    verify(javers, never()).commitShallowDelete(any(String.class), any(), any());
+    assertThat(auditor.getCommittedCount(), is(1L));
+  }
+
+  @Test
+  public void shouldKeepEntryIfCommitFails() throws Exception {
+    // given
+    RequisitionAuditEntry entry = savedEntry(requisition);
+    when(auditEntryRepository.findNextForUpdate(anyInt(), anyInt()))
+        .thenReturn(Collections.singletonList(entry));
+    when(auditEntryRepository.findByIdForUpdate(entry.getId())).thenReturn(Optional.of(entry));
+    when(auditEntryRepository.findById(entry.getId())).thenReturn(Optional.of(entry));
+    doThrow(new IllegalStateException(ERROR)).when(javers)
+        .commit(any(String.class), any(), any());
+
+    // when
+    auditor.flush();
+
+    // then
+    verify(auditEntryRepository, times(1)).findNextForUpdate(anyInt(), anyInt());
+    verify(auditEntryRepository, never()).deleteAll(anyListOf(RequisitionAuditEntry.class));
+    verify(auditEntryRepository, never()).delete(any(RequisitionAuditEntry.class));
+    verify(auditEntryRepository).save(entry);
+    assertThat(entry.getAttempts(), is(1));
+    assertThat(entry.getLastError(), is(ERROR));
+    assertThat(entry.isParked(5), is(false));
+    assertThat(auditor.getFailedCount(), is(1L));
+    assertThat(auditor.getParkedCount(), is(0L));
+    assertThat(auditor.getCommittedCount(), is(0L));
+  }
+
+  @Test
+  public void shouldCommitOtherEntriesOfBatchIfOneFails() throws Exception {
+    // given
+    RequisitionAuditEntry failing = savedEntry(requisition, now.minusSeconds(2));
+    RequisitionAuditEntry later = savedEntry(requisition, now.minusSeconds(1));
+    RequisitionAuditEntry other = savedEntry(otherRequisition, now.minusSeconds(1));
+    when(auditEntryRepository.findNextForUpdate(anyInt(), anyInt()))
+        .thenReturn(Arrays.asList(failing, later, other));
+    when(auditEntryRepository.findByIdForUpdate(failing.getId()))
+        .thenReturn(Optional.of(failing));
+    when(auditEntryRepository.findByIdForUpdate(later.getId())).thenReturn(Optional.of(later));
+    when(auditEntryRepository.findByIdForUpdate(other.getId())).thenReturn(Optional.of(other));
+    when(auditEntryRepository.findById(failing.getId())).thenReturn(Optional.of(failing));
+    doThrow(new IllegalStateException(ERROR)).when(javers)
+        .commit(eq(AUTHOR), any(), eq(capturedDate(failing)));
+
+    // when
+    auditor.flush();
+
+    // then
+    verify(auditEntryRepository).save(failing);
+    verify(auditEntryRepository, never()).delete(failing);
+    verify(auditEntryRepository, never()).delete(later);
+    verify(auditEntryRepository).delete(other);
+    assertThat(failing.getAttempts(), is(1));
+    assertThat(auditor.getFailedCount(), is(1L));
+    assertThat(auditor.getCommittedCount(), is(1L));
+  }
+
+  @Test
+  public void shouldParkEntryAfterMaxAttempts() throws Exception {
+    // given
+    RequisitionAuditEntry entry = savedEntry(requisition);
+    for (int attempt = 0; attempt < 4; ++attempt) {
+      entry.markFailed(ERROR);
+    }
+
+    when(auditEntryRepository.findNextForUpdate(anyInt(), anyInt()))
+        .thenReturn(Collections.singletonList(entry));
+    when(auditEntryRepository.findByIdForUpdate(entry.getId())).thenReturn(Optional.of(entry));
+    when(auditEntryRepository.findById(entry.getId())).thenReturn(Optional.of(entry));
+    doThrow(new IllegalStateException(ERROR)).when(javers)
+        .commit(any(String.class), any(), any());
+
+    // when
+    auditor.flush();
+
+    // then
+    verify(auditEntryRepository).save(entry);
+    assertThat(entry.getAttempts(), is(5));
+    assertThat(entry.isParked(5), is(true));
+    assertThat(auditor.getParkedCount(), is(1L));
+  }
+
+  @Test
+  public void shouldNotCommitParkedEntrySeparately() throws Exception {
+    // given
+    RequisitionAuditEntry entry = savedEntry(requisition);
+    when(auditEntryRepository.findNextForUpdate(anyInt(), anyInt()))
+        .thenReturn(Collections.singletonList(entry));
+    doThrow(new IllegalStateException(ERROR)).when(auditEntryRepository)
+        .deleteAll(anyListOf(RequisitionAuditEntry.class));
+
+    RequisitionAuditEntry parked = savedEntry(requisition);
+    for (int attempt = 0; attempt < 5; ++attempt) {
+      parked.markFailed(ERROR);
+    }
+    when(auditEntryRepository.findByIdForUpdate(entry.getId())).thenReturn(Optional.of(parked));
+
+    // when
+    auditor.flush();
+
+    // then
+    verify(javers, times(1)).commit(any(String.class), any(), any());
+    verify(auditEntryRepository, never()).delete(any(RequisitionAuditEntry.class));
+    verify(auditEntryRepository, never()).save(any(RequisitionAuditEntry.class));
+    assertThat(auditor.getFailedCount(), is(0L));
+  }
+
+  private RequisitionAuditEntry savedEntry(Requisition requisition) throws Exception {
+    return savedEntry(requisition, now.minusSeconds(1));
+  }
+
+  private RequisitionAuditEntry savedEntry(Requisition requisition, ZonedDateTime capturedDate)
+      throws Exception {
+    RequisitionAuditEntry entry = RequisitionAuditEntry.saved(requisition.getId(), 1L, AUTHOR,
+        objectMapper.writeValueAsString(RequisitionAuditState.of(requisition)), capturedDate);
+    entry.setId(UUID.randomUUID());
+    return entry;
+  }
+
+  private Map<String, String> capturedDate(RequisitionAuditEntry entry) {
+    return Collections.singletonMap(RequisitionAuditor.CAPTURED_DATE_PROPERTY,
+        entry.getCapturedDate().toString());
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<RequisitionAuditEntry> captureSavedEntries() {
+    ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+    verify(auditEntryRepository).saveAll(captor.capture());
+    return captor.getValue();
+  }
+
+  private void inTransaction(Runnable work) {
+    TransactionSynchronizationManager.initSynchronization();
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+
+    try {
+      work.run();
+
+      List<TransactionSynchronization> synchronizations =
+          TransactionSynchronizationManager.getSynchronizations();
+      synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+      synchronizations.forEach(TransactionSynchronization::afterCommit);
+      synchronizations.forEach(synchronization -> synchronization
+          .afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+      TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+  }
+}
@@ -16,14 +16,27 @@
 package org.openlmis.requisition.service.fulfillment;
 
 import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 import org.openlmis.requisition.dto.OrderDto;
+import org.openlmis.requisition.exception.ExternalApiException;
 import org.openlmis.requisition.exception.ValidationMessageException;
+import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.service.BaseCommunicationService;
 import org.openlmis.requisition.testutils.OrderDtoDataBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClientException;
 
 public class OrderFulfillmentServiceTest extends BaseFulfillmentServiceTest<OrderDto> {
@@ -45,6 +58,7 @@ public class OrderFulfillmentServiceTest extends BaseFulfillmentServiceTest<Orde
   public void setUp() {
     super.setUp();
     service = (OrderFulfillmentService) prepareService();
+    ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
   }
 
   @Test
@@ -75,4 +89,63 @@ public class OrderFulfillmentServiceTest extends BaseFulfillmentServiceTest<Orde
     service.create(asList(order, order2));
   }
 
+  @Test
+  public void shouldThrowExternalApiExceptionWhenOrdersAreRejected() {
+    // given
+    mockPostRequestFail(new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Bad Request",
+        "{\"messageKey\":\"key\",\"message\":\"invalid\"}".getBytes(StandardCharsets.UTF_8),
+        StandardCharsets.UTF_8));
+
+    // then
+    expectedException.expect(ExternalApiException.class);
+    expectedException.expect(hasProperty("messageLocalized", hasProperty("messageKey",
+        is("key"))));
+
+    // when
+    service.create(asList(generateInstance()));
+  }
+
+  @Test
+  public void shouldThrowExternalApiExceptionWhenRejectionIsNotLocalizedMessage() {
+    // given
+    mockPostRequestFail(new HttpClientErrorException(HttpStatus.CONFLICT));
+
+    // then
+    expectedException.expect(ExternalApiException.class);
+    expectedException.expect(hasProperty("messageLocalized", hasProperty("messageKey",
+        is(MessageKeys.ERROR_CONVERTING_MULTIPLE_REQUISITIONS))));
+
+    // when
+    service.create(asList(generateInstance()));
+  }
+
+  @Test
+  public void shouldClearTokenCacheWhenTokenIsRejected() {
+    // given
+    mockPostRequestFail(new HttpClientErrorException(HttpStatus.UNAUTHORIZED));
+
+    // when
+    try {
+      service.create(asList(generateInstance()));
+      fail("Expected ValidationMessageException");
+    } catch (ValidationMessageException ex) {
+      // then
+      verify(authService).clearTokenCache();
+    }
+  }
+
+  @Test
+  public void shouldThrowValidationMessageExceptionWhenFulfillmentServiceFails() {
+    // given
+    mockPostRequestFail(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+    // when
+    try {
+      service.create(asList(generateInstance()));
+      fail("Expected ValidationMessageException");
+    } catch (ValidationMessageException ex) {
+      // then
+      verify(authService, never()).clearTokenCache();
+    }
+  }
 }
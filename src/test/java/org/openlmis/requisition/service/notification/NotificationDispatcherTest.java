@@ -0,0 +1,235 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.notification;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openlmis.requisition.dto.UserDto;
+import org.openlmis.requisition.testutils.DtoGenerator;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NotificationDispatcherTest {
+  private static final String SUBJECT = "subject";
+  private static final String TAG = "tag";
+  private static final long NOW = 1_000_000;
+  private static final long INITIAL_BACKOFF = 1000;
+  private static final long MAX_BACKOFF = 3000;
+  private static final int MAX_ATTEMPTS = 3;
+
+  @Mock
+  private NotificationService notificationService;
+
+  @Mock
+  private Clock clock;
+
+  private UserDto user = DtoGenerator.of(UserDto.class);
+  private NotificationDispatcher dispatcher;
+
+  @Before
+  public void setUp() {
+    when(clock.millis()).thenReturn(NOW);
+    dispatcher = createDispatcher(10, 100);
+  }
+
+  @Test
+  public void shouldSendQueuedNotificationsOnFlush() {
+    dispatcher.dispatch(user, SUBJECT, "email 1", "sms 1", TAG);
+    dispatcher.dispatch(user, SUBJECT, "email 2", "sms 2", TAG);
+
+    verify(notificationService, never()).send(any(NotificationDto.class));
+    assertThat(dispatcher.getQueueDepth(), is(2));
+
+    dispatcher.flush();
+
+    verify(notificationService).send(NotificationService
+        .buildNotification(user, SUBJECT, "email 1", "sms 1", TAG));
+    verify(notificationService).send(NotificationService
+        .buildNotification(user, SUBJECT, "email 2", "sms 2", TAG));
+    assertThat(dispatcher.getQueueDepth(), is(0));
+    assertThat(dispatcher.getDeliveredCount(), is(2L));
+  }
+
+  @Test
+  public void shouldCoalesceIdenticalQueuedNotifications() {
+    dispatcher.dispatch(user, SUBJECT, "email", "sms", TAG);
+    dispatcher.dispatch(user, SUBJECT, "email", "sms", TAG);
+
+    dispatcher.flush();
+
+    verify(notificationService).send(any(NotificationDto.class));
+    assertThat(dispatcher.getCoalescedCount(), is(1L));
+  }
+
+  @Test
+  public void shouldSendAtMostBatchSizeNotificationsOnFlush() {
+    dispatcher = createDispatcher(2, 100);
+
+    for (int i = 0; i < 5; ++i) {
+      dispatcher.dispatch(user, SUBJECT, "email " + i, "sms", TAG);
+    }
+
+    dispatcher.flush();
+
+    verify(notificationService, times(2)).send(any(NotificationDto.class));
+    assertThat(dispatcher.getQueueDepth(), is(3));
+  }
+
+  @Test
+  public void shouldRetryFailedNotificationAfterBackoff() {
+    doThrow(new ResourceAccessException("timeout"))
+        .doNothing()
+        .when(notificationService).send(any(NotificationDto.class));
+
+    dispatcher.dispatch(user, SUBJECT, "email", "sms", TAG);
+    dispatcher.flush();
+
+    assertThat(dispatcher.getRetriedCount(), is(1L));
+    assertThat(dispatcher.getQueueDepth(), is(1));
+
+    dispatcher.flush();
+    verify(notificationService, times(1)).send(any(NotificationDto.class));
+
+    when(clock.millis()).thenReturn(NOW + INITIAL_BACKOFF);
+    dispatcher.flush();
+
+    verify(notificationService, times(2)).send(any(NotificationDto.class));
+    assertThat(dispatcher.getDeliveredCount(), is(1L));
+    assertThat(dispatcher.getMaxLatency(), is(INITIAL_BACKOFF));
+  }
+
+  @Test
+  public void shouldDropNotificationAfterMaxAttempts() {
+    doThrow(new ResourceAccessException("timeout"))
+        .when(notificationService).send(any(NotificationDto.class));
+
+    dispatcher.dispatch(user, SUBJECT, "email", "sms", TAG);
+
+    for (int i = 0; i < MAX_ATTEMPTS + 1; ++i) {
+      when(clock.millis()).thenReturn(NOW + i * MAX_BACKOFF);
+      dispatcher.flush();
+    }
+
+    verify(notificationService, times(MAX_ATTEMPTS)).send(any(NotificationDto.class));
+    assertThat(dispatcher.getDroppedCount(), is(1L));
+    assertThat(dispatcher.getQueueDepth(), is(0));
+  }
+
+  @Test
+  public void shouldDropRejectedNotificationImmediately() {
+    doThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST))
+        .when(notificationService).send(any(NotificationDto.class));
+
+    dispatcher.dispatch(user, SUBJECT, "email", "sms", TAG);
+    dispatcher.flush();
+
+    assertThat(dispatcher.getDroppedCount(), is(1L));
+    assertThat(dispatcher.getQueueDepth(), is(0));
+  }
+
+  @Test
+  public void shouldRetryNotificationRejectedBecauseOfExpiredToken() {
+    doThrow(new HttpClientErrorException(HttpStatus.UNAUTHORIZED))
+        .when(notificationService).send(any(NotificationDto.class));
+
+    dispatcher.dispatch(user, SUBJECT, "email", "sms", TAG);
+    dispatcher.flush();
+
+    assertThat(dispatcher.getRetriedCount(), is(1L));
+    assertThat(dispatcher.getQueueDepth(), is(1));
+  }
+
+  @Test
+  public void shouldSendNotificationRightAwayIfQueueIsFull() {
+    dispatcher = createDispatcher(10, 1);
+    doNothing().when(notificationService).send(any(NotificationDto.class));
+
+    dispatcher.dispatch(user, SUBJECT, "email 1", "sms", TAG);
+    dispatcher.dispatch(user, SUBJECT, "email 2", "sms", TAG);
+
+    verify(notificationService).send(NotificationService
+        .buildNotification(user, SUBJECT, "email 2", "sms", TAG));
+    assertThat(dispatcher.getSentByCallerCount(), is(1L));
+    assertThat(dispatcher.getQueueDepth(), is(1));
+  }
+
+  @Test
+  public void shouldTrySendingAllQueuedNotificationsOnShutdown() {
+    dispatcher = createDispatcher(2, 100);
+    doThrow(new ResourceAccessException("timeout"))
+        .doNothing()
+        .when(notificationService).send(any(NotificationDto.class));
+
+    for (int i = 0; i < 5; ++i) {
+      dispatcher.dispatch(user, SUBJECT, "email " + i, "sms", TAG);
+    }
+    dispatcher.flush();
+
+    dispatcher.destroy();
+
+    verify(notificationService, times(6)).send(any(NotificationDto.class));
+    assertThat(dispatcher.getQueueDepth(), is(0));
+    assertThat(dispatcher.getDeliveredCount(), is(5L));
+  }
+
+  @Test
+  public void shouldDropNotificationsThatFailOnShutdown() {
+    doThrow(new ResourceAccessException("timeout"))
+        .when(notificationService).send(any(NotificationDto.class));
+
+    dispatcher.dispatch(user, SUBJECT, "email", "sms", TAG);
+    dispatcher.destroy();
+
+    verify(notificationService, times(1)).send(any(NotificationDto.class));
+    assertThat(dispatcher.getQueueDepth(), is(0));
+    assertThat(dispatcher.getDroppedCount(), is(1L));
+    assertThat(dispatcher.getRetriedCount(), is(0L));
+  }
+
+  @Test
+  public void shouldNotCoalesceNotificationsForDifferentUsers() {
+    UserDto anotherUser = new UserDto();
+    anotherUser.setId(UUID.randomUUID());
+
+    dispatcher.dispatch(user, SUBJECT, "email", "sms", TAG);
+    dispatcher.dispatch(anotherUser, SUBJECT, "email", "sms", TAG);
+
+    assertThat(dispatcher.getQueueDepth(), is(2));
+    assertThat(dispatcher.getCoalescedCount(), is(0L));
+  }
+
+  private NotificationDispatcher createDispatcher(int batchSize, int queueCapacity) {
+    return new NotificationDispatcher(notificationService, clock, Runnable::run, batchSize,
+        queueCapacity, INITIAL_BACKOFF, MAX_BACKOFF, MAX_ATTEMPTS);
+  }
+}
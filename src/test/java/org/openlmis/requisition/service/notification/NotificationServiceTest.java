@@ -17,6 +17,8 @@ package org.openlmis.requisition.service.notification;
 
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -34,7 +36,9 @@ import org.openlmis.requisition.service.AuthService;
 import org.openlmis.requisition.testutils.DtoGenerator;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -78,4 +82,17 @@ public class NotificationServiceTest {
     assertEquals(singletonList("Bearer " + ACCESS_TOKEN), captor.getValue().getHeaders()
             .get(HttpHeaders.AUTHORIZATION));
   }
+
+  @Test
+  public void shouldClearTokenCacheIfTokenWasRejected() throws Exception {
+    UserDto user = DtoGenerator.of(UserDto.class);
+    when(restTemplate.postForObject(any(URI.class), any(HttpEntity.class), eq(Object.class)))
+        .thenThrow(new HttpClientErrorException(HttpStatus.UNAUTHORIZED));
+
+    boolean result = notificationService
+        .notify(user, MAIL_SUBJECT, MAIL_CONTENT, SMS_CONTENT, MAIL_TAG);
+
+    assertFalse(result);
+    verify(authService).clearTokenCache();
+  }
 }
@@ -0,0 +1,251 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.outbox;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.requisition.domain.outbox.OutboxEvent;
+import org.openlmis.requisition.domain.outbox.OutboxEventStatus;
+import org.openlmis.requisition.domain.outbox.OutboxEventType;
+import org.openlmis.requisition.dto.LocalizedMessageDto;
+import org.openlmis.requisition.dto.OrderDto;
+import org.openlmis.requisition.dto.stockmanagement.StockEventDto;
+import org.openlmis.requisition.exception.ExternalApiException;
+import org.openlmis.requisition.service.fulfillment.OrderFulfillmentService;
+import org.openlmis.requisition.service.stockmanagement.StockEventExecutor;
+import org.openlmis.requisition.service.stockmanagement.StockEventStockManagementService;
+import org.openlmis.requisition.testutils.OutboxEventDataBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OutboxDispatcherTest {
+  private static final long INITIAL_BACKOFF = 1000;
+  private static final long MAX_BACKOFF = 3000;
+  private static final int MAX_ATTEMPTS = 3;
+
+  @Mock
+  private OutboxService outboxService;
+
+  @Mock
+  private StockEventStockManagementService stockEventStockManagementService;
+
+  @Mock
+  private OrderFulfillmentService orderFulfillmentService;
+
+  @Spy
+  private StockEventExecutor stockEventExecutor = new StockEventExecutor();
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @InjectMocks
+  private OutboxDispatcher dispatcher;
+
+  private Clock clock = Clock.fixed(Instant.now(), ZoneId.systemDefault());
+  private ZonedDateTime now = ZonedDateTime.now(clock);
+
+  private OutboxEvent stockEvent = new OutboxEventDataBuilder()
+      .withType(OutboxEventType.STOCK_EVENT)
+      .withPayload("{}")
+      .build();
+  private OutboxEvent orders = new OutboxEventDataBuilder()
+      .withType(OutboxEventType.ORDERS)
+      .withPayload("[{}]")
+      .build();
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(dispatcher, "clock", clock);
+    ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+    ReflectionTestUtils.setField(dispatcher, "lease", 60000L);
+    ReflectionTestUtils.setField(dispatcher, "initialBackoff", INITIAL_BACKOFF);
+    ReflectionTestUtils.setField(dispatcher, "maxBackoff", MAX_BACKOFF);
+    ReflectionTestUtils.setField(dispatcher, "maxAttempts", MAX_ATTEMPTS);
+  }
+
+  @Test
+  public void shouldDoNothingIfThereAreNoDueEvents() {
+    // given
+    when(outboxService.claimDueEvents(anyInt(), anyLong())).thenReturn(Collections.emptyList());
+
+    // when
+    dispatcher.dispatch();
+
+    // then
+    verify(outboxService, never()).saveAll(anyListOf(OutboxEvent.class));
+    verifyZeroInteractions(stockEventStockManagementService, orderFulfillmentService);
+  }
+
+  @Test
+  public void shouldDeliverEventsWithIdempotencyKey() {
+    // given
+    claim(stockEvent, orders);
+
+    // when
+    dispatcher.dispatch();
+
+    // then
+    verify(stockEventStockManagementService)
+        .submit(any(StockEventDto.class), eq(stockEvent.getId()));
+    verify(orderFulfillmentService).create(anyListOf(OrderDto.class), eq(orders.getId()));
+    verify(outboxService).saveAll(Arrays.asList(stockEvent, orders));
+
+    assertThat(stockEvent.getStatus(), is(OutboxEventStatus.DELIVERED));
+    assertThat(stockEvent.getDeliveryDate(), is(now));
+    assertThat(orders.getStatus(), is(OutboxEventStatus.DELIVERED));
+    assertThat(dispatcher.getDeliveredCount(), is(2L));
+  }
+
+  @Test
+  public void shouldReleaseEventsNotStartedBeforeDeadline() {
+    // given
+    ReflectionTestUtils.setField(dispatcher, "lease", 0L);
+    claim(stockEvent, orders);
+
+    // when
+    dispatcher.dispatch();
+
+    // then
+    verifyZeroInteractions(stockEventStockManagementService, orderFulfillmentService);
+    verify(outboxService).saveAll(Arrays.asList(stockEvent, orders));
+
+    assertThat(stockEvent.getStatus(), is(OutboxEventStatus.PENDING));
+    assertThat(stockEvent.getAttempts(), is(0));
+    assertThat(stockEvent.getNextAttemptDate(), is(now));
+    assertThat(orders.getStatus(), is(OutboxEventStatus.PENDING));
+    assertThat(orders.getAttempts(), is(0));
+    assertThat(dispatcher.getReleasedCount(), is(2L));
+  }
+
+  @Test
+  public void shouldRetryFailedEventWithBackoff() {
+    // given
+    claim(stockEvent);
+    claim(stockEvent);
+    doThrow(new IllegalStateException("unavailable")).when(stockEventStockManagementService)
+        .submit(any(StockEventDto.class), eq(stockEvent.getId()));
+
+    // when
+    dispatcher.dispatch();
+
+    // then
+    assertThat(stockEvent.getStatus(), is(OutboxEventStatus.PENDING));
+    assertThat(stockEvent.getNextAttemptDate(), is(now.plusSeconds(2)));
+    assertThat(stockEvent.getLastError(), is("IllegalStateException: unavailable"));
+    assertThat(stockEvent.getDeliveryDate(), is(nullValue()));
+    assertThat(dispatcher.getFailedCount(), is(1L));
+  }
+
+  @Test
+  public void shouldNotExceedMaxBackoff() {
+    // given
+    ReflectionTestUtils.setField(dispatcher, "maxAttempts", 10);
+    for (int i = 0; i < 5; ++i) {
+      claim(orders);
+    }
+    doThrow(new IllegalStateException()).when(orderFulfillmentService)
+        .create(anyListOf(OrderDto.class), eq(orders.getId()));
+
+    // when
+    dispatcher.dispatch();
+
+    // then
+    assertThat(orders.getStatus(), is(OutboxEventStatus.PENDING));
+    assertThat(orders.getNextAttemptDate(), is(now.plusNanos(MAX_BACKOFF * 1_000_000)));
+  }
+
+  @Test
+  public void shouldMarkEventAsDeadAfterMaxAttempts() {
+    // given
+    for (int i = 0; i < MAX_ATTEMPTS; ++i) {
+      claim(orders);
+    }
+    doThrow(new IllegalStateException()).when(orderFulfillmentService)
+        .create(anyListOf(OrderDto.class), eq(orders.getId()));
+
+    // when
+    dispatcher.dispatch();
+
+    // then
+    assertThat(orders.getStatus(), is(OutboxEventStatus.DEAD));
+    assertThat(dispatcher.getDeadCount(), is(1L));
+  }
+
+  @Test
+  public void shouldMarkEventAsDeadIfItWasRejected() {
+    // given
+    claim(stockEvent);
+    doThrow(new ExternalApiException(null, new LocalizedMessageDto("key", "invalid")))
+        .when(stockEventStockManagementService)
+        .submit(any(StockEventDto.class), eq(stockEvent.getId()));
+
+    // when
+    dispatcher.dispatch();
+
+    // then
+    assertThat(stockEvent.getStatus(), is(OutboxEventStatus.DEAD));
+    assertThat(stockEvent.getAttempts(), is(1));
+  }
+
+  @Test
+  public void shouldMarkEventAsDeadIfPayloadCannotBeRead() {
+    // given
+    OutboxEvent event = OutboxEvent.newOutboxEvent(OutboxEventType.ORDERS, "not json", now);
+    event.setId(orders.getId());
+    claim(event);
+
+    // when
+    dispatcher.dispatch();
+
+    // then
+    assertThat(event.getStatus(), is(OutboxEventStatus.DEAD));
+    verifyZeroInteractions(orderFulfillmentService);
+  }
+
+  private void claim(OutboxEvent... events) {
+    for (OutboxEvent event : events) {
+      event.claim(now, now.plusMinutes(1));
+    }
+
+    when(outboxService.claimDueEvents(anyInt(), anyLong())).thenReturn(Arrays.asList(events));
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.outbox;
+
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.requisition.domain.outbox.OutboxEvent;
+import org.openlmis.requisition.domain.outbox.OutboxEventStatus;
+import org.openlmis.requisition.domain.outbox.OutboxEventType;
+import org.openlmis.requisition.dto.OrderDto;
+import org.openlmis.requisition.dto.stockmanagement.StockEventDto;
+import org.openlmis.requisition.exception.ContentNotFoundMessageException;
+import org.openlmis.requisition.exception.ValidationMessageException;
+import org.openlmis.requisition.repository.OutboxEventRepository;
+import org.openlmis.requisition.service.fulfillment.OrderFulfillmentService;
+import org.openlmis.requisition.service.stockmanagement.StockEventExecutor;
+import org.openlmis.requisition.service.stockmanagement.StockEventStockManagementService;
+import org.openlmis.requisition.testutils.DtoGenerator;
+import org.openlmis.requisition.testutils.OutboxEventDataBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OutboxServiceTest {
+  private static final long LEASE = 60000;
+
+  @Mock
+  private OutboxEventRepository outboxEventRepository;
+
+  @Mock
+  private StockEventStockManagementService stockEventStockManagementService;
+
+  @Mock
+  private OrderFulfillmentService orderFulfillmentService;
+
+  @Spy
+  private StockEventExecutor stockEventExecutor = new StockEventExecutor();
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  @InjectMocks
+  private OutboxService outboxService;
+
+  @Captor
+  private ArgumentCaptor<OutboxEvent> eventCaptor;
+
+  private Clock clock = Clock.fixed(Instant.now(), ZoneId.systemDefault());
+  private StockEventDto stockEvent = DtoGenerator.of(StockEventDto.class);
+  private OrderDto order = DtoGenerator.of(OrderDto.class);
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(outboxService, "clock", clock);
+    ReflectionTestUtils.setField(outboxService, "enabled", true);
+  }
+
+  @Test
+  public void shouldSaveStockEventsInOutbox() throws IOException {
+    // when
+    outboxService.publishStockEvents(Arrays.asList(stockEvent, stockEvent));
+
+    // then
+    verify(outboxEventRepository, times(2)).save(eventCaptor.capture());
+    verifyZeroInteractions(stockEventStockManagementService);
+
+    OutboxEvent event = eventCaptor.getValue();
+    assertThat(event.getType(), is(OutboxEventType.STOCK_EVENT));
+    assertThat(event.getStatus(), is(OutboxEventStatus.PENDING));
+    assertThat(event.getAttempts(), is(0));
+    assertThat(event.getNextAttemptDate(), is(ZonedDateTime.now(clock)));
+    assertThat(objectMapper.readValue(event.getPayload(), StockEventDto.class), is(stockEvent));
+  }
+
+  @Test
+  public void shouldSubmitStockEventsImmediatelyIfOutboxIsDisabled() {
+    // given
+    ReflectionTestUtils.setField(outboxService, "enabled", false);
+
+    // when
+    outboxService.publishStockEvents(Arrays.asList(stockEvent, stockEvent));
+
+    // then
+    verify(stockEventStockManagementService, times(2)).submit(stockEvent);
+    verifyZeroInteractions(outboxEventRepository);
+  }
+
+  @Test
+  public void shouldSaveOrdersInOutboxAsSingleEvent() throws IOException {
+    // when
+    outboxService.publishOrders(Arrays.asList(order, order));
+
+    // then
+    verify(outboxEventRepository).save(eventCaptor.capture());
+    verifyZeroInteractions(orderFulfillmentService);
+
+    OutboxEvent event = eventCaptor.getValue();
+    assertThat(event.getType(), is(OutboxEventType.ORDERS));
+    assertThat(objectMapper.readValue(event.getPayload(), OrderDto[].class), arrayWithSize(2));
+  }
+
+  @Test
+  public void shouldNotSaveEmptyOrdersInOutbox() {
+    // when
+    outboxService.publishOrders(Collections.emptyList());
+
+    // then
+    verifyZeroInteractions(outboxEventRepository, orderFulfillmentService);
+  }
+
+  @Test
+  public void shouldCreateOrdersImmediatelyIfOutboxIsDisabled() {
+    // given
+    ReflectionTestUtils.setField(outboxService, "enabled", false);
+    List<OrderDto> orders = Arrays.asList(order, order);
+
+    // when
+    outboxService.publishOrders(orders);
+
+    // then
+    verify(orderFulfillmentService).create(orders);
+    verifyZeroInteractions(outboxEventRepository);
+  }
+
+  @Test
+  public void shouldClaimDueEvents() {
+    // given
+    ZonedDateTime now = ZonedDateTime.now(clock);
+    OutboxEvent event = new OutboxEventDataBuilder().build();
+    when(outboxEventRepository.findDueForUpdate(now, 10))
+        .thenReturn(Collections.singletonList(event));
+
+    // when
+    List<OutboxEvent> claimed = outboxService.claimDueEvents(10, LEASE);
+
+    // then
+    assertThat(claimed, hasSize(1));
+    assertThat(event.getAttempts(), is(1));
+    assertThat(event.getNextAttemptDate(), is(now.plusNanos(LEASE * 1_000_000)));
+    verify(outboxEventRepository).saveAll(claimed);
+  }
+
+  @Test
+  public void shouldReplayDeadEvent() {
+    // given
+    ZonedDateTime now = ZonedDateTime.now(clock);
+    OutboxEvent event = new OutboxEventDataBuilder().build();
+    event.claim(now, now);
+    event.markFailed("error", now, now, true);
+    when(outboxEventRepository.findById(event.getId())).thenReturn(Optional.of(event));
+    when(outboxEventRepository.save(event)).thenReturn(event);
+
+    // when
+    OutboxEvent replayed = outboxService.replay(event.getId());
+
+    // then
+    assertThat(replayed.getStatus(), is(OutboxEventStatus.PENDING));
+    assertThat(replayed.getAttempts(), is(0));
+    assertThat(replayed.getNextAttemptDate(), is(now));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldNotReplayDeliveredEvent() {
+    // given
+    OutboxEvent event = new OutboxEventDataBuilder().build();
+    event.markDelivered(ZonedDateTime.now(clock));
+    when(outboxEventRepository.findById(event.getId())).thenReturn(Optional.of(event));
+
+    // when
+    outboxService.replay(event.getId());
+  }
+
+  @Test(expected = ContentNotFoundMessageException.class)
+  public void shouldThrowExceptionWhenReplayingNonExistentEvent() {
+    // given
+    when(outboxEventRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
+
+    // when
+    outboxService.replay(UUID.randomUUID());
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.referencedata;
+
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.Sets;
+import java.util.Collections;
+import java.util.UUID;
+import org.junit.Test;
+import org.openlmis.requisition.domain.requisition.VersionEntityReference;
+import org.openlmis.requisition.dto.OrderableDto;
+import org.openlmis.requisition.testutils.OrderableDtoDataBuilder;
+
+public class OrderableCacheTest {
+
+  @Test
+  public void shouldReturnCachedOrderablesByVersionIdentity() {
+    // given
+    OrderableCache cache = new OrderableCache();
+    OrderableDto orderable = new OrderableDtoDataBuilder().buildAsDto();
+    VersionEntityReference reference = new VersionEntityReference(
+        orderable.getId(), orderable.getVersionNumber());
+    VersionEntityReference otherVersion = new VersionEntityReference(
+        orderable.getId(), orderable.getVersionNumber() + 1);
+
+    // when
+    cache.putAll(Collections.singleton(orderable));
+
+    // then
+    assertThat(cache.getAllPresent(Sets.newHashSet(reference, otherVersion)).size(), is(1));
+    assertThat(cache.getAllPresent(Collections.singleton(reference)),
+        hasEntry(reference, orderable));
+    assertThat(cache.getStats().hitCount(), is(2L));
+    assertThat(cache.getStats().missCount(), is(1L));
+  }
+
+  @Test
+  public void shouldNotShareCachedOrderablesBetweenCallers() {
+    // given
+    OrderableCache cache = new OrderableCache();
+    OrderableDto orderable = new OrderableDtoDataBuilder().buildAsDto();
+    String productName = orderable.getFullProductName();
+    VersionEntityReference reference = new VersionEntityReference(
+        orderable.getId(), orderable.getVersionNumber());
+
+    // when
+    cache.putAll(Collections.singleton(orderable));
+    orderable.setFullProductName("changed by the caller");
+    cache.getAllPresent(Collections.singleton(reference)).get(reference)
+        .setFullProductName("changed by another caller");
+
+    // then
+    assertThat(cache.getAllPresent(Collections.singleton(reference)).get(reference)
+        .getFullProductName(), is(productName));
+  }
+
+  @Test
+  public void shouldIgnoreOrderablesWithoutVersionNumber() {
+    // given
+    OrderableCache cache = new OrderableCache();
+    OrderableDto orderable = new OrderableDtoDataBuilder()
+        .withVersionNumber(null)
+        .buildAsDto();
+
+    // when
+    cache.putAll(Collections.singleton(orderable));
+
+    // then
+    assertThat(cache.size(), is(0L));
+  }
+
+  @Test
+  public void shouldEvictOrderablesWhenMaxWeightIsExceeded() {
+    // given
+    OrderableCache cache = new OrderableCache(1);
+
+    // when
+    cache.putAll(Collections.singleton(new OrderableDtoDataBuilder()
+        .withId(UUID.randomUUID())
+        .buildAsDto()));
+    cache.putAll(Collections.singleton(new OrderableDtoDataBuilder()
+        .withId(UUID.randomUUID())
+        .buildAsDto()));
+
+    // then
+    assertThat(cache.getStats().evictionCount() > 0, is(true));
+  }
+}
@@ -19,8 +19,13 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -30,6 +35,9 @@ import org.openlmis.requisition.domain.requisition.VersionEntityReference;
 import org.openlmis.requisition.dto.OrderableDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.testutils.OrderableDtoDataBuilder;
+import org.openlmis.requisition.utils.DynamicPageTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 
 public class OrderableReferenceDataServiceTest extends BaseReferenceDataServiceTest<OrderableDto> {
 
@@ -76,6 +84,61 @@ public class OrderableReferenceDataServiceTest extends BaseReferenceDataServiceT
         .hasBody(searchParams);
   }
 
+  @Test
+  public void shouldRetrieveOnlyOrderablesMissingInCache() {
+    // given
+    OrderableDto cached = new OrderableDtoDataBuilder().buildAsDto();
+    OrderableDto missing = new OrderableDtoDataBuilder().buildAsDto();
+
+    OrderableCache cache = new OrderableCache();
+    cache.putAll(Collections.singleton(cached));
+    service.setOrderableCache(cache);
+
+    VersionEntityReference missingReference = new VersionEntityReference(
+        missing.getId(), missing.getVersionNumber());
+
+    // when
+    mockPageResponseEntity(missing);
+    List<OrderableDto> response = service.findByIdentities(Sets.newHashSet(
+        new VersionEntityReference(cached.getId(), cached.getVersionNumber()),
+        missingReference));
+
+    // then
+    assertThat(response, hasSize(2));
+    assertThat(response, hasItem(cached));
+    assertThat(response, hasItem(missing));
+
+    OrderableSearchParams searchParams = new OrderableSearchParams(null, null, null,
+        Lists.newArrayList(new VersionIdentityDto(missingReference)), 0, 1);
+
+    verifyPageRequest()
+        .isPostRequest()
+        .hasBody(searchParams);
+  }
+
+  @Test
+  public void shouldNotRetrieveOrderablesIfAllAreCached() {
+    // given
+    disableAuthCheck();
+
+    OrderableDto cached = new OrderableDtoDataBuilder().buildAsDto();
+
+    OrderableCache cache = new OrderableCache();
+    cache.putAll(Collections.singleton(cached));
+    service.setOrderableCache(cache);
+
+    // when
+    List<OrderableDto> response = service.findByIdentities(Collections.singleton(
+        new VersionEntityReference(cached.getId(), cached.getVersionNumber())));
+
+    // then
+    assertThat(response, hasSize(1));
+    assertThat(response, hasItem(cached));
+
+    verify(restTemplate, times(0)).exchange(any(URI.class), any(HttpMethod.class),
+        any(HttpEntity.class), any(DynamicPageTypeReference.class));
+  }
+
   @Test
   public void shouldReturnEmptyListIfEmptyParamProvided() {
     // given
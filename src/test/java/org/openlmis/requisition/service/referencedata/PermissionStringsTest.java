@@ -24,62 +24,79 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
-import java.lang.reflect.Field;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.openlmis.requisition.service.ServiceResponse;
 
 @RunWith(MockitoJUnitRunner.class)
 public class PermissionStringsTest {
-  private static final String HANDLERS_FIELD_NAME = "handlers";
   private static final UUID USER = randomUUID();
+  private static final long MAX_SIZE = 10;
+  private static final long EXPIRE_AFTER_ACCESS = 60000;
+  private static final long MAX_STALE = 60000;
 
   @Mock
   private UserReferenceDataService userReferenceDataService;
 
-  @InjectMocks
   private PermissionStrings permissionStrings;
 
   @Mock
   private ServiceResponse<List<String>> response;
 
-  @Test
-  public void shouldCreateHandlerIfNotExist() throws Exception {
-    Field handlers = PermissionStrings.class.getDeclaredField(HANDLERS_FIELD_NAME);
-    handlers.setAccessible(true);
+  @Before
+  public void setUp() {
+    // freshness is zero so every call after the first one revalidates data
+    permissionStrings = new PermissionStrings(userReferenceDataService, MAX_SIZE,
+        EXPIRE_AFTER_ACCESS, 0, MAX_STALE, Runnable::run);
+  }
 
-    Map map = (Map) handlers.get(permissionStrings);
-    assertThat(map.size(), is(0));
+  @Test
+  public void shouldCreateHandlerIfNotExist() {
+    assertThat(permissionStrings.getHandlerCount(), is(0L));
 
     PermissionStrings.Handler handler = permissionStrings.forUser(USER);
 
     assertThat(handler, is(notNullValue()));
-
-    map = (Map) handlers.get(permissionStrings);
-    assertThat(map.size(), is(1));
+    assertThat(permissionStrings.getHandlerCount(), is(1L));
   }
 
   @Test
-  public void shouldNotRecreateHandler() throws Exception {
-    Field handlers = PermissionStrings.class.getDeclaredField(HANDLERS_FIELD_NAME);
-    handlers.setAccessible(true);
-
+  public void shouldNotRecreateHandler() {
+    permissionStrings.forUser(USER);
     permissionStrings.forUser(USER);
     permissionStrings.forUser(USER);
     permissionStrings.forUser(USER);
+
+    assertThat(permissionStrings.getHandlerCount(), is(1L));
+    assertThat(permissionStrings.getHandlerStats().hitCount(), is(3L));
+    assertThat(permissionStrings.getHandlerStats().missCount(), is(1L));
+  }
+
+  @Test
+  public void shouldEvictHandlersAboveMaxSize() {
+    permissionStrings = new PermissionStrings(userReferenceDataService, 1,
+        EXPIRE_AFTER_ACCESS, 0, MAX_STALE, Runnable::run);
+
     permissionStrings.forUser(USER);
+    permissionStrings.forUser(randomUUID());
 
-    Map map = (Map) handlers.get(permissionStrings);
-    assertThat(map.size(), is(1));
+    assertThat(permissionStrings.getHandlerCount(), is(1L));
   }
 
   @Test
@@ -129,4 +146,99 @@ public class PermissionStringsTest {
 
     assertThat(one, is(equalTo(two)));
   }
+
+  @Test
+  public void shouldServeFreshDataWithoutCallingReferenceData() {
+    permissionStrings = new PermissionStrings(userReferenceDataService, MAX_SIZE,
+        EXPIRE_AFTER_ACCESS, MAX_STALE, MAX_STALE, Runnable::run);
+    PermissionStrings.Handler handler = permissionStrings.forUser(USER);
+    mockResponse(null);
+
+    Set<PermissionStringDto> one = handler.get();
+    Set<PermissionStringDto> two = handler.get();
+
+    assertThat(one, is(equalTo(two)));
+    verify(userReferenceDataService, times(1)).getPermissionStrings(any(), any());
+    assertThat(permissionStrings.getLoadCount(), is(1L));
+    assertThat(permissionStrings.getFreshHitCount(), is(1L));
+    assertThat(permissionStrings.getHitRate(), is(0.5));
+  }
+
+  @Test
+  public void shouldServeStaleDataWhileRevalidating() {
+    Executor executor = mock(Executor.class);
+    permissionStrings = new PermissionStrings(userReferenceDataService, MAX_SIZE,
+        EXPIRE_AFTER_ACCESS, 0, MAX_STALE, executor);
+    PermissionStrings.Handler handler = permissionStrings.forUser(USER);
+    mockResponse(null);
+
+    Set<PermissionStringDto> one = handler.get();
+    Set<PermissionStringDto> two = handler.get();
+    Set<PermissionStringDto> three = handler.get();
+
+    assertThat(one, is(equalTo(two)));
+    assertThat(one, is(equalTo(three)));
+    assertThat(permissionStrings.getStaleHitCount(), is(2L));
+    // only one revalidation is scheduled at a time
+    verify(executor, times(1)).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void shouldServeStaleDataIfRevalidationWasRejected() {
+    Executor executor = mock(Executor.class);
+    doThrow(new RejectedExecutionException()).when(executor).execute(any(Runnable.class));
+    permissionStrings = new PermissionStrings(userReferenceDataService, MAX_SIZE,
+        EXPIRE_AFTER_ACCESS, 0, MAX_STALE, executor);
+    PermissionStrings.Handler handler = permissionStrings.forUser(USER);
+    mockResponse(null);
+
+    Set<PermissionStringDto> one = handler.get();
+    Set<PermissionStringDto> two = handler.get();
+    handler.get();
+
+    assertThat(one, is(equalTo(two)));
+    verify(executor, times(2)).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void shouldKeepStaleDataIfRevalidationFailed() {
+    PermissionStrings.Handler handler = permissionStrings.forUser(USER);
+    String etag = mockResponse(null);
+    Set<PermissionStringDto> one = handler.get();
+
+    when(userReferenceDataService.getPermissionStrings(USER, etag))
+        .thenThrow(new IllegalStateException());
+    Set<PermissionStringDto> two = handler.get();
+
+    assertThat(one, is(equalTo(two)));
+    assertThat(permissionStrings.getRevalidationFailureCount(), is(1L));
+  }
+
+  @Test
+  public void shouldLoadDataSynchronouslyIfItIsTooStale() {
+    Executor executor = mock(Executor.class);
+    permissionStrings = new PermissionStrings(userReferenceDataService, MAX_SIZE,
+        EXPIRE_AFTER_ACCESS, 0, 0, executor);
+    PermissionStrings.Handler handler = permissionStrings.forUser(USER);
+    String etag = mockResponse(null);
+    Set<PermissionStringDto> one = handler.get();
+
+    mockResponse(etag);
+    Set<PermissionStringDto> two = handler.get();
+
+    assertThat(one, is(not(equalTo(two))));
+    assertThat(permissionStrings.getLoadCount(), is(2L));
+    verifyZeroInteractions(executor);
+  }
+
+  private String mockResponse(String etag) {
+    String newEtag = random(5);
+
+    when(userReferenceDataService.getPermissionStrings(USER, etag)).thenReturn(response);
+    when(response.isModified()).thenReturn(true);
+    when(response.getETag()).thenReturn(newEtag);
+    when(response.getBody()).thenReturn(singletonList(random(5)));
+
+    return newEtag;
+  }
 }
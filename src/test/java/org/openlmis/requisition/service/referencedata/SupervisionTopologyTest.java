@@ -0,0 +1,167 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.referencedata;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.Sets;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.requisition.dto.FacilityDto;
+import org.openlmis.requisition.dto.ObjectReferenceDto;
+import org.openlmis.requisition.dto.RequisitionGroupDto;
+import org.openlmis.requisition.dto.RightDto;
+import org.openlmis.requisition.dto.RoleDto;
+import org.openlmis.requisition.dto.SupervisoryNodeDto;
+import org.openlmis.requisition.service.ServiceResponse;
+import org.openlmis.requisition.testutils.DtoGenerator;
+import org.springframework.http.HttpHeaders;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SupervisionTopologyTest {
+  private static final long MAX_AGE = 60000;
+  private static final String GROUPS_ETAG = "\"groups\"";
+  private static final String ROLES_ETAG = "\"roles\"";
+
+  @Mock
+  private SupervisoryNodeReferenceDataService supervisoryNodeReferenceDataService;
+
+  @Mock
+  private RequisitionGroupReferenceDataService requisitionGroupReferenceDataService;
+
+  @Mock
+  private RoleReferenceDataService roleReferenceDataService;
+
+  private SupervisionTopology topology;
+
+  private SupervisoryNodeDto supervisoryNode = DtoGenerator.of(SupervisoryNodeDto.class);
+  private RequisitionGroupDto requisitionGroup = DtoGenerator.of(RequisitionGroupDto.class);
+  private FacilityDto facility = DtoGenerator.of(FacilityDto.class);
+  private RoleDto role = DtoGenerator.of(RoleDto.class);
+  private RightDto right = DtoGenerator.of(RightDto.class);
+
+  @Before
+  public void setUp() {
+    supervisoryNode.setRequisitionGroup(new ObjectReferenceDto(requisitionGroup.getId()));
+    requisitionGroup.setMemberFacilities(Sets.newHashSet(facility));
+    role.setRights(Sets.newHashSet(right));
+
+    when(supervisoryNodeReferenceDataService.findAllSupervisoryNodes())
+        .thenReturn(singletonList(supervisoryNode));
+    when(requisitionGroupReferenceDataService.tryFindAll(any()))
+        .thenReturn(new ServiceResponse<>(singletonList(requisitionGroup),
+            headers(GROUPS_ETAG), true));
+    when(roleReferenceDataService.tryFindAll(any()))
+        .thenReturn(new ServiceResponse<>(singletonList(role), headers(ROLES_ETAG), true));
+
+    topology = new SupervisionTopology(supervisoryNodeReferenceDataService,
+        requisitionGroupReferenceDataService, roleReferenceDataService, MAX_AGE);
+  }
+
+  @Test
+  public void shouldCheckIfSupervisoryNodeSupervisesFacility() {
+    assertThat(topology.supervisesFacility(supervisoryNode.getId(), facility.getId()), is(true));
+    assertThat(topology.supervisesFacility(supervisoryNode.getId(), UUID.randomUUID()), is(false));
+    assertThat(topology.supervisesFacility(UUID.randomUUID(), facility.getId()), is(false));
+  }
+
+  @Test
+  public void shouldReturnRolesOfRight() {
+    assertThat(topology.getRoleIds(right.getId()), contains(role.getId()));
+    assertThat(topology.getRoleIds(UUID.randomUUID()), is(empty()));
+  }
+
+  @Test
+  public void shouldLoadTopologyOnlyOnce() {
+    topology.getRoleIds(right.getId());
+    topology.supervisesFacility(supervisoryNode.getId(), facility.getId());
+
+    verify(supervisoryNodeReferenceDataService, times(1)).findAllSupervisoryNodes();
+    verify(requisitionGroupReferenceDataService, times(1)).tryFindAll(any());
+    verify(roleReferenceDataService, times(1)).tryFindAll(any());
+  }
+
+  @Test
+  public void shouldNotRefreshTopologyThatWasNotLoaded() {
+    topology.refresh();
+
+    verify(supervisoryNodeReferenceDataService, never()).findAllSupervisoryNodes();
+    assertThat(topology.getMillisSinceLastRefresh(), is(-1L));
+  }
+
+  @Test
+  public void shouldRefreshWithETagsAndKeepNotModifiedData() {
+    topology.getRoleIds(right.getId());
+
+    when(requisitionGroupReferenceDataService.tryFindAll(GROUPS_ETAG))
+        .thenReturn(new ServiceResponse<>(null, headers(GROUPS_ETAG), false));
+    when(roleReferenceDataService.tryFindAll(ROLES_ETAG))
+        .thenReturn(new ServiceResponse<>(null, headers(ROLES_ETAG), false));
+
+    topology.refresh();
+
+    verify(requisitionGroupReferenceDataService).tryFindAll(GROUPS_ETAG);
+    verify(roleReferenceDataService).tryFindAll(ROLES_ETAG);
+    verify(supervisoryNodeReferenceDataService, times(2)).findAllSupervisoryNodes();
+    assertThat(topology.supervisesFacility(supervisoryNode.getId(), facility.getId()), is(true));
+    assertThat(topology.getRoleIds(right.getId()), contains(role.getId()));
+  }
+
+  @Test
+  public void shouldKeepTopologyIfRefreshFailed() {
+    topology.getRoleIds(right.getId());
+
+    when(supervisoryNodeReferenceDataService.findAllSupervisoryNodes())
+        .thenThrow(new IllegalStateException());
+
+    topology.refresh();
+
+    assertThat(topology.supervisesFacility(supervisoryNode.getId(), facility.getId()), is(true));
+    assertThat(topology.getMillisSinceLastRefresh(), is(greaterThanOrEqualTo(0L)));
+  }
+
+  @Test
+  public void shouldLoadTopologyAgainIfOlderThanMaxAge() {
+    topology = new SupervisionTopology(supervisoryNodeReferenceDataService,
+        requisitionGroupReferenceDataService, roleReferenceDataService, 0);
+
+    topology.getRoleIds(right.getId());
+    topology.getRoleIds(right.getId());
+
+    verify(supervisoryNodeReferenceDataService, times(2)).findAllSupervisoryNodes();
+  }
+
+  private HttpHeaders headers(String etag) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag(etag);
+    return headers;
+  }
+
+}
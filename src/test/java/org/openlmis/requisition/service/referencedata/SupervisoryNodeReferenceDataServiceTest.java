@@ -96,6 +96,23 @@ public class SupervisoryNodeReferenceDataServiceTest
         .hasQueryParameter("facilityId", facility);
   }
 
+  @Test
+  public void shouldFindAllSupervisoryNodes() {
+    // when
+    SupervisoryNodeDto dto = mockPageResponseEntityAndGetDto();
+    List<SupervisoryNodeDto> result = service.findAllSupervisoryNodes();
+
+    // then
+    assertThat(result, hasSize(1));
+    assertTrue(result.contains(dto));
+
+    verifyPageRequest()
+        .isGetRequest()
+        .hasAuthHeader()
+        .hasEmptyBody()
+        .hasQueryParameter("size", Integer.MAX_VALUE);
+  }
+
   @Test
   public void shouldFindByIds() {
     // given
@@ -0,0 +1,287 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.report;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openlmis.requisition.domain.JasperTemplate;
+import org.openlmis.requisition.exception.ContentNotFoundMessageException;
+import org.openlmis.requisition.exception.JasperReportViewException;
+import org.openlmis.requisition.exception.ServiceUnavailableMessageException;
+import org.openlmis.requisition.exception.ValidationMessageException;
+import org.openlmis.requisition.service.JasperReportsViewService;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReportJobServiceTest {
+  private static final String PDF = "pdf";
+  private static final byte[] REPORT_DATA = new byte[]{1, 2, 3};
+  private static final long TIME_TO_LIVE = 60000;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Mock
+  private JasperReportsViewService jasperReportsViewService;
+
+  @Mock
+  private Clock clock;
+
+  private Instant now = Instant.now();
+  private List<Runnable> tasks = new ArrayList<>();
+  private Executor deferredExecutor = tasks::add;
+  private Path directory;
+
+  private JasperTemplate timelinessTemplate = createTemplate(
+      JasperReportsViewService.TIMELINESS_REPORT);
+  private JasperTemplate reportingRateTemplate = createTemplate(
+      JasperReportsViewService.REPORTING_RATE_REPORT);
+
+  @Before
+  public void setUp() throws Exception {
+    directory = temporaryFolder.getRoot().toPath();
+
+    when(clock.instant()).thenReturn(now);
+    when(clock.getZone()).thenReturn(ZoneId.systemDefault());
+
+    doAnswer(invocation -> {
+      invocation.getArgument(2, OutputStream.class).write(REPORT_DATA);
+      return null;
+    }).when(jasperReportsViewService)
+        .generateTemplateReport(any(JasperTemplate.class), anyMap(), any(OutputStream.class));
+  }
+
+  @After
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void shouldWriteGeneratedReportToFile() throws Exception {
+    ReportJobService service = createService(Runnable::run, 2, 1, 10);
+
+    ReportJob job = service.submit(timelinessTemplate, PDF, parameters("a"));
+
+    assertThat(job.getStatus(), is(ReportJobStatus.COMPLETED));
+    assertThat(job.getTemplateId(), is(timelinessTemplate.getId()));
+    assertThat(service.getJob(job.getId()), is(sameInstance(job)));
+    assertArrayEquals(REPORT_DATA, Files.readAllBytes(service.getResult(job.getId())));
+  }
+
+  @Test
+  public void shouldReturnUnfinishedJobForSameReport() {
+    ReportJobService service = createService(deferredExecutor, 2, 1, 10);
+
+    ReportJob first = service.submit(timelinessTemplate, PDF, parameters("a"));
+    ReportJob second = service.submit(timelinessTemplate, PDF, parameters("a"));
+
+    assertThat(second, is(sameInstance(first)));
+    assertThat(tasks, hasSize(1));
+    assertThat(service.getDeduplicatedCount(), is(1L));
+  }
+
+  @Test
+  public void shouldNotReturnUnfinishedJobOfOtherUser() {
+    ReportJobService service = createService(deferredExecutor, 2, 1, 10);
+
+    authenticate("first");
+    ReportJob first = service.submit(timelinessTemplate, PDF, parameters("a"));
+    authenticate("second");
+    ReportJob second = service.submit(timelinessTemplate, PDF, parameters("a"));
+
+    assertThat(second, is(not(sameInstance(first))));
+    assertThat(service.getDeduplicatedCount(), is(0L));
+  }
+
+  @Test
+  public void shouldGenerateReportAsUserWhoSubmittedJob() throws Exception {
+    ReportJobService service = createService(deferredExecutor, 2, 1, 10);
+    AtomicReference<Authentication> generatedAs = new AtomicReference<>();
+    doAnswer(invocation -> {
+      generatedAs.set(SecurityContextHolder.getContext().getAuthentication());
+      return null;
+    }).when(jasperReportsViewService)
+        .generateTemplateReport(any(JasperTemplate.class), anyMap(), any(OutputStream.class));
+
+    Authentication user = authenticate("user");
+    service.submit(timelinessTemplate, PDF, parameters("a"));
+    SecurityContextHolder.clearContext();
+    tasks.get(0).run();
+
+    assertThat(generatedAs.get(), is(sameInstance(user)));
+    assertThat(SecurityContextHolder.getContext().getAuthentication(), is(nullValue()));
+  }
+
+  @Test
+  public void shouldCreateNewJobForSameReportIfPreviousHasFinished() throws Exception {
+    ReportJobService service = createService(Runnable::run, 2, 1, 10);
+
+    ReportJob first = service.submit(timelinessTemplate, PDF, parameters("a"));
+    ReportJob second = service.submit(timelinessTemplate, PDF, parameters("a"));
+
+    assertThat(second, is(not(sameInstance(first))));
+    verify(jasperReportsViewService, times(2))
+        .generateTemplateReport(any(JasperTemplate.class), anyMap(), any(OutputStream.class));
+  }
+
+  @Test
+  public void shouldLimitNumberOfRunningJobsOfSameType() {
+    ReportJobService service = createService(deferredExecutor, 2, 1, 10);
+
+    final ReportJob first = service.submit(timelinessTemplate, PDF, parameters("a"));
+    final ReportJob second = service.submit(timelinessTemplate, PDF, parameters("b"));
+    service.submit(reportingRateTemplate, PDF, parameters("a"));
+
+    assertThat(tasks, hasSize(2));
+    assertThat(service.getRunningCount(), is(2));
+    assertThat(service.getQueuedCount(), is(1));
+
+    tasks.get(0).run();
+
+    assertThat(first.getStatus(), is(ReportJobStatus.COMPLETED));
+    assertThat(second.getStatus(), is(ReportJobStatus.QUEUED));
+    assertThat(tasks, hasSize(3));
+    assertThat(service.getQueuedCount(), is(0));
+  }
+
+  @Test(expected = ServiceUnavailableMessageException.class)
+  public void shouldRejectJobIfQueueIsFull() {
+    ReportJobService service = createService(deferredExecutor, 1, 1, 1);
+
+    service.submit(timelinessTemplate, PDF, parameters("a"));
+    service.submit(timelinessTemplate, PDF, parameters("b"));
+    service.submit(timelinessTemplate, PDF, parameters("c"));
+  }
+
+  @Test
+  public void shouldMarkJobAsFailedAndRemoveItsFile() throws Exception {
+    doThrow(new JasperReportViewException(new IllegalStateException(), "error"))
+        .when(jasperReportsViewService)
+        .generateTemplateReport(any(JasperTemplate.class), anyMap(), any(OutputStream.class));
+    ReportJobService service = createService(Runnable::run, 2, 1, 10);
+
+    ReportJob job = service.submit(timelinessTemplate, PDF, parameters("a"));
+
+    assertThat(job.getStatus(), is(ReportJobStatus.FAILED));
+    assertThat(service.getFailedCount(), is(1L));
+    assertFalse(Files.exists(directory.resolve(job.getId() + "." + PDF)));
+  }
+
+  @Test
+  public void shouldMarkJobRejectedByExecutorAsFailed() {
+    ReportJobService service = createService(task -> {
+      throw new RejectedExecutionException("full");
+    }, 2, 1, 10);
+
+    ReportJob job = service.submit(timelinessTemplate, PDF, parameters("a"));
+
+    assertThat(job.getStatus(), is(ReportJobStatus.FAILED));
+    assertThat(service.getFailedCount(), is(1L));
+    assertThat(service.getRunningCount(), is(0));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldNotReturnResultOfUnfinishedJob() {
+    ReportJobService service = createService(deferredExecutor, 2, 1, 10);
+
+    ReportJob job = service.submit(timelinessTemplate, PDF, parameters("a"));
+
+    service.getResult(job.getId());
+  }
+
+  @Test(expected = ContentNotFoundMessageException.class)
+  public void shouldThrowExceptionIfJobDoesNotExist() {
+    createService(Runnable::run, 2, 1, 10).getJob(UUID.randomUUID());
+  }
+
+  @Test
+  public void shouldRemoveExpiredJobsWithTheirResults() {
+    ReportJobService service = createService(Runnable::run, 2, 1, 10);
+    ReportJob job = service.submit(timelinessTemplate, PDF, parameters("a"));
+    final Path result = service.getResult(job.getId());
+
+    service.removeExpiredJobs();
+    assertThat(service.getJobCount(), is(1L));
+
+    when(clock.instant()).thenReturn(now.plusMillis(TIME_TO_LIVE + 1));
+    service.removeExpiredJobs();
+
+    assertThat(service.getJobCount(), is(0L));
+    assertFalse(Files.exists(result));
+  }
+
+  private ReportJobService createService(Executor executor, int maxRunning,
+      int maxRunningPerType, int queueCapacity) {
+    return new ReportJobService(jasperReportsViewService, clock, executor, maxRunning,
+        maxRunningPerType, queueCapacity, directory, TIME_TO_LIVE);
+  }
+
+  private Map<String, Object> parameters(String value) {
+    return ImmutableMap.of("param", value);
+  }
+
+  private static JasperTemplate createTemplate(String type) {
+    JasperTemplate template = new JasperTemplate();
+    template.setId(UUID.randomUUID());
+    template.setName(type);
+    template.setType(type);
+    return template;
+  }
+
+  private Authentication authenticate(String name) {
+    Authentication authentication = new TestingAuthenticationToken(name, null);
+    SecurityContextHolder.getContext().setAuthentication(authentication);
+    return authentication;
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.stockmanagement;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.openlmis.requisition.exception.ServerException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+public class StockEventExecutorTest {
+
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
+  private StockEventExecutor executor = new StockEventExecutor(4, 10, 5000);
+
+  @After
+  public void tearDown() {
+    executor.destroy();
+  }
+
+  @Test
+  public void shouldExecuteAllSubmissions() {
+    // given
+    AtomicInteger counter = new AtomicInteger();
+    List<Runnable> submissions = Lists.newArrayList(
+        counter::incrementAndGet, counter::incrementAndGet, counter::incrementAndGet);
+
+    // when
+    executor.execute(submissions);
+
+    // then
+    assertThat(counter.get(), is(3));
+    assertThat(executor.getSubmittedCount(), is(3L));
+    assertThat(executor.getFailedCount(), is(0L));
+  }
+
+  @Test
+  public void shouldExecuteSubmissionsConcurrently() {
+    // given
+    CountDownLatch latch = new CountDownLatch(2);
+    AtomicInteger counter = new AtomicInteger();
+    Runnable submission = () -> {
+      latch.countDown();
+      if (await(latch, 5000)) {
+        counter.incrementAndGet();
+      }
+    };
+
+    // when
+    executor.execute(Lists.newArrayList(submission, submission));
+
+    // then
+    assertThat(counter.get(), is(2));
+  }
+
+  @Test
+  public void shouldExecuteSubmissionsSequentiallyIfParallelismIsLowerThanTwo() {
+    // given
+    StockEventExecutor sequential = new StockEventExecutor();
+    Thread caller = Thread.currentThread();
+    AtomicInteger counter = new AtomicInteger();
+    Runnable submission = () -> {
+      if (caller == Thread.currentThread()) {
+        counter.incrementAndGet();
+      }
+    };
+
+    // when
+    sequential.execute(Lists.newArrayList(submission, submission));
+
+    // then
+    assertThat(counter.get(), is(2));
+  }
+
+  @Test
+  public void shouldRethrowExceptionThrownBySubmission() {
+    // given
+    HttpClientErrorException exception = new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+    List<Runnable> submissions = Lists.newArrayList(
+        () -> { }, () -> {
+          throw exception;
+        });
+
+    // when
+    expectedException.expect(is(exception));
+    executor.execute(submissions);
+  }
+
+  @Test
+  public void shouldThrowExceptionIfSubmissionTimedOut() {
+    // given
+    StockEventExecutor withTimeout = new StockEventExecutor(2, 10, 50);
+    CountDownLatch latch = new CountDownLatch(1);
+    List<Runnable> submissions = Lists.newArrayList(() -> { }, () -> await(latch, 5000));
+
+    // when
+    try {
+      expectedException.expect(ServerException.class);
+      withTimeout.execute(submissions);
+    } finally {
+      // then
+      assertThat(withTimeout.getTimedOutCount(), is(1L));
+      assertThat(withTimeout.getQueueSize(), lessThan(2));
+      withTimeout.destroy();
+    }
+  }
+
+  @Test
+  public void shouldThrowExceptionIfSingleSubmissionTimedOut() {
+    // given
+    StockEventExecutor withTimeout = new StockEventExecutor(2, 10, 50);
+    CountDownLatch latch = new CountDownLatch(1);
+
+    // when
+    try {
+      expectedException.expect(ServerException.class);
+      withTimeout.execute(Lists.newArrayList(() -> await(latch, 5000)));
+    } finally {
+      // then
+      assertThat(withTimeout.getTimedOutCount(), is(1L));
+      withTimeout.destroy();
+    }
+  }
+
+  @Test
+  public void shouldRejectSubmissionIfPoolAndQueueAreFull() {
+    // given
+    StockEventExecutor bounded = new StockEventExecutor(2, 1, 5000);
+    CountDownLatch latch = new CountDownLatch(1);
+    Runnable submission = () -> await(latch, 5000);
+
+    // when
+    try {
+      expectedException.expect(ServerException.class);
+      bounded.execute(Lists.newArrayList(submission, submission, submission, submission));
+    } finally {
+      // then
+      latch.countDown();
+      assertThat(bounded.getRejectedCount(), is(1L));
+      bounded.destroy();
+    }
+  }
+
+  private boolean await(CountDownLatch latch, long millis) {
+    try {
+      return latch.await(millis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.testutils;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import org.openlmis.requisition.domain.outbox.OutboxEvent;
+import org.openlmis.requisition.domain.outbox.OutboxEventType;
+
+public class OutboxEventDataBuilder {
+
+  private UUID id = UUID.randomUUID();
+  private OutboxEventType type = OutboxEventType.STOCK_EVENT;
+  private String payload = "{}";
+  private ZonedDateTime nextAttemptDate = ZonedDateTime.now();
+
+  /**
+   * Builds instance of {@link OutboxEvent}.
+   */
+  public OutboxEvent build() {
+    OutboxEvent event = OutboxEvent.newOutboxEvent(type, payload, nextAttemptDate);
+    event.setId(id);
+
+    return event;
+  }
+
+  /**
+   * Builds instance of {@link OutboxEvent} without id.
+   */
+  public OutboxEvent buildAsNew() {
+    return this.withoutId().build();
+  }
+
+  public OutboxEventDataBuilder withoutId() {
+    this.id = null;
+    return this;
+  }
+
+  public OutboxEventDataBuilder withType(OutboxEventType type) {
+    this.type = type;
+    return this;
+  }
+
+  public OutboxEventDataBuilder withPayload(String payload) {
+    this.payload = payload;
+    return this;
+  }
+
+  public OutboxEventDataBuilder withNextAttemptDate(ZonedDateTime nextAttemptDate) {
+    this.nextAttemptDate = nextAttemptDate;
+    return this;
+  }
+}
@@ -21,9 +21,13 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.UUID;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -36,9 +40,12 @@ import org.openlmis.requisition.exception.AuthenticationMessageException;
 import org.openlmis.requisition.service.referencedata.RightReferenceDataService;
 import org.openlmis.requisition.service.referencedata.UserReferenceDataService;
 import org.openlmis.requisition.testutils.DtoGenerator;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 @RunWith(MockitoJUnitRunner.class)
 public class AuthenticationHelperTest {
@@ -65,6 +72,21 @@ public class AuthenticationHelperTest {
     SecurityContextHolder.setContext(securityContext);
   }
 
+  @After
+  public void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  public void shouldReturnCurrentUserIdWithoutFetchingUser() {
+    // when
+    UUID currentUserId = authenticationHelper.getCurrentUserId();
+
+    // then
+    assertThat(currentUserId, is(userId));
+    verifyZeroInteractions(userReferenceDataService);
+  }
+
   @Test
   public void shouldReturnUser() {
     // given
@@ -109,4 +131,54 @@ public class AuthenticationHelperTest {
     // when
     authenticationHelper.getRight("rightName");
   }
+
+  @Test
+  public void shouldRetrieveCurrentUserOnlyOnceWithinRequest() {
+    // given
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+    UserDto userMock = DtoGenerator.of(UserDto.class);
+    when(userReferenceDataService.findOne(userId)).thenReturn(userMock);
+
+    // when
+    authenticationHelper.getCurrentUser();
+    UserDto user = authenticationHelper.getCurrentUser();
+
+    // then
+    assertThat(user, is(userMock));
+    verify(userReferenceDataService, times(1)).findOne(userId);
+    assertThat(authenticationHelper.getSavedCallsInRequest(), is(1));
+    assertThat(authenticationHelper.getSavedUserCalls(), is(1L));
+  }
+
+  @Test
+  public void shouldRetrieveCurrentUserEachTimeOutsideOfRequest() {
+    // given
+    when(userReferenceDataService.findOne(userId))
+        .thenReturn(DtoGenerator.of(UserDto.class));
+
+    // when
+    authenticationHelper.getCurrentUser();
+    authenticationHelper.getCurrentUser();
+
+    // then
+    verify(userReferenceDataService, times(2)).findOne(userId);
+    assertThat(authenticationHelper.getSavedCallsInRequest(), is(0));
+  }
+
+  @Test
+  public void shouldRetrieveRightOnlyOnce() {
+    // given
+    RightDto right = DtoGenerator.of(RightDto.class);
+    when(rightReferenceDataService.findRight("rightName")).thenReturn(right);
+
+    // when
+    authenticationHelper.getRight("rightName");
+    RightDto dto = authenticationHelper.getRight("rightName");
+
+    // then
+    assertThat(dto, is(right));
+    verify(rightReferenceDataService, times(1)).findRight("rightName");
+    assertThat(authenticationHelper.getSavedRightCalls(), is(1L));
+  }
 }
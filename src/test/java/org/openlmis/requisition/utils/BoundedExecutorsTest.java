@@ -0,0 +1,87 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.utils;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.junit.After;
+import org.junit.Test;
+
+public class BoundedExecutorsTest {
+
+  private CountDownLatch release = new CountDownLatch(1);
+  private ThreadPoolExecutor pool;
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void shouldCreatePoolWithBoundedQueue() {
+    pool = BoundedExecutors.newThreadPool(2, 5, "test-");
+
+    assertThat(pool.getCorePoolSize(), is(2));
+    assertThat(pool.getMaximumPoolSize(), is(2));
+    assertThat(pool.getQueue(), is(instanceOf(LinkedBlockingQueue.class)));
+    assertThat(pool.getQueue().remainingCapacity(), is(5));
+    assertTrue(pool.allowsCoreThreadTimeOut());
+  }
+
+  @Test
+  public void shouldHandTasksDirectlyToThreadsIfQueueCapacityIsZero() {
+    pool = BoundedExecutors.newThreadPool(1, 0, "test-");
+
+    assertThat(pool.getQueue(), is(instanceOf(SynchronousQueue.class)));
+  }
+
+  @Test(expected = RejectedExecutionException.class)
+  public void shouldRejectTasksWhenPoolIsFull() {
+    pool = BoundedExecutors.newThreadPool(1, 1, "test-");
+
+    for (int i = 0; i < 3; ++i) {
+      pool.execute(this::awaitRelease);
+    }
+  }
+
+  @Test
+  public void shouldPassRejectedTasksToHandler() {
+    pool = BoundedExecutors.newThreadPool(1, 0, "test-",
+        new ThreadPoolExecutor.DiscardPolicy());
+
+    pool.execute(this::awaitRelease);
+    pool.execute(this::awaitRelease);
+
+    assertThat(pool.getQueue().size(), is(0));
+  }
+
+  private void awaitRelease() {
+    try {
+      release.await();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.utils;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class LatencyStatsTest {
+
+  private LatencyStats stats = new LatencyStats();
+
+  @Test
+  public void shouldReturnZeroIfNothingWasRecorded() {
+    assertThat(stats.getCount(), is(0L));
+    assertThat(stats.getAverage(), is(0.0));
+    assertThat(stats.getMax(), is(0L));
+  }
+
+  @Test
+  public void shouldKeepCountAverageAndMax() {
+    stats.record(10);
+    stats.record(30);
+    stats.record(5);
+
+    assertThat(stats.getCount(), is(3L));
+    assertThat(stats.getAverage(), is(15.0));
+    assertThat(stats.getMax(), is(30L));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.utils;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class RequestMemoTest {
+
+  private static final String MEMO = "memo";
+
+  private AtomicInteger calls = new AtomicInteger();
+  private Function<String, Integer> function = key -> calls.incrementAndGet();
+
+  @After
+  public void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  public void shouldComputeValueOnlyOnceWithinRequest() {
+    startRequest();
+
+    assertThat(RequestMemo.get(MEMO, "key", function), is(1));
+    assertThat(RequestMemo.get(MEMO, "key", function), is(1));
+    assertThat(calls.get(), is(1));
+  }
+
+  @Test
+  public void shouldComputeValuesOfDifferentKeysAndMemos() {
+    startRequest();
+
+    assertThat(RequestMemo.get(MEMO, "key", function), is(1));
+    assertThat(RequestMemo.get(MEMO, "other", function), is(2));
+    assertThat(RequestMemo.get("otherMemo", "key", function), is(3));
+  }
+
+  @Test
+  public void shouldNotKeepValuesBetweenRequests() {
+    startRequest();
+    RequestMemo.get(MEMO, "key", function);
+
+    startRequest();
+
+    assertThat(RequestMemo.get(MEMO, "key", function), is(2));
+  }
+
+  @Test
+  public void shouldComputeValueEachTimeOutsideOfRequest() {
+    RequestMemo.get(MEMO, "key", function);
+    RequestMemo.get(MEMO, "key", function);
+
+    assertThat(calls.get(), is(2));
+  }
+
+  @Test
+  public void shouldKeepPutValueWithinRequest() {
+    startRequest();
+    RequestMemo.put(MEMO, "key", 5);
+
+    assertThat(RequestMemo.getIfPresent(MEMO, "key"), is(5));
+    assertThat(RequestMemo.getIfPresent(MEMO, "other"), is(nullValue()));
+  }
+
+  @Test
+  public void shouldNotKeepPutValueOutsideOfRequest() {
+    RequestMemo.put(MEMO, "key", 5);
+
+    assertThat(RequestMemo.getIfPresent(MEMO, "key"), is(nullValue()));
+  }
+
+  private void startRequest() {
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+  }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.UUID;
+import javax.servlet.http.HttpServletRequest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.requisition.domain.requisition.RequisitionVersion;
+import org.openlmis.requisition.errorhandling.ValidationResult;
+import org.openlmis.requisition.repository.RequisitionRepository;
+import org.openlmis.requisition.service.PermissionService;
+import org.springframework.http.HttpHeaders;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RequisitionNotModifiedValidatorTest {
+
+  @Mock
+  private RequisitionRepository requisitionRepository;
+
+  @Mock
+  private PermissionService permissionService;
+
+  @Mock
+  private HttpServletRequest request;
+
+  @InjectMocks
+  private RequisitionNotModifiedValidator validator;
+
+  private UUID requisitionId = UUID.randomUUID();
+  private RequisitionVersion version = new RequisitionVersion(requisitionId, 3L,
+      UUID.randomUUID(), UUID.randomUUID());
+
+  @Before
+  public void setUp() {
+    when(requisitionRepository.findVersionById(requisitionId)).thenReturn(Optional.of(version));
+    when(permissionService.canViewRequisitionByRights(version))
+        .thenReturn(ValidationResult.success());
+  }
+
+  @Test
+  public void shouldReturnVersionIfWeakEtagMatches() {
+    when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("W/3");
+
+    assertEquals(Optional.of(version), validator.findNotModifiedVersion(request, requisitionId));
+    assertEquals(1, validator.getNotModifiedCount());
+    assertEquals(1.0, validator.getNotModifiedRatio(), 0.0);
+  }
+
+  @Test
+  public void shouldReturnVersionIfOneOfQuotedEtagsMatches() {
+    when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("W/\"2\", \"3\"");
+
+    assertTrue(validator.findNotModifiedVersion(request, requisitionId).isPresent());
+  }
+
+  @Test
+  public void shouldReturnEmptyIfEtagDoesNotMatch() {
+    when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("W/2");
+
+    assertFalse(validator.findNotModifiedVersion(request, requisitionId).isPresent());
+    assertEquals(1, validator.getConditionalRequestCount());
+    assertEquals(0.0, validator.getNotModifiedRatio(), 0.0);
+  }
+
+  @Test
+  public void shouldIgnoreInvalidEtags() {
+    when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("abc");
+
+    assertFalse(validator.findNotModifiedVersion(request, requisitionId).isPresent());
+  }
+
+  @Test
+  public void shouldReturnEmptyIfRequisitionDoesNotExist() {
+    when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("*");
+    when(requisitionRepository.findVersionById(any(UUID.class))).thenReturn(Optional.empty());
+
+    assertFalse(validator.findNotModifiedVersion(request, UUID.randomUUID()).isPresent());
+  }
+
+  @Test
+  public void shouldReturnEmptyIfUserHasNoRightAssignment() {
+    when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("W/3");
+    when(permissionService.canViewRequisitionByRights(version))
+        .thenReturn(ValidationResult.noPermission("no.permission"));
+
+    assertFalse(validator.findNotModifiedVersion(request, requisitionId).isPresent());
+  }
+
+  @Test
+  public void shouldNotCheckVersionWithoutHeader() {
+    assertFalse(validator.findNotModifiedVersion(request, requisitionId).isPresent());
+    assertEquals(0, validator.getConditionalRequestCount());
+    verifyZeroInteractions(requisitionRepository);
+  }
+}
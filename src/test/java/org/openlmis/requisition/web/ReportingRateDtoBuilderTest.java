@@ -19,6 +19,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -33,6 +34,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
@@ -42,14 +44,14 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
-import org.openlmis.requisition.domain.requisition.Requisition;
-import org.openlmis.requisition.domain.requisition.RequisitionStatus;
-import org.openlmis.requisition.domain.requisition.StatusChange;
+import org.openlmis.requisition.domain.requisition.RequisitionApprovalDate;
 import org.openlmis.requisition.dto.BasicProcessingPeriodDto;
 import org.openlmis.requisition.dto.GeographicZoneDto;
 import org.openlmis.requisition.dto.MinimalFacilityDto;
 import org.openlmis.requisition.dto.ProcessingPeriodDto;
 import org.openlmis.requisition.dto.ProcessingScheduleDto;
+import org.openlmis.requisition.dto.ProgramDto;
+import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.GeographicZoneReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
@@ -71,6 +73,9 @@ public class ReportingRateDtoBuilderTest {
   @Mock
   private GeographicZoneReferenceDataService geographicZoneReferenceDataService;
 
+  @Mock
+  private RequisitionRepository requisitionRepository;
+
   @Test
   public void shouldGetLatestPeriods() {
     // given
@@ -190,19 +195,16 @@ public class ReportingRateDtoBuilderTest {
     LocalDateTime dueDate = LocalDate.of(1994, 8, 10).atStartOfDay();
     ZoneId zoneId = ZoneId.systemDefault();
 
-    List<Requisition> requisitions = new ArrayList<>();
+    List<RequisitionApprovalDate> requisitions = new ArrayList<>();
 
     // on-time requisition
-    requisitions.add(mockRequisitionWithStatusChanges(
-        RequisitionStatus.APPROVED, ZonedDateTime.of(dueDate, zoneId)));
+    requisitions.add(mockApprovalDate(ZonedDateTime.of(dueDate, zoneId)));
 
     // late requisition
-    requisitions.add(mockRequisitionWithStatusChanges(
-        RequisitionStatus.APPROVED, ZonedDateTime.of(dueDate.plusDays(5), zoneId)));
+    requisitions.add(mockApprovalDate(ZonedDateTime.of(dueDate.plusDays(5), zoneId)));
 
     // missed requisition
-    requisitions.add(mockRequisitionWithStatusChanges(
-        RequisitionStatus.SUBMITTED, ZonedDateTime.of(dueDate.minusDays(5), zoneId)));
+    requisitions.add(mockApprovalDate(null));
 
     // when
     ReportingRateReportDtoBuilder.CompletionCounter counter = builder.new CompletionCounter();
@@ -217,7 +219,7 @@ public class ReportingRateDtoBuilderTest {
   @Test
   public void shouldUpdateCompletionsWithMissedIfNoRequisitionsProvided() {
     // given
-    List<Requisition> requisitions = new ArrayList<>();
+    List<RequisitionApprovalDate> requisitions = new ArrayList<>();
 
     // when
     ReportingRateReportDtoBuilder.CompletionCounter counter = builder.new CompletionCounter();
@@ -229,6 +231,52 @@ public class ReportingRateDtoBuilderTest {
     assertEquals(1, counter.getMissed());
   }
 
+  @Test
+  public void shouldGroupApprovalDatesByPeriodAndFacility() {
+    // given
+    ProgramDto program = new ProgramDto();
+    program.setId(UUID.randomUUID());
+    List<ProcessingPeriodDto> periods = generateProcessingPeriods(2, null);
+    UUID facilityId = UUID.randomUUID();
+
+    RequisitionApprovalDate first = new RequisitionApprovalDate(UUID.randomUUID(), facilityId,
+        periods.get(0).getId(), ZonedDateTime.now());
+    RequisitionApprovalDate second = new RequisitionApprovalDate(UUID.randomUUID(), facilityId,
+        periods.get(1).getId(), null);
+
+    when(requisitionRepository.searchApprovalDates(eq(program.getId()),
+        eq(periods.stream().map(ProcessingPeriodDto::getId).collect(Collectors.toSet())),
+        eq(false)))
+        .thenReturn(Arrays.asList(first, second));
+
+    // when
+    Map<UUID, Map<UUID, List<RequisitionApprovalDate>>> result =
+        builder.getApprovalDates(program, periods);
+
+    // then
+    assertEquals(2, result.size());
+    assertEquals(Collections.singletonList(first),
+        result.get(periods.get(0).getId()).get(facilityId));
+    assertEquals(Collections.singletonList(second),
+        result.get(periods.get(1).getId()).get(facilityId));
+  }
+
+  @Test
+  public void shouldGetAvailableFacilitiesByZone() {
+    // given
+    GeographicZoneDto zone1 = mockGeographicZoneWithFacility(true);
+    GeographicZoneDto zone2 = mockGeographicZoneWithFacility(false);
+
+    // when
+    Map<GeographicZoneDto, Collection<MinimalFacilityDto>> result =
+        builder.getAvailableFacilitiesByZone(Arrays.asList(zone1, zone2));
+
+    // then
+    assertEquals(2, result.size());
+    assertEquals(1, result.get(zone1).size());
+    assertEquals(0, result.get(zone2).size());
+  }
+
   private GeographicZoneDto mockGeographicZoneWithFacility(boolean facilityActive) {
     GeographicZoneDto zone = mock(GeographicZoneDto.class);
     UUID zoneId = UUID.randomUUID();
@@ -247,17 +295,9 @@ public class ReportingRateDtoBuilderTest {
     return zone;
   }
 
-  private Requisition mockRequisitionWithStatusChanges(
-      RequisitionStatus status, ZonedDateTime date) {
-    StatusChange entry = mock(StatusChange.class);
-    when(entry.getStatus()).thenReturn(status);
-    when(entry.getCreatedDate()).thenReturn(date);
-    List<StatusChange> changes = Collections.singletonList(entry);
-
-    Requisition requisition = mock(Requisition.class);
-    when(requisition.getStatusChanges()).thenReturn(changes);
-
-    return requisition;
+  private RequisitionApprovalDate mockApprovalDate(ZonedDateTime approvedDate) {
+    return new RequisitionApprovalDate(
+        UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), approvedDate);
   }
 
   private List<ProcessingPeriodDto> generateProcessingPeriods(
@@ -15,12 +15,18 @@
 
 package org.openlmis.requisition.web;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Optional;
 import java.util.UUID;
 import net.sf.jasperreports.engine.JRException;
@@ -37,6 +43,7 @@ import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.service.JasperReportsViewService;
 import org.openlmis.requisition.service.JasperTemplateService;
 import org.openlmis.requisition.service.PermissionService;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 @SuppressWarnings({"PMD.UnusedPrivateField"})
 public class ReportsControllerTest {
@@ -72,26 +79,59 @@ public class ReportsControllerTest {
     when(permissionService.canViewRequisition(any(UUID.class)))
         .thenReturn(ValidationResult.notFound("requisition.not.found"));
     // when
-    reportsController.print(UUID.randomUUID());
+    reportsController.print(UUID.randomUUID(), new MockHttpServletResponse());
   }
 
   @Test
   public void shouldPrintRequisition()
       throws JasperReportViewException, IOException, JRException {
     // given
-    byte[] reportData = new byte[1];
+    byte[] reportData = new byte[]{1, 2, 3};
 
     when(requisitionRepository.findById(any(UUID.class)))
         .thenReturn(Optional.of(mock(Requisition.class)));
-    when(jasperReportsViewService.generateRequisitionReport(
-        any(Requisition.class))).thenReturn(reportData);
+    doAnswer(invocation -> {
+      invocation.getArgument(1, OutputStream.class).write(reportData);
+      return null;
+    }).when(jasperReportsViewService)
+        .generateRequisitionReport(any(Requisition.class), any(OutputStream.class));
     when(permissionService.canViewRequisition(any(UUID.class)))
         .thenReturn(ValidationResult.success());
 
     // when
-    byte[] actualReportData = reportsController.print(UUID.randomUUID()).getBody();
+    UUID requisitionId = UUID.randomUUID();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    reportsController.print(requisitionId, response);
 
     // then
-    assertEquals(reportData, actualReportData);
+    assertArrayEquals(reportData, response.getContentAsByteArray());
+    assertEquals("application/pdf;charset=UTF-8", response.getContentType());
+    assertEquals("inline; filename=requisition" + requisitionId + ".pdf",
+        response.getHeader("Content-Disposition"));
+  }
+
+  @Test
+  public void shouldNotSetReportHeadersIfReportCouldNotBeGenerated()
+      throws JasperReportViewException {
+    // given
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    when(requisitionRepository.findById(any(UUID.class)))
+        .thenReturn(Optional.of(mock(Requisition.class)));
+    doThrow(new JasperReportViewException(new JRException("test"), "test"))
+        .when(jasperReportsViewService)
+        .generateRequisitionReport(any(Requisition.class), any(OutputStream.class));
+    when(permissionService.canViewRequisition(any(UUID.class)))
+        .thenReturn(ValidationResult.success());
+
+    // when
+    try {
+      reportsController.print(UUID.randomUUID(), response);
+      fail("Expected JasperReportViewException");
+    } catch (JasperReportViewException ex) {
+      // then
+      assertNull(response.getContentType());
+      assertNull(response.getHeader("Content-Disposition"));
+    }
   }
 }
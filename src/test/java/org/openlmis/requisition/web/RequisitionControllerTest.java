@@ -114,6 +114,7 @@ import org.openlmis.requisition.service.RequisitionService;
 import org.openlmis.requisition.service.RequisitionStatusNotifier;
 import org.openlmis.requisition.service.RequisitionStatusProcessor;
 import org.openlmis.requisition.service.RequisitionTemplateService;
+import org.openlmis.requisition.service.outbox.OutboxService;
 import org.openlmis.requisition.service.referencedata.ApproveProductsAggregator;
 import org.openlmis.requisition.service.referencedata.ApprovedProductReferenceDataService;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
@@ -124,7 +125,6 @@ import org.openlmis.requisition.service.referencedata.ProgramReferenceDataServic
 import org.openlmis.requisition.service.referencedata.SupervisoryNodeReferenceDataService;
 import org.openlmis.requisition.service.referencedata.SupplyLineReferenceDataService;
 import org.openlmis.requisition.service.stockmanagement.StockCardRangeSummaryStockManagementService;
-import org.openlmis.requisition.service.stockmanagement.StockEventStockManagementService;
 import org.openlmis.requisition.service.stockmanagement.ValidReasonStockmanagementService;
 import org.openlmis.requisition.settings.service.ConfigurationSettingService;
 import org.openlmis.requisition.testutils.DtoGenerator;
@@ -221,7 +221,7 @@ public class RequisitionControllerTest {
   private StockEventBuilder stockEventBuilderBuilder;
 
   @Mock
-  private StockEventStockManagementService stockEventService;
+  private OutboxService outboxService;
 
   @Mock
   private PeriodReferenceDataService periodReferenceDataService;
@@ -845,7 +845,7 @@ public class RequisitionControllerTest {
     verify(requisitionService, times(1)).doApprove(eq(parentNodeId), any(),
         any(), eq(authorizedRequsition), eq(emptyList()));
 
-    verifyZeroInteractions(stockEventBuilderBuilder, stockEventService);
+    verifyZeroInteractions(stockEventBuilderBuilder, outboxService);
     verify(authorizedRequsition)
         .validateCanChangeStatus(dateHelper.getCurrentDateWithSystemZone(),
             true, Maps.newHashMap(), Maps.newHashMap());
@@ -887,7 +887,7 @@ public class RequisitionControllerTest {
     verify(requisitionService).doApprove(eq(partnerNode.getParentNodeId()), any(),
         any(), eq(partnerRequisition), eq(emptyList()));
 
-    verifyZeroInteractions(stockEventBuilderBuilder, stockEventService);
+    verifyZeroInteractions(stockEventBuilderBuilder, outboxService);
     verify(authorizedRequsition)
         .validateCanChangeStatus(dateHelper.getCurrentDateWithSystemZone(),
             true, Maps.newHashMap(), Maps.newHashMap());
@@ -917,7 +917,7 @@ public class RequisitionControllerTest {
     verify(requisitionService, times(1)).doApprove(eq(parentNodeId), any(),
         any(), eq(authorizedRequsition), eq(null));
 
-    verifyZeroInteractions(stockEventBuilderBuilder, stockEventService);
+    verifyZeroInteractions(stockEventBuilderBuilder, outboxService);
     verify(authorizedRequsition)
         .validateCanChangeStatus(dateHelper.getCurrentDateWithSystemZone(),
             true, Maps.newHashMap(), Maps.newHashMap());
@@ -963,7 +963,7 @@ public class RequisitionControllerTest {
 
     verify(stockEventBuilderBuilder).fromRequisition(authorizedRequsition,
         currentUser.getId(), Maps.newHashMap());
-    verify(stockEventService).submit(stockEventDto);
+    verify(outboxService).publishStockEvents(singletonList(stockEventDto));
     verify(requisitionService, times(1)).doApprove(eq(null), any(),
         any(), eq(authorizedRequsition), eq(singletonList(supplyLineDto)));
     verify(authorizedRequsition)
@@ -982,7 +982,7 @@ public class RequisitionControllerTest {
         any(Requisition.class),
         any(UUID.class));
 
-    verifyZeroInteractions(stockEventBuilderBuilder, stockEventService);
+    verifyZeroInteractions(stockEventBuilderBuilder, outboxService);
     verify(requisitionService, times(1)).doApprove(eq(null), any(),
         any(), eq(authorizedRequsition), eq(singletonList(supplyLineDto)));
     verify(authorizedRequsition)
@@ -1001,7 +1001,7 @@ public class RequisitionControllerTest {
         any(Requisition.class),
         any(UUID.class));
 
-    verifyZeroInteractions(stockEventBuilderBuilder, stockEventService);
+    verifyZeroInteractions(stockEventBuilderBuilder, outboxService);
     verify(requisitionService, times(1)).doApprove(eq(null), any(),
         any(), eq(authorizedRequsition), eq(singletonList(supplyLineDto)));
     verify(authorizedRequsition)